@@ -0,0 +1,160 @@
+/**
+ * BSD 2-Clause License
+ *
+ * Copyright (c) 2016-2017, Jochen Seeber
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package me.seeber.gradle.wsimport;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Objects;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+import org.gradle.api.GradleException;
+
+import com.google.common.collect.ImmutableMap;
+
+/**
+ * Map the XML web service API packages used by generated code between <code>javax</code> and <code>jakarta</code>
+ *
+ * This allows to use the faster Jakarta based tool versions for code that still runs on the <code>javax</code> APIs,
+ * and vice versa.
+ */
+public class ApiPackageMapper implements GeneratedSources.Processor {
+
+    /**
+     * Name of the <code>javax</code> API
+     */
+    public static final String JAVAX = "javax";
+
+    /**
+     * Name of the <code>jakarta</code> API
+     */
+    public static final String JAKARTA = "jakarta";
+
+    /**
+     * API packages, keyed by the <code>javax</code> name, with the <code>jakarta</code> name as value
+     */
+    protected static final Map<String, String> PACKAGES = Objects.requireNonNull(ImmutableMap.<String, String> builder()
+            .put("javax.xml.ws", "jakarta.xml.ws").put("javax.xml.bind", "jakarta.xml.bind")
+            .put("javax.jws", "jakarta.jws").put("javax.xml.soap", "jakarta.xml.soap")
+            .put("javax.annotation", "jakarta.annotation").put("javax.activation", "jakarta.activation").build());
+
+    /**
+     * Pattern matching the packages to replace
+     */
+    private final Pattern pattern;
+
+    /**
+     * Replacements, keyed by package to replace
+     */
+    private final Map<String, String> replacements;
+
+    /**
+     * Number of files changed by this mapper
+     */
+    private int count;
+
+    /**
+     * Create a new mapper
+     *
+     * @param api API the generated code should use, either {@value #JAVAX} or {@value #JAKARTA}
+     */
+    public ApiPackageMapper(String api) {
+        if (JAVAX.equals(api)) {
+            this.replacements = Objects.requireNonNull(PACKAGES.entrySet().stream()
+                    .collect(Collectors.toMap(e -> e.getValue(), e -> e.getKey())));
+        }
+        else if (JAKARTA.equals(api)) {
+            this.replacements = PACKAGES;
+        }
+        else {
+            throw new GradleException(String.format("Unknown API '%s', must be '%s' or '%s'", api, JAVAX, JAKARTA));
+        }
+
+        this.pattern = Objects.requireNonNull(Pattern.compile("\\b(" + this.replacements.keySet().stream()
+                .map(p -> Pattern.quote(p)).collect(Collectors.joining("|")) + ")\\b"));
+    }
+
+    /**
+     * Map the API packages in the Java files of a directory
+     *
+     * Files are replaced instead of written in place, since they may be hard linked.
+     *
+     * @param directory Directory containing the Java files
+     * @param modifiedSince Time in milliseconds since the epoch, see {@link GeneratedSources#process}
+     * @return Number of changed files
+     */
+    public int map(Path directory, long modifiedSince) {
+        GeneratedSources.process(directory, modifiedSince, Collections.singletonList(this));
+        return this.count;
+    }
+
+    /**
+     * Get the number of files changed by this mapper
+     *
+     * @return Number of changed files
+     */
+    public int getCount() {
+        return this.count;
+    }
+
+    /**
+     * Map the API packages in a Java file
+     *
+     * @see me.seeber.gradle.wsimport.GeneratedSources.Processor#process(java.nio.file.Path, java.lang.String)
+     */
+    @Override
+    public String process(Path file, String source) throws IOException {
+        Matcher matcher = this.pattern.matcher(source);
+
+        if (!matcher.find()) {
+            return source;
+        }
+
+        StringBuffer mapped = new StringBuffer(source.length());
+
+        do {
+            matcher.appendReplacement(mapped, Matcher.quoteReplacement(this.replacements.get(matcher.group(1))));
+        }
+        while (matcher.find());
+
+        matcher.appendTail(mapped);
+
+        Path temporaryFile = file.resolveSibling(file.getFileName() + ".tmp");
+        Files.write(temporaryFile, mapped.toString().getBytes(StandardCharsets.UTF_8));
+        Files.move(temporaryFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        ++this.count;
+        return mapped.toString();
+    }
+
+}
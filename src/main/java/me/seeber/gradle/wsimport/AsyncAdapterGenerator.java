@@ -0,0 +1,364 @@
+/**
+ * BSD 2-Clause License
+ *
+ * Copyright (c) 2016-2017, Jochen Seeber
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package me.seeber.gradle.wsimport;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.eclipse.jdt.annotation.Nullable;
+
+/**
+ * Generate adapters returning completable futures for the asynchronous methods of generated port interfaces
+ *
+ * For a port interface <code>WeatherSoap</code> with asynchronous methods, the class <code>WeatherSoapFutures</code>
+ * is generated into the same package. Its methods call the callback variant of the asynchronous methods and complete
+ * the returned future from the callback, so no thread is blocked while a call is outstanding. Cancelling the returned
+ * future cancels the call.
+ */
+public class AsyncAdapterGenerator implements GeneratedSources.Processor {
+
+    /**
+     * Suffix of the generated adapter classes
+     */
+    public static final String ADAPTER_SUFFIX = "Futures";
+
+    /**
+     * Pattern matching the package declaration
+     */
+    protected static final Pattern PACKAGE_PATTERN = Objects
+            .requireNonNull(Pattern.compile("^package\\s+([\\w.]+)\\s*;", Pattern.MULTILINE));
+
+    /**
+     * Pattern matching import declarations
+     */
+    protected static final Pattern IMPORT_PATTERN = Objects
+            .requireNonNull(Pattern.compile("^import\\s+([\\w.]+(?:\\.\\*)?)\\s*;", Pattern.MULTILINE));
+
+    /**
+     * Pattern matching the declaration of the port interface
+     */
+    protected static final Pattern INTERFACE_PATTERN = Objects
+            .requireNonNull(Pattern.compile("@WebService\\b[\\s\\S]*?\\bpublic\\s+interface\\s+(\\w+)"));
+
+    /**
+     * Pattern matching the start of an asynchronous method taking a callback
+     */
+    protected static final Pattern ASYNC_METHOD_PATTERN = Objects
+            .requireNonNull(Pattern.compile("\\bpublic\\s+Future<\\?>\\s+(\\w+)Async\\s*\\("));
+
+    /**
+     * Pattern matching the callback parameter type
+     */
+    protected static final Pattern HANDLER_PATTERN = Objects
+            .requireNonNull(Pattern.compile("^AsyncHandler<(.+)>\\s+\\w+$"));
+
+    /**
+     * Number of adapters generated by this generator
+     */
+    private int count;
+
+    /**
+     * Generate the adapters for the port interfaces in a directory
+     *
+     * @param directory Directory containing the generated Java files
+     * @param modifiedSince Time in milliseconds since the epoch, see {@link GeneratedSources#process}
+     * @return Number of generated adapters
+     */
+    public int generate(Path directory, long modifiedSince) {
+        GeneratedSources.process(directory, modifiedSince, Collections.singletonList(this));
+        return this.count;
+    }
+
+    /**
+     * Get the number of adapters generated by this generator
+     *
+     * @return Number of generated adapters
+     */
+    public int getCount() {
+        return this.count;
+    }
+
+    /**
+     * @see me.seeber.gradle.wsimport.GeneratedSources.Processor#process(java.nio.file.Path, java.lang.String)
+     */
+    @Override
+    public String process(Path file, String source) throws IOException {
+        if (generate(file, source)) {
+            ++this.count;
+        }
+
+        return source;
+    }
+
+    /**
+     * Generate the adapter for a port interface
+     *
+     * @param file Java file
+     * @param source Content of the file
+     * @return <code>true</code> if the file contains a port interface with asynchronous methods
+     * @throws IOException if the adapter could not be written
+     */
+    protected boolean generate(Path file, String source) throws IOException {
+        Matcher interfaceMatcher = INTERFACE_PATTERN.matcher(source);
+
+        if (!interfaceMatcher.find()) {
+            return false;
+        }
+
+        String interfaceName = Objects.requireNonNull(interfaceMatcher.group(1));
+        List<String> methods = new ArrayList<>();
+        Matcher methodMatcher = ASYNC_METHOD_PATTERN.matcher(source);
+
+        while (methodMatcher.find()) {
+            String method = createMethod(Objects.requireNonNull(methodMatcher.group(1)),
+                    readParameters(source, methodMatcher.end()));
+
+            if (method != null) {
+                methods.add(method);
+            }
+        }
+
+        if (methods.isEmpty()) {
+            return false;
+        }
+
+        Set<String> imports = new TreeSet<>();
+        Matcher importMatcher = IMPORT_PATTERN.matcher(source);
+
+        while (importMatcher.find()) {
+            imports.add(importMatcher.group(1));
+        }
+
+        imports.add("java.util.concurrent.CompletableFuture");
+        imports.add("java.util.concurrent.ExecutionException");
+        imports.add("java.util.concurrent.Future");
+
+        Matcher packageMatcher = PACKAGE_PATTERN.matcher(source);
+        StringBuilder adapter = new StringBuilder();
+        String adapterName = interfaceName + ADAPTER_SUFFIX;
+
+        if (packageMatcher.find()) {
+            adapter.append("package ").append(packageMatcher.group(1)).append(";\n\n");
+        }
+
+        imports.forEach(i -> adapter.append("import ").append(i).append(";\n"));
+        adapter.append("\n");
+        adapter.append("/**\n");
+        adapter.append(" * Completable futures for the asynchronous methods of {@link ").append(interfaceName)
+                .append("}\n");
+        adapter.append(" *\n");
+        adapter.append(" * This class was generated by the wsimport plugin.\n");
+        adapter.append(" */\n");
+        adapter.append("public class ").append(adapterName).append(" {\n\n");
+        adapter.append("    private final ").append(interfaceName).append(" port;\n\n");
+        adapter.append("    public ").append(adapterName).append("(").append(interfaceName).append(" port) {\n");
+        adapter.append("        this.port = port;\n");
+        adapter.append("    }\n\n");
+        methods.forEach(adapter::append);
+        adapter.append("    private static <T> void complete(CompletableFuture<T> result, ")
+                .append("Future<? extends T> response) {\n");
+        adapter.append("        try {\n");
+        adapter.append("            result.complete(response.get());\n");
+        adapter.append("        }\n");
+        adapter.append("        catch (ExecutionException e) {\n");
+        adapter.append("            result.completeExceptionally(e.getCause() != null ? e.getCause() : e);\n");
+        adapter.append("        }\n");
+        adapter.append("        catch (InterruptedException e) {\n");
+        adapter.append("            Thread.currentThread().interrupt();\n");
+        adapter.append("            result.completeExceptionally(e);\n");
+        adapter.append("        }\n");
+        adapter.append("        catch (RuntimeException e) {\n");
+        adapter.append("            result.completeExceptionally(e);\n");
+        adapter.append("        }\n");
+        adapter.append("    }\n\n");
+        adapter.append("}\n");
+
+        Files.write(file.resolveSibling(adapterName + ".java"), adapter.toString().getBytes(StandardCharsets.UTF_8));
+        return true;
+    }
+
+    /**
+     * Create the adapter method for an asynchronous method
+     *
+     * The local variables of the method start with '$', which wsimport does not use in parameter names, so they cannot
+     * collide with the parameters.
+     *
+     * @param name Name of the synchronous method
+     * @param parameters Parameters of the asynchronous method without annotations, the callback last
+     * @return Source of the adapter method, <code>null</code> if the method does not take a callback
+     */
+    protected @Nullable String createMethod(String name, List<String> parameters) {
+        if (parameters.isEmpty()) {
+            return null;
+        }
+
+        Matcher handlerMatcher = HANDLER_PATTERN.matcher(parameters.get(parameters.size() - 1));
+
+        if (!handlerMatcher.matches()) {
+            return null;
+        }
+
+        String resultType = handlerMatcher.group(1);
+        List<String> arguments = new ArrayList<>();
+        List<String> declarations = parameters.subList(0, parameters.size() - 1);
+
+        for (String declaration : declarations) {
+            arguments.add(declaration.substring(declaration.lastIndexOf(' ') + 1));
+        }
+
+        arguments.add("$response -> complete($result, $response)");
+
+        StringBuilder method = new StringBuilder();
+        method.append("    public CompletableFuture<").append(resultType).append("> ").append(name).append("(")
+                .append(String.join(", ", declarations)).append(") {\n");
+        method.append("        CompletableFuture<").append(resultType)
+                .append("> $result = new CompletableFuture<>();\n");
+        method.append("        Future<?> $call = this.port.").append(name).append("Async(")
+                .append(String.join(", ", arguments)).append(");\n");
+        method.append("        $result.whenComplete(($value, $error) -> {\n");
+        method.append("            if ($result.isCancelled()) {\n");
+        method.append("                $call.cancel(true);\n");
+        method.append("            }\n");
+        method.append("        });\n");
+        method.append("        return $result;\n");
+        method.append("    }\n\n");
+        return method.toString();
+    }
+
+    /**
+     * Read the parameters of a method declaration without their annotations
+     *
+     * @param source Source containing the method declaration
+     * @param start Index after the opening parenthesis of the parameter list
+     * @return Parameters with normalized whitespace
+     */
+    protected static List<String> readParameters(String source, int start) {
+        List<String> parameters = new ArrayList<>();
+        StringBuilder parameter = new StringBuilder();
+        int depth = 0;
+        int i = start;
+
+        while (i < source.length()) {
+            char c = source.charAt(i);
+
+            if (c == '@') {
+                i = skipAnnotation(source, i + 1);
+                continue;
+            }
+            else if (c == '<') {
+                ++depth;
+            }
+            else if (c == '>') {
+                --depth;
+            }
+            else if ((c == ',' && depth == 0) || c == ')') {
+                String text = parameter.toString().trim().replaceAll("\\s+", " ");
+
+                if (!text.isEmpty()) {
+                    parameters.add(text);
+                }
+
+                if (c == ')') {
+                    break;
+                }
+
+                parameter.setLength(0);
+                ++i;
+                continue;
+            }
+
+            parameter.append(c);
+            ++i;
+        }
+
+        return parameters;
+    }
+
+    /**
+     * Skip an annotation including its arguments
+     *
+     * @param source Source containing the annotation
+     * @param start Index after the '@' of the annotation
+     * @return Index after the annotation
+     */
+    protected static int skipAnnotation(String source, int start) {
+        int i = start;
+
+        while (i < source.length() && (Character.isJavaIdentifierPart(source.charAt(i)) || source.charAt(i) == '.')) {
+            ++i;
+        }
+
+        int end = i;
+
+        while (i < source.length() && Character.isWhitespace(source.charAt(i))) {
+            ++i;
+        }
+
+        if (i >= source.length() || source.charAt(i) != '(') {
+            return end;
+        }
+
+        int depth = 0;
+        boolean quoted = false;
+
+        for (; i < source.length(); ++i) {
+            char c = source.charAt(i);
+
+            if (quoted) {
+                if (c == '\\') {
+                    ++i;
+                }
+                else if (c == '"') {
+                    quoted = false;
+                }
+            }
+            else if (c == '"') {
+                quoted = true;
+            }
+            else if (c == '(') {
+                ++depth;
+            }
+            else if (c == ')' && --depth == 0) {
+                return i + 1;
+            }
+        }
+
+        return i;
+    }
+
+}
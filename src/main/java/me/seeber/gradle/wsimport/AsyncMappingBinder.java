@@ -0,0 +1,268 @@
+/**
+ * BSD 2-Clause License
+ *
+ * Copyright (c) 2016-2017, Jochen Seeber
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package me.seeber.gradle.wsimport;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+import javax.xml.namespace.QName;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import javax.xml.stream.XMLStreamWriter;
+
+import org.eclipse.jdt.annotation.Nullable;
+import org.gradle.api.GradleException;
+
+/**
+ * Create external binding files that enable the asynchronous mapping for selected port types and operations
+ *
+ * A binding file is created for each WSDL document declaring selected port types, so the WSDL files do not need to be
+ * changed and no binding files have to be written by hand. Port types whose operations are all selected are
+ * customized as a whole, otherwise the selected operations are customized individually.
+ */
+public class AsyncMappingBinder {
+
+    /**
+     * Namespace of JAX-WS customizations
+     */
+    protected static final String JAXWS_NAMESPACE = "http://java.sun.com/xml/ns/jaxws";
+
+    /**
+     * Factory used to create XML readers
+     */
+    private final XMLInputFactory inputFactory;
+
+    /**
+     * Factory used to create XML writers
+     */
+    private final XMLOutputFactory outputFactory;
+
+    /**
+     * Patterns of port types and operations to enable the asynchronous mapping for
+     */
+    private final List<Pattern> patterns;
+
+    /**
+     * Create a new binder
+     *
+     * @param patterns Patterns of port types and operations to enable the asynchronous mapping for
+     */
+    public AsyncMappingBinder(List<String> patterns) {
+        this.inputFactory = Objects.requireNonNull(XMLInputFactory.newInstance());
+        this.inputFactory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        this.outputFactory = Objects.requireNonNull(XMLOutputFactory.newInstance());
+        this.patterns = Objects
+                .requireNonNull(patterns.stream().map(WsdlPruner::compilePattern).collect(Collectors.toList()));
+    }
+
+    /**
+     * Create the binding files for a WSDL file and the WSDL documents it imports
+     *
+     * @param wsdlFile WSDL file
+     * @param bindingDir Directory to write the binding files to
+     * @return Created binding files
+     */
+    public List<Path> bind(Path wsdlFile, Path bindingDir) {
+        List<Path> bindingFiles = new ArrayList<>();
+
+        for (WsdlDocument document : new WsdlScanner().scan(wsdlFile)) {
+            if (!document.isWsdl()) {
+                continue;
+            }
+
+            Map<String, List<String>> portTypes = readPortTypes(document.getFile());
+
+            if (portTypes.values().stream().anyMatch(operations -> !operations.isEmpty())) {
+                Path bindingFile = bindingDir.resolve(String.format("async-%d.xml", bindingFiles.size()));
+                writeBindings(document.getFile(), bindingFile, portTypes);
+                bindingFiles.add(bindingFile);
+            }
+        }
+
+        return bindingFiles;
+    }
+
+    /**
+     * Check if the asynchronous mapping is enabled for an operation
+     *
+     * @param portType Local name of the port type
+     * @param operation Name of the operation
+     * @return <code>true</code> if the asynchronous mapping is enabled
+     */
+    public boolean isSelected(String portType, String operation) {
+        String name = portType + "/" + operation;
+        return this.patterns.stream().anyMatch(p -> p.matcher(name).matches());
+    }
+
+    /**
+     * Read the port types of a WSDL document
+     *
+     * @param wsdlFile WSDL document
+     * @return Selected operations by port type, including port types without selected operations
+     */
+    protected Map<String, List<String>> readPortTypes(Path wsdlFile) {
+        Map<String, List<String>> portTypes = new LinkedHashMap<>();
+        Map<String, Integer> operationCounts = new LinkedHashMap<>();
+
+        try (InputStream in = Files.newInputStream(wsdlFile)) {
+            XMLStreamReader reader = this.inputFactory.createXMLStreamReader(wsdlFile.toUri().toString(), in);
+
+            try {
+                @Nullable String portType = null;
+                int depth = 0;
+
+                while (reader.hasNext()) {
+                    int event = reader.next();
+
+                    if (event == XMLStreamConstants.START_ELEMENT) {
+                        QName name = reader.getName();
+                        ++depth;
+
+                        if (depth == 2 && WsdlPruner.isWsdl(name, "portType")) {
+                            portType = WsdlPruner.attribute(reader, "name", "");
+                            portTypes.put(portType, new ArrayList<>());
+                            operationCounts.put(portType, 0);
+                        }
+                        else if (depth == 3 && portType != null && WsdlPruner.isWsdl(name, "operation")) {
+                            String operation = WsdlPruner.attribute(reader, "name", "");
+                            operationCounts.merge(portType, 1, Integer::sum);
+
+                            if (isSelected(portType, operation)) {
+                                Objects.requireNonNull(portTypes.get(portType)).add(operation);
+                            }
+                        }
+                    }
+                    else if (event == XMLStreamConstants.END_ELEMENT) {
+                        if (depth == 2) {
+                            portType = null;
+                        }
+
+                        --depth;
+                    }
+                }
+            }
+            finally {
+                reader.close();
+            }
+        }
+        catch (IOException | XMLStreamException e) {
+            throw new GradleException(String.format("Could not read WSDL file %s", wsdlFile), e);
+        }
+
+        // Mark port types with all operations selected by an empty operation name
+        for (Map.Entry<String, List<String>> entry : portTypes.entrySet()) {
+            List<String> operations = entry.getValue();
+
+            if (!operations.isEmpty() && operations.size() == operationCounts.get(entry.getKey())) {
+                operations.clear();
+                operations.add("");
+            }
+        }
+
+        return portTypes;
+    }
+
+    /**
+     * Write the binding file for a WSDL document
+     *
+     * The location of the WSDL document is written relative to the binding file if possible, so it resolves to the
+     * same URL as the WSDL file passed to wsimport.
+     *
+     * @param wsdlFile WSDL document
+     * @param bindingFile Binding file to write
+     * @param portTypes Selected operations by port type, an empty operation name selects the whole port type
+     */
+    protected void writeBindings(Path wsdlFile, Path bindingFile, Map<String, List<String>> portTypes) {
+        try {
+            Files.createDirectories(bindingFile.toAbsolutePath().getParent());
+            Path bindingDir = bindingFile.toAbsolutePath().getParent().toRealPath();
+            String wsdlLocation;
+
+            try {
+                wsdlLocation = bindingDir.relativize(wsdlFile.toRealPath()).toString().replace('\\', '/');
+            }
+            catch (IllegalArgumentException e) {
+                // Files on different roots, e.g. drives on Windows
+                wsdlLocation = wsdlFile.toRealPath().toUri().toString();
+            }
+
+            try (OutputStream out = Files.newOutputStream(bindingFile)) {
+                XMLStreamWriter writer = this.outputFactory.createXMLStreamWriter(out, "UTF-8");
+
+                try {
+                    writer.writeStartDocument("UTF-8", "1.0");
+                    writer.setPrefix("jaxws", JAXWS_NAMESPACE);
+                    writer.writeStartElement(JAXWS_NAMESPACE, "bindings");
+                    writer.writeNamespace("jaxws", JAXWS_NAMESPACE);
+                    writer.writeNamespace("wsdl", WsdlPruner.WSDL_NAMESPACE);
+                    writer.writeAttribute("wsdlLocation", wsdlLocation);
+
+                    for (Map.Entry<String, List<String>> entry : portTypes.entrySet()) {
+                        for (String operation : entry.getValue()) {
+                            String node = String.format("wsdl:definitions/wsdl:portType[@name='%s']", entry.getKey());
+
+                            if (!operation.isEmpty()) {
+                                node += String.format("/wsdl:operation[@name='%s']", operation);
+                            }
+
+                            writer.writeStartElement(JAXWS_NAMESPACE, "bindings");
+                            writer.writeAttribute("node", node);
+                            writer.writeStartElement(JAXWS_NAMESPACE, "enableAsyncMapping");
+                            writer.writeCharacters("true");
+                            writer.writeEndElement();
+                            writer.writeEndElement();
+                        }
+                    }
+
+                    writer.writeEndElement();
+                    writer.writeEndDocument();
+                }
+                finally {
+                    writer.close();
+                }
+            }
+        }
+        catch (IOException | XMLStreamException e) {
+            throw new GradleException(String.format("Could not write binding file %s", bindingFile), e);
+        }
+    }
+
+}
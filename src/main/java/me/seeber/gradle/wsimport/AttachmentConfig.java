@@ -0,0 +1,149 @@
+/**
+ * BSD 2-Clause License
+ *
+ * Copyright (c) 2016-2017, Jochen Seeber
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package me.seeber.gradle.wsimport;
+
+import java.io.Serializable;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Objects;
+
+import com.google.common.collect.ImmutableMap;
+
+/**
+ * Configuration of binary attachments
+ */
+public class AttachmentConfig implements Serializable {
+
+    /**
+     * Serialization ID
+     */
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Default size in bytes from which binary content is sent as attachment
+     */
+    public static final int DEFAULT_THRESHOLD = 1024;
+
+    /**
+     * Default number of bytes of an attachment kept in memory
+     */
+    public static final long DEFAULT_MEMORY_THRESHOLD = 1024L * 1024L;
+
+    /**
+     * Map binary content to streamed attachments
+     */
+    private boolean streaming;
+
+    /**
+     * Size in bytes from which binary content is sent as attachment
+     */
+    private int threshold = DEFAULT_THRESHOLD;
+
+    /**
+     * Sizes in bytes from which binary content is sent as attachment, by port type
+     */
+    private Map<String, Integer> thresholds = Collections.emptyMap();
+
+    /**
+     * Number of bytes of an attachment kept in memory before it is written to a temporary file
+     */
+    private long memoryThreshold = DEFAULT_MEMORY_THRESHOLD;
+
+    /**
+     * Check if binary content is mapped to streamed attachments
+     *
+     * @return <code>true</code> if binary content is mapped to streamed attachments
+     */
+    public boolean isStreaming() {
+        return this.streaming;
+    }
+
+    /**
+     * Set if binary content is mapped to streamed attachments
+     *
+     * @param streaming <code>true</code> if binary content is mapped to streamed attachments
+     */
+    public void setStreaming(boolean streaming) {
+        this.streaming = streaming;
+    }
+
+    /**
+     * Get the size from which binary content is sent as attachment
+     *
+     * @return Size in bytes
+     */
+    public int getThreshold() {
+        return this.threshold;
+    }
+
+    /**
+     * Set the size from which binary content is sent as attachment
+     *
+     * @param threshold Size in bytes
+     */
+    public void setThreshold(int threshold) {
+        this.threshold = threshold;
+    }
+
+    /**
+     * Get the sizes from which binary content is sent as attachment for individual port types
+     *
+     * @return Sizes in bytes by port type
+     */
+    public Map<String, Integer> getThresholds() {
+        return this.thresholds;
+    }
+
+    /**
+     * Set the sizes from which binary content is sent as attachment for individual port types
+     *
+     * @param thresholds Sizes in bytes by port type
+     */
+    public void setThresholds(Map<String, Integer> thresholds) {
+        this.thresholds = Objects.requireNonNull(ImmutableMap.copyOf(thresholds));
+    }
+
+    /**
+     * Get the number of bytes of an attachment kept in memory before it is written to a temporary file
+     *
+     * @return Number of bytes
+     */
+    public long getMemoryThreshold() {
+        return this.memoryThreshold;
+    }
+
+    /**
+     * Set the number of bytes of an attachment kept in memory before it is written to a temporary file
+     *
+     * @param memoryThreshold Number of bytes
+     */
+    public void setMemoryThreshold(long memoryThreshold) {
+        this.memoryThreshold = memoryThreshold;
+    }
+
+}
@@ -0,0 +1,203 @@
+/**
+ * BSD 2-Clause License
+ *
+ * Copyright (c) 2016-2017, Jochen Seeber
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package me.seeber.gradle.wsimport;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Objects;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import com.google.common.collect.ImmutableMap;
+
+/**
+ * Generate the client features for streamed attachments of generated port interfaces
+ *
+ * For a port interface <code>DocumentPort</code>, the class <code>DocumentPortAttachments</code> is generated into the
+ * same package. Its features enable MTOM with the threshold of the port type, and streamed attachments that are
+ * written to temporary files once they exceed the memory threshold, so the memory used per message is bounded.
+ *
+ * Streamed attachments use <code>StreamingAttachmentFeature</code> of the JAX-WS reference implementation. If the
+ * generated code is not compiled against the reference implementation, only the standard <code>MTOMFeature</code> is
+ * generated, and the memory threshold is left to the JAX-WS implementation used at runtime.
+ */
+public class AttachmentFeatureGenerator implements GeneratedSources.Processor {
+
+    /**
+     * Suffix of the generated feature classes
+     */
+    public static final String FEATURES_SUFFIX = "Attachments";
+
+    /**
+     * Pattern matching the port type name of the port interface
+     */
+    protected static final Pattern PORT_TYPE_PATTERN = Objects
+            .requireNonNull(Pattern.compile("@WebService\\s*\\([^)]*\\bname\\s*=\\s*\"([^\"]+)\""));
+
+    /**
+     * Size in bytes from which binary content is sent as attachment
+     */
+    private final int threshold;
+
+    /**
+     * Sizes in bytes from which binary content is sent as attachment, by port type
+     */
+    private final Map<String, Integer> thresholds;
+
+    /**
+     * Number of bytes of an attachment kept in memory
+     */
+    private final long memoryThreshold;
+
+    /**
+     * Generate the streaming feature of the JAX-WS reference implementation
+     */
+    private final boolean streamingFeature;
+
+    /**
+     * Number of feature classes generated by this generator
+     */
+    private int count;
+
+    /**
+     * Create a new generator
+     *
+     * @param threshold Size in bytes from which binary content is sent as attachment
+     * @param thresholds Sizes in bytes from which binary content is sent as attachment, by port type
+     * @param memoryThreshold Number of bytes of an attachment kept in memory
+     * @param streamingFeature Generate the streaming feature of the JAX-WS reference implementation
+     */
+    public AttachmentFeatureGenerator(int threshold, Map<String, Integer> thresholds, long memoryThreshold,
+            boolean streamingFeature) {
+        this.threshold = threshold;
+        this.thresholds = Objects.requireNonNull(ImmutableMap.copyOf(thresholds));
+        this.memoryThreshold = memoryThreshold;
+        this.streamingFeature = streamingFeature;
+    }
+
+    /**
+     * Generate the features for the port interfaces in a directory
+     *
+     * @param directory Directory containing the generated Java files
+     * @param modifiedSince Time in milliseconds since the epoch, see {@link GeneratedSources#process}
+     * @return Number of generated feature classes
+     */
+    public int generate(Path directory, long modifiedSince) {
+        GeneratedSources.process(directory, modifiedSince, Collections.singletonList(this));
+        return this.count;
+    }
+
+    /**
+     * Get the number of feature classes generated by this generator
+     *
+     * @return Number of generated feature classes
+     */
+    public int getCount() {
+        return this.count;
+    }
+
+    /**
+     * @see me.seeber.gradle.wsimport.GeneratedSources.Processor#process(java.nio.file.Path, java.lang.String)
+     */
+    @Override
+    public String process(Path file, String source) throws IOException {
+        if (generate(file, source)) {
+            ++this.count;
+        }
+
+        return source;
+    }
+
+    /**
+     * Generate the features for a port interface
+     *
+     * @param file Java file
+     * @param source Content of the file
+     * @return <code>true</code> if the file contains a port interface
+     * @throws IOException if the features could not be written
+     */
+    protected boolean generate(Path file, String source) throws IOException {
+        Matcher interfaceMatcher = AsyncAdapterGenerator.INTERFACE_PATTERN.matcher(source);
+
+        if (!interfaceMatcher.find()) {
+            return false;
+        }
+
+        String interfaceName = Objects.requireNonNull(interfaceMatcher.group(1));
+        Matcher portTypeMatcher = PORT_TYPE_PATTERN.matcher(source);
+        String portType = portTypeMatcher.find() ? portTypeMatcher.group(1) : interfaceName;
+        int portThreshold = this.thresholds.getOrDefault(portType,
+                this.thresholds.getOrDefault(interfaceName, this.threshold));
+        String api = source.contains("jakarta.jws.") ? "jakarta" : "javax";
+        String className = interfaceName + FEATURES_SUFFIX;
+        Matcher packageMatcher = AsyncAdapterGenerator.PACKAGE_PATTERN.matcher(source);
+        StringBuilder features = new StringBuilder();
+
+        if (packageMatcher.find()) {
+            features.append("package ").append(packageMatcher.group(1)).append(";\n\n");
+        }
+
+        if (this.streamingFeature) {
+            features.append("import com.sun.xml.ws.developer.StreamingAttachmentFeature;\n");
+        }
+
+        features.append("import ").append(api).append(".xml.ws.WebServiceFeature;\n");
+        features.append("import ").append(api).append(".xml.ws.soap.MTOMFeature;\n\n");
+        features.append("/**\n");
+        features.append(" * Client features for streamed attachments of {@link ").append(interfaceName).append("}\n");
+        features.append(" *\n");
+        features.append(" * This class was generated by the wsimport plugin.\n");
+        features.append(" */\n");
+        features.append("public final class ").append(className).append(" {\n\n");
+        features.append("    public static final int THRESHOLD = ").append(portThreshold).append(";\n\n");
+        features.append("    public static final long MEMORY_THRESHOLD = ").append(this.memoryThreshold)
+                .append("L;\n\n");
+        features.append("    private ").append(className).append("() {\n");
+        features.append("    }\n\n");
+        features.append("    public static WebServiceFeature[] features() {\n");
+
+        if (this.streamingFeature) {
+            features.append("        return new WebServiceFeature[] { new MTOMFeature(true, THRESHOLD),\n");
+            features.append("                new StreamingAttachmentFeature(null, true, MEMORY_THRESHOLD) };\n");
+        }
+        else {
+            features.append("        return new WebServiceFeature[] { new MTOMFeature(true, THRESHOLD) };\n");
+        }
+
+        features.append("    }\n\n");
+        features.append("}\n");
+
+        Files.write(file.resolveSibling(className + ".java"), features.toString().getBytes(StandardCharsets.UTF_8));
+        return true;
+    }
+
+}
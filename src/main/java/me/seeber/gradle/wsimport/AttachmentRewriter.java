@@ -0,0 +1,611 @@
+/**
+ * BSD 2-Clause License
+ *
+ * Copyright (c) 2016-2017, Jochen Seeber
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package me.seeber.gradle.wsimport;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+import javax.xml.namespace.QName;
+import javax.xml.stream.XMLEventFactory;
+import javax.xml.stream.XMLEventReader;
+import javax.xml.stream.XMLEventWriter;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import javax.xml.stream.events.Attribute;
+import javax.xml.stream.events.Namespace;
+import javax.xml.stream.events.StartDocument;
+import javax.xml.stream.events.StartElement;
+import javax.xml.stream.events.XMLEvent;
+
+import org.eclipse.jdt.annotation.Nullable;
+import org.gradle.api.GradleException;
+
+/**
+ * Rewrite the schemas of a WSDL file so binary elements are mapped to attachments
+ *
+ * Every element of type <code>xs:base64Binary</code> without expected content types is annotated with
+ * <code>xmime:expectedContentTypes</code>, so the binding compiler maps it to a <code>DataHandler</code> instead of a
+ * byte array. This includes elements of simple types derived from <code>xs:base64Binary</code> by restriction, named or
+ * declared inline. Elements of complex types with binary simple content are reported by
+ * {@link #getSkippedElements()}, since the binding compiler ignores the content types for them.
+ *
+ * The WSDL file and all local documents it imports are copied, since the content types can only be declared in the
+ * schemas. Locations of imported local documents are rewritten to their copies. Binding files that refer to the
+ * original documents can be relocated to the copies with {@link SchemaBindings#relocate}.
+ */
+public class AttachmentRewriter {
+
+    /**
+     * Namespace of the XML media type attributes
+     */
+    public static final String XMIME_NAMESPACE = "http://www.w3.org/2005/05/xmlmime";
+
+    /**
+     * Content type declared for binary elements
+     */
+    public static final String CONTENT_TYPE = "application/octet-stream";
+
+    /**
+     * Name of the binary schema type
+     */
+    protected static final QName BASE64_BINARY = new QName(WsdlPruner.XSD_NAMESPACE, "base64Binary");
+
+    /**
+     * Name of the expected content types attribute
+     */
+    protected static final QName EXPECTED_CONTENT_TYPES = new QName(XMIME_NAMESPACE, "expectedContentTypes");
+
+    /**
+     * Factory used to create XML readers
+     */
+    private final XMLInputFactory inputFactory;
+
+    /**
+     * Factory used to create XML writers
+     */
+    private final XMLOutputFactory outputFactory;
+
+    /**
+     * Factory used to create XML events
+     */
+    private final XMLEventFactory eventFactory;
+
+    /**
+     * Number of elements mapped to attachments by the last rewrite
+     */
+    private int elementCount;
+
+    /**
+     * Copies written by the last rewrite, by the normalized absolute path of the original document
+     */
+    private final Map<Path, Path> copies = new HashMap<>();
+
+    /**
+     * Binary elements that could not be mapped to attachments by the last rewrite
+     */
+    private final List<String> skippedElements = new ArrayList<>();
+
+    /**
+     * Create a new rewriter
+     */
+    public AttachmentRewriter() {
+        this.inputFactory = Objects.requireNonNull(XMLInputFactory.newInstance());
+        this.inputFactory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        this.outputFactory = Objects.requireNonNull(XMLOutputFactory.newInstance());
+        this.eventFactory = Objects.requireNonNull(XMLEventFactory.newInstance());
+    }
+
+    /**
+     * Rewrite a WSDL file and the documents it imports
+     *
+     * @param baseDir Base directory of the WSDL file
+     * @param wsdlFile WSDL file relative to the base directory
+     * @param targetDir Directory to write the rewritten documents to
+     * @return Base directory of the rewritten WSDL file
+     */
+    public Path rewrite(Path baseDir, Path wsdlFile, Path targetDir) {
+        List<WsdlDocument> documents = new WsdlScanner().scan(baseDir.resolve(wsdlFile));
+        this.copies.clear();
+
+        for (WsdlDocument document : documents) {
+            Path copy = this.copies.isEmpty() ? targetDir.resolve(wsdlFile)
+                    : targetDir.resolve("imports").resolve(this.copies.size() + "-" + document.getFile().getFileName());
+            this.copies.put(document.getFile(), copy.toAbsolutePath().normalize());
+        }
+
+        SchemaTypes types = new SchemaTypes();
+
+        for (WsdlDocument document : documents) {
+            try {
+                read(document.getFile(), types);
+            }
+            catch (IOException | XMLStreamException e) {
+                throw new GradleException(String.format("Could not read %s", document.getFile()), e);
+            }
+        }
+
+        this.elementCount = 0;
+        this.skippedElements.clear();
+
+        for (WsdlDocument document : documents) {
+            Path copy = Objects.requireNonNull(this.copies.get(document.getFile()));
+
+            try {
+                Files.createDirectories(copy.getParent());
+                write(document.getFile(), copy, this.copies, types);
+            }
+            catch (IOException | XMLStreamException e) {
+                throw new GradleException(String.format("Could not rewrite %s", document.getFile()), e);
+            }
+        }
+
+        return targetDir;
+    }
+
+    /**
+     * Get the number of elements mapped to attachments by the last rewrite
+     *
+     * @return Number of elements
+     */
+    public int getElementCount() {
+        return this.elementCount;
+    }
+
+    /**
+     * Get the binary elements that could not be mapped to attachments by the last rewrite
+     *
+     * These are elements of complex types with binary simple content, which are still mapped to byte arrays.
+     *
+     * @return Names of the elements and the documents declaring them
+     */
+    public List<String> getSkippedElements() {
+        return Collections.unmodifiableList(this.skippedElements);
+    }
+
+    /**
+     * Get the copies written by the last rewrite
+     *
+     * @return Copies of the documents, by the normalized absolute path of the original document
+     */
+    public Map<Path, Path> getCopies() {
+        return Collections.unmodifiableMap(this.copies);
+    }
+
+    /**
+     * Read the simple type derivations declared in a document
+     *
+     * @param file Document to read
+     * @param types Schema types to add the derivations to
+     * @throws IOException if the document could not be read
+     * @throws XMLStreamException if the document could not be parsed
+     */
+    protected void read(Path file, SchemaTypes types) throws IOException, XMLStreamException {
+        try (InputStream in = Files.newInputStream(file)) {
+            XMLStreamReader reader = this.inputFactory.createXMLStreamReader(file.toUri().toString(), in);
+
+            try {
+                Deque<TypeScope> scopes = new ArrayDeque<>();
+                String targetNamespace = "";
+                int elementIndex = 0;
+
+                while (reader.hasNext()) {
+                    int event = reader.next();
+
+                    if (event == XMLStreamConstants.START_ELEMENT) {
+                        QName name = reader.getName();
+                        String typeName = WsdlPruner.attribute(reader, "name", "");
+                        @Nullable QName component = null;
+                        int element = -1;
+
+                        if (WsdlPruner.isXsd(name, "schema")) {
+                            targetNamespace = WsdlPruner.attribute(reader, "targetNamespace", "");
+                        }
+                        else if (WsdlPruner.isXsd(name, "element")) {
+                            element = elementIndex++;
+                        }
+                        else if ((WsdlPruner.isXsd(name, "simpleType") || WsdlPruner.isXsd(name, "complexType"))
+                                && !typeName.isEmpty()) {
+                            component = new QName(targetNamespace, typeName);
+                        }
+                        else if (WsdlPruner.isXsd(name, "restriction") || WsdlPruner.isXsd(name, "extension")) {
+                            String base = WsdlPruner.attribute(reader, "base", "");
+
+                            if (!base.isEmpty()) {
+                                types.addDerivation(file, new ArrayList<>(scopes),
+                                        WsdlPruner.resolve(reader.getNamespaceContext(), base));
+                            }
+                        }
+
+                        scopes.push(new TypeScope(name, component, element));
+                    }
+                    else if (event == XMLStreamConstants.END_ELEMENT) {
+                        scopes.pop();
+                    }
+                }
+            }
+            finally {
+                reader.close();
+            }
+        }
+    }
+
+    /**
+     * Write the copy of a document
+     *
+     * @param file Document to copy
+     * @param targetFile File to write the copy to
+     * @param copies Copies of the local documents, by the normalized absolute path of the original
+     * @param types Simple type derivations of the WSDL file
+     * @throws IOException if the document could not be read or written
+     * @throws XMLStreamException if the document could not be parsed
+     */
+    protected void write(Path file, Path targetFile, Map<Path, Path> copies, SchemaTypes types)
+            throws IOException, XMLStreamException {
+        try (InputStream in = Files.newInputStream(file); OutputStream out = Files.newOutputStream(targetFile)) {
+            XMLEventReader reader = this.inputFactory.createXMLEventReader(file.toUri().toString(), in);
+            XMLEventWriter writer = this.outputFactory.createXMLEventWriter(out, "UTF-8");
+
+            try {
+                int elementIndex = 0;
+
+                while (reader.hasNext()) {
+                    XMLEvent event = reader.nextEvent();
+
+                    if (event.isStartDocument()) {
+                        String version = ((StartDocument) event).getVersion();
+                        event = this.eventFactory.createStartDocument("UTF-8", version != null ? version : "1.0");
+                    }
+                    else if (event.isStartElement()) {
+                        StartElement start = event.asStartElement();
+                        boolean binary = WsdlPruner.isXsd(start.getName(), "element")
+                                && isBinary(file, start, elementIndex++, types);
+                        event = rewrite(file, start, binary, copies);
+                    }
+
+                    writer.add(event);
+                }
+            }
+            finally {
+                writer.close();
+                reader.close();
+            }
+        }
+    }
+
+    /**
+     * Check if an element declaration is mapped to an attachment
+     *
+     * Elements of complex types with binary simple content are added to the skipped elements.
+     *
+     * @param file Document containing the element
+     * @param start Start element of the element declaration
+     * @param elementIndex Index of the element declaration in the document
+     * @param types Simple type derivations of the WSDL file
+     * @return <code>true</code> if the element is binary and has no expected content types
+     */
+    protected boolean isBinary(Path file, StartElement start, int elementIndex, SchemaTypes types) {
+        if (start.getAttributeByName(EXPECTED_CONTENT_TYPES) != null) {
+            return false;
+        }
+
+        String typeName = WsdlPruner.attribute(start, "type", "");
+        QName type = typeName.isEmpty() ? types.getInlineBase(file, elementIndex)
+                : WsdlPruner.resolve(start.getNamespaceContext(), typeName);
+
+        if (type == null) {
+            return false;
+        }
+
+        if (types.isBinary(type)) {
+            return true;
+        }
+
+        if (types.isBinaryContent(type)) {
+            this.skippedElements.add(String.format("%s in %s", WsdlPruner.attribute(start, "name", ""), file));
+        }
+
+        return false;
+    }
+
+    /**
+     * Rewrite a start element
+     *
+     * @param file Document containing the element
+     * @param start Start element to rewrite
+     * @param binary <code>true</code> if the element is mapped to an attachment
+     * @param copies Copies of the local documents, by the normalized absolute path of the original
+     * @return Rewritten start element
+     */
+    protected StartElement rewrite(Path file, StartElement start, boolean binary, Map<Path, Path> copies) {
+        QName name = start.getName();
+        String locationAttribute = null;
+
+        if (WsdlPruner.isWsdl(name, "import")) {
+            locationAttribute = "location";
+        }
+        else if (WsdlPruner.isXsd(name, "import") || WsdlPruner.isXsd(name, "include")
+                || WsdlPruner.isXsd(name, "redefine")) {
+            locationAttribute = "schemaLocation";
+        }
+
+        if (locationAttribute == null && !binary) {
+            return start;
+        }
+
+        List<Attribute> attributes = new ArrayList<>();
+        List<Namespace> namespaces = new ArrayList<>();
+
+        for (Iterator<?> i = start.getAttributes(); i.hasNext();) {
+            Attribute attribute = (Attribute) i.next();
+
+            if (attribute.getName().getLocalPart().equals(locationAttribute)
+                    && attribute.getName().getNamespaceURI().isEmpty()) {
+                Path copy = getCopy(file, attribute.getValue(), copies);
+
+                if (copy != null) {
+                    attribute = this.eventFactory.createAttribute(attribute.getName(), copy.toUri().toString());
+                }
+            }
+
+            attributes.add(attribute);
+        }
+
+        for (Iterator<?> i = start.getNamespaces(); i.hasNext();) {
+            namespaces.add((Namespace) i.next());
+        }
+
+        if (binary) {
+            String prefix = "xmime";
+
+            for (int n = 1; !isAvailable(start, namespaces, prefix); ++n) {
+                prefix = "xmime" + n;
+            }
+
+            if (!XMIME_NAMESPACE.equals(getNamespace(start, namespaces, prefix))) {
+                namespaces.add(this.eventFactory.createNamespace(prefix, XMIME_NAMESPACE));
+            }
+
+            attributes.add(this.eventFactory.createAttribute(prefix, XMIME_NAMESPACE,
+                    EXPECTED_CONTENT_TYPES.getLocalPart(), CONTENT_TYPE));
+            ++this.elementCount;
+        }
+
+        return Objects.requireNonNull(this.eventFactory.createStartElement(name.getPrefix(), name.getNamespaceURI(),
+                name.getLocalPart(), attributes.iterator(), namespaces.iterator(), start.getNamespaceContext()));
+    }
+
+    /**
+     * Check if a namespace prefix can be used for the media type attributes on an element
+     *
+     * @param start Start element
+     * @param namespaces Namespaces declared on the element
+     * @param prefix Prefix to check
+     * @return <code>true</code> if the prefix is unbound or bound to the media type namespace
+     */
+    protected static boolean isAvailable(StartElement start, List<Namespace> namespaces, String prefix) {
+        String namespace = getNamespace(start, namespaces, prefix);
+        return namespace == null || namespace.isEmpty() || XMIME_NAMESPACE.equals(namespace);
+    }
+
+    /**
+     * Get the namespace bound to a prefix on an element
+     *
+     * @param start Start element
+     * @param namespaces Namespaces declared on the element
+     * @param prefix Prefix
+     * @return Namespace bound to the prefix, <code>null</code> if the prefix is unbound
+     */
+    protected static @Nullable String getNamespace(StartElement start, List<Namespace> namespaces, String prefix) {
+        for (Namespace namespace : namespaces) {
+            if (prefix.equals(namespace.getPrefix())) {
+                return namespace.getNamespaceURI();
+            }
+        }
+
+        return start.getNamespaceContext().getNamespaceURI(prefix);
+    }
+
+    /**
+     * Get the copy of a referenced document
+     *
+     * @param file Document containing the reference
+     * @param location Location of the referenced document
+     * @param copies Copies of the local documents, by the normalized absolute path of the original
+     * @return Copy of the referenced document, <code>null</code> if it is not a copied local document
+     */
+    protected static @Nullable Path getCopy(Path file, String location, Map<Path, Path> copies) {
+        try {
+            URI uri = file.toUri().resolve(location);
+            return "file".equals(uri.getScheme()) ? copies.get(Paths.get(uri).normalize()) : null;
+        }
+        catch (IllegalArgumentException e) {
+            // Not a valid URI, leave it to wsimport to report the error
+            return null;
+        }
+    }
+
+    /**
+     * Schema component enclosing the current position while reading a document
+     */
+    protected static class TypeScope {
+
+        /**
+         * Name of the XML element
+         */
+        protected final QName name;
+
+        /**
+         * Name of the declared type, <code>null</code> if the element does not declare a named type
+         */
+        protected final @Nullable QName component;
+
+        /**
+         * Index of the element declaration in the document, -1 if the element is no element declaration
+         */
+        protected final int elementIndex;
+
+        /**
+         * Create a new scope
+         *
+         * @param name Name of the XML element
+         * @param component Name of the declared type
+         * @param elementIndex Index of the element declaration in the document
+         */
+        protected TypeScope(QName name, @Nullable QName component, int elementIndex) {
+            this.name = name;
+            this.component = component;
+            this.elementIndex = elementIndex;
+        }
+
+    }
+
+    /**
+     * Derivations of the simple types and simple content of the documents of a WSDL file
+     */
+    protected static class SchemaTypes {
+
+        /**
+         * Base types of named simple types
+         */
+        protected final Map<QName, QName> simpleTypes = new HashMap<>();
+
+        /**
+         * Base types of the simple content of named complex types
+         */
+        protected final Map<QName, QName> complexTypes = new HashMap<>();
+
+        /**
+         * Base types of the types declared inline in element declarations, by document and element index
+         */
+        protected final Map<Path, Map<Integer, QName>> inlineTypes = new HashMap<>();
+
+        /**
+         * Add the derivation of the type enclosing a restriction or extension
+         *
+         * @param file Document containing the derivation
+         * @param scopes Enclosing scopes, starting with the innermost
+         * @param base Base type of the derivation
+         */
+        protected void addDerivation(Path file, List<TypeScope> scopes, QName base) {
+            int typeScope = -1;
+
+            if (!scopes.isEmpty() && WsdlPruner.isXsd(scopes.get(0).name, "simpleType")) {
+                typeScope = 0;
+            }
+            else if (scopes.size() > 1 && WsdlPruner.isXsd(scopes.get(0).name, "simpleContent")
+                    && WsdlPruner.isXsd(scopes.get(1).name, "complexType")) {
+                typeScope = 1;
+            }
+
+            if (typeScope < 0) {
+                return;
+            }
+
+            QName component = scopes.get(typeScope).component;
+
+            if (component != null) {
+                (typeScope == 0 ? this.simpleTypes : this.complexTypes).put(component, base);
+            }
+            else if (scopes.size() > typeScope + 1 && scopes.get(typeScope + 1).elementIndex >= 0) {
+                this.inlineTypes.computeIfAbsent(file, f -> new HashMap<>())
+                        .put(scopes.get(typeScope + 1).elementIndex, base);
+            }
+        }
+
+        /**
+         * Get the base type of the type declared inline in an element declaration
+         *
+         * @param file Document containing the element declaration
+         * @param elementIndex Index of the element declaration in the document
+         * @return Base type, <code>null</code> if the element declares no derived type inline
+         */
+        protected @Nullable QName getInlineBase(Path file, int elementIndex) {
+            Map<Integer, QName> types = this.inlineTypes.get(file);
+            return types != null ? types.get(elementIndex) : null;
+        }
+
+        /**
+         * Check if a type is <code>xs:base64Binary</code> or a simple type derived from it
+         *
+         * @param type Type to check
+         * @return <code>true</code> if the type is binary
+         */
+        protected boolean isBinary(QName type) {
+            Set<QName> visited = new HashSet<>();
+
+            for (QName current = type; current != null && visited.add(current); current = this.simpleTypes
+                    .get(current)) {
+                if (BASE64_BINARY.equals(current)) {
+                    return true;
+                }
+            }
+
+            return false;
+        }
+
+        /**
+         * Check if a type is a complex type with binary simple content
+         *
+         * @param type Type to check
+         * @return <code>true</code> if the simple content of the type is binary
+         */
+        protected boolean isBinaryContent(QName type) {
+            Set<QName> visited = new HashSet<>();
+
+            for (QName current = this.complexTypes.get(type); current != null
+                    && visited.add(current); current = this.complexTypes.get(current)) {
+                if (isBinary(current)) {
+                    return true;
+                }
+            }
+
+            return false;
+        }
+
+    }
+
+}
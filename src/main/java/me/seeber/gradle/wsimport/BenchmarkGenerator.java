@@ -0,0 +1,616 @@
+/**
+ * BSD 2-Clause License
+ *
+ * Copyright (c) 2016-2017, Jochen Seeber
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package me.seeber.gradle.wsimport;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.eclipse.jdt.annotation.Nullable;
+import org.gradle.api.GradleException;
+
+import com.google.common.collect.ImmutableMap;
+
+/**
+ * Generate stub endpoints and JMH benchmarks for the generated port interfaces
+ *
+ * For a port interface <code>WeatherSoap</code>, the class <code>WeatherSoapStub</code> implements the port with
+ * configurable responses, and the class <code>WeatherSoapBenchmark</code> contains a JMH benchmark per operation. The
+ * benchmark publishes the stub with <code>Endpoint</code> on the loopback interface and calls it with the generated
+ * client, so marshalling and transport are measured without the partner system. Both classes are placed in the package
+ * of the port interface.
+ */
+public class BenchmarkGenerator {
+
+    /**
+     * Suffix of the generated stub classes
+     */
+    public static final String STUB_SUFFIX = "Stub";
+
+    /**
+     * Suffix of the generated benchmark classes
+     */
+    public static final String BENCHMARK_SUFFIX = "Benchmark";
+
+    /**
+     * Default values of primitive types
+     */
+    protected static final Map<String, String> DEFAULT_VALUES = Objects.requireNonNull(ImmutableMap
+            .<String, String> builder().put("boolean", "false").put("byte", "(byte) 0").put("short", "(short) 0")
+            .put("char", "'\\0'").put("int", "0").put("long", "0L").put("float", "0.0f").put("double", "0.0").build());
+
+    /**
+     * Pattern matching the target namespace of a port interface
+     */
+    protected static final Pattern NAMESPACE_PATTERN = Objects
+            .requireNonNull(Pattern.compile("@WebService\\s*\\([^)]*\\btargetNamespace\\s*=\\s*\"([^\"]*)\""));
+
+    /**
+     * Pattern matching the start of a method declaration
+     */
+    protected static final Pattern METHOD_PATTERN = Objects
+            .requireNonNull(Pattern.compile("\\bpublic\\s+([\\w.]+(?:<[^;(){}]*>)?(?:\\[\\])*)\\s+(\\w+)\\s*\\("));
+
+    /**
+     * Pattern matching the name of a service
+     */
+    protected static final Pattern SERVICE_NAME_PATTERN = Objects
+            .requireNonNull(Pattern.compile("@WebServiceClient\\s*\\([^)]*\\bname\\s*=\\s*\"([^\"]+)\""));
+
+    /**
+     * Pattern matching the port name of a service method
+     */
+    protected static final Pattern PORT_NAME_PATTERN = Objects
+            .requireNonNull(Pattern.compile("@WebEndpoint\\s*\\(\\s*name\\s*=\\s*\"([^\"]+)\""));
+
+    /**
+     * Generate the stubs and benchmarks for the port interfaces in a directory
+     *
+     * @param sourceDir Directory containing the generated Java files
+     * @param targetDir Directory to write the stubs and benchmarks to
+     * @return Number of port interfaces stubs were generated for
+     */
+    public int generate(Path sourceDir, Path targetDir) {
+        if (!Files.isDirectory(sourceDir)) {
+            return 0;
+        }
+
+        try (Stream<Path> walk = Files.walk(sourceDir)) {
+            List<Path> files = walk.filter(f -> f.toString().endsWith(".java") && Files.isRegularFile(f))
+                    .collect(Collectors.toList());
+            Map<String, Port> ports = new HashMap<>();
+            List<String> portSources = new ArrayList<>();
+
+            for (Path file : files) {
+                String source = new String(Files.readAllBytes(file), StandardCharsets.UTF_8);
+
+                if (MetricsGenerator.SERVICE_PATTERN.matcher(source).find()) {
+                    readPorts(source, ports);
+                }
+                else if (AsyncAdapterGenerator.INTERFACE_PATTERN.matcher(source).find()) {
+                    portSources.add(source);
+                }
+            }
+
+            for (String source : portSources) {
+                generate(source, ports, targetDir);
+            }
+
+            return portSources.size();
+        }
+        catch (IOException e) {
+            throw new GradleException(String.format("Could not generate benchmarks for %s", sourceDir), e);
+        }
+    }
+
+    /**
+     * Read the ports of a service class
+     *
+     * @param source Source of the service class
+     * @param ports Ports to add to, by qualified name of the port interface
+     */
+    protected void readPorts(String source, Map<String, Port> ports) {
+        Matcher serviceMatcher = MetricsGenerator.SERVICE_PATTERN.matcher(source);
+        Matcher packageMatcher = AsyncAdapterGenerator.PACKAGE_PATTERN.matcher(source);
+        String packagePrefix = packageMatcher.find() ? packageMatcher.group(1) + "." : "";
+
+        if (!serviceMatcher.find()) {
+            return;
+        }
+
+        String service = packagePrefix + serviceMatcher.group(1);
+        Matcher serviceNameMatcher = SERVICE_NAME_PATTERN.matcher(source);
+        String serviceName = serviceNameMatcher.find() ? serviceNameMatcher.group(1) : serviceMatcher.group(1);
+        Matcher portMatcher = MetricsGenerator.PORT_PATTERN.matcher(source);
+
+        while (portMatcher.find()) {
+            Matcher nameMatcher = PORT_NAME_PATTERN.matcher(portMatcher.group());
+            String portType = Objects.requireNonNull(portMatcher.group(1));
+            String name = nameMatcher.find() ? nameMatcher.group(1) : portType;
+            String qualifiedPortType = portType.contains(".") ? portType : packagePrefix + portType;
+
+            ports.putIfAbsent(qualifiedPortType, new Port(service, Objects.requireNonNull(serviceName),
+                    Objects.requireNonNull(portMatcher.group(2)), Objects.requireNonNull(name)));
+        }
+    }
+
+    /**
+     * Generate the stub and the benchmark for a port interface
+     *
+     * @param source Source of the port interface
+     * @param ports Ports of the services, by qualified name of the port interface
+     * @param targetDir Directory to write the stubs and benchmarks to
+     * @throws IOException if a file could not be written
+     */
+    protected void generate(String source, Map<String, Port> ports, Path targetDir) throws IOException {
+        Matcher interfaceMatcher = AsyncAdapterGenerator.INTERFACE_PATTERN.matcher(source);
+        Matcher packageMatcher = AsyncAdapterGenerator.PACKAGE_PATTERN.matcher(source);
+        Matcher namespaceMatcher = NAMESPACE_PATTERN.matcher(source);
+
+        if (!interfaceMatcher.find()) {
+            return;
+        }
+
+        String interfaceName = Objects.requireNonNull(interfaceMatcher.group(1));
+        String packageName = packageMatcher.find() ? packageMatcher.group(1) : null;
+        String qualifiedName = packageName != null ? packageName + "." + interfaceName : interfaceName;
+        String api = source.contains("jakarta.jws.") ? ApiPackageMapper.JAKARTA : ApiPackageMapper.JAVAX;
+        Port port = ports.get(qualifiedName);
+        List<Operation> operations = readOperations(source, interfaceMatcher.end());
+        Set<String> imports = new TreeSet<>();
+        Matcher importMatcher = AsyncAdapterGenerator.IMPORT_PATTERN.matcher(source);
+
+        while (importMatcher.find()) {
+            imports.add(importMatcher.group(1));
+        }
+
+        Path packageDir = packageName != null ? targetDir.resolve(packageName.replace('.', '/')) : targetDir;
+        Files.createDirectories(packageDir);
+
+        String stub = createStub(packageName, imports, api, interfaceName, qualifiedName,
+                namespaceMatcher.find() ? namespaceMatcher.group(1) : null, port, operations);
+        Files.write(packageDir.resolve(interfaceName + STUB_SUFFIX + ".java"),
+                stub.getBytes(StandardCharsets.UTF_8));
+
+        if (port != null) {
+            String benchmark = createBenchmark(packageName, imports, api, interfaceName, port, operations);
+            Files.write(packageDir.resolve(interfaceName + BENCHMARK_SUFFIX + ".java"),
+                    benchmark.getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    /**
+     * Read the operations of a port interface
+     *
+     * @param source Source of the port interface
+     * @param start Index after the declaration of the interface
+     * @return Operations of the interface
+     */
+    protected List<Operation> readOperations(String source, int start) {
+        List<Operation> operations = new ArrayList<>();
+        Matcher methodMatcher = METHOD_PATTERN.matcher(source);
+
+        for (int i = start; methodMatcher.find(i); i = methodMatcher.end()) {
+            String returnType = Objects.requireNonNull(methodMatcher.group(1));
+            String name = Objects.requireNonNull(methodMatcher.group(2));
+            boolean async = name.endsWith("Async")
+                    && (returnType.startsWith("Response<") || returnType.startsWith("Future<"));
+
+            operations.add(new Operation(returnType, name,
+                    AsyncAdapterGenerator.readParameters(source, methodMatcher.end()), async));
+        }
+
+        return operations;
+    }
+
+    /**
+     * Create the source of a stub
+     *
+     * @param packageName Package of the port interface
+     * @param imports Imports of the port interface
+     * @param api API package prefix, either <code>javax</code> or <code>jakarta</code>
+     * @param interfaceName Simple name of the port interface
+     * @param qualifiedName Qualified name of the port interface
+     * @param namespace Target namespace of the port interface
+     * @param port Port of a service implementing the interface
+     * @param operations Operations of the port interface
+     * @return Source of the stub
+     */
+    protected String createStub(@Nullable String packageName, Set<String> imports, String api, String interfaceName,
+            String qualifiedName, @Nullable String namespace, @Nullable Port port, List<Operation> operations) {
+        String className = interfaceName + STUB_SUFFIX;
+        Set<String> stubImports = new TreeSet<>(imports);
+        List<String> attributes = new ArrayList<>();
+        StringBuilder stub = new StringBuilder();
+
+        stubImports.add("java.util.Map");
+        stubImports.add("java.util.concurrent.ConcurrentHashMap");
+        stubImports.add("java.util.function.Supplier");
+        stubImports.add(api + ".jws.WebService");
+        attributes.add(String.format("endpointInterface = \"%s\"", qualifiedName));
+
+        if (namespace != null) {
+            attributes.add(String.format("targetNamespace = \"%s\"", namespace));
+        }
+
+        if (port != null) {
+            attributes.add(String.format("serviceName = \"%s\"", port.getServiceName()));
+            attributes.add(String.format("portName = \"%s\"", port.getName()));
+        }
+
+        appendHeader(stub, packageName, stubImports);
+        stub.append("/**\n");
+        stub.append(" * Stub implementation of {@link ").append(interfaceName)
+                .append("} with configurable responses\n");
+        stub.append(" *\n");
+        stub.append(" * This class was generated by the wsimport plugin.\n");
+        stub.append(" */\n");
+        stub.append("@WebService(").append(String.join(", ", attributes)).append(")\n");
+        stub.append("public class ").append(className).append(" implements ").append(interfaceName).append(" {\n\n");
+        stub.append("    private final Map<String, Supplier<?>> responses = new ConcurrentHashMap<>();\n\n");
+        stub.append("    public ").append(className).append(" respond(String operation, Supplier<?> response) {\n");
+        stub.append("        this.responses.put(operation, response);\n");
+        stub.append("        return this;\n");
+        stub.append("    }\n\n");
+
+        for (Operation operation : operations) {
+            stub.append("    @Override\n");
+            stub.append("    public ").append(operation.getReturnType()).append(" ").append(operation.getName())
+                    .append("(").append(String.join(", ", operation.getParameters())).append(") {\n");
+
+            if (operation.isAsync()) {
+                stub.append("        throw new UnsupportedOperationException(\"Asynchronous methods are only ")
+                        .append("supported by clients\");\n");
+            }
+            else if (operation.getReturnType().equals("void")) {
+                stub.append("        response(\"").append(operation.getName()).append("\", null);\n");
+            }
+            else {
+                stub.append("        return response(\"").append(operation.getName()).append("\", ")
+                        .append(getDefaultValue(operation.getReturnType(), true)).append(");\n");
+            }
+
+            stub.append("    }\n\n");
+        }
+
+        stub.append("    @SuppressWarnings(\"unchecked\")\n");
+        stub.append("    protected <T> T response(String operation, T defaultValue) {\n");
+        stub.append("        Supplier<?> response = this.responses.get(operation);\n");
+        stub.append("        return response != null ? (T) response.get() : defaultValue;\n");
+        stub.append("    }\n\n");
+        stub.append("}\n");
+        return stub.toString();
+    }
+
+    /**
+     * Create the source of a benchmark
+     *
+     * @param packageName Package of the port interface
+     * @param imports Imports of the port interface
+     * @param api API package prefix, either <code>javax</code> or <code>jakarta</code>
+     * @param interfaceName Simple name of the port interface
+     * @param port Port of a service implementing the interface
+     * @param operations Operations of the port interface
+     * @return Source of the benchmark
+     */
+    protected String createBenchmark(@Nullable String packageName, Set<String> imports, String api,
+            String interfaceName, Port port, List<Operation> operations) {
+        String className = interfaceName + BENCHMARK_SUFFIX;
+        String stubName = interfaceName + STUB_SUFFIX;
+        Set<String> benchmarkImports = new TreeSet<>(imports);
+        StringBuilder benchmark = new StringBuilder();
+
+        benchmarkImports.add("java.io.IOException");
+        benchmarkImports.add("java.net.InetAddress");
+        benchmarkImports.add("java.net.ServerSocket");
+        benchmarkImports.add(api + ".xml.ws.BindingProvider");
+        benchmarkImports.add(api + ".xml.ws.Endpoint");
+        benchmarkImports.add("org.openjdk.jmh.annotations.Benchmark");
+        benchmarkImports.add("org.openjdk.jmh.annotations.Scope");
+        benchmarkImports.add("org.openjdk.jmh.annotations.Setup");
+        benchmarkImports.add("org.openjdk.jmh.annotations.State");
+        benchmarkImports.add("org.openjdk.jmh.annotations.TearDown");
+
+        if (!port.getService().equals(packageName + "." + port.getServiceSimpleName())) {
+            benchmarkImports.add(port.getService());
+        }
+
+        appendHeader(benchmark, packageName, benchmarkImports);
+        benchmark.append("/**\n");
+        benchmark.append(" * Benchmarks of the operations of {@link ").append(interfaceName)
+                .append("} against a local stub\n");
+        benchmark.append(" *\n");
+        benchmark.append(" * This class was generated by the wsimport plugin.\n");
+        benchmark.append(" */\n");
+        benchmark.append("@State(Scope.Benchmark)\n");
+        benchmark.append("public class ").append(className).append(" {\n\n");
+        benchmark.append("    private Endpoint endpoint;\n\n");
+        benchmark.append("    private ").append(interfaceName).append(" client;\n\n");
+        benchmark.append("    @Setup\n");
+        benchmark.append("    public void setUp() throws IOException {\n");
+        benchmark.append("        InetAddress loopback = InetAddress.getLoopbackAddress();\n");
+        benchmark.append("        int port;\n\n");
+        benchmark.append("        try (ServerSocket socket = new ServerSocket(0, 0, loopback)) {\n");
+        benchmark.append("            port = socket.getLocalPort();\n");
+        benchmark.append("        }\n\n");
+        benchmark.append("        String address = \"http://\" + loopback.getHostAddress() + \":\" + port + \"/")
+                .append(port.getName()).append("\";\n");
+        benchmark.append("        this.endpoint = Endpoint.publish(address, createStub());\n");
+        benchmark.append("        this.client = new ").append(port.getServiceSimpleName()).append("().")
+                .append(port.getGetter()).append("();\n");
+        benchmark.append("        ((BindingProvider) this.client).getRequestContext()")
+                .append(".put(BindingProvider.ENDPOINT_ADDRESS_PROPERTY, address);\n");
+        benchmark.append("    }\n\n");
+        benchmark.append("    @TearDown\n");
+        benchmark.append("    public void tearDown() {\n");
+        benchmark.append("        this.endpoint.stop();\n");
+        benchmark.append("    }\n\n");
+        benchmark.append("    protected ").append(stubName).append(" createStub() {\n");
+        benchmark.append("        return new ").append(stubName).append("();\n");
+        benchmark.append("    }\n\n");
+
+        for (Operation operation : operations) {
+            if (operation.isAsync()) {
+                continue;
+            }
+
+            List<String> arguments = new ArrayList<>();
+
+            for (String parameter : operation.getParameters()) {
+                arguments.add(getDefaultValue(parameter.substring(0, parameter.lastIndexOf(' ')), false));
+            }
+
+            boolean result = !operation.getReturnType().equals("void");
+
+            benchmark.append("    @Benchmark\n");
+            benchmark.append("    public ").append(result ? "Object" : "void").append(" ")
+                    .append(operation.getName()).append("() throws Exception {\n");
+            benchmark.append("        ").append(result ? "return " : "").append("this.client.")
+                    .append(operation.getName()).append("(").append(String.join(", ", arguments)).append(");\n");
+            benchmark.append("    }\n\n");
+        }
+
+        benchmark.append("}\n");
+        return benchmark.toString();
+    }
+
+    /**
+     * Append the package and import declarations
+     *
+     * @param source Source to append to
+     * @param packageName Package, <code>null</code> for the default package
+     * @param imports Imports
+     */
+    protected static void appendHeader(StringBuilder source, @Nullable String packageName, Set<String> imports) {
+        if (packageName != null) {
+            source.append("package ").append(packageName).append(";\n\n");
+        }
+
+        imports.forEach(i -> source.append("import ").append(i).append(";\n"));
+        source.append("\n");
+    }
+
+    /**
+     * Get the default value of a type
+     *
+     * @param type Type
+     * @param typed <code>true</code> if the value must have the type, e.g. to infer a type argument
+     * @return Default value
+     */
+    protected static String getDefaultValue(String type, boolean typed) {
+        String value = DEFAULT_VALUES.get(type);
+
+        if (value != null) {
+            return value;
+        }
+
+        if (type.startsWith("Holder<") || type.matches(".*\\.Holder<.*")) {
+            return "new " + type + "()";
+        }
+
+        return typed ? "(" + type + ") null" : "null";
+    }
+
+    /**
+     * Port of a service
+     */
+    protected static class Port {
+
+        /**
+         * Qualified name of the service class
+         */
+        private final String service;
+
+        /**
+         * Name of the service
+         */
+        private final String serviceName;
+
+        /**
+         * Method of the service returning the port
+         */
+        private final String getter;
+
+        /**
+         * Name of the port
+         */
+        private final String name;
+
+        /**
+         * Create a new port
+         *
+         * @param service Qualified name of the service class
+         * @param serviceName Name of the service
+         * @param getter Method of the service returning the port
+         * @param name Name of the port
+         */
+        public Port(String service, String serviceName, String getter, String name) {
+            this.service = service;
+            this.serviceName = serviceName;
+            this.getter = getter;
+            this.name = name;
+        }
+
+        /**
+         * Get the qualified name of the service class
+         *
+         * @return Qualified name of the service class
+         */
+        public String getService() {
+            return this.service;
+        }
+
+        /**
+         * Get the simple name of the service class
+         *
+         * @return Simple name of the service class
+         */
+        public String getServiceSimpleName() {
+            return this.service.substring(this.service.lastIndexOf('.') + 1);
+        }
+
+        /**
+         * Get the name of the service
+         *
+         * @return Name of the service
+         */
+        public String getServiceName() {
+            return this.serviceName;
+        }
+
+        /**
+         * Get the method of the service returning the port
+         *
+         * @return Method of the service returning the port
+         */
+        public String getGetter() {
+            return this.getter;
+        }
+
+        /**
+         * Get the name of the port
+         *
+         * @return Name of the port
+         */
+        public String getName() {
+            return this.name;
+        }
+
+    }
+
+    /**
+     * Operation of a port interface
+     */
+    protected static class Operation {
+
+        /**
+         * Return type of the method
+         */
+        private final String returnType;
+
+        /**
+         * Name of the method
+         */
+        private final String name;
+
+        /**
+         * Parameters of the method without annotations
+         */
+        private final List<String> parameters;
+
+        /**
+         * <code>true</code> if the method is an asynchronous variant
+         */
+        private final boolean async;
+
+        /**
+         * Create a new operation
+         *
+         * @param returnType Return type of the method
+         * @param name Name of the method
+         * @param parameters Parameters of the method without annotations
+         * @param async <code>true</code> if the method is an asynchronous variant
+         */
+        public Operation(String returnType, String name, List<String> parameters, boolean async) {
+            this.returnType = returnType;
+            this.name = name;
+            this.parameters = parameters;
+            this.async = async;
+        }
+
+        /**
+         * Get the return type of the method
+         *
+         * @return Return type of the method
+         */
+        public String getReturnType() {
+            return this.returnType;
+        }
+
+        /**
+         * Get the name of the method
+         *
+         * @return Name of the method
+         */
+        public String getName() {
+            return this.name;
+        }
+
+        /**
+         * Get the parameters of the method without annotations
+         *
+         * @return Parameters of the method
+         */
+        public List<String> getParameters() {
+            return this.parameters;
+        }
+
+        /**
+         * Check if the method is an asynchronous variant
+         *
+         * @return <code>true</code> if the method is an asynchronous variant
+         */
+        public boolean isAsync() {
+            return this.async;
+        }
+
+    }
+
+}
@@ -0,0 +1,346 @@
+/**
+ * BSD 2-Clause License
+ *
+ * Copyright (c) 2016-2017, Jochen Seeber
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package me.seeber.gradle.wsimport;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.SortedSet;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.gradle.api.GradleException;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.ImmutableSortedSet;
+import com.google.common.collect.Multimap;
+import com.google.common.collect.Multimaps;
+
+/**
+ * Plan for compiling generated code in separate units per XML namespace
+ *
+ * The packages of the generated code are grouped by the namespace declared in their <code>package-info.java</code>.
+ * Packages without a namespace, e.g. the packages of the service interfaces, form a unit of their own. Units whose
+ * classes reference each other are merged. The units are grouped into levels, so that all units a unit depends on
+ * are contained in earlier levels. Units of the same level are independent of each other and can be compiled
+ * concurrently.
+ */
+public class CompileUnitPlan {
+
+    /**
+     * Pattern matching the namespace declared by the <code>XmlSchema</code> annotation in a package info
+     */
+    protected static final Pattern SCHEMA_NAMESPACE_PATTERN = Objects.requireNonNull(
+            Pattern.compile("@(?:[\\w.]+\\.)?XmlSchema\\s*\\([^)]*?\\bnamespace\\s*=\\s*\"([^\"]*)\""));
+
+    /**
+     * Pattern matching qualified type names, the first group is the package
+     */
+    protected static final Pattern QUALIFIED_NAME_PATTERN = Objects
+            .requireNonNull(Pattern.compile("(?<![\\w$.])([a-z_][\\w$]*(?:\\.[a-z_][\\w$]*)*)\\.[A-Z][\\w$]*"));
+
+    /**
+     * Levels of units
+     */
+    private final List<List<CompileUnit>> levels;
+
+    /**
+     * Create a new plan
+     *
+     * @param levels Levels of units
+     */
+    protected CompileUnitPlan(List<List<CompileUnit>> levels) {
+        this.levels = Objects.requireNonNull(ImmutableList.copyOf(levels));
+    }
+
+    /**
+     * Create a plan for generated Java source files
+     *
+     * @param sources Source files by path relative to their source directory
+     * @return Plan for the source files
+     */
+    public static CompileUnitPlan create(Map<String, Path> sources) {
+        Multimap<String, Path> packageFiles = Multimaps.newListMultimap(new TreeMap<>(), () -> new ArrayList<>());
+
+        for (Map.Entry<String, Path> source : sources.entrySet()) {
+            packageFiles.put(getPackageName(Objects.requireNonNull(source.getKey())), source.getValue());
+        }
+
+        Map<String, String> packageKeys = new HashMap<>();
+        Multimap<String, String> keyPackages = Multimaps.newSetMultimap(new TreeMap<>(), () -> new TreeSet<>());
+
+        for (String packageName : packageFiles.keySet()) {
+            String key = packageName;
+
+            for (Path file : packageFiles.get(packageName)) {
+                if (file.getFileName().toString().equals("package-info.java")) {
+                    Matcher matcher = SCHEMA_NAMESPACE_PATTERN.matcher(read(file));
+
+                    if (matcher.find()) {
+                        key = Objects.requireNonNull(matcher.group(1));
+                    }
+                }
+            }
+
+            packageKeys.put(packageName, key);
+            keyPackages.put(key, packageName);
+        }
+
+        Multimap<String, String> references = Multimaps.newSetMultimap(new HashMap<>(), () -> new LinkedHashSet<>());
+
+        for (Map.Entry<String, Path> file : packageFiles.entries()) {
+            String key = Objects.requireNonNull(packageKeys.get(file.getKey()));
+            Matcher matcher = QUALIFIED_NAME_PATTERN.matcher(read(Objects.requireNonNull(file.getValue())));
+
+            while (matcher.find()) {
+                String referencedKey = packageKeys.get(matcher.group(1));
+
+                if (referencedKey != null && !referencedKey.equals(key)) {
+                    references.put(key, referencedKey);
+                }
+            }
+        }
+
+        List<Set<String>> components = new SchemaPassPlan.ComponentFinder(keyPackages.keySet(), references).find();
+        Map<String, CompileUnit> units = new HashMap<>();
+        List<List<CompileUnit>> levels = new ArrayList<>();
+
+        for (Set<String> component : components) {
+            Set<CompileUnit> dependencies = new LinkedHashSet<>();
+            SortedSet<String> packages = new TreeSet<>();
+            List<Path> files = new ArrayList<>();
+            int level = 0;
+
+            for (String key : component) {
+                for (String packageName : keyPackages.get(key)) {
+                    packages.add(packageName);
+                    files.addAll(packageFiles.get(packageName));
+                }
+
+                for (String referencedKey : references.get(key)) {
+                    CompileUnit dependency = units.get(referencedKey);
+
+                    if (dependency != null && !component.contains(referencedKey)) {
+                        dependencies.add(dependency);
+                        dependencies.addAll(dependency.getDependencies());
+                        level = Math.max(level, dependency.getLevel() + 1);
+                    }
+                }
+            }
+
+            CompileUnit unit = new CompileUnit(units.size(), level, component, packages, files, dependencies);
+
+            for (String key : component) {
+                units.put(key, unit);
+            }
+
+            while (levels.size() <= level) {
+                levels.add(new ArrayList<>());
+            }
+
+            levels.get(level).add(unit);
+        }
+
+        return new CompileUnitPlan(levels);
+    }
+
+    /**
+     * Get the package of a source file
+     *
+     * @param path Path of the source file relative to its source directory
+     * @return Package name
+     */
+    protected static String getPackageName(String path) {
+        int separator = path.lastIndexOf('/');
+        return separator >= 0 ? path.substring(0, separator).replace('/', '.') : "";
+    }
+
+    /**
+     * Read a source file
+     *
+     * @param file File to read
+     * @return Content of the file
+     */
+    protected static String read(Path file) {
+        try {
+            return new String(Files.readAllBytes(file), StandardCharsets.UTF_8);
+        }
+        catch (IOException e) {
+            throw new GradleException(String.format("Could not read generated file %s", file), e);
+        }
+    }
+
+    /**
+     * Get the levels of units
+     *
+     * @return Levels of units, each level only depending on earlier levels
+     */
+    public List<List<CompileUnit>> getLevels() {
+        return this.levels;
+    }
+
+    /**
+     * Get all units
+     *
+     * @return Units, each unit after all units it depends on
+     */
+    public List<CompileUnit> getUnits() {
+        List<CompileUnit> units = new ArrayList<>();
+        this.levels.forEach(units::addAll);
+        return units;
+    }
+
+    /**
+     * Unit of generated code compiled together
+     */
+    public static class CompileUnit {
+
+        /**
+         * Index of the unit
+         */
+        private final int index;
+
+        /**
+         * Level of the unit
+         */
+        private final int level;
+
+        /**
+         * Namespaces of the unit, or package names for packages without namespace
+         */
+        private final SortedSet<String> namespaces;
+
+        /**
+         * Packages of the unit
+         */
+        private final SortedSet<String> packages;
+
+        /**
+         * Source files of the unit
+         */
+        private final List<Path> files;
+
+        /**
+         * Units this unit depends on, directly or indirectly
+         */
+        private final Set<CompileUnit> dependencies;
+
+        /**
+         * Create a new unit
+         *
+         * @param index Index of the unit
+         * @param level Level of the unit
+         * @param namespaces Namespaces of the unit, or package names for packages without namespace
+         * @param packages Packages of the unit
+         * @param files Source files of the unit
+         * @param dependencies Units this unit depends on, directly or indirectly
+         */
+        protected CompileUnit(int index, int level, Set<String> namespaces, Set<String> packages, List<Path> files,
+                Set<CompileUnit> dependencies) {
+            this.index = index;
+            this.level = level;
+            this.namespaces = Objects.requireNonNull(ImmutableSortedSet.copyOf(namespaces));
+            this.packages = Objects.requireNonNull(ImmutableSortedSet.copyOf(packages));
+            this.files = Objects.requireNonNull(ImmutableList.copyOf(files));
+            this.dependencies = Objects.requireNonNull(ImmutableSet.copyOf(dependencies));
+        }
+
+        /**
+         * @see java.lang.Object#toString()
+         */
+        @Override
+        public String toString() {
+            return String.format("unit %d %s", this.index, this.namespaces);
+        }
+
+        /**
+         * Get the index of the unit
+         *
+         * @return Index of the unit
+         */
+        public int getIndex() {
+            return this.index;
+        }
+
+        /**
+         * Get the level of the unit
+         *
+         * @return Level of the unit
+         */
+        public int getLevel() {
+            return this.level;
+        }
+
+        /**
+         * Get the namespaces of the unit
+         *
+         * @return Namespaces of the unit, or package names for packages without namespace
+         */
+        public SortedSet<String> getNamespaces() {
+            return this.namespaces;
+        }
+
+        /**
+         * Get the packages of the unit
+         *
+         * @return Packages of the unit
+         */
+        public SortedSet<String> getPackages() {
+            return this.packages;
+        }
+
+        /**
+         * Get the source files of the unit
+         *
+         * @return Source files
+         */
+        public List<Path> getFiles() {
+            return this.files;
+        }
+
+        /**
+         * Get the units this unit depends on
+         *
+         * @return Units this unit depends on, directly or indirectly
+         */
+        public Set<CompileUnit> getDependencies() {
+            return this.dependencies;
+        }
+    }
+}
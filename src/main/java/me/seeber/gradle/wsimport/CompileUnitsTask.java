@@ -0,0 +1,678 @@
+/**
+ * BSD 2-Clause License
+ *
+ * Copyright (c) 2016-2017, Jochen Seeber
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package me.seeber.gradle.wsimport;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import javax.inject.Inject;
+
+import org.eclipse.jdt.annotation.Nullable;
+import org.gradle.api.GradleException;
+import org.gradle.api.file.FileCollection;
+import org.gradle.api.internal.ConventionTask;
+import org.gradle.api.tasks.Classpath;
+import org.gradle.api.tasks.Input;
+import org.gradle.api.tasks.InputFiles;
+import org.gradle.api.tasks.Internal;
+import org.gradle.api.tasks.OutputDirectory;
+import org.gradle.api.tasks.SkipWhenEmpty;
+import org.gradle.api.tasks.TaskAction;
+import org.gradle.process.ExecResult;
+import org.gradle.process.internal.ExecActionFactory;
+import org.gradle.process.internal.JavaExecAction;
+
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+
+/**
+ * Compile generated code in separate units per XML namespace
+ *
+ * The generated packages are partitioned into units by {@link CompileUnitPlan}. Units that do not depend on each other
+ * are compiled concurrently in separate javac processes, each unit only with the classes of the units it depends on.
+ * Compiled units are kept in the work directory of the task and reused as long as their sources, the sources of their
+ * dependencies and the compiler options do not change.
+ */
+public class CompileUnitsTask extends ConventionTask {
+
+    /**
+     * Name of the file marking a completely compiled unit
+     */
+    protected static final String COMPLETE_FILE_NAME = "complete";
+
+    /**
+     * Factory to create actions
+     */
+    @Internal
+    private final ExecActionFactory actionFactory;
+
+    /**
+     * Directories containing the generated sources
+     */
+    private @Nullable FileCollection sourceDirs;
+
+    /**
+     * Class path to compile against
+     */
+    private @Nullable FileCollection classpath;
+
+    /**
+     * Destination directory for the compiled classes
+     */
+    private @Nullable File destinationDir;
+
+    /**
+     * Java language version of the sources
+     */
+    private @Nullable String sourceCompatibility;
+
+    /**
+     * Java version to generate classes for
+     */
+    private @Nullable String targetCompatibility;
+
+    /**
+     * Home directory of the Java installation used to compile, <code>null</code> to use the build JVM
+     */
+    private @Nullable File javaHome;
+
+    /**
+     * Maximum heap size of the compiler processes
+     */
+    private @Nullable String maxHeapSize;
+
+    /**
+     * Maximum number of units compiled concurrently, 0 to use the number of available processors
+     */
+    private int maxParallelUnits;
+
+    /**
+     * Create a new compile units task
+     *
+     * @param actionFactory Factory to create actions
+     */
+    @Inject
+    public CompileUnitsTask(ExecActionFactory actionFactory) {
+        this.actionFactory = actionFactory;
+    }
+
+    /**
+     * Compile the units
+     */
+    @TaskAction
+    protected void compile() {
+        Map<String, Path> sources = getSources();
+        Map<Path, String> relativePaths = sources.entrySet().stream()
+                .collect(Collectors.toMap(Map.Entry::getValue, Map.Entry::getKey));
+        CompileUnitPlan plan = CompileUnitPlan.create(sources);
+        Path unitsDir = getWorkDir().toPath().resolve("units");
+        Map<CompileUnitPlan.CompileUnit, Path> unitDirs = new HashMap<>();
+        String optionsKey = getOptionsKey();
+
+        ForkScheduler.getInstance().register(getProject().getGradle());
+
+        for (CompileUnitPlan.CompileUnit unit : plan.getUnits()) {
+            unitDirs.put(unit, unitsDir.resolve(getUnitKey(unit, relativePaths, unitDirs, optionsKey)));
+        }
+
+        AtomicInteger compiledCount = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(getParallelUnits());
+
+        try {
+            for (List<CompileUnitPlan.CompileUnit> level : plan.getLevels()) {
+                List<Future<?>> results = new ArrayList<>();
+
+                for (CompileUnitPlan.CompileUnit unit : level) {
+                    Path unitDir = Objects.requireNonNull(unitDirs.get(unit));
+
+                    if (!Files.isRegularFile(unitDir.resolve(COMPLETE_FILE_NAME))) {
+                        results.add(executor.submit(() -> {
+                            compileUnit(unit, unitDir, unitDirs);
+                            compiledCount.incrementAndGet();
+                        }));
+                    }
+                }
+
+                for (Future<?> result : results) {
+                    result.get();
+                }
+            }
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new GradleException("Interrupted while compiling generated code", e);
+        }
+        catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+
+            throw new GradleException("Error compiling generated code", e.getCause());
+        }
+        finally {
+            executor.shutdownNow();
+        }
+
+        writePlan(plan, unitDirs);
+        copyClasses(plan, unitDirs);
+        removeUnusedUnits(unitsDir, unitDirs.values());
+
+        getLogger().info("Compiled {} of {} units of generated code, reused the others", compiledCount.get(),
+                unitDirs.size());
+    }
+
+    /**
+     * Compile a single unit
+     *
+     * @param unit Unit to compile
+     * @param unitDir Directory to compile the unit in
+     * @param unitDirs Directories of all units
+     */
+    protected void compileUnit(CompileUnitPlan.CompileUnit unit, Path unitDir,
+            Map<CompileUnitPlan.CompileUnit, Path> unitDirs) {
+        Path classesDir = unitDir.resolve("classes");
+        Path argumentsFile = unitDir.resolve("arguments");
+        List<String> classpathEntries = new ArrayList<>();
+        List<String> arguments = new ArrayList<>();
+
+        Objects.requireNonNull(getClasspath()).forEach(f -> classpathEntries.add(f.getAbsolutePath()));
+        unit.getDependencies().forEach(d -> classpathEntries
+                .add(Objects.requireNonNull(unitDirs.get(d)).resolve("classes").toAbsolutePath().toString()));
+
+        arguments.addAll(Arrays.asList("-d", classesDir.toAbsolutePath().toString()));
+        arguments.addAll(Arrays.asList("-classpath", String.join(File.pathSeparator, classpathEntries)));
+        arguments.addAll(Arrays.asList("-encoding", "UTF-8", "-proc:none", "-implicit:none", "-nowarn"));
+        arguments.addAll(getCompilerOptions());
+        unit.getFiles().forEach(f -> arguments.add(f.toAbsolutePath().toString()));
+
+        try {
+            getProject().delete(unitDir.toFile());
+            Files.createDirectories(classesDir);
+            Files.write(argumentsFile, arguments.stream().map(a -> "\"" + a.replace('\\', '/') + "\"")
+                    .collect(Collectors.toList()), StandardCharsets.UTF_8);
+        }
+        catch (IOException e) {
+            throw new GradleException(String.format("Could not prepare directory %s", unitDir), e);
+        }
+
+        getLogger().debug("Compiling {} with arguments {}", unit, arguments);
+
+        JavaExecAction action = this.actionFactory.newJavaExecAction();
+        action.setMain("com.sun.tools.javac.Main");
+        action.setArgs(Collections.singletonList("@" + argumentsFile.toAbsolutePath()));
+        action.setClasspath(getProject().files(getCompilerClasspath()));
+        configureCompilerAction(action);
+
+        ExecResult result = executeCompiler(action);
+
+        if (result.getExitValue() != 0) {
+            throw new GradleException(String.format("Error compiling generated code of %s", unit));
+        }
+
+        try {
+            Files.createFile(unitDir.resolve(COMPLETE_FILE_NAME));
+        }
+        catch (IOException e) {
+            throw new GradleException(String.format("Could not mark %s as compiled", unit), e);
+        }
+    }
+
+    /**
+     * Run a compiler process once the build wide scheduler permits it
+     *
+     * @param action Action running the compiler
+     * @return Result of the process
+     */
+    protected ExecResult executeCompiler(JavaExecAction action) {
+        String heapSize = getMaxHeapSize();
+        long memory = heapSize != null ? WsimportTask.parseMemorySize(heapSize) : WsimportTask.DEFAULT_PASS_MEMORY;
+
+        try (ForkScheduler.Lease lease = ForkScheduler.getInstance().acquire(this, memory)) {
+            return action.execute();
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new GradleException("Interrupted while waiting to run javac", e);
+        }
+    }
+
+    /**
+     * Configure the Java process running the compiler
+     *
+     * @param action Action running the compiler
+     */
+    protected void configureCompilerAction(JavaExecAction action) {
+        String heapSize = getMaxHeapSize();
+        File home = getJavaHome();
+
+        if (heapSize != null) {
+            action.setMaxHeapSize(heapSize);
+        }
+
+        if (home != null) {
+            boolean windows = System.getProperty("os.name", "").toLowerCase(Locale.ROOT).startsWith("windows");
+            File executable = new File(home, windows ? "bin/java.exe" : "bin/java");
+
+            if (!executable.isFile()) {
+                throw new GradleException(String.format("No Java executable found in %s", home));
+            }
+
+            action.setExecutable(executable);
+        }
+    }
+
+    /**
+     * Get the class path containing the compiler
+     *
+     * Java 8 keeps the compiler in <code>lib/tools.jar</code> of the JDK, later versions include it in the runtime.
+     *
+     * @return Class path containing the compiler
+     */
+    protected List<File> getCompilerClasspath() {
+        File home = getJavaHome();
+
+        if (home == null) {
+            home = new File(System.getProperty("java.home"));
+        }
+
+        for (File candidate : new File[] { new File(home, "lib/tools.jar"), new File(home, "../lib/tools.jar") }) {
+            if (candidate.isFile()) {
+                return Collections.singletonList(candidate);
+            }
+        }
+
+        return Collections.emptyList();
+    }
+
+    /**
+     * Get the compiler options derived from the task properties
+     *
+     * @return Compiler options
+     */
+    protected List<String> getCompilerOptions() {
+        List<String> options = new ArrayList<>();
+        String source = getSourceCompatibility();
+        String target = getTargetCompatibility();
+
+        if (source != null) {
+            options.addAll(Arrays.asList("-source", source));
+        }
+
+        if (target != null) {
+            options.addAll(Arrays.asList("-target", target));
+        }
+
+        return options;
+    }
+
+    /**
+     * Get the generated source files
+     *
+     * @return Source files by path relative to their source directory
+     */
+    protected Map<String, Path> getSources() {
+        Map<String, Path> sources = new TreeMap<>();
+
+        for (File sourceDir : Objects.requireNonNull(getSourceDirs())) {
+            Path root = sourceDir.toPath();
+
+            if (!Files.isDirectory(root)) {
+                continue;
+            }
+
+            try (Stream<Path> files = Files.walk(root)) {
+                files.filter(f -> f.toString().endsWith(".java") && Files.isRegularFile(f))
+                        .forEach(f -> sources.put(root.relativize(f).toString().replace(File.separatorChar, '/'), f));
+            }
+            catch (IOException | UncheckedIOException e) {
+                throw new GradleException(String.format("Could not list generated sources in %s", root), e);
+            }
+        }
+
+        return sources;
+    }
+
+    /**
+     * Get the hash of the options affecting all units, i.e. the compiler options and the class path
+     *
+     * @return Hash of the options
+     */
+    protected String getOptionsKey() {
+        Hasher hasher = Hashing.sha256().newHasher();
+
+        hasher.putString(getCompilerOptions().toString(), StandardCharsets.UTF_8);
+        hasher.putString(String.valueOf(getJavaHome()), StandardCharsets.UTF_8);
+
+        for (File file : Objects.requireNonNull(getClasspath())) {
+            hasher.putString(file.getAbsolutePath(), StandardCharsets.UTF_8);
+            hasher.putLong(file.length());
+            hasher.putLong(file.lastModified());
+        }
+
+        return Objects.requireNonNull(hasher.hash().toString());
+    }
+
+    /**
+     * Get the hash identifying the compiled classes of a unit
+     *
+     * The hash covers the sources of the unit, the hashes of the units it depends on and the options.
+     *
+     * @param unit Unit
+     * @param relativePaths Paths of the source files relative to their source directory
+     * @param unitDirs Directories of the units created so far, named by their hash
+     * @param optionsKey Hash of the options
+     * @return Hash of the unit
+     */
+    protected String getUnitKey(CompileUnitPlan.CompileUnit unit, Map<Path, String> relativePaths,
+            Map<CompileUnitPlan.CompileUnit, Path> unitDirs, String optionsKey) {
+        Hasher hasher = Hashing.sha256().newHasher();
+        Set<String> dependencyKeys = new TreeSet<>();
+
+        hasher.putString(optionsKey, StandardCharsets.UTF_8);
+
+        for (CompileUnitPlan.CompileUnit dependency : unit.getDependencies()) {
+            dependencyKeys.add(Objects.requireNonNull(unitDirs.get(dependency)).getFileName().toString());
+        }
+
+        hasher.putString(dependencyKeys.toString(), StandardCharsets.UTF_8);
+
+        for (Path file : unit.getFiles()) {
+            hasher.putString(Objects.requireNonNull(relativePaths.get(file)), StandardCharsets.UTF_8);
+            hasher.putString(WsimportIndex.hash(file), StandardCharsets.UTF_8);
+        }
+
+        return Objects.requireNonNull(hasher.hash().toString());
+    }
+
+    /**
+     * Write the units and their dependencies to the work directory
+     *
+     * @param plan Plan of the units
+     * @param unitDirs Directories of the units
+     */
+    protected void writePlan(CompileUnitPlan plan, Map<CompileUnitPlan.CompileUnit, Path> unitDirs) {
+        List<String> lines = new ArrayList<>();
+
+        for (CompileUnitPlan.CompileUnit unit : plan.getUnits()) {
+            lines.add(String.format("%d\t%d\t%s\t%s\t%s\t%s", unit.getIndex(), unit.getLevel(),
+                    Objects.requireNonNull(unitDirs.get(unit)).getFileName(), String.join(" ", unit.getNamespaces()),
+                    String.join(" ", unit.getPackages()), unit.getDependencies().stream()
+                            .map(d -> String.valueOf(d.getIndex())).sorted().collect(Collectors.joining(" "))));
+        }
+
+        Path planFile = getWorkDir().toPath().resolve("units.txt");
+
+        try {
+            Files.createDirectories(planFile.getParent());
+            Files.write(planFile, lines, StandardCharsets.UTF_8);
+        }
+        catch (IOException e) {
+            throw new GradleException(String.format("Could not write unit plan %s", planFile), e);
+        }
+    }
+
+    /**
+     * Copy the compiled classes of all units into the destination directory
+     *
+     * @param plan Plan of the units
+     * @param unitDirs Directories of the units
+     */
+    protected void copyClasses(CompileUnitPlan plan, Map<CompileUnitPlan.CompileUnit, Path> unitDirs) {
+        File destination = Objects.requireNonNull(getDestinationDir());
+        getProject().delete(destination);
+
+        for (CompileUnitPlan.CompileUnit unit : plan.getUnits()) {
+            Path classesDir = Objects.requireNonNull(unitDirs.get(unit)).resolve("classes");
+
+            try (Stream<Path> files = Files.walk(classesDir)) {
+                for (Path file : (Iterable<Path>) files.filter(Files::isRegularFile)::iterator) {
+                    OutputMerger.linkOrCopy(file, destination.toPath().resolve(classesDir.relativize(file)));
+                }
+            }
+            catch (IOException | UncheckedIOException e) {
+                throw new GradleException(String.format("Could not copy classes of %s", unit), e);
+            }
+        }
+    }
+
+    /**
+     * Remove the directories of units that are no longer used
+     *
+     * @param unitsDir Directory containing the unit directories
+     * @param usedDirs Directories of the current units
+     */
+    protected void removeUnusedUnits(Path unitsDir, Collection<Path> usedDirs) {
+        if (!Files.isDirectory(unitsDir)) {
+            return;
+        }
+
+        try (Stream<Path> dirs = Files.list(unitsDir)) {
+            dirs.filter(d -> !usedDirs.contains(d)).forEach(d -> getProject().delete(d.toFile()));
+        }
+        catch (IOException e) {
+            throw new GradleException(String.format("Could not remove unused units from %s", unitsDir), e);
+        }
+    }
+
+    /**
+     * Get the number of units to compile concurrently
+     *
+     * @return Number of units to compile concurrently
+     */
+    protected int getParallelUnits() {
+        return getMaxParallelUnits() > 0 ? getMaxParallelUnits() : Runtime.getRuntime().availableProcessors();
+    }
+
+    /**
+     * Get the directory to keep the compiled units in
+     *
+     * @return Work directory of the task
+     */
+    protected File getWorkDir() {
+        return new File(getProject().getBuildDir(), "wsimport/" + getName());
+    }
+
+    /**
+     * Get the directories containing the generated sources
+     *
+     * @return Source directories
+     */
+    @InputFiles
+    @SkipWhenEmpty
+    public @Nullable FileCollection getSourceDirs() {
+        return this.sourceDirs;
+    }
+
+    /**
+     * Set the directories containing the generated sources
+     *
+     * @param sourceDirs Source directories
+     */
+    public void setSourceDirs(FileCollection sourceDirs) {
+        this.sourceDirs = sourceDirs;
+    }
+
+    /**
+     * Get the class path to compile against
+     *
+     * @return Class path
+     */
+    @Classpath
+    public @Nullable FileCollection getClasspath() {
+        return this.classpath;
+    }
+
+    /**
+     * Set the class path to compile against
+     *
+     * @param classpath Class path
+     */
+    public void setClasspath(FileCollection classpath) {
+        this.classpath = classpath;
+    }
+
+    /**
+     * Get the destination directory for the compiled classes
+     *
+     * @return Destination directory
+     */
+    @OutputDirectory
+    public @Nullable File getDestinationDir() {
+        return this.destinationDir;
+    }
+
+    /**
+     * Set the destination directory for the compiled classes
+     *
+     * @param destinationDir Destination directory
+     */
+    public void setDestinationDir(File destinationDir) {
+        this.destinationDir = destinationDir;
+    }
+
+    /**
+     * Get the Java language version of the sources
+     *
+     * @return Java language version, <code>null</code> to use the default of the compiler
+     */
+    @Input
+    @org.gradle.api.tasks.Optional
+    public @Nullable String getSourceCompatibility() {
+        return this.sourceCompatibility;
+    }
+
+    /**
+     * Set the Java language version of the sources
+     *
+     * @param sourceCompatibility Java language version, <code>null</code> to use the default of the compiler
+     */
+    public void setSourceCompatibility(@Nullable String sourceCompatibility) {
+        this.sourceCompatibility = sourceCompatibility;
+    }
+
+    /**
+     * Get the Java version to generate classes for
+     *
+     * @return Java version, <code>null</code> to use the default of the compiler
+     */
+    @Input
+    @org.gradle.api.tasks.Optional
+    public @Nullable String getTargetCompatibility() {
+        return this.targetCompatibility;
+    }
+
+    /**
+     * Set the Java version to generate classes for
+     *
+     * @param targetCompatibility Java version, <code>null</code> to use the default of the compiler
+     */
+    public void setTargetCompatibility(@Nullable String targetCompatibility) {
+        this.targetCompatibility = targetCompatibility;
+    }
+
+    /**
+     * Get the home directory of the Java installation used to compile
+     *
+     * @return Java home directory, <code>null</code> to use the build JVM
+     */
+    @Input
+    @org.gradle.api.tasks.Optional
+    public @Nullable File getJavaHome() {
+        return this.javaHome;
+    }
+
+    /**
+     * Set the home directory of the Java installation used to compile
+     *
+     * @param javaHome Java home directory, <code>null</code> to use the build JVM
+     */
+    public void setJavaHome(@Nullable File javaHome) {
+        this.javaHome = javaHome;
+    }
+
+    /**
+     * Get the maximum heap size of the compiler processes
+     *
+     * @return Maximum heap size, <code>null</code> to use the default of the JVM
+     */
+    @Internal
+    public @Nullable String getMaxHeapSize() {
+        return this.maxHeapSize;
+    }
+
+    /**
+     * Set the maximum heap size of the compiler processes
+     *
+     * @param maxHeapSize Maximum heap size, <code>null</code> to use the default of the JVM
+     */
+    public void setMaxHeapSize(@Nullable String maxHeapSize) {
+        this.maxHeapSize = maxHeapSize;
+    }
+
+    /**
+     * Get the maximum number of units compiled concurrently
+     *
+     * @return Maximum number of units, 0 to use the number of available processors
+     */
+    @Internal
+    public int getMaxParallelUnits() {
+        return this.maxParallelUnits;
+    }
+
+    /**
+     * Set the maximum number of units compiled concurrently
+     *
+     * @param maxParallelUnits Maximum number of units, 0 to use the number of available processors
+     */
+    public void setMaxParallelUnits(int maxParallelUnits) {
+        this.maxParallelUnits = maxParallelUnits;
+    }
+}
@@ -45,12 +45,30 @@ public class DefaultWsdlSourceSet extends BaseLanguageSourceSet implements WsdlS
      */
     private XjcConfig xjc;
 
+    /**
+     * Filter for port types and operations
+     */
+    private OperationFilter operations;
+
+    /**
+     * Configuration of the asynchronous client methods
+     */
+    private AsyncConfig async;
+
+    /**
+     * Configuration of binary attachments
+     */
+    private AttachmentConfig attachments;
+
     /**
      * Create a new WSDL source set
      */
     public DefaultWsdlSourceSet() {
         this.bindings = this.sourceDirectorySetFactory.create("bindings");
         this.xjc = new XjcConfig();
+        this.operations = new OperationFilter();
+        this.async = new AsyncConfig();
+        this.attachments = new AttachmentConfig();
     }
 
     /**
@@ -69,4 +87,28 @@ public class DefaultWsdlSourceSet extends BaseLanguageSourceSet implements WsdlS
         return this.xjc;
     }
 
+    /**
+     * @see me.seeber.gradle.wsimport.WsdlSourceSet#getOperations()
+     */
+    @Override
+    public OperationFilter getOperations() {
+        return this.operations;
+    }
+
+    /**
+     * @see me.seeber.gradle.wsimport.WsdlSourceSet#getAsync()
+     */
+    @Override
+    public AsyncConfig getAsync() {
+        return this.async;
+    }
+
+    /**
+     * @see me.seeber.gradle.wsimport.WsdlSourceSet#getAttachments()
+     */
+    @Override
+    public AttachmentConfig getAttachments() {
+        return this.attachments;
+    }
+
 }
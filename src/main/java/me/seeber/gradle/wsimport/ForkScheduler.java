@@ -0,0 +1,420 @@
+/**
+ * BSD 2-Clause License
+ *
+ * Copyright (c) 2016-2017, Jochen Seeber
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package me.seeber.gradle.wsimport;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.OperatingSystemMXBean;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Objects;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+import org.eclipse.jdt.annotation.Nullable;
+import org.gradle.api.Task;
+import org.gradle.api.execution.TaskExecutionGraph;
+import org.gradle.api.invocation.Gradle;
+import org.gradle.api.logging.Logger;
+import org.gradle.api.logging.Logging;
+
+/**
+ * Build wide scheduler for the tool processes forked by the wsimport tasks of all projects
+ *
+ * The number of concurrent processes is limited by a maximum count and by a memory budget, which is shared by all
+ * projects of a build. Waiting processes are started in order of their priority, and in order of arrival if the
+ * priority is the same. The priority of a task is the length of the longest chain of tasks depending on it, so tasks
+ * on the critical path of the build run first. The priorities are calculated once when the task graph is ready, so
+ * every task acquiring process slots must {@link #register(Gradle) register} the build before the task graph is
+ * populated.
+ *
+ * The limits are read from the properties <code>wsimport.maxForks</code> and <code>wsimport.memoryBudget</code> of
+ * the root project. By default the number of processes is limited to the number of processors, and the memory budget
+ * to three quarters of the total physical memory. The free physical memory is not used, since it does not include
+ * memory the operating system uses for caches and can reclaim, and is usually far too low on build servers.
+ */
+public class ForkScheduler {
+
+    /**
+     * Project property containing the maximum number of concurrent processes
+     */
+    public static final String MAX_FORKS_PROPERTY = "wsimport.maxForks";
+
+    /**
+     * Project property containing the memory budget, e.g. <code>8g</code>
+     */
+    public static final String MEMORY_BUDGET_PROPERTY = "wsimport.memoryBudget";
+
+    /**
+     * Share of the total physical memory used as memory budget if no budget is set, in percent
+     */
+    public static final int DEFAULT_MEMORY_SHARE = 75;
+
+    /**
+     * Logger
+     */
+    private static final Logger LOGGER = Objects.requireNonNull(Logging.getLogger(ForkScheduler.class));
+
+    /**
+     * Shared instance
+     */
+    private static final ForkScheduler INSTANCE = new ForkScheduler();
+
+    /**
+     * Requests waiting for a process slot, ordered by priority and arrival
+     */
+    private final PriorityQueue<Lease> waiting = new PriorityQueue<>();
+
+    /**
+     * Priorities of the tasks in the current task graph
+     */
+    private Map<Task, Integer> priorities = Collections.emptyMap();
+
+    /**
+     * Current build
+     */
+    private @Nullable Gradle build;
+
+    /**
+     * Maximum number of concurrent processes
+     */
+    private int maxForks = Runtime.getRuntime().availableProcessors();
+
+    /**
+     * Memory budget in bytes
+     */
+    private long memoryBudget = getDefaultMemoryBudget();
+
+    /**
+     * Number of running processes
+     */
+    private int running;
+
+    /**
+     * Memory reserved by the running processes
+     */
+    private long reservedMemory;
+
+    /**
+     * Number of requests, used to order requests with the same priority
+     */
+    private long requestCount;
+
+    /**
+     * Total time in milliseconds requests waited for a process slot
+     */
+    private long waitTime;
+
+    /**
+     * Get the shared instance
+     *
+     * @return Shared instance
+     */
+    public static ForkScheduler getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Register the build using the scheduler
+     *
+     * Reads the limits if a new build starts, calculates the priorities of the tasks when the task graph is ready,
+     * and reports the time spent waiting when the build finishes.
+     *
+     * @param gradle Current build
+     */
+    public synchronized void register(Gradle gradle) {
+        Gradle rootBuild = gradle;
+
+        while (rootBuild.getParent() != null) {
+            rootBuild = Objects.requireNonNull(rootBuild.getParent());
+        }
+
+        if (this.build != rootBuild) {
+            this.build = rootBuild;
+            this.priorities = Collections.emptyMap();
+            this.requestCount = 0L;
+            this.waitTime = 0L;
+
+            Object maxForks = rootBuild.getRootProject().findProperty(MAX_FORKS_PROPERTY);
+            Object memoryBudget = rootBuild.getRootProject().findProperty(MEMORY_BUDGET_PROPERTY);
+
+            this.maxForks = maxForks != null ? Math.max(1, Integer.parseInt(maxForks.toString().trim()))
+                    : Runtime.getRuntime().availableProcessors();
+            this.memoryBudget = memoryBudget != null ? WsimportTask.parseMemorySize(memoryBudget.toString())
+                    : getDefaultMemoryBudget();
+
+            Gradle finishedBuild = rootBuild;
+            rootBuild.getTaskGraph().whenReady(this::updatePriorities);
+            rootBuild.buildFinished(r -> finish(finishedBuild));
+        }
+    }
+
+    /**
+     * Report the time spent waiting and release the finished build
+     *
+     * @param rootBuild Finished build
+     */
+    protected synchronized void finish(Gradle rootBuild) {
+        if (this.build == rootBuild) {
+            report();
+            this.build = null;
+            this.priorities = Collections.emptyMap();
+        }
+    }
+
+    /**
+     * Wait until a process may be started
+     *
+     * @param task Task starting the process
+     * @param memory Memory the process may use in bytes
+     * @return Lease that must be closed when the process finished
+     * @throws InterruptedException if the thread is interrupted while waiting
+     */
+    public Lease acquire(Task task, long memory) throws InterruptedException {
+        Lease lease;
+
+        synchronized (this) {
+            lease = new Lease(getPriority(task), ++this.requestCount, memory);
+            this.waiting.add(lease);
+            long start = System.currentTimeMillis();
+
+            try {
+                while (this.waiting.peek() != lease || !canStart(memory)) {
+                    LOGGER.debug("Task {} waits for a wsimport process slot ({} running)", task.getPath(),
+                            this.running);
+                    wait();
+                }
+            }
+            finally {
+                this.waiting.remove(lease);
+                this.waitTime += System.currentTimeMillis() - start;
+                notifyAll();
+            }
+
+            ++this.running;
+            this.reservedMemory += memory;
+        }
+
+        return lease;
+    }
+
+    /**
+     * Check if a process can be started
+     *
+     * A process can always be started if no other process is running, even if it exceeds the memory budget.
+     *
+     * @param memory Memory the process may use in bytes
+     * @return <code>true</code> if the process can be started
+     */
+    protected boolean canStart(long memory) {
+        return this.running == 0
+                || (this.running < this.maxForks && this.reservedMemory + memory <= this.memoryBudget);
+    }
+
+    /**
+     * Release a process slot
+     *
+     * @param lease Lease of the process slot
+     */
+    protected synchronized void release(Lease lease) {
+        if (lease.released) {
+            return;
+        }
+
+        lease.released = true;
+        --this.running;
+        this.reservedMemory -= lease.memory;
+        notifyAll();
+    }
+
+    /**
+     * Get the priority of a task
+     *
+     * @param task Task
+     * @return Length of the longest chain of tasks in the task graph that depend on the task, 0 if the task is not
+     *         part of the task graph of the registered build
+     */
+    protected synchronized int getPriority(Task task) {
+        return this.priorities.getOrDefault(task, 0);
+    }
+
+    /**
+     * Calculate the priorities of the tasks of a task graph
+     *
+     * The task dependencies are resolved without holding the monitor of the scheduler, so tasks of other builds
+     * acquiring process slots are not blocked.
+     *
+     * @param graph Task graph that is ready
+     */
+    protected void updatePriorities(TaskExecutionGraph graph) {
+        Map<Task, Set<Task>> dependents = new HashMap<>();
+        Map<Task, Integer> priorities = new HashMap<>();
+
+        for (Task graphTask : graph.getAllTasks()) {
+            for (Task dependency : graphTask.getTaskDependencies().getDependencies(graphTask)) {
+                dependents.computeIfAbsent(dependency, t -> new HashSet<>()).add(graphTask);
+            }
+        }
+
+        for (Task graphTask : graph.getAllTasks()) {
+            calculatePriority(graphTask, dependents, priorities);
+        }
+
+        synchronized (this) {
+            this.priorities = priorities;
+        }
+    }
+
+    /**
+     * Calculate the priority of a task
+     *
+     * @param task Task
+     * @param dependents Tasks depending on each task
+     * @param priorities Priorities calculated so far
+     * @return Length of the longest chain of tasks depending on the task
+     */
+    protected static int calculatePriority(Task task, Map<Task, Set<Task>> dependents,
+            Map<Task, Integer> priorities) {
+        Integer priority = priorities.get(task);
+
+        if (priority == null) {
+            int depth = 0;
+            priorities.put(task, 0);
+
+            for (Task dependent : dependents.getOrDefault(task, Collections.emptySet())) {
+                depth = Math.max(depth, calculatePriority(dependent, dependents, priorities) + 1);
+            }
+
+            priority = depth;
+            priorities.put(task, priority);
+        }
+
+        return priority;
+    }
+
+    /**
+     * Report the time spent waiting for process slots
+     */
+    protected synchronized void report() {
+        if (this.waitTime > 0L) {
+            LOGGER.info("wsimport processes waited {} ms for a process slot (limit {} processes, {} MB memory)",
+                    this.waitTime, this.maxForks, this.memoryBudget / (1024L * 1024L));
+        }
+    }
+
+    /**
+     * Get the memory budget shared by all processes
+     *
+     * @return Memory budget in bytes
+     */
+    public synchronized long getMemoryBudget() {
+        return this.memoryBudget;
+    }
+
+    /**
+     * Get the memory budget used if no budget is set
+     *
+     * @return {@link #DEFAULT_MEMORY_SHARE} of the total physical memory in bytes, unlimited if the total physical
+     *         memory cannot be determined
+     */
+    public static long getDefaultMemoryBudget() {
+        OperatingSystemMXBean system = ManagementFactory.getOperatingSystemMXBean();
+
+        if (system instanceof com.sun.management.OperatingSystemMXBean) {
+            long total = ((com.sun.management.OperatingSystemMXBean) system).getTotalPhysicalMemorySize();
+
+            if (total > 0L) {
+                return total / 100L * DEFAULT_MEMORY_SHARE;
+            }
+        }
+
+        return Long.MAX_VALUE;
+    }
+
+    /**
+     * Permission to run a process
+     */
+    public class Lease implements AutoCloseable, Comparable<Lease> {
+
+        /**
+         * Priority of the task running the process
+         */
+        private final int priority;
+
+        /**
+         * Sequence number of the request
+         */
+        private final long sequence;
+
+        /**
+         * Memory the process may use in bytes
+         */
+        private final long memory;
+
+        /**
+         * <code>true</code> if the process slot was released, guarded by the monitor of the scheduler
+         */
+        private boolean released;
+
+        /**
+         * Create a new lease
+         *
+         * @param priority Priority of the task running the process
+         * @param sequence Sequence number of the request
+         * @param memory Memory the process may use in bytes
+         */
+        protected Lease(int priority, long sequence, long memory) {
+            this.priority = priority;
+            this.sequence = sequence;
+            this.memory = memory;
+        }
+
+        /**
+         * @see java.lang.Comparable#compareTo(java.lang.Object)
+         */
+        @Override
+        public int compareTo(@Nullable Lease other) {
+            Lease lease = Objects.requireNonNull(other);
+            int result = Integer.compare(lease.priority, this.priority);
+            return result != 0 ? result : Long.compare(this.sequence, lease.sequence);
+        }
+
+        /**
+         * Release the process slot, closing the lease more than once has no effect
+         *
+         * @see java.lang.AutoCloseable#close()
+         */
+        @Override
+        public void close() {
+            release(this);
+        }
+
+    }
+
+}
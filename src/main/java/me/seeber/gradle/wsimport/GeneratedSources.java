@@ -0,0 +1,118 @@
+/**
+ * BSD 2-Clause License
+ *
+ * Copyright (c) 2016-2017, Jochen Seeber
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package me.seeber.gradle.wsimport;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.gradle.api.GradleException;
+
+/**
+ * Post-process the Java files generated by a wsimport run
+ *
+ * The generated files are read once and handed to all processors in order, so each processor sees the content written
+ * by the processors before it.
+ */
+public class GeneratedSources {
+
+    /**
+     * Processor of the generated Java files
+     */
+    public interface Processor {
+
+        /**
+         * Process a generated Java file
+         *
+         * @param file Java file
+         * @param source Content of the file
+         * @return Content of the file after processing, handed to the following processors
+         * @throws IOException if the file could not be written or a file could not be generated
+         */
+        String process(Path file, String source) throws IOException;
+
+        /**
+         * Complete the processing after all files were processed
+         *
+         * @param directory Directory containing the generated Java files
+         * @throws IOException if a file could not be generated
+         */
+        default void complete(Path directory) throws IOException {
+        }
+
+    }
+
+    /**
+     * Process the Java files in a directory
+     *
+     * Only files modified at or after a point in time are read, so files generated by earlier runs into the same
+     * directory are not read again. Files generated by the processors are not processed.
+     *
+     * @param directory Directory containing the generated Java files
+     * @param modifiedSince Time in milliseconds since the epoch
+     * @param processors Processors to hand the files to
+     */
+    public static void process(Path directory, long modifiedSince, List<? extends Processor> processors) {
+        if (processors.isEmpty() || !Files.isDirectory(directory)) {
+            return;
+        }
+
+        try {
+            List<Path> files = new ArrayList<>();
+
+            try (Stream<Path> walk = Files.walk(directory)) {
+                for (Path file : (Iterable<Path>) walk::iterator) {
+                    if (file.toString().endsWith(".java") && Files.isRegularFile(file)
+                            && Files.getLastModifiedTime(file).toMillis() >= modifiedSince) {
+                        files.add(file);
+                    }
+                }
+            }
+
+            for (Path file : files) {
+                String source = new String(Files.readAllBytes(file), StandardCharsets.UTF_8);
+
+                for (Processor processor : processors) {
+                    source = processor.process(file, source);
+                }
+            }
+
+            for (Processor processor : processors) {
+                processor.complete(directory);
+            }
+        }
+        catch (IOException e) {
+            throw new GradleException(String.format("Could not process the generated code in %s", directory), e);
+        }
+    }
+
+}
@@ -0,0 +1,236 @@
+/**
+ * BSD 2-Clause License
+ *
+ * Copyright (c) 2016-2017, Jochen Seeber
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package me.seeber.gradle.wsimport;
+
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.eclipse.jdt.annotation.Nullable;
+import org.gradle.api.invocation.Gradle;
+import org.gradle.api.logging.Logger;
+import org.gradle.api.logging.Logging;
+
+import com.google.common.collect.ImmutableSet;
+
+/**
+ * Build wide registry of the code generated for WSDL files
+ *
+ * Generations are keyed by a hash of the WSDL content, its imports and all options that affect the generated code.
+ * Tasks that find a generation with the same key reuse its output instead of running wsimport again. The registry is
+ * cleared at the start of each build.
+ */
+public class GenerationCache {
+
+    /**
+     * Logger
+     */
+    private static final Logger LOGGER = Objects.requireNonNull(Logging.getLogger(GenerationCache.class));
+
+    /**
+     * Shared instance
+     */
+    private static final GenerationCache INSTANCE = new GenerationCache();
+
+    /**
+     * Generations of the current build
+     */
+    private final Map<String, Generation> generations = new ConcurrentHashMap<>();
+
+    /**
+     * Number of WSDL files whose code was reused
+     */
+    private final AtomicInteger reusedWsdls = new AtomicInteger();
+
+    /**
+     * Number of files reused
+     */
+    private final AtomicInteger reusedFiles = new AtomicInteger();
+
+    /**
+     * Current build
+     */
+    private @Nullable Gradle build;
+
+    /**
+     * Get the shared instance
+     *
+     * @return Shared instance
+     */
+    public static GenerationCache getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Register the build using the registry
+     *
+     * Clears the registry if a new build starts, and reports the reused generations when the build finishes.
+     *
+     * @param gradle Current build
+     */
+    public synchronized void register(Gradle gradle) {
+        Gradle rootBuild = gradle;
+
+        while (rootBuild.getParent() != null) {
+            rootBuild = Objects.requireNonNull(rootBuild.getParent());
+        }
+
+        if (this.build != rootBuild) {
+            clear();
+            this.build = rootBuild;
+
+            Gradle finishedBuild = rootBuild;
+            rootBuild.buildFinished(r -> finish(finishedBuild));
+        }
+    }
+
+    /**
+     * Report the reused generations and release the finished build
+     *
+     * The registry is shared by all builds of a daemon, so it must not keep the finished build alive.
+     *
+     * @param rootBuild Finished build
+     */
+    protected synchronized void finish(Gradle rootBuild) {
+        if (this.build == rootBuild) {
+            report();
+            clear();
+            this.build = null;
+        }
+    }
+
+    /**
+     * Get a generation
+     *
+     * @param key Key of the generation
+     * @return Generation, <code>null</code> if there is no generation with this key
+     */
+    public @Nullable Generation get(String key) {
+        return this.generations.get(key);
+    }
+
+    /**
+     * Add a generation
+     *
+     * @param key Key of the generation
+     * @param outputDir Directory containing the generated files
+     * @param files Generated files relative to the output directory
+     */
+    public void put(String key, Path outputDir, Collection<String> files) {
+        this.generations.putIfAbsent(key, new Generation(outputDir, files));
+    }
+
+    /**
+     * Record that a generation was reused
+     *
+     * @param generation Generation that was reused
+     */
+    public void recordReuse(Generation generation) {
+        this.reusedWsdls.incrementAndGet();
+        this.reusedFiles.addAndGet(generation.getFiles().size());
+    }
+
+    /**
+     * Get the number of WSDL files whose code was reused
+     *
+     * @return Number of WSDL files whose code was reused
+     */
+    public int getReusedWsdls() {
+        return this.reusedWsdls.get();
+    }
+
+    /**
+     * Report the reused generations
+     */
+    protected void report() {
+        if (this.reusedWsdls.get() > 0) {
+            LOGGER.lifecycle("wsimport reused the code generated for {} WSDL files ({} files) in this build",
+                    this.reusedWsdls.get(), this.reusedFiles.get());
+        }
+    }
+
+    /**
+     * Clear the registry
+     */
+    protected void clear() {
+        this.generations.clear();
+        this.reusedWsdls.set(0);
+        this.reusedFiles.set(0);
+    }
+
+    /**
+     * Code generated for a WSDL file
+     */
+    public static class Generation {
+
+        /**
+         * Directory containing the generated files
+         */
+        private final Path outputDir;
+
+        /**
+         * Generated files relative to the output directory
+         */
+        private final Set<String> files;
+
+        /**
+         * Create a new generation
+         *
+         * @param outputDir Directory containing the generated files
+         * @param files Generated files relative to the output directory
+         */
+        public Generation(Path outputDir, Collection<String> files) {
+            this.outputDir = outputDir;
+            this.files = Objects.requireNonNull(ImmutableSet.copyOf(files));
+        }
+
+        /**
+         * Get the directory containing the generated files
+         *
+         * @return Directory containing the generated files
+         */
+        public Path getOutputDir() {
+            return this.outputDir;
+        }
+
+        /**
+         * Get the generated files
+         *
+         * @return Generated files relative to the output directory
+         */
+        public Set<String> getFiles() {
+            return this.files;
+        }
+
+    }
+
+}
@@ -0,0 +1,255 @@
+/**
+ * BSD 2-Clause License
+ *
+ * Copyright (c) 2016-2017, Jochen Seeber
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package me.seeber.gradle.wsimport;
+
+import java.io.IOException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.eclipse.jdt.annotation.Nullable;
+import org.gradle.api.GradleException;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.io.Resources;
+
+/**
+ * Generate handlers recording the latency, message sizes and faults of the calls of generated clients
+ *
+ * The classes <code>MessageMetrics</code>, <code>HistogramMetrics</code>, <code>MetricsHandler</code> and
+ * <code>MessageSizeHandler</code> are generated into the metrics package. <code>MessageMetrics</code> is the interface
+ * receiving the metrics, with a no-op default that can be replaced by registering an implementation as service
+ * provider. For every generated service, e.g. <code>Weather</code>, the class <code>WeatherMetrics</code> is generated
+ * into the package of the service. It installs a metrics handler on all ports of the service or on individual ports.
+ */
+public class MetricsGenerator implements GeneratedSources.Processor {
+
+    /**
+     * Suffix of the generated classes for services
+     */
+    public static final String METRICS_SUFFIX = "Metrics";
+
+    /**
+     * Default package of the generated metrics classes
+     */
+    public static final String DEFAULT_PACKAGE = "me.seeber.wsimport.metrics";
+
+    /**
+     * Templates of the classes generated into the metrics package
+     */
+    protected static final List<String> TEMPLATES = Objects.requireNonNull(
+            ImmutableList.of("MessageMetrics", "HistogramMetrics", "MetricsHandler", "MessageSizeHandler"));
+
+    /**
+     * Pattern matching the declaration of a service class
+     */
+    protected static final Pattern SERVICE_PATTERN = Objects.requireNonNull(
+            Pattern.compile("@WebServiceClient\\b[\\s\\S]*?\\bpublic\\s+class\\s+(\\w+)\\s+extends\\s+Service\\b"));
+
+    /**
+     * Pattern matching the methods of a service class returning a port
+     */
+    protected static final Pattern PORT_PATTERN = Objects.requireNonNull(
+            Pattern.compile("@WebEndpoint\\s*\\([^)]*\\)\\s*public\\s+([\\w.]+)\\s+(get\\w+)\\s*\\(\\s*\\)"));
+
+    /**
+     * Package of the generated metrics classes
+     */
+    private final String metricsPackage;
+
+    /**
+     * API package prefixes used by the services found by this generator
+     */
+    private final Set<String> apis = new TreeSet<>();
+
+    /**
+     * Number of services metrics classes were generated for by this generator
+     */
+    private int count;
+
+    /**
+     * Create a new generator
+     *
+     * @param metricsPackage Package of the generated metrics classes
+     */
+    public MetricsGenerator(String metricsPackage) {
+        this.metricsPackage = metricsPackage;
+    }
+
+    /**
+     * Generate the metrics classes for the services in a directory
+     *
+     * The classes of the metrics package are only written if a service was found.
+     *
+     * @param directory Directory containing the generated Java files
+     * @param modifiedSince Time in milliseconds since the epoch, see {@link GeneratedSources#process}
+     * @return Number of services metrics classes were generated for
+     */
+    public int generate(Path directory, long modifiedSince) {
+        GeneratedSources.process(directory, modifiedSince, Collections.singletonList(this));
+        return this.count;
+    }
+
+    /**
+     * Get the number of services metrics classes were generated for by this generator
+     *
+     * @return Number of services metrics classes were generated for
+     */
+    public int getCount() {
+        return this.count;
+    }
+
+    /**
+     * @see me.seeber.gradle.wsimport.GeneratedSources.Processor#process(java.nio.file.Path, java.lang.String)
+     */
+    @Override
+    public String process(Path file, String source) throws IOException {
+        String api = generate(file, source);
+
+        if (api != null) {
+            this.apis.add(api);
+            ++this.count;
+        }
+
+        return source;
+    }
+
+    /**
+     * @see me.seeber.gradle.wsimport.GeneratedSources.Processor#complete(java.nio.file.Path)
+     */
+    @Override
+    public void complete(Path directory) throws IOException {
+        if (this.apis.size() > 1) {
+            throw new GradleException(String.format("Services in %s use different APIs %s", directory, this.apis));
+        }
+
+        if (!this.apis.isEmpty()) {
+            writeTemplates(directory, this.apis.iterator().next());
+        }
+    }
+
+    /**
+     * Generate the metrics class for a service
+     *
+     * @param file Java file
+     * @param source Content of the file
+     * @return API package prefix used by the service, <code>null</code> if the file does not contain a service
+     * @throws IOException if the metrics class could not be written
+     */
+    protected @Nullable String generate(Path file, String source) throws IOException {
+        Matcher serviceMatcher = SERVICE_PATTERN.matcher(source);
+
+        if (!serviceMatcher.find()) {
+            return null;
+        }
+
+        String serviceName = Objects.requireNonNull(serviceMatcher.group(1));
+        String className = serviceName + METRICS_SUFFIX;
+        Set<String> imports = new TreeSet<>();
+        Matcher importMatcher = AsyncAdapterGenerator.IMPORT_PATTERN.matcher(source);
+
+        while (importMatcher.find()) {
+            imports.add(importMatcher.group(1));
+        }
+
+        imports.add(this.metricsPackage + ".MessageMetrics");
+        imports.add(this.metricsPackage + ".MetricsHandler");
+
+        Matcher packageMatcher = AsyncAdapterGenerator.PACKAGE_PATTERN.matcher(source);
+        StringBuilder metrics = new StringBuilder();
+
+        if (packageMatcher.find()) {
+            metrics.append("package ").append(packageMatcher.group(1)).append(";\n\n");
+        }
+
+        imports.forEach(i -> metrics.append("import ").append(i).append(";\n"));
+        metrics.append("\n");
+        metrics.append("/**\n");
+        metrics.append(" * Metrics handlers for the ports of {@link ").append(serviceName).append("}\n");
+        metrics.append(" *\n");
+        metrics.append(" * This class was generated by the wsimport plugin.\n");
+        metrics.append(" */\n");
+        metrics.append("public final class ").append(className).append(" {\n\n");
+        metrics.append("    private ").append(className).append("() {\n");
+        metrics.append("    }\n\n");
+        metrics.append("    public static ").append(serviceName).append(" install(").append(serviceName)
+                .append(" service, MessageMetrics metrics) {\n");
+        metrics.append("        service.setHandlerResolver(MetricsHandler.handlerResolver(metrics));\n");
+        metrics.append("        return service;\n");
+        metrics.append("    }\n\n");
+
+        Matcher portMatcher = PORT_PATTERN.matcher(source);
+
+        while (portMatcher.find()) {
+            String portType = portMatcher.group(1);
+            String getter = portMatcher.group(2);
+
+            metrics.append("    public static ").append(portType).append(" ").append(getter).append("(")
+                    .append(serviceName).append(" service) {\n");
+            metrics.append("        return ").append(getter).append("(service, MessageMetrics.load());\n");
+            metrics.append("    }\n\n");
+            metrics.append("    public static ").append(portType).append(" ").append(getter).append("(")
+                    .append(serviceName).append(" service, MessageMetrics metrics) {\n");
+            metrics.append("        return MetricsHandler.install(service.").append(getter).append("(), metrics);\n");
+            metrics.append("    }\n\n");
+        }
+
+        metrics.append("}\n");
+
+        Files.write(file.resolveSibling(className + ".java"), metrics.toString().getBytes(StandardCharsets.UTF_8));
+        return source.contains("jakarta.xml.ws.") ? ApiPackageMapper.JAKARTA : ApiPackageMapper.JAVAX;
+    }
+
+    /**
+     * Write the classes of the metrics package
+     *
+     * @param directory Directory containing the generated Java files
+     * @param api API package prefix, either <code>javax</code> or <code>jakarta</code>
+     * @throws IOException if a template could not be read or a class could not be written
+     */
+    protected void writeTemplates(Path directory, String api) throws IOException {
+        Path packageDir = directory.resolve(this.metricsPackage.replace('.', '/'));
+        Files.createDirectories(packageDir);
+
+        for (String template : TEMPLATES) {
+            URL resource = Resources.getResource(MetricsGenerator.class, "metrics/" + template + ".java.template");
+            String content = Resources.toString(resource, StandardCharsets.UTF_8)
+                    .replace("${package}", this.metricsPackage).replace("${api}", api);
+            Files.write(packageDir.resolve(template + ".java"), content.getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+}
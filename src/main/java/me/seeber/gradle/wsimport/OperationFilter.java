@@ -0,0 +1,95 @@
+/**
+ * BSD 2-Clause License
+ *
+ * Copyright (c) 2016-2017, Jochen Seeber
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package me.seeber.gradle.wsimport;
+
+import java.io.Serializable;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+
+import com.google.common.collect.ImmutableList;
+
+/**
+ * Filter for the port types and operations to generate code for
+ *
+ * Patterns have the form <code>PortType</code> or <code>PortType/operation</code> and may contain '*' as wildcard.
+ */
+public class OperationFilter implements Serializable {
+
+    /**
+     * Serialization ID
+     */
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Patterns of operations to include
+     */
+    private List<String> includes = Collections.emptyList();
+
+    /**
+     * Patterns of operations to exclude
+     */
+    private List<String> excludes = Collections.emptyList();
+
+    /**
+     * Get the patterns of operations to include
+     *
+     * @return Patterns of operations to include, empty to include all operations
+     */
+    public List<String> getIncludes() {
+        return this.includes;
+    }
+
+    /**
+     * Set the patterns of operations to include
+     *
+     * @param includes Patterns of operations to include, empty to include all operations
+     */
+    public void setIncludes(List<String> includes) {
+        this.includes = Objects.requireNonNull(ImmutableList.copyOf(includes));
+    }
+
+    /**
+     * Get the patterns of operations to exclude
+     *
+     * @return Patterns of operations to exclude
+     */
+    public List<String> getExcludes() {
+        return this.excludes;
+    }
+
+    /**
+     * Set the patterns of operations to exclude
+     *
+     * @param excludes Patterns of operations to exclude
+     */
+    public void setExcludes(List<String> excludes) {
+        this.excludes = Objects.requireNonNull(ImmutableList.copyOf(excludes));
+    }
+
+}
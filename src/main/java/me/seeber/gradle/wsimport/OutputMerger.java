@@ -0,0 +1,193 @@
+/**
+ * BSD 2-Clause License
+ *
+ * Copyright (c) 2016-2017, Jochen Seeber
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package me.seeber.gradle.wsimport;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.gradle.api.GradleException;
+
+/**
+ * Merge the files generated for single WSDL files into a common output directory
+ *
+ * Files with the same path generated for different WSDL files must have identical content, otherwise the merge fails.
+ * Files are hard linked into the output directory if possible, and copied otherwise.
+ */
+public class OutputMerger {
+
+    /**
+     * Output directory to merge the files into
+     */
+    private final Path destinationDir;
+
+    /**
+     * Files to merge, keyed by path relative to the output directory
+     */
+    private final Map<Path, Path> files = new TreeMap<>();
+
+    /**
+     * WSDL files that generated the files to merge, keyed by path relative to the output directory
+     */
+    private final Map<Path, String> owners = new TreeMap<>();
+
+    /**
+     * Descriptions of conflicting files
+     */
+    private final List<String> conflicts = new ArrayList<>();
+
+    /**
+     * Create a new merger
+     *
+     * @param destinationDir Output directory to merge the files into
+     */
+    public OutputMerger(Path destinationDir) {
+        this.destinationDir = destinationDir;
+    }
+
+    /**
+     * Add the files generated for a WSDL file
+     *
+     * @param wsdl Path of the WSDL file
+     * @param stagingDir Directory containing the files generated for the WSDL file
+     */
+    public void add(String wsdl, Path stagingDir) {
+        if (!Files.isDirectory(stagingDir)) {
+            return;
+        }
+
+        try (Stream<Path> stagedFiles = Files.walk(stagingDir)) {
+            for (Path file : stagedFiles.filter(Files::isRegularFile).collect(Collectors.toList())) {
+                Path relativeFile = stagingDir.relativize(file);
+                Path existingFile = this.files.get(relativeFile);
+
+                if (existingFile == null) {
+                    this.files.put(relativeFile, file);
+                    this.owners.put(relativeFile, wsdl);
+                }
+                else if (!hasSameContent(existingFile, file)) {
+                    this.conflicts.add(String.format("%s (generated for %s and %s)", relativeFile,
+                            this.owners.get(relativeFile), wsdl));
+                }
+            }
+        }
+        catch (IOException e) {
+            throw new GradleException(String.format("Could not read generated files in %s", stagingDir), e);
+        }
+    }
+
+    /**
+     * Merge the added files into the output directory
+     *
+     * @return Number of files linked or copied into the output directory
+     */
+    public int merge() {
+        if (!this.conflicts.isEmpty()) {
+            throw new GradleException(String.format(
+                    "Different files with the same name were generated for several WSDL files, "
+                            + "please use different packages:%n  %s",
+                    String.join(String.format("%n  "), this.conflicts)));
+        }
+
+        int count = 0;
+
+        for (Map.Entry<Path, Path> entry : this.files.entrySet()) {
+            Path source = Objects.requireNonNull(entry.getValue());
+            Path target = this.destinationDir.resolve(entry.getKey());
+
+            try {
+                if (Files.exists(target) && (Files.isSameFile(source, target) || isCopy(source, target))) {
+                    continue;
+                }
+
+                linkOrCopy(source, target);
+                ++count;
+            }
+            catch (IOException e) {
+                throw new GradleException(String.format("Could not copy %s to %s", source, target), e);
+            }
+        }
+
+        return count;
+    }
+
+    /**
+     * Hard link a file to a target file, or copy it if hard links are not supported
+     *
+     * @param source Source file
+     * @param target Target file, replaced if it exists
+     * @throws IOException if the file cannot be copied
+     */
+    public static void linkOrCopy(Path source, Path target) throws IOException {
+        Files.createDirectories(target.toAbsolutePath().getParent());
+        Files.deleteIfExists(target);
+
+        try {
+            Files.createLink(target, source);
+        }
+        catch (IOException | UnsupportedOperationException e) {
+            Files.copy(source, target, StandardCopyOption.COPY_ATTRIBUTES);
+        }
+    }
+
+    /**
+     * Check if a file is an unchanged copy of another file
+     *
+     * @param source Source file
+     * @param target Copied file
+     * @return <code>true</code> if both files have the same size and modification time
+     * @throws IOException if the file attributes cannot be read
+     */
+    protected static boolean isCopy(Path source, Path target) throws IOException {
+        // Compare milliseconds, since file systems store modification times with different precision
+        return Files.size(source) == Files.size(target)
+                && Files.getLastModifiedTime(source).toMillis() == Files.getLastModifiedTime(target).toMillis();
+    }
+
+    /**
+     * Check if two files have the same content
+     *
+     * @param file1 First file
+     * @param file2 Second file
+     * @return <code>true</code> if both files have the same content
+     * @throws IOException if the files cannot be read
+     */
+    protected static boolean hasSameContent(Path file1, Path file2) throws IOException {
+        return Files.size(file1) == Files.size(file2) && com.google.common.io.Files.asByteSource(file1.toFile())
+                .contentEquals(com.google.common.io.Files.asByteSource(file2.toFile()));
+    }
+
+}
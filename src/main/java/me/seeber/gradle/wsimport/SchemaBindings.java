@@ -0,0 +1,430 @@
+/**
+ * BSD 2-Clause License
+ *
+ * Copyright (c) 2016-2017, Jochen Seeber
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package me.seeber.gradle.wsimport;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+import javax.xml.parsers.DocumentBuilder;
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.transform.Transformer;
+import javax.xml.transform.TransformerException;
+import javax.xml.transform.TransformerFactory;
+import javax.xml.transform.dom.DOMSource;
+import javax.xml.transform.stream.StreamResult;
+
+import org.eclipse.jdt.annotation.Nullable;
+import org.gradle.api.GradleException;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+import org.xml.sax.SAXException;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+
+/**
+ * Select the JAXB customizations of binding files for the schema compiler passes
+ *
+ * Each pass receives a copy of the binding files that only contains the bindings of the schemas compiled by the pass,
+ * since the schema compiler rejects bindings of schemas that are not part of the compilation. Global bindings apply to
+ * all passes. Binding files that are not JAXB binding files, e.g. JAX-WS binding files, are left to wsimport.
+ * Binding files of WSDL files that are rewritten before code generation are relocated to the rewritten copies, see
+ * {@link #relocate(Collection, Map, Path)}.
+ */
+public class SchemaBindings {
+
+    /**
+     * Namespaces of JAXB binding elements
+     */
+    protected static final Set<String> JAXB_NAMESPACES = Objects
+            .requireNonNull(ImmutableSet.of("http://java.sun.com/xml/ns/jaxb", "https://jakarta.ee/xml/ns/jaxb"));
+
+    /**
+     * Attributes of bindings elements that contain the location of a WSDL file or schema
+     */
+    protected static final List<String> LOCATION_ATTRIBUTES = Objects
+            .requireNonNull(ImmutableList.of("wsdlLocation", "schemaLocation"));
+
+    /**
+     * JAXB binding documents by their file
+     */
+    private final Map<File, Document> documents = new LinkedHashMap<>();
+
+    /**
+     * Local schemas customized by the bindings
+     */
+    private final Set<Path> schemas = new LinkedHashSet<>();
+
+    /**
+     * Local schemas whose bindings were selected for a pass
+     */
+    private final Set<Path> selectedSchemas = new HashSet<>();
+
+    /**
+     * Create the schema bindings
+     *
+     * @param bindingFiles Binding files, files that are not JAXB binding files are ignored
+     */
+    public SchemaBindings(Collection<File> bindingFiles) {
+        DocumentBuilder builder = createDocumentBuilder();
+
+        for (File bindingFile : bindingFiles) {
+            if (bindingFile.isFile()) {
+                try {
+                    Document document = builder.parse(bindingFile);
+
+                    if (isBindings(document.getDocumentElement())) {
+                        this.documents.put(bindingFile, document);
+                        collectSchemas(document.getDocumentElement(), bindingFile.toURI());
+                    }
+                }
+                catch (IOException | SAXException e) {
+                    throw new GradleException(String.format("Could not read binding file %s", bindingFile), e);
+                }
+            }
+        }
+    }
+
+    /**
+     * Write the binding files for a schema compiler pass
+     *
+     * @param schemaFiles Schema files compiled by the pass, see {@link #getCompiledFiles(Collection, List)}
+     * @param targetDir Directory to write the binding files to
+     * @return Binding files for the pass
+     */
+    public List<File> write(Collection<Path> schemaFiles, Path targetDir) {
+        List<File> files = new ArrayList<>();
+        Set<Path> schemas = new HashSet<>(schemaFiles);
+
+        for (Map.Entry<File, Document> entry : this.documents.entrySet()) {
+            File bindingFile = Objects.requireNonNull(entry.getKey());
+            Document document = (Document) entry.getValue().cloneNode(true);
+
+            if (select(document.getDocumentElement(), bindingFile.toURI(), schemas)) {
+                File file = targetDir.resolve(files.size() + "-" + bindingFile.getName()).toFile();
+                write(document, file);
+                files.add(file);
+            }
+        }
+
+        return files;
+    }
+
+    /**
+     * Write copies of binding files that refer to copies of the WSDL documents
+     *
+     * Since the schema compiler and wsimport only apply bindings to the documents they read, the WSDL and schema
+     * locations of the bindings are rewritten to the copies of the documents. Locations of documents that were not
+     * copied are rewritten to absolute URIs, so the binding files can be written to a different directory.
+     *
+     * @param bindingFiles Binding files
+     * @param copies Copies of the local documents, by the normalized absolute path of the original
+     * @param targetDir Directory to write the binding files to
+     * @return Copies of the binding files
+     */
+    public static List<File> relocate(Collection<File> bindingFiles, Map<Path, Path> copies, Path targetDir) {
+        DocumentBuilder builder = createDocumentBuilder();
+        List<File> files = new ArrayList<>();
+
+        for (File bindingFile : bindingFiles) {
+            if (bindingFile.isFile()) {
+                Document document;
+
+                try {
+                    document = builder.parse(bindingFile);
+                }
+                catch (IOException | SAXException e) {
+                    throw new GradleException(String.format("Could not read binding file %s", bindingFile), e);
+                }
+
+                relocate(document.getDocumentElement(), bindingFile.toURI(), copies);
+
+                File file = targetDir.resolve(files.size() + "-" + bindingFile.getName()).toFile();
+                write(document, file);
+                files.add(file);
+            }
+        }
+
+        return files;
+    }
+
+    /**
+     * Rewrite the WSDL and schema locations of a bindings element and its descendants to the copies of the documents
+     *
+     * @param element Element to rewrite
+     * @param base URI of the binding file
+     * @param copies Copies of the local documents, by the normalized absolute path of the original
+     */
+    protected static void relocate(Element element, URI base, Map<Path, Path> copies) {
+        if ("bindings".equals(element.getLocalName())) {
+            for (String attribute : LOCATION_ATTRIBUTES) {
+                String location = element.getAttribute(attribute);
+
+                if (!location.isEmpty()) {
+                    element.setAttribute(attribute, relocate(base, location, copies));
+                }
+            }
+        }
+
+        for (Node child = element.getFirstChild(); child != null; child = child.getNextSibling()) {
+            if (child instanceof Element) {
+                relocate((Element) child, base, copies);
+            }
+        }
+    }
+
+    /**
+     * Rewrite a document location to the copy of the document
+     *
+     * The fragment of the location, e.g. the schema of a WSDL file in <code>service.wsdl#types?schema1</code>, is
+     * kept.
+     *
+     * @param base Base URI
+     * @param location Location of the document
+     * @param copies Copies of the local documents, by the normalized absolute path of the original
+     * @return Location of the copy, absolute location of the original if the document was not copied
+     */
+    protected static String relocate(URI base, String location, Map<Path, Path> copies) {
+        int separator = location.indexOf('#');
+        String fragment = separator >= 0 ? location.substring(separator) : "";
+        String documentLocation = separator >= 0 ? location.substring(0, separator) : location;
+        Path document = resolve(base, documentLocation);
+
+        if (document == null) {
+            try {
+                return base.resolve(documentLocation).toString() + fragment;
+            }
+            catch (IllegalArgumentException e) {
+                // Not a valid URI, leave it to the tools to report the error
+                return location;
+            }
+        }
+
+        Path copy = copies.get(document);
+        return (copy != null ? copy : document).toUri().toString() + fragment;
+    }
+
+    /**
+     * Get the local schemas customized by the bindings that were not compiled by any pass written so far
+     *
+     * The customizations of these schemas are not applied, usually because the schema locations of the bindings do not
+     * refer to the compiled documents.
+     *
+     * @return Schemas whose customizations were not selected
+     */
+    public Set<Path> getUnselectedSchemas() {
+        Set<Path> unselected = new LinkedHashSet<>(this.schemas);
+        unselected.removeAll(this.selectedSchemas);
+        return unselected;
+    }
+
+    /**
+     * Collect the local schemas customized by a bindings element and its descendants
+     *
+     * @param bindings Bindings element
+     * @param base URI of the binding file
+     */
+    protected void collectSchemas(Element bindings, URI base) {
+        String location = bindings.getAttribute("schemaLocation");
+
+        if (!location.isEmpty()) {
+            Path schema = resolve(base, location);
+
+            if (schema != null) {
+                this.schemas.add(schema);
+            }
+        }
+
+        for (Node child = bindings.getFirstChild(); child != null; child = child.getNextSibling()) {
+            if (child instanceof Element && isBindings((Element) child)) {
+                collectSchemas((Element) child, base);
+            }
+        }
+    }
+
+    /**
+     * Get the schema files compiled by a pass, including the files included by the schemas of the pass
+     *
+     * @param files Schema files of the pass
+     * @param documents Documents found by the {@link WsdlScanner}
+     * @return Compiled schema files
+     */
+    public static Set<Path> getCompiledFiles(Collection<Path> files, List<WsdlDocument> documents) {
+        Map<Path, WsdlDocument> documentFiles = new HashMap<>();
+        documents.forEach(d -> documentFiles.put(d.getFile(), d));
+
+        Set<Path> compiledFiles = new HashSet<>();
+        Deque<Path> pending = new ArrayDeque<>(files);
+
+        while (!pending.isEmpty()) {
+            Path file = pending.pop();
+            WsdlDocument document = documentFiles.get(file);
+
+            if (compiledFiles.add(file) && document != null) {
+                document.getImports().stream().filter(f -> {
+                    WsdlDocument imported = documentFiles.get(f);
+                    return imported != null && imported.isIncluded();
+                }).forEach(pending::add);
+            }
+        }
+
+        return compiledFiles;
+    }
+
+    /**
+     * Remove the bindings of schemas that are not compiled
+     *
+     * Schema locations of the remaining bindings are rewritten to absolute URIs, so the binding file can be written to
+     * a different directory.
+     *
+     * @param bindings Bindings element
+     * @param base URI of the binding file
+     * @param schemas Compiled schema files
+     * @return <code>true</code> if the bindings apply to the compiled schemas
+     */
+    protected boolean select(Element bindings, URI base, Set<Path> schemas) {
+        String location = bindings.getAttribute("schemaLocation");
+        boolean applies = false;
+
+        if (!location.isEmpty()) {
+            Path schema = resolve(base, location);
+
+            if (schema == null || !schemas.contains(schema)) {
+                return false;
+            }
+
+            bindings.setAttribute("schemaLocation", schema.toUri().toString());
+            this.selectedSchemas.add(schema);
+            applies = true;
+        }
+
+        List<Element> children = new ArrayList<>();
+
+        for (Node child = bindings.getFirstChild(); child != null; child = child.getNextSibling()) {
+            if (child instanceof Element) {
+                children.add((Element) child);
+            }
+        }
+
+        for (Element child : children) {
+            if (!isBindings(child)) {
+                applies = true;
+            }
+            else if (select(child, base, schemas)) {
+                applies = true;
+            }
+            else {
+                bindings.removeChild(child);
+            }
+        }
+
+        return applies;
+    }
+
+    /**
+     * Check if an element is a JAXB bindings element
+     *
+     * @param element Element to check
+     * @return <code>true</code> if the element is a bindings element
+     */
+    protected static boolean isBindings(Element element) {
+        return "bindings".equals(element.getLocalName()) && JAXB_NAMESPACES.contains(element.getNamespaceURI());
+    }
+
+    /**
+     * Resolve a schema location to a local file
+     *
+     * @param base Base URI
+     * @param location Schema location
+     * @return Normalized absolute path of the schema, <code>null</code> if the schema is not a local file
+     */
+    protected static @Nullable Path resolve(URI base, String location) {
+        try {
+            URI uri = base.resolve(location);
+            return "file".equals(uri.getScheme()) ? Paths.get(uri).toAbsolutePath().normalize() : null;
+        }
+        catch (IllegalArgumentException e) {
+            // Not a valid URI, leave it to the schema compiler to report the error
+            return null;
+        }
+    }
+
+    /**
+     * Write a binding document
+     *
+     * @param document Binding document
+     * @param file File to write the document to
+     */
+    protected static void write(Document document, File file) {
+        try {
+            Files.createDirectories(file.getParentFile().toPath());
+            Transformer transformer = TransformerFactory.newInstance().newTransformer();
+            transformer.transform(new DOMSource(document), new StreamResult(file));
+        }
+        catch (IOException | TransformerException e) {
+            throw new GradleException(String.format("Could not write binding file %s", file), e);
+        }
+    }
+
+    /**
+     * Create a namespace aware document builder that does not process document type declarations
+     *
+     * @return Document builder
+     */
+    protected static DocumentBuilder createDocumentBuilder() {
+        DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+        factory.setNamespaceAware(true);
+
+        try {
+            factory.setFeature("http://apache.org/xml/features/disallow-doctype-decl", true);
+            return Objects.requireNonNull(factory.newDocumentBuilder());
+        }
+        catch (ParserConfigurationException e) {
+            throw new GradleException("Could not create XML parser", e);
+        }
+    }
+
+}
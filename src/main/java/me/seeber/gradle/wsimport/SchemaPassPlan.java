@@ -0,0 +1,366 @@
+/**
+ * BSD 2-Clause License
+ *
+ * Copyright (c) 2016-2017, Jochen Seeber
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package me.seeber.gradle.wsimport;
+
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.SortedSet;
+import java.util.TreeSet;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Multimap;
+import com.google.common.collect.Multimaps;
+
+/**
+ * Plan for compiling the XML schemas imported by a WSDL file in separate passes per namespace
+ *
+ * Each pass compiles the schemas of one namespace, or of several namespaces if they import each other. The passes are
+ * grouped into levels, so that all passes a pass depends on are contained in earlier levels. Passes of the same level
+ * are independent of each other and can run concurrently.
+ */
+public class SchemaPassPlan {
+
+    /**
+     * Levels of passes
+     */
+    private final List<List<SchemaPass>> levels;
+
+    /**
+     * Create a new plan
+     *
+     * @param levels Levels of passes
+     */
+    protected SchemaPassPlan(List<List<SchemaPass>> levels) {
+        this.levels = Objects.requireNonNull(ImmutableList.copyOf(levels));
+    }
+
+    /**
+     * Create a plan for the XML schemas found by a {@link WsdlScanner}
+     *
+     * @param documents Documents found by the scanner
+     * @return Plan for the schemas
+     */
+    public static SchemaPassPlan create(List<WsdlDocument> documents) {
+        Map<Path, WsdlDocument> files = new HashMap<>();
+        Multimap<String, Path> namespaceFiles = Multimaps.newListMultimap(new HashMap<>(), () -> new ArrayList<>());
+        Multimap<String, String> namespaceImports = Multimaps.newSetMultimap(new HashMap<>(),
+                () -> new LinkedHashSet<>());
+
+        for (WsdlDocument document : documents) {
+            files.put(document.getFile(), document);
+
+            if (!document.isWsdl() && !document.isIncluded()) {
+                namespaceFiles.put(document.getTargetNamespace(), document.getFile());
+            }
+        }
+
+        for (WsdlDocument document : documents) {
+            if (!document.isWsdl()) {
+                for (Path file : document.getImports()) {
+                    WsdlDocument imported = files.get(file);
+
+                    if (imported != null && !imported.getTargetNamespace().equals(document.getTargetNamespace())
+                            && namespaceFiles.containsKey(imported.getTargetNamespace())) {
+                        namespaceImports.put(document.getTargetNamespace(), imported.getTargetNamespace());
+                    }
+                }
+            }
+        }
+
+        List<Set<String>> components = new ComponentFinder(namespaceFiles.keySet(), namespaceImports).find();
+        Map<String, SchemaPass> passes = new HashMap<>();
+        List<List<SchemaPass>> levels = new ArrayList<>();
+
+        for (Set<String> component : components) {
+            Set<SchemaPass> dependencies = new LinkedHashSet<>();
+            List<Path> passFiles = new ArrayList<>();
+            int level = 0;
+
+            for (String namespace : component) {
+                passFiles.addAll(namespaceFiles.get(namespace));
+
+                for (String importedNamespace : namespaceImports.get(namespace)) {
+                    SchemaPass dependency = passes.get(importedNamespace);
+
+                    if (dependency != null && !component.contains(importedNamespace)) {
+                        dependencies.add(dependency);
+                        dependencies.addAll(dependency.getDependencies());
+                        level = Math.max(level, dependency.getLevel() + 1);
+                    }
+                }
+            }
+
+            SchemaPass pass = new SchemaPass(passes.size(), level, component, passFiles, dependencies);
+
+            for (String namespace : component) {
+                passes.put(namespace, pass);
+            }
+
+            while (levels.size() <= level) {
+                levels.add(new ArrayList<>());
+            }
+
+            levels.get(level).add(pass);
+        }
+
+        return new SchemaPassPlan(levels);
+    }
+
+    /**
+     * Get the levels of passes
+     *
+     * @return Levels of passes, passes of one level only depend on passes of earlier levels
+     */
+    public List<List<SchemaPass>> getLevels() {
+        return this.levels;
+    }
+
+    /**
+     * Check if there are no passes
+     *
+     * @return <code>true</code> if there are no passes
+     */
+    public boolean isEmpty() {
+        return this.levels.isEmpty();
+    }
+
+    /**
+     * Single pass compiling the schemas of one or more namespaces
+     */
+    public static class SchemaPass {
+
+        /**
+         * Index of the pass
+         */
+        private final int index;
+
+        /**
+         * Level of the pass
+         */
+        private final int level;
+
+        /**
+         * Namespaces compiled by the pass
+         */
+        private final SortedSet<String> namespaces;
+
+        /**
+         * Schema files to compile
+         */
+        private final List<Path> files;
+
+        /**
+         * Passes this pass transitively depends on
+         */
+        private final Set<SchemaPass> dependencies;
+
+        /**
+         * Create a new pass
+         *
+         * @param index Index of the pass
+         * @param level Level of the pass
+         * @param namespaces Namespaces compiled by the pass
+         * @param files Schema files to compile
+         * @param dependencies Passes this pass transitively depends on
+         */
+        protected SchemaPass(int index, int level, Set<String> namespaces, List<Path> files,
+                Set<SchemaPass> dependencies) {
+            this.index = index;
+            this.level = level;
+            this.namespaces = Collections.unmodifiableSortedSet(new TreeSet<>(namespaces));
+            this.files = Objects.requireNonNull(ImmutableList.copyOf(files));
+            this.dependencies = Collections.unmodifiableSet(new LinkedHashSet<>(dependencies));
+        }
+
+        /**
+         * @see java.lang.Object#toString()
+         */
+        @Override
+        public String toString() {
+            return String.format("pass %d %s", this.index, this.namespaces);
+        }
+
+        /**
+         * Get the index of the pass
+         *
+         * @return Index of the pass
+         */
+        public int getIndex() {
+            return this.index;
+        }
+
+        /**
+         * Get the level of the pass
+         *
+         * @return Level of the pass
+         */
+        public int getLevel() {
+            return this.level;
+        }
+
+        /**
+         * Get the namespaces compiled by the pass
+         *
+         * @return Namespaces compiled by the pass
+         */
+        public SortedSet<String> getNamespaces() {
+            return this.namespaces;
+        }
+
+        /**
+         * Get the schema files to compile
+         *
+         * @return Schema files to compile
+         */
+        public List<Path> getFiles() {
+            return this.files;
+        }
+
+        /**
+         * Get the passes this pass transitively depends on
+         *
+         * @return Passes this pass depends on
+         */
+        public Set<SchemaPass> getDependencies() {
+            return this.dependencies;
+        }
+
+    }
+
+    /**
+     * Find the strongly connected components of the namespace import graph
+     *
+     * Uses Tarjan's algorithm, which returns each component after all components it depends on.
+     */
+    protected static class ComponentFinder {
+
+        /**
+         * Namespaces to process
+         */
+        private final Set<String> namespaces;
+
+        /**
+         * Imports between namespaces
+         */
+        private final Multimap<String, String> imports;
+
+        /**
+         * Visit index of each namespace
+         */
+        private final Map<String, Integer> indexes = new HashMap<>();
+
+        /**
+         * Lowest visit index reachable from each namespace
+         */
+        private final Map<String, Integer> lowLinks = new HashMap<>();
+
+        /**
+         * Namespaces on the stack
+         */
+        private final Deque<String> stack = new ArrayDeque<>();
+
+        /**
+         * Components found
+         */
+        private final List<Set<String>> components = new ArrayList<>();
+
+        /**
+         * Create a new component finder
+         *
+         * @param namespaces Namespaces to process
+         * @param imports Imports between namespaces
+         */
+        protected ComponentFinder(Set<String> namespaces, Multimap<String, String> imports) {
+            this.namespaces = namespaces;
+            this.imports = imports;
+        }
+
+        /**
+         * Find the components
+         *
+         * @return Components, each component after all components it depends on
+         */
+        protected List<Set<String>> find() {
+            for (String namespace : new TreeSet<>(this.namespaces)) {
+                if (!this.indexes.containsKey(namespace)) {
+                    visit(Objects.requireNonNull(namespace));
+                }
+            }
+
+            return this.components;
+        }
+
+        /**
+         * Visit a namespace
+         *
+         * @param namespace Namespace to visit
+         */
+        protected void visit(String namespace) {
+            int index = this.indexes.size();
+            this.indexes.put(namespace, index);
+            this.lowLinks.put(namespace, index);
+            this.stack.push(namespace);
+
+            for (String importedNamespace : this.imports.get(namespace)) {
+                if (!this.indexes.containsKey(importedNamespace)) {
+                    visit(Objects.requireNonNull(importedNamespace));
+                    this.lowLinks.put(namespace,
+                            Math.min(this.lowLinks.get(namespace), this.lowLinks.get(importedNamespace)));
+                }
+                else if (this.stack.contains(importedNamespace)) {
+                    this.lowLinks.put(namespace,
+                            Math.min(this.lowLinks.get(namespace), this.indexes.get(importedNamespace)));
+                }
+            }
+
+            if (this.lowLinks.get(namespace).equals(this.indexes.get(namespace))) {
+                Set<String> component = new LinkedHashSet<>();
+                String member;
+
+                do {
+                    member = this.stack.pop();
+                    component.add(member);
+                }
+                while (!member.equals(namespace));
+
+                this.components.add(component);
+            }
+        }
+
+    }
+
+}
@@ -0,0 +1,321 @@
+/**
+ * BSD 2-Clause License
+ *
+ * Copyright (c) 2016-2017, Jochen Seeber
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package me.seeber.gradle.wsimport;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.eclipse.jdt.annotation.Nullable;
+import org.gradle.api.GradleException;
+import org.gradle.api.file.EmptyFileVisitor;
+import org.gradle.api.file.FileTree;
+import org.gradle.api.file.FileVisitDetails;
+import org.gradle.api.file.FileVisitor;
+import org.gradle.api.internal.ConventionTask;
+import org.gradle.api.tasks.InputFiles;
+import org.gradle.api.tasks.OutputFile;
+import org.gradle.api.tasks.SkipWhenEmpty;
+import org.gradle.api.tasks.TaskAction;
+
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+
+/**
+ * Validate WSDL files and the XML schemas they import before running wsimport
+ *
+ * The WSDL files are validated in parallel. The content hashes of valid WSDL files and their imported documents are
+ * recorded in the result file, so unchanged WSDL files are not validated again.
+ */
+public class ValidateWsdlTask extends ConventionTask {
+
+    /**
+     * Header of the result file, identifies the file format
+     */
+    protected static final String RESULTS_HEADER = "wsdl-validation\t1";
+
+    /**
+     * Maximum number of errors included in the failure message
+     */
+    protected static final int MAX_REPORTED_ERRORS = 10;
+
+    /**
+     * WSDLs to validate
+     */
+    private @Nullable FileTree wsdls;
+
+    /**
+     * File to record the valid WSDL files in
+     */
+    private @Nullable File resultFile;
+
+    /**
+     * Validate the WSDL files
+     */
+    @TaskAction
+    protected void validate() {
+        File resultFile = Objects.requireNonNull(getResultFile());
+        Map<String, String> previousResults = loadResults(resultFile);
+        Map<String, String> results = new ConcurrentHashMap<>();
+        Map<String, List<String>> errors = new TreeMap<>();
+        Map<String, Future<List<String>>> pending = new TreeMap<>();
+        AtomicInteger validatedCount = new AtomicInteger();
+        WsdlValidator validator = new WsdlValidator();
+        ExecutorService executor = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
+
+        try {
+            visitWsdls(new EmptyFileVisitor() {
+                /**
+                 * @see org.gradle.api.file.EmptyFileVisitor#visitFile(org.gradle.api.file.FileVisitDetails)
+                 */
+                @Override
+                public void visitFile(FileVisitDetails file) {
+                    String wsdlPath = file.getPath();
+                    Path wsdlFile = file.getFile().toPath();
+
+                    pending.put(wsdlPath, executor.submit(() -> {
+                        List<WsdlDocument> documents = new WsdlScanner().scan(wsdlFile);
+                        String key = getContentKey(documents);
+
+                        if (key.equals(previousResults.get(wsdlPath))) {
+                            results.put(wsdlPath, key);
+                            return Collections.emptyList();
+                        }
+
+                        List<String> wsdlErrors = validator.validate(documents);
+                        validatedCount.incrementAndGet();
+
+                        if (wsdlErrors.isEmpty()) {
+                            results.put(wsdlPath, key);
+                        }
+
+                        return wsdlErrors;
+                    }));
+                }
+            });
+
+            for (Map.Entry<String, Future<List<String>>> result : pending.entrySet()) {
+                List<String> wsdlErrors = result.getValue().get();
+
+                if (!wsdlErrors.isEmpty()) {
+                    errors.put(result.getKey(), wsdlErrors);
+                }
+            }
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new GradleException("Interrupted while validating WSDL files", e);
+        }
+        catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+
+            throw new GradleException("Error validating WSDL files", e.getCause());
+        }
+        finally {
+            executor.shutdownNow();
+            saveResults(resultFile, results);
+        }
+
+        getLogger().info("Validated {} WSDL files, {} unchanged", validatedCount.get(),
+                pending.size() - validatedCount.get());
+
+        if (!errors.isEmpty()) {
+            throw new GradleException(createFailureMessage(errors));
+        }
+    }
+
+    /**
+     * Create the failure message for invalid WSDL files
+     *
+     * All errors are logged, the failure message only contains the first errors.
+     *
+     * @param errors Error messages of the invalid WSDL files
+     * @return Failure message
+     */
+    protected String createFailureMessage(Map<String, List<String>> errors) {
+        StringBuilder message = new StringBuilder(String.format("Validation failed for %d WSDL files", errors.size()));
+        int count = 0;
+
+        for (Map.Entry<String, List<String>> wsdl : errors.entrySet()) {
+            for (String error : wsdl.getValue()) {
+                getLogger().error("{}: {}", wsdl.getKey(), error);
+
+                if (count++ < MAX_REPORTED_ERRORS) {
+                    message.append(System.lineSeparator()).append(error);
+                }
+            }
+        }
+
+        if (count > MAX_REPORTED_ERRORS) {
+            message.append(System.lineSeparator())
+                    .append(String.format("(%d more errors)", count - MAX_REPORTED_ERRORS));
+        }
+
+        return Objects.requireNonNull(message.toString());
+    }
+
+    /**
+     * Visit the WSDL files
+     *
+     * @param visitor Visitor called for each WSDL file
+     */
+    protected void visitWsdls(FileVisitor visitor) {
+        WsdlDiscovery.getInstance().visit(getProject(), Objects.requireNonNull(getWsdls()), visitor);
+    }
+
+    /**
+     * Get the content key of a WSDL file
+     *
+     * @param documents WSDL file and the documents imported by it
+     * @return Hash of the content of all documents
+     */
+    protected static String getContentKey(List<WsdlDocument> documents) {
+        Hasher hasher = Hashing.sha256().newHasher();
+
+        for (WsdlDocument document : documents) {
+            hasher.putString(WsimportIndex.hash(document.getFile()), StandardCharsets.UTF_8);
+        }
+
+        return Objects.requireNonNull(hasher.hash().toString());
+    }
+
+    /**
+     * Load the results of the previous validation
+     *
+     * @param file Result file
+     * @return Content keys of valid WSDL files, keyed by WSDL path
+     */
+    protected static Map<String, String> loadResults(File file) {
+        Map<String, String> results = new TreeMap<>();
+
+        if (file.isFile()) {
+            try (BufferedReader reader = Files.newBufferedReader(file.toPath(), StandardCharsets.UTF_8)) {
+                if (RESULTS_HEADER.equals(reader.readLine())) {
+                    String line;
+
+                    while ((line = reader.readLine()) != null) {
+                        String[] fields = line.split("\t");
+
+                        if (fields.length != 2) {
+                            throw new IOException(String.format("Illegal line '%s'", line));
+                        }
+
+                        results.put(fields[0], fields[1]);
+                    }
+                }
+            }
+            catch (IOException | RuntimeException e) {
+                results.clear();
+            }
+        }
+
+        return results;
+    }
+
+    /**
+     * Save the results of the validation
+     *
+     * @param file Result file
+     * @param results Content keys of valid WSDL files, keyed by WSDL path
+     */
+    protected static void saveResults(File file, Map<String, String> results) {
+        try {
+            Files.createDirectories(file.toPath().toAbsolutePath().getParent());
+
+            try (BufferedWriter writer = Files.newBufferedWriter(file.toPath(), StandardCharsets.UTF_8)) {
+                writer.write(RESULTS_HEADER);
+                writer.newLine();
+
+                for (Map.Entry<String, String> result : new TreeMap<>(results).entrySet()) {
+                    writer.write(String.format("%s\t%s", result.getKey(), result.getValue()));
+                    writer.newLine();
+                }
+            }
+        }
+        catch (IOException e) {
+            throw new GradleException(String.format("Could not write validation results %s", file), e);
+        }
+    }
+
+    /**
+     * Get the WSDLs to validate
+     *
+     * @return WSDLs to validate
+     */
+    @InputFiles
+    @SkipWhenEmpty
+    public @Nullable FileTree getWsdls() {
+        return this.wsdls;
+    }
+
+    /**
+     * Set the WSDLs to validate
+     *
+     * @param wsdls WSDLs to validate
+     */
+    public void setWsdls(FileTree wsdls) {
+        this.wsdls = wsdls;
+    }
+
+    /**
+     * Get the file to record the valid WSDL files in
+     *
+     * @return Result file
+     */
+    @OutputFile
+    public @Nullable File getResultFile() {
+        return this.resultFile;
+    }
+
+    /**
+     * Set the file to record the valid WSDL files in
+     *
+     * @param resultFile Result file
+     */
+    public void setResultFile(File resultFile) {
+        this.resultFile = resultFile;
+    }
+
+}
@@ -0,0 +1,222 @@
+/**
+ * BSD 2-Clause License
+ *
+ * Copyright (c) 2016-2017, Jochen Seeber
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package me.seeber.gradle.wsimport;
+
+import java.io.File;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.eclipse.jdt.annotation.Nullable;
+import org.gradle.api.Project;
+import org.gradle.api.file.EmptyFileVisitor;
+import org.gradle.api.file.FileTree;
+import org.gradle.api.file.FileTreeElement;
+import org.gradle.api.file.FileVisitDetails;
+import org.gradle.api.file.FileVisitor;
+import org.gradle.api.file.SourceDirectorySet;
+import org.gradle.api.invocation.Gradle;
+import org.gradle.api.specs.Spec;
+import org.gradle.api.specs.Specs;
+import org.gradle.api.tasks.util.PatternFilterable;
+import org.gradle.api.tasks.util.PatternSet;
+
+/**
+ * Build wide cache of the files found in source directories
+ *
+ * Source directories are only walked when a task needs their files during execution, and each directory is walked at
+ * most once per build. WSDL files and binding files in the same directory, as well as the wsimport, validation and
+ * plan tasks of a source set, share the same listing. The cache is cleared at the start of each build.
+ */
+public class WsdlDiscovery {
+
+    /**
+     * Shared instance
+     */
+    private static final WsdlDiscovery INSTANCE = new WsdlDiscovery();
+
+    /**
+     * Files found in each directory of the current build
+     */
+    private final Map<Path, List<FileVisitDetails>> listings = new ConcurrentHashMap<>();
+
+    /**
+     * Current build
+     */
+    private @Nullable Gradle build;
+
+    /**
+     * Get the shared instance
+     *
+     * @return Shared instance
+     */
+    public static WsdlDiscovery getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Register the build using the cache
+     *
+     * Clears the cache if a new build starts.
+     *
+     * @param gradle Current build
+     */
+    public synchronized void register(Gradle gradle) {
+        Gradle rootBuild = gradle;
+
+        while (rootBuild.getParent() != null) {
+            rootBuild = Objects.requireNonNull(rootBuild.getParent());
+        }
+
+        if (this.build != rootBuild) {
+            this.listings.clear();
+            this.build = rootBuild;
+
+            Gradle finishedBuild = rootBuild;
+            rootBuild.buildFinished(r -> finish(finishedBuild));
+        }
+    }
+
+    /**
+     * Clear the cache and release the finished build
+     *
+     * @param rootBuild Finished build
+     */
+    protected synchronized void finish(Gradle rootBuild) {
+        if (this.build == rootBuild) {
+            this.listings.clear();
+            this.build = null;
+        }
+    }
+
+    /**
+     * Visit the files of a file tree
+     *
+     * If the file tree is a source directory set, the files are taken from the cached listings of its source
+     * directories and filtered by its patterns. Other file trees are visited directly. Only files are visited, not
+     * directories.
+     *
+     * @param project Project the file tree belongs to
+     * @param files File tree to visit
+     * @param visitor Visitor called for each file
+     */
+    public void visit(Project project, FileTree files, FileVisitor visitor) {
+        register(project.getGradle());
+
+        if (files instanceof SourceDirectorySet) {
+            SourceDirectorySet source = (SourceDirectorySet) files;
+            Spec<FileTreeElement> spec = Specs.intersect(getSpec(source), getSpec(source.getFilter()));
+
+            for (File directory : source.getSrcDirs()) {
+                for (FileVisitDetails file : list(project, directory.toPath())) {
+                    if (spec.isSatisfiedBy(file)) {
+                        visitor.visitFile(file);
+                    }
+                }
+            }
+        }
+        else {
+            files.visit(new EmptyFileVisitor() {
+                /**
+                 * @see org.gradle.api.file.EmptyFileVisitor#visitFile(org.gradle.api.file.FileVisitDetails)
+                 */
+                @Override
+                public void visitFile(FileVisitDetails file) {
+                    visitor.visitFile(file);
+                }
+            });
+        }
+    }
+
+    /**
+     * Get the files of a file tree
+     *
+     * @param project Project the file tree belongs to
+     * @param files File tree
+     * @return Files in the file tree
+     */
+    public Set<File> getFiles(Project project, FileTree files) {
+        Set<File> result = new LinkedHashSet<>();
+
+        visit(project, files, new EmptyFileVisitor() {
+            /**
+             * @see org.gradle.api.file.EmptyFileVisitor#visitFile(org.gradle.api.file.FileVisitDetails)
+             */
+            @Override
+            public void visitFile(FileVisitDetails file) {
+                result.add(file.getFile());
+            }
+        });
+
+        return result;
+    }
+
+    /**
+     * Get the files in a directory, walking it if it was not walked before in this build
+     *
+     * @param project Project used to walk the directory
+     * @param directory Directory to list
+     * @return Files in the directory and its subdirectories
+     */
+    protected List<FileVisitDetails> list(Project project, Path directory) {
+        return Objects.requireNonNull(this.listings.computeIfAbsent(directory.toAbsolutePath().normalize(), d -> {
+            List<FileVisitDetails> files = new ArrayList<>();
+
+            project.fileTree(d.toFile()).visit(new EmptyFileVisitor() {
+                /**
+                 * @see org.gradle.api.file.EmptyFileVisitor#visitFile(org.gradle.api.file.FileVisitDetails)
+                 */
+                @Override
+                public void visitFile(FileVisitDetails file) {
+                    files.add(file);
+                }
+            });
+
+            return Collections.unmodifiableList(files);
+        }));
+    }
+
+    /**
+     * Get a spec matching the include and exclude patterns of a pattern filterable
+     *
+     * @param patterns Patterns to match
+     * @return Spec matching the patterns
+     */
+    protected static Spec<FileTreeElement> getSpec(PatternFilterable patterns) {
+        PatternSet patternSet = new PatternSet();
+        patternSet.include(patterns.getIncludes());
+        patternSet.exclude(patterns.getExcludes());
+        return Objects.requireNonNull(patternSet.getAsSpec());
+    }
+}
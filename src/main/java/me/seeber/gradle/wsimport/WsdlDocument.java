@@ -0,0 +1,138 @@
+/**
+ * BSD 2-Clause License
+ *
+ * Copyright (c) 2016-2017, Jochen Seeber
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package me.seeber.gradle.wsimport;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Objects;
+
+import com.google.common.base.MoreObjects;
+import com.google.common.collect.ImmutableList;
+
+/**
+ * WSDL or XML schema document found while scanning a WSDL file
+ */
+public class WsdlDocument {
+
+    /**
+     * File containing the document
+     */
+    private final Path file;
+
+    /**
+     * <code>true</code> if the document is a WSDL file, <code>false</code> if it is a XML schema
+     */
+    private final boolean wsdl;
+
+    /**
+     * Target namespace of the document
+     */
+    private final String targetNamespace;
+
+    /**
+     * <code>true</code> if the document is only referenced by includes
+     */
+    private final boolean included;
+
+    /**
+     * Files of the documents imported or included by this document
+     */
+    private final List<Path> imports;
+
+    /**
+     * Create a new document
+     *
+     * @param file File containing the document
+     * @param wsdl <code>true</code> if the document is a WSDL file, <code>false</code> if it is a XML schema
+     * @param targetNamespace Target namespace of the document
+     * @param included <code>true</code> if the document is only referenced by includes
+     * @param imports Files of the documents imported or included by this document
+     */
+    public WsdlDocument(Path file, boolean wsdl, String targetNamespace, boolean included, List<Path> imports) {
+        this.file = file;
+        this.wsdl = wsdl;
+        this.targetNamespace = targetNamespace;
+        this.included = included;
+        this.imports = Objects.requireNonNull(ImmutableList.copyOf(imports));
+    }
+
+    /**
+     * @see java.lang.Object#toString()
+     */
+    @Override
+    public String toString() {
+        return Objects.requireNonNull(MoreObjects.toStringHelper(this).add("file", this.file)
+                .add("targetNamespace", this.targetNamespace).toString());
+    }
+
+    /**
+     * Get the file containing the document
+     *
+     * @return File containing the document
+     */
+    public Path getFile() {
+        return this.file;
+    }
+
+    /**
+     * Check if the document is a WSDL file
+     *
+     * @return <code>true</code> if the document is a WSDL file, <code>false</code> if it is a XML schema
+     */
+    public boolean isWsdl() {
+        return this.wsdl;
+    }
+
+    /**
+     * Get the target namespace of the document
+     *
+     * @return Target namespace of the document
+     */
+    public String getTargetNamespace() {
+        return this.targetNamespace;
+    }
+
+    /**
+     * Check if the document is only referenced by includes
+     *
+     * @return <code>true</code> if the document is only referenced by includes
+     */
+    public boolean isIncluded() {
+        return this.included;
+    }
+
+    /**
+     * Get the files of the documents imported or included by this document
+     *
+     * @return Files of the imported or included documents
+     */
+    public List<Path> getImports() {
+        return this.imports;
+    }
+
+}
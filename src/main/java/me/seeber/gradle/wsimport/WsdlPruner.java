@@ -0,0 +1,834 @@
+/**
+ * BSD 2-Clause License
+ *
+ * Copyright (c) 2016-2017, Jochen Seeber
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package me.seeber.gradle.wsimport;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+import javax.xml.XMLConstants;
+import javax.xml.namespace.NamespaceContext;
+import javax.xml.namespace.QName;
+import javax.xml.stream.XMLEventFactory;
+import javax.xml.stream.XMLEventReader;
+import javax.xml.stream.XMLEventWriter;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import javax.xml.stream.events.Attribute;
+import javax.xml.stream.events.StartDocument;
+import javax.xml.stream.events.StartElement;
+import javax.xml.stream.events.XMLEvent;
+
+import org.eclipse.jdt.annotation.Nullable;
+import org.gradle.api.GradleException;
+
+import com.google.common.base.Splitter;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Multimap;
+import com.google.common.collect.Multimaps;
+
+/**
+ * Prune a WSDL file to the port types and operations selected by include and exclude patterns
+ *
+ * The WSDL and the local documents it imports are read twice with a streaming parser. The first pass collects the
+ * references between operations, messages and the top level schema components of all documents. The second pass copies
+ * the documents and skips everything that is not reachable from the selected operations. Locations of imported
+ * documents are rewritten to the pruned copies, or to absolute URIs for documents that are not local files, so the
+ * pruned documents can be written to a different directory. Schemas without target namespace are never pruned, since
+ * the namespace of their components depends on the including schema.
+ */
+public class WsdlPruner {
+
+    /**
+     * Namespace of WSDL elements
+     */
+    protected static final String WSDL_NAMESPACE = "http://schemas.xmlsoap.org/wsdl/";
+
+    /**
+     * Namespace of XML schema elements
+     */
+    protected static final String XSD_NAMESPACE = XMLConstants.W3C_XML_SCHEMA_NS_URI;
+
+    /**
+     * Schema attributes that reference other schema components
+     */
+    protected static final Set<String> SCHEMA_REFERENCE_ATTRIBUTES = Objects.requireNonNull(
+            ImmutableSet.of("type", "ref", "base", "itemType", "memberTypes", "substitutionGroup"));
+
+    /**
+     * Schema attributes that make the owning component reachable from the referenced component
+     */
+    protected static final Set<String> SCHEMA_DERIVATION_ATTRIBUTES = Objects
+            .requireNonNull(ImmutableSet.of("base", "substitutionGroup"));
+
+    /**
+     * Splitter used to split lists of qualified names
+     */
+    protected static final Splitter LIST_SPLITTER = Objects
+            .requireNonNull(Splitter.on(Pattern.compile("\\s+")).omitEmptyStrings());
+
+    /**
+     * Factory used to create XML readers
+     */
+    private final XMLInputFactory inputFactory;
+
+    /**
+     * Factory used to create XML writers
+     */
+    private final XMLOutputFactory outputFactory;
+
+    /**
+     * Factory used to create XML events
+     */
+    private final XMLEventFactory eventFactory;
+
+    /**
+     * Patterns of operations to include
+     */
+    private final List<Pattern> includes;
+
+    /**
+     * Patterns of operations to exclude
+     */
+    private final List<Pattern> excludes;
+
+    /**
+     * Copies written by the last run, by the normalized absolute path of the original document
+     */
+    private final Map<Path, Path> copies = new HashMap<>();
+
+    /**
+     * Create a new WSDL pruner
+     *
+     * @param includes Patterns of operations to include, empty to include all operations
+     * @param excludes Patterns of operations to exclude
+     */
+    public WsdlPruner(List<String> includes, List<String> excludes) {
+        this.inputFactory = Objects.requireNonNull(XMLInputFactory.newInstance());
+        this.inputFactory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        this.outputFactory = Objects.requireNonNull(XMLOutputFactory.newInstance());
+        this.eventFactory = Objects.requireNonNull(XMLEventFactory.newInstance());
+        this.includes = Objects
+                .requireNonNull(includes.stream().map(WsdlPruner::compilePattern).collect(Collectors.toList()));
+        this.excludes = Objects
+                .requireNonNull(excludes.stream().map(WsdlPruner::compilePattern).collect(Collectors.toList()));
+    }
+
+    /**
+     * Prune a WSDL file and the documents it imports
+     *
+     * @param baseDir Base directory of the WSDL file
+     * @param wsdlFile WSDL file relative to the base directory
+     * @param targetDir Directory to write the pruned documents to
+     * @return Base directory of the pruned WSDL file
+     */
+    public Path prune(Path baseDir, Path wsdlFile, Path targetDir) {
+        try {
+            WsdlModel model = read(baseDir.resolve(wsdlFile));
+            Selection selection = select(model);
+            this.copies.clear();
+
+            for (Path document : model.documents) {
+                Path copy = this.copies.isEmpty() ? targetDir.resolve(wsdlFile)
+                        : targetDir.resolve("imports").resolve(this.copies.size() + "-" + document.getFileName());
+                this.copies.put(document, copy.toAbsolutePath().normalize());
+            }
+
+            for (Path document : model.documents) {
+                Path copy = Objects.requireNonNull(this.copies.get(document));
+                Files.createDirectories(copy.getParent());
+                write(document, copy, selection, this.copies);
+            }
+        }
+        catch (IOException | XMLStreamException e) {
+            throw new GradleException(String.format("Could not prune WSDL file %s", wsdlFile), e);
+        }
+
+        return targetDir;
+    }
+
+    /**
+     * Get the copies written by the last run
+     *
+     * @return Copies of the documents, by the normalized absolute path of the original document
+     */
+    public Map<Path, Path> getCopies() {
+        return Collections.unmodifiableMap(this.copies);
+    }
+
+    /**
+     * Select the parts of a WSDL file used for code generation
+     *
+     * @param wsdlFile WSDL file to read
+     * @return Selected parts
+     */
+    protected Selection select(Path wsdlFile) {
+        try {
+            return select(read(wsdlFile));
+        }
+        catch (IOException | XMLStreamException e) {
+            throw new GradleException(String.format("Could not read WSDL file %s", wsdlFile), e);
+        }
+    }
+
+    /**
+     * Check if an operation is selected
+     *
+     * @param portType Local name of the port type
+     * @param operation Name of the operation
+     * @return <code>true</code> if the operation is selected
+     */
+    public boolean isIncluded(String portType, String operation) {
+        String name = portType + "/" + operation;
+        boolean included = this.includes.isEmpty() || this.includes.stream().anyMatch(p -> p.matcher(name).matches());
+        return included && this.excludes.stream().noneMatch(p -> p.matcher(name).matches());
+    }
+
+    /**
+     * Read the references between the parts of a WSDL file and the local documents it imports
+     *
+     * @param wsdlFile WSDL file to read
+     * @return Model of the WSDL file
+     * @throws IOException if a file cannot be read
+     * @throws XMLStreamException if a file cannot be parsed
+     */
+    protected WsdlModel read(Path wsdlFile) throws IOException, XMLStreamException {
+        WsdlModel model = new WsdlModel();
+
+        for (WsdlDocument document : new WsdlScanner().scan(wsdlFile)) {
+            model.documents.add(document.getFile());
+            read(document.getFile(), model);
+        }
+
+        return model;
+    }
+
+    /**
+     * Read the references between the parts of a single WSDL or XML schema document
+     *
+     * @param file Document to read
+     * @param model Model to add the references to
+     * @throws IOException if the file cannot be read
+     * @throws XMLStreamException if the file cannot be parsed
+     */
+    protected void read(Path file, WsdlModel model) throws IOException, XMLStreamException {
+        try (InputStream in = Files.newInputStream(file)) {
+            XMLStreamReader reader = this.inputFactory.createXMLStreamReader(file.toUri().toString(), in);
+
+            try {
+                Deque<QName> path = new ArrayDeque<>();
+                String targetNamespace = "";
+                @Nullable String schemaNamespace = null;
+                int schemaDepth = 0;
+                @Nullable QName message = null;
+                @Nullable QName portType = null;
+                @Nullable QName binding = null;
+                @Nullable QName service = null;
+                @Nullable String operation = null;
+                @Nullable QName component = null;
+
+                while (reader.hasNext()) {
+                    int event = reader.next();
+
+                    if (event == XMLStreamConstants.START_ELEMENT) {
+                        QName name = reader.getName();
+                        path.push(name);
+                        int depth = path.size();
+
+                        if (schemaNamespace == null && isXsd(name, "schema")) {
+                            schemaNamespace = attribute(reader, "targetNamespace", "");
+                            schemaDepth = depth;
+                        }
+                        else if (depth == 1) {
+                            targetNamespace = attribute(reader, "targetNamespace", "");
+                        }
+                        else if (depth == 2 && isWsdl(name, "message")) {
+                            message = new QName(targetNamespace, attribute(reader, "name", ""));
+                        }
+                        else if (depth == 2 && isWsdl(name, "portType")) {
+                            portType = new QName(targetNamespace, attribute(reader, "name", ""));
+                            model.portTypes.put(portType, new LinkedHashMap<>());
+                        }
+                        else if (depth == 2 && isWsdl(name, "binding")) {
+                            binding = new QName(targetNamespace, attribute(reader, "name", ""));
+                            model.bindings.put(binding, resolve(reader.getNamespaceContext(),
+                                    attribute(reader, "type", "")));
+                        }
+                        else if (depth == 2 && isWsdl(name, "service")) {
+                            service = new QName(targetNamespace, attribute(reader, "name", ""));
+                        }
+                        else if (depth == 3 && message != null && isWsdl(name, "part")) {
+                            for (String attributeName : new String[] { "element", "type" }) {
+                                String value = reader.getAttributeValue(null, attributeName);
+
+                                if (value != null) {
+                                    model.messages.put(message, resolve(reader.getNamespaceContext(), value));
+                                }
+                            }
+                        }
+                        else if (depth == 3 && (portType != null || binding != null) && isWsdl(name, "operation")) {
+                            operation = attribute(reader, "name", "");
+
+                            if (portType != null) {
+                                Objects.requireNonNull(model.portTypes.get(portType)).put(operation, new HashSet<>());
+                            }
+                        }
+                        else if (depth == 3 && service != null && isWsdl(name, "port")) {
+                            model.services.put(service,
+                                    resolve(reader.getNamespaceContext(), attribute(reader, "binding", "")));
+                        }
+                        else if (depth == schemaDepth + 1 && schemaNamespace != null
+                                && XSD_NAMESPACE.equals(name.getNamespaceURI())
+                                && reader.getAttributeValue(null, "name") != null) {
+                            component = new QName(schemaNamespace, attribute(reader, "name", ""));
+
+                            if (schemaNamespace.isEmpty()) {
+                                model.required.add(component);
+                            }
+                        }
+
+                        if (depth >= 4 && operation != null) {
+                            String value = reader.getAttributeValue(null, "message");
+
+                            if (value != null) {
+                                QName messageName = resolve(reader.getNamespaceContext(), value);
+
+                                if (portType != null) {
+                                    Objects.requireNonNull(Objects.requireNonNull(model.portTypes.get(portType))
+                                            .get(operation)).add(messageName);
+                                }
+                                else if (binding != null) {
+                                    model.bindingMessages.put(new QName(binding.getNamespaceURI(),
+                                            binding.getLocalPart() + "/" + operation), messageName);
+                                }
+                            }
+                        }
+
+                        if (component != null) {
+                            collectReferences(reader, component, model);
+                        }
+                    }
+                    else if (event == XMLStreamConstants.END_ELEMENT) {
+                        int depth = path.size();
+                        path.pop();
+
+                        if (depth == schemaDepth) {
+                            schemaNamespace = null;
+                            schemaDepth = 0;
+                        }
+                        else if (depth == schemaDepth + 1) {
+                            component = null;
+                        }
+
+                        if (depth == 2) {
+                            message = null;
+                            portType = null;
+                            binding = null;
+                            service = null;
+                        }
+                        else if (depth == 3) {
+                            operation = null;
+                        }
+                    }
+                }
+            }
+            finally {
+                reader.close();
+            }
+        }
+    }
+
+    /**
+     * Collect the references of a schema component from the attributes of the current element
+     *
+     * @param reader Reader positioned on an element of the component
+     * @param component Component that contains the element
+     * @param model Model to add the references to
+     */
+    protected void collectReferences(XMLStreamReader reader, QName component, WsdlModel model) {
+        for (int i = 0; i < reader.getAttributeCount(); ++i) {
+            String attributeName = reader.getAttributeLocalName(i);
+            String namespace = reader.getAttributeNamespace(i);
+
+            if ((namespace == null || namespace.isEmpty()) && SCHEMA_REFERENCE_ATTRIBUTES.contains(attributeName)) {
+                for (String value : LIST_SPLITTER.split(reader.getAttributeValue(i))) {
+                    QName reference = resolve(reader.getNamespaceContext(), Objects.requireNonNull(value));
+                    model.components.put(component, reference);
+
+                    if (SCHEMA_DERIVATION_ATTRIBUTES.contains(attributeName)) {
+                        model.derivations.put(reference, component);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Select the parts of the WSDL reachable from the selected operations
+     *
+     * @param model Model of the WSDL file
+     * @return Selected parts
+     */
+    protected Selection select(WsdlModel model) {
+        Selection selection = new Selection();
+        Deque<QName> pending = new ArrayDeque<>();
+
+        for (Map.Entry<QName, Map<String, Set<QName>>> portType : model.portTypes.entrySet()) {
+            for (Map.Entry<String, Set<QName>> operation : portType.getValue().entrySet()) {
+                if (isIncluded(portType.getKey().getLocalPart(), operation.getKey())) {
+                    selection.portTypes.add(portType.getKey());
+                    selection.operations.add(new QName(portType.getKey().getNamespaceURI(),
+                            portType.getKey().getLocalPart() + "/" + operation.getKey()));
+                    selection.messages.addAll(operation.getValue());
+                }
+            }
+        }
+
+        for (Map.Entry<QName, QName> binding : model.bindings.entrySet()) {
+            if (selection.portTypes.contains(binding.getValue()) || !model.portTypes.containsKey(binding.getValue())) {
+                selection.bindings.add(binding.getKey());
+            }
+        }
+
+        for (Map.Entry<QName, QName> bindingMessage : model.bindingMessages.entries()) {
+            QName bindingOperation = bindingMessage.getKey();
+            String[] names = bindingOperation.getLocalPart().split("/", 2);
+            QName binding = new QName(bindingOperation.getNamespaceURI(), names[0]);
+            QName portType = model.bindings.get(binding);
+
+            if (portType != null && selection.operations
+                    .contains(new QName(portType.getNamespaceURI(), portType.getLocalPart() + "/" + names[1]))) {
+                selection.messages.add(bindingMessage.getValue());
+            }
+        }
+
+        for (Map.Entry<QName, QName> port : model.services.entries()) {
+            if (!model.bindings.containsKey(port.getValue())) {
+                selection.bindings.add(port.getValue());
+            }
+
+            if (selection.bindings.contains(port.getValue())) {
+                selection.services.add(port.getKey());
+                ++selection.ports;
+            }
+        }
+
+        for (QName message : selection.messages) {
+            pending.addAll(model.messages.get(message));
+        }
+
+        pending.addAll(model.required);
+
+        while (!pending.isEmpty()) {
+            QName component = pending.pop();
+
+            if (selection.components.add(component)) {
+                pending.addAll(model.components.get(component));
+                pending.addAll(model.derivations.get(component));
+            }
+        }
+
+        return selection;
+    }
+
+    /**
+     * Write the selected parts of a WSDL or XML schema document
+     *
+     * @param file Document to read
+     * @param targetFile File to write the pruned document to
+     * @param selection Selected parts of the WSDL
+     * @param copies Pruned copies of the local documents, by the normalized absolute path of the original
+     * @throws IOException if the files cannot be read or written
+     * @throws XMLStreamException if the file cannot be parsed
+     */
+    protected void write(Path file, Path targetFile, Selection selection, Map<Path, Path> copies)
+            throws IOException, XMLStreamException {
+        try (InputStream in = Files.newInputStream(file); OutputStream out = Files.newOutputStream(targetFile)) {
+            XMLEventReader reader = this.inputFactory.createXMLEventReader(file.toUri().toString(), in);
+            XMLEventWriter writer = this.outputFactory.createXMLEventWriter(out, "UTF-8");
+
+            try {
+                int depth = 0;
+                int skipDepth = 0;
+                String targetNamespace = "";
+                @Nullable String schemaNamespace = null;
+                int schemaDepth = 0;
+                @Nullable QName portType = null;
+
+                while (reader.hasNext()) {
+                    XMLEvent event = reader.nextEvent();
+
+                    if (event.isStartDocument()) {
+                        String version = ((StartDocument) event).getVersion();
+                        event = this.eventFactory.createStartDocument("UTF-8", version != null ? version : "1.0");
+                    }
+                    else if (event.isStartElement()) {
+                        StartElement start = event.asStartElement();
+                        QName name = start.getName();
+                        String elementName = attribute(start, "name", "");
+                        ++depth;
+
+                        if (skipDepth > 0) {
+                            continue;
+                        }
+
+                        boolean keep = true;
+
+                        if (schemaNamespace == null && isXsd(name, "schema")) {
+                            schemaNamespace = attribute(start, "targetNamespace", "");
+                            schemaDepth = depth;
+                        }
+                        else if (depth == 1) {
+                            targetNamespace = attribute(start, "targetNamespace", "");
+                        }
+                        else if (depth == 2 && isWsdl(name, "message")) {
+                            keep = selection.messages.contains(new QName(targetNamespace, elementName));
+                        }
+                        else if (depth == 2 && isWsdl(name, "portType")) {
+                            portType = new QName(targetNamespace, elementName);
+                            keep = selection.portTypes.contains(portType);
+                        }
+                        else if (depth == 2 && isWsdl(name, "binding")) {
+                            portType = resolve(start.getNamespaceContext(), attribute(start, "type", ""));
+                            keep = selection.bindings.contains(new QName(targetNamespace, elementName));
+                        }
+                        else if (depth == 2 && isWsdl(name, "service")) {
+                            keep = selection.services.contains(new QName(targetNamespace, elementName));
+                        }
+                        else if (depth == 3 && portType != null && isWsdl(name, "operation")) {
+                            keep = !selection.portTypes.contains(portType) || selection.operations.contains(
+                                    new QName(portType.getNamespaceURI(), portType.getLocalPart() + "/" + elementName));
+                        }
+                        else if (depth == 3 && isWsdl(name, "port")) {
+                            QName binding = resolve(start.getNamespaceContext(), attribute(start, "binding", ""));
+                            keep = selection.bindings.contains(binding);
+                        }
+                        else if (depth == schemaDepth + 1 && schemaNamespace != null
+                                && XSD_NAMESPACE.equals(name.getNamespaceURI())
+                                && start.getAttributeByName(new QName("name")) != null) {
+                            keep = selection.components.contains(new QName(schemaNamespace, elementName));
+                        }
+
+                        if (!keep) {
+                            skipDepth = depth;
+                            continue;
+                        }
+
+                        event = relocate(file, start, copies);
+                    }
+                    else if (event.isEndElement()) {
+                        --depth;
+
+                        if (skipDepth > 0) {
+                            if (depth < skipDepth) {
+                                skipDepth = 0;
+                            }
+
+                            continue;
+                        }
+
+                        if (depth == 1) {
+                            portType = null;
+                        }
+
+                        if (depth < schemaDepth) {
+                            schemaNamespace = null;
+                            schemaDepth = 0;
+                        }
+                    }
+                    else if (skipDepth > 0) {
+                        continue;
+                    }
+
+                    writer.add(event);
+                }
+            }
+            finally {
+                writer.close();
+                reader.close();
+            }
+        }
+    }
+
+    /**
+     * Rewrite locations of imported documents to their pruned copies or to absolute URIs
+     *
+     * @param file Document containing the element
+     * @param start Start element to rewrite
+     * @param copies Pruned copies of the local documents, by the normalized absolute path of the original
+     * @return Rewritten start element
+     */
+    protected StartElement relocate(Path file, StartElement start, Map<Path, Path> copies) {
+        String locationAttribute = null;
+
+        if (isWsdl(start.getName(), "import")) {
+            locationAttribute = "location";
+        }
+        else if (isXsd(start.getName(), "import") || isXsd(start.getName(), "include")
+                || isXsd(start.getName(), "redefine")) {
+            locationAttribute = "schemaLocation";
+        }
+
+        Attribute location = locationAttribute != null ? start.getAttributeByName(new QName(locationAttribute)) : null;
+
+        if (location == null) {
+            return start;
+        }
+
+        Path copy = AttachmentRewriter.getCopy(file, location.getValue(), copies);
+
+        if (copy == null && URI.create(location.getValue()).isAbsolute()) {
+            return start;
+        }
+
+        List<Attribute> attributes = new ArrayList<>();
+
+        for (Iterator<?> i = start.getAttributes(); i.hasNext();) {
+            Attribute attribute = (Attribute) i.next();
+
+            if (attribute.getName().equals(location.getName())) {
+                URI absoluteLocation = copy != null ? copy.toUri() : file.toUri().resolve(attribute.getValue());
+                attribute = this.eventFactory.createAttribute(attribute.getName(), absoluteLocation.toString());
+            }
+
+            attributes.add(attribute);
+        }
+
+        QName name = start.getName();
+
+        return Objects.requireNonNull(this.eventFactory.createStartElement(name.getPrefix(), name.getNamespaceURI(),
+                name.getLocalPart(), attributes.iterator(), start.getNamespaces(), start.getNamespaceContext()));
+    }
+
+    /**
+     * Compile an operation pattern to a regular expression
+     *
+     * @param pattern Pattern of the form <code>PortType</code> or <code>PortType/operation</code>
+     * @return Regular expression matching <code>PortType/operation</code>
+     */
+    protected static Pattern compilePattern(String pattern) {
+        StringBuilder regex = new StringBuilder();
+
+        for (String part : Splitter.on('*').split(pattern)) {
+            if (regex.length() > 0) {
+                regex.append("[^/]*");
+            }
+
+            regex.append(Pattern.quote(part));
+        }
+
+        if (!pattern.contains("/")) {
+            regex.append("/.*");
+        }
+
+        return Objects.requireNonNull(Pattern.compile(regex.toString()));
+    }
+
+    /**
+     * Resolve a qualified name
+     *
+     * @param context Namespace context
+     * @param value Prefixed name
+     * @return Resolved qualified name
+     */
+    protected static QName resolve(NamespaceContext context, String value) {
+        int colon = value.indexOf(':');
+        String prefix = colon >= 0 ? value.substring(0, colon) : XMLConstants.DEFAULT_NS_PREFIX;
+        String namespace = context.getNamespaceURI(prefix);
+
+        return new QName(namespace != null ? namespace : XMLConstants.NULL_NS_URI, value.substring(colon + 1));
+    }
+
+    /**
+     * Get the value of an unqualified attribute
+     *
+     * @param reader Reader positioned on the element
+     * @param name Name of the attribute
+     * @param defaultValue Value if the attribute does not exist
+     * @return Value of the attribute
+     */
+    protected static String attribute(XMLStreamReader reader, String name, String defaultValue) {
+        String value = reader.getAttributeValue(null, name);
+        return value != null ? value : defaultValue;
+    }
+
+    /**
+     * Get the value of an unqualified attribute
+     *
+     * @param start Start element
+     * @param name Name of the attribute
+     * @param defaultValue Value if the attribute does not exist
+     * @return Value of the attribute
+     */
+    protected static String attribute(StartElement start, String name, String defaultValue) {
+        Attribute attribute = start.getAttributeByName(new QName(name));
+        return attribute != null ? Objects.requireNonNull(attribute.getValue()) : defaultValue;
+    }
+
+    /**
+     * Check if a name is a WSDL element
+     *
+     * @param name Name to check
+     * @param localName Local name of the WSDL element
+     * @return <code>true</code> if the name is the WSDL element
+     */
+    protected static boolean isWsdl(QName name, String localName) {
+        return WSDL_NAMESPACE.equals(name.getNamespaceURI()) && localName.equals(name.getLocalPart());
+    }
+
+    /**
+     * Check if a name is a XML schema element
+     *
+     * @param name Name to check
+     * @param localName Local name of the XML schema element
+     * @return <code>true</code> if the name is the XML schema element
+     */
+    protected static boolean isXsd(QName name, String localName) {
+        return XSD_NAMESPACE.equals(name.getNamespaceURI()) && localName.equals(name.getLocalPart());
+    }
+
+    /**
+     * References between the parts of a WSDL file
+     */
+    protected static class WsdlModel {
+
+        /**
+         * Local documents read, starting with the WSDL file
+         */
+        protected final List<Path> documents = new ArrayList<>();
+
+        /**
+         * Operations of the port types with the messages they use
+         */
+        protected final Map<QName, Map<String, Set<QName>>> portTypes = new LinkedHashMap<>();
+
+        /**
+         * Messages with the schema components used by their parts
+         */
+        protected final Multimap<QName, QName> messages = Multimaps.newSetMultimap(new HashMap<>(),
+                () -> new HashSet<>());
+
+        /**
+         * Messages used by binding operations, e.g. for SOAP headers, keyed by <code>binding/operation</code>
+         */
+        protected final Multimap<QName, QName> bindingMessages = Multimaps.newSetMultimap(new HashMap<>(),
+                () -> new HashSet<>());
+
+        /**
+         * Bindings with their port type
+         */
+        protected final Map<QName, QName> bindings = new HashMap<>();
+
+        /**
+         * Services with the bindings used by their ports
+         */
+        protected final Multimap<QName, QName> services = Multimaps.newSetMultimap(new HashMap<>(),
+                () -> new HashSet<>());
+
+        /**
+         * Top level schema components with the components they reference
+         */
+        protected final Multimap<QName, QName> components = Multimaps.newSetMultimap(new HashMap<>(),
+                () -> new HashSet<>());
+
+        /**
+         * Schema components with the components derived from them
+         */
+        protected final Multimap<QName, QName> derivations = Multimaps.newSetMultimap(new HashMap<>(),
+                () -> new HashSet<>());
+
+        /**
+         * Components of schemas without target namespace, which are never pruned
+         */
+        protected final Set<QName> required = new HashSet<>();
+
+    }
+
+    /**
+     * Parts of a WSDL file selected for code generation
+     */
+    protected static class Selection {
+
+        /**
+         * Selected port types
+         */
+        protected final Set<QName> portTypes = new HashSet<>();
+
+        /**
+         * Selected operations, named <code>portType/operation</code>
+         */
+        protected final Set<QName> operations = new HashSet<>();
+
+        /**
+         * Selected messages
+         */
+        protected final Set<QName> messages = new HashSet<>();
+
+        /**
+         * Selected bindings
+         */
+        protected final Set<QName> bindings = new HashSet<>();
+
+        /**
+         * Selected services
+         */
+        protected final Set<QName> services = new HashSet<>();
+
+        /**
+         * Selected schema components
+         */
+        protected final Set<QName> components = new HashSet<>();
+
+        /**
+         * Number of ports of the selected services that use a selected binding
+         */
+        protected int ports;
+
+    }
+
+}
@@ -0,0 +1,244 @@
+/**
+ * BSD 2-Clause License
+ *
+ * Copyright (c) 2016-2017, Jochen Seeber
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package me.seeber.gradle.wsimport;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+import javax.xml.namespace.QName;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+import org.eclipse.jdt.annotation.Nullable;
+import org.gradle.api.GradleException;
+
+import com.google.common.collect.ImmutableSet;
+
+/**
+ * Find the documents imported by a WSDL file
+ *
+ * Documents are read with a streaming parser, so memory use does not depend on the size of the documents. XML schemas
+ * are only read up to the first top level component, since imports and includes must precede all components.
+ */
+public class WsdlScanner {
+
+    /**
+     * Schema elements that may precede the first top level component
+     */
+    protected static final Set<String> SCHEMA_PROLOG_ELEMENTS = Objects
+            .requireNonNull(ImmutableSet.of("import", "include", "redefine", "annotation"));
+
+    /**
+     * Factory used to create XML readers
+     */
+    private final XMLInputFactory inputFactory;
+
+    /**
+     * Create a new WSDL scanner
+     */
+    public WsdlScanner() {
+        this.inputFactory = Objects.requireNonNull(XMLInputFactory.newInstance());
+        this.inputFactory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+    }
+
+    /**
+     * Find the documents transitively imported by a WSDL file
+     *
+     * Only documents that are local files are returned. Imports of missing files or remote documents are ignored.
+     *
+     * @param wsdlFile WSDL file to scan
+     * @return WSDL file and all documents imported by it, in breadth first order
+     */
+    public List<WsdlDocument> scan(Path wsdlFile) {
+        Path root = wsdlFile.toAbsolutePath().normalize();
+        Map<Path, ScanResult> results = new LinkedHashMap<>();
+        Set<Path> imported = new HashSet<>();
+        Deque<Path> pending = new ArrayDeque<>();
+
+        imported.add(root);
+        pending.add(root);
+
+        while (!pending.isEmpty()) {
+            Path file = pending.pop();
+
+            if (!results.containsKey(file) && Files.isRegularFile(file)) {
+                ScanResult result = scanDocument(file);
+                results.put(file, result);
+                imported.addAll(result.imports);
+                pending.addAll(result.imports);
+                pending.addAll(result.includes);
+            }
+        }
+
+        List<WsdlDocument> documents = new ArrayList<>();
+
+        for (Map.Entry<Path, ScanResult> entry : results.entrySet()) {
+            Path file = Objects.requireNonNull(entry.getKey());
+            ScanResult result = Objects.requireNonNull(entry.getValue());
+            List<Path> references = new ArrayList<>(result.imports);
+            references.addAll(result.includes);
+
+            documents.add(new WsdlDocument(file, result.wsdl, result.targetNamespace, !imported.contains(file),
+                    references));
+        }
+
+        return documents;
+    }
+
+    /**
+     * Scan a single document
+     *
+     * @param file File containing the document
+     * @return Scan result
+     */
+    protected ScanResult scanDocument(Path file) {
+        ScanResult result = new ScanResult();
+
+        try (InputStream in = Files.newInputStream(file)) {
+            XMLStreamReader reader = this.inputFactory.createXMLStreamReader(file.toUri().toString(), in);
+
+            try {
+                int depth = 0;
+
+                while (reader.hasNext()) {
+                    int event = reader.next();
+
+                    if (event == XMLStreamConstants.START_ELEMENT) {
+                        QName name = reader.getName();
+                        ++depth;
+
+                        if (depth == 1) {
+                            result.wsdl = WsdlPruner.isWsdl(name, "definitions");
+                            result.targetNamespace = WsdlPruner.attribute(reader, "targetNamespace", "");
+                        }
+                        else if (depth == 2 && !result.wsdl && !isSchemaProlog(name)) {
+                            break;
+                        }
+
+                        if (WsdlPruner.isWsdl(name, "import")) {
+                            addReference(file, reader.getAttributeValue(null, "location"), result.imports);
+                        }
+                        else if (WsdlPruner.isXsd(name, "import") || WsdlPruner.isXsd(name, "redefine")) {
+                            addReference(file, reader.getAttributeValue(null, "schemaLocation"), result.imports);
+                        }
+                        else if (WsdlPruner.isXsd(name, "include")) {
+                            addReference(file, reader.getAttributeValue(null, "schemaLocation"), result.includes);
+                        }
+                    }
+                    else if (event == XMLStreamConstants.END_ELEMENT) {
+                        --depth;
+                    }
+                }
+            }
+            finally {
+                reader.close();
+            }
+        }
+        catch (IOException | XMLStreamException e) {
+            throw new GradleException(String.format("Could not read %s", file), e);
+        }
+
+        return result;
+    }
+
+    /**
+     * Check if an element may precede the first top level component of a XML schema
+     *
+     * @param name Name of the element
+     * @return <code>true</code> if the element may precede the first top level component
+     */
+    protected static boolean isSchemaProlog(QName name) {
+        return WsdlPruner.XSD_NAMESPACE.equals(name.getNamespaceURI())
+                && SCHEMA_PROLOG_ELEMENTS.contains(name.getLocalPart());
+    }
+
+    /**
+     * Add a reference to a local file
+     *
+     * @param file File containing the reference
+     * @param location Location of the referenced document
+     * @param references References to add the file to
+     */
+    protected void addReference(Path file, @Nullable String location, List<Path> references) {
+        if (location != null) {
+            try {
+                URI uri = file.toUri().resolve(location);
+
+                if ("file".equals(uri.getScheme())) {
+                    references.add(Paths.get(uri).normalize());
+                }
+            }
+            catch (IllegalArgumentException e) {
+                // Not a valid URI, leave it to wsimport to report the error
+            }
+        }
+    }
+
+    /**
+     * Result of scanning a single document
+     */
+    protected static class ScanResult {
+
+        /**
+         * <code>true</code> if the document is a WSDL file
+         */
+        protected boolean wsdl;
+
+        /**
+         * Target namespace of the document
+         */
+        protected String targetNamespace = "";
+
+        /**
+         * Imported files
+         */
+        protected final List<Path> imports = new ArrayList<>();
+
+        /**
+         * Included files
+         */
+        protected final List<Path> includes = new ArrayList<>();
+
+    }
+
+}
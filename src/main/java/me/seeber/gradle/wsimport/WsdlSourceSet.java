@@ -49,4 +49,25 @@ public interface WsdlSourceSet extends LanguageSourceSet {
      */
     public XjcConfig getXjc();
 
+    /**
+     * Get the filter for the port types and operations to generate code for
+     * 
+     * @return Filter for port types and operations
+     */
+    public OperationFilter getOperations();
+
+    /**
+     * Get the configuration of the asynchronous client methods
+     * 
+     * @return Configuration of the asynchronous client methods
+     */
+    public AsyncConfig getAsync();
+
+    /**
+     * Get the configuration of binary attachments
+     * 
+     * @return Configuration of binary attachments
+     */
+    public AttachmentConfig getAttachments();
+
 }
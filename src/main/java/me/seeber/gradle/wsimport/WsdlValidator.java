@@ -0,0 +1,528 @@
+/**
+ * BSD 2-Clause License
+ *
+ * Copyright (c) 2016-2017, Jochen Seeber
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package me.seeber.gradle.wsimport;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.xml.XMLConstants;
+import javax.xml.namespace.QName;
+import javax.xml.parsers.DocumentBuilder;
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.transform.OutputKeys;
+import javax.xml.transform.Source;
+import javax.xml.transform.Transformer;
+import javax.xml.transform.TransformerException;
+import javax.xml.transform.TransformerFactory;
+import javax.xml.transform.dom.DOMSource;
+import javax.xml.transform.stream.StreamResult;
+import javax.xml.transform.stream.StreamSource;
+import javax.xml.validation.SchemaFactory;
+
+import org.eclipse.jdt.annotation.Nullable;
+import org.gradle.api.GradleException;
+import org.w3c.dom.Attr;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.NamedNodeMap;
+import org.w3c.dom.Node;
+import org.w3c.dom.ls.DOMImplementationLS;
+import org.w3c.dom.ls.LSInput;
+import org.xml.sax.ErrorHandler;
+import org.xml.sax.SAXException;
+import org.xml.sax.SAXParseException;
+
+import com.google.common.collect.ImmutableList;
+
+/**
+ * Validate WSDL files and the XML schemas they import
+ *
+ * Each XML schema file is compiled at most once per validator, no matter how many WSDL files import it, so a validator
+ * should be shared by all WSDL files of a task. Only the errors of a compiled schema file are kept, not the compiled
+ * schema itself. Validators are thread safe.
+ */
+public class WsdlValidator {
+
+    /**
+     * Xerces feature that allows several schema documents with the same target namespace
+     */
+    protected static final String NAMESPACE_GROWTH_FEATURE = "http://apache.org/xml/features/namespace-growth";
+
+    /**
+     * Errors of the XML schema files that were already compiled
+     */
+    private final Map<Path, List<String>> schemaErrors = new ConcurrentHashMap<>();
+
+    /**
+     * Schema factories of the validating threads
+     */
+    private final ThreadLocal<SchemaFactory> schemaFactories = ThreadLocal.withInitial(() -> {
+        SchemaFactory factory = SchemaFactory.newInstance(XMLConstants.W3C_XML_SCHEMA_NS_URI);
+
+        try {
+            factory.setFeature(NAMESPACE_GROWTH_FEATURE, true);
+        }
+        catch (SAXException e) {
+            // Not supported by this schema factory, schemas with the same namespace must be merged by includes
+        }
+
+        return factory;
+    });
+
+    /**
+     * Document builders of the validating threads
+     */
+    private final ThreadLocal<DocumentBuilder> documentBuilders = ThreadLocal.withInitial(() -> {
+        DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+        factory.setNamespaceAware(true);
+        factory.setXIncludeAware(false);
+        factory.setExpandEntityReferences(false);
+
+        try {
+            factory.setFeature("http://apache.org/xml/features/disallow-doctype-decl", true);
+            factory.setFeature("http://xml.org/sax/features/external-general-entities", false);
+            factory.setFeature("http://xml.org/sax/features/external-parameter-entities", false);
+            factory.setAttribute(XMLConstants.ACCESS_EXTERNAL_DTD, "");
+            return factory.newDocumentBuilder();
+        }
+        catch (ParserConfigurationException e) {
+            throw new GradleException("Could not create XML parser", e);
+        }
+    });
+
+    /**
+     * Validate a WSDL file and the documents it imports
+     *
+     * @param documents WSDL file and imported documents as returned by {@link WsdlScanner#scan(Path)}
+     * @return Error messages, empty if the documents are valid
+     */
+    public List<String> validate(List<WsdlDocument> documents) {
+        List<String> errors = new ArrayList<>();
+        List<Document> wsdls = new ArrayList<>();
+        Set<String> namespaces = new HashSet<>();
+        Map<String, Path> schemaFiles = new HashMap<>();
+
+        for (WsdlDocument document : documents) {
+            if (!document.isWsdl() && !document.isIncluded()) {
+                schemaFiles.putIfAbsent(document.getTargetNamespace(), document.getFile());
+            }
+        }
+
+        for (WsdlDocument document : documents) {
+            namespaces.add(document.getTargetNamespace());
+
+            if (!document.isWsdl()) {
+                if (!document.isIncluded()) {
+                    errors.addAll(this.schemaErrors.computeIfAbsent(document.getFile(), f -> compileSchema(f)));
+                }
+
+                continue;
+            }
+
+            Path file = document.getFile();
+            ErrorCollector collector = new ErrorCollector(file.toUri().toString());
+
+            try {
+                DocumentBuilder builder = this.documentBuilders.get();
+                builder.setErrorHandler(collector);
+                Document wsdl = builder.parse(file.toFile());
+                wsdl.setDocumentURI(file.toUri().toString());
+                wsdls.add(wsdl);
+                errors.addAll(compileInlineSchemas(wsdl, namespaces, schemaFiles));
+            }
+            catch (SAXException e) {
+                collector.add(e);
+            }
+            catch (IOException e) {
+                throw new GradleException(String.format("Could not read %s", file), e);
+            }
+
+            errors.addAll(collector.getErrors());
+        }
+
+        if (errors.isEmpty()) {
+            errors.addAll(checkReferences(wsdls, namespaces));
+        }
+
+        return errors;
+    }
+
+    /**
+     * Compile a XML schema file
+     *
+     * @param file Schema file to compile
+     * @return Error messages, empty if the schema is valid
+     */
+    protected List<String> compileSchema(Path file) {
+        ErrorCollector collector = new ErrorCollector(file.toUri().toString());
+        SchemaFactory factory = this.schemaFactories.get();
+        factory.setErrorHandler(collector);
+        factory.setResourceResolver(null);
+
+        try {
+            factory.newSchema(file.toFile());
+        }
+        catch (SAXException e) {
+            collector.add(e);
+        }
+
+        return collector.getErrors();
+    }
+
+    /**
+     * Compile the schemas embedded in a WSDL file
+     *
+     * The embedded schemas are compiled together, and imports without a schema location are resolved to the embedded
+     * schema with the same target namespace, or else to the imported schema file with that namespace. Errors are
+     * reported with the position in the embedded schema, which is identified by its index in the WSDL file.
+     *
+     * @param wsdl WSDL document
+     * @param namespaces Namespaces to add the target namespaces of the embedded schemas to
+     * @param schemaFiles Schema files imported by the WSDL files by their target namespace
+     * @return Error messages, empty if the schemas are valid
+     */
+    protected List<String> compileInlineSchemas(Document wsdl, Set<String> namespaces, Map<String, Path> schemaFiles) {
+        String systemId = Objects.requireNonNull(wsdl.getDocumentURI());
+        Map<String, String> schemas = new HashMap<>();
+        Map<String, String> contents = new HashMap<>();
+        List<Source> sources = new ArrayList<>();
+
+        for (Element types : children(wsdl.getDocumentElement(), WsdlPruner.WSDL_NAMESPACE, "types")) {
+            for (Element schema : children(types, WsdlPruner.XSD_NAMESPACE, "schema")) {
+                String namespace = schema.getAttribute("targetNamespace");
+                String content = serialize(schema);
+                String schemaId = String.format("%s#schema%d", systemId, sources.size() + 1);
+                namespaces.add(namespace);
+                schemas.putIfAbsent(namespace, schemaId);
+                contents.put(schemaId, content);
+                sources.add(new StreamSource(new StringReader(content), schemaId));
+            }
+        }
+
+        if (sources.isEmpty()) {
+            return ImmutableList.of();
+        }
+
+        DOMImplementationLS implementation = (DOMImplementationLS) wsdl.getImplementation();
+        ErrorCollector collector = new ErrorCollector(systemId);
+        SchemaFactory factory = this.schemaFactories.get();
+        factory.setErrorHandler(collector);
+
+        factory.setResourceResolver((type, namespace, publicId, location, baseUri) -> {
+            if (location != null || namespace == null) {
+                return null;
+            }
+
+            String schemaId = schemas.get(namespace);
+            Path schemaFile = schemaFiles.get(namespace);
+            LSInput input = implementation.createLSInput();
+
+            if (schemaId != null) {
+                input.setStringData(contents.get(schemaId));
+                input.setSystemId(schemaId);
+            }
+            else if (schemaFile != null) {
+                input.setSystemId(schemaFile.toUri().toString());
+            }
+            else {
+                return null;
+            }
+
+            return input;
+        });
+
+        try {
+            factory.newSchema(sources.toArray(new Source[sources.size()]));
+        }
+        catch (SAXException e) {
+            collector.add(e);
+        }
+        finally {
+            factory.setResourceResolver(null);
+        }
+
+        return collector.getErrors();
+    }
+
+    /**
+     * Check that the messages, port types and bindings referenced by the WSDL files are defined
+     *
+     * @param wsdls WSDL documents
+     * @param namespaces Target namespaces of all documents and embedded schemas
+     * @return Error messages, empty if all references are defined
+     */
+    protected List<String> checkReferences(List<Document> wsdls, Set<String> namespaces) {
+        Map<String, Set<QName>> definitions = new HashMap<>();
+        List<String> errors = new ArrayList<>();
+
+        for (Document wsdl : wsdls) {
+            Element root = wsdl.getDocumentElement();
+            String namespace = root.getAttribute("targetNamespace");
+
+            for (String kind : new String[] { "message", "portType", "binding" }) {
+                Set<QName> names = definitions.computeIfAbsent(kind, k -> new HashSet<>());
+
+                for (Element definition : children(root, WsdlPruner.WSDL_NAMESPACE, kind)) {
+                    names.add(new QName(namespace, definition.getAttribute("name")));
+                }
+            }
+        }
+
+        for (Document wsdl : wsdls) {
+            String location = Objects.requireNonNull(wsdl.getDocumentURI());
+            Element root = wsdl.getDocumentElement();
+
+            for (Element message : children(root, WsdlPruner.WSDL_NAMESPACE, "message")) {
+                for (Element part : children(message, WsdlPruner.WSDL_NAMESPACE, "part")) {
+                    for (String attribute : new String[] { "element", "type" }) {
+                        QName name = reference(part, attribute);
+
+                        if (name != null && !namespaces.contains(name.getNamespaceURI())
+                                && !WsdlPruner.XSD_NAMESPACE.equals(name.getNamespaceURI())) {
+                            errors.add(String.format("%s: Part '%s' of message '%s' refers to %s in unknown namespace",
+                                    location, part.getAttribute("name"), message.getAttribute("name"), name));
+                        }
+                    }
+                }
+            }
+
+            for (Element portType : children(root, WsdlPruner.WSDL_NAMESPACE, "portType")) {
+                for (Element operation : children(portType, WsdlPruner.WSDL_NAMESPACE, "operation")) {
+                    for (Element io : children(operation, WsdlPruner.WSDL_NAMESPACE, null)) {
+                        String description = String.format("%s: %s of operation '%s'", location,
+                                io.getLocalName(), operation.getAttribute("name"));
+                        checkReference(io, "message", definitions.get("message"), description, errors);
+                    }
+                }
+            }
+
+            for (Element binding : children(root, WsdlPruner.WSDL_NAMESPACE, "binding")) {
+                checkReference(binding, "type", definitions.get("portType"),
+                        String.format("%s: Binding '%s'", location, binding.getAttribute("name")), errors);
+            }
+
+            for (Element service : children(root, WsdlPruner.WSDL_NAMESPACE, "service")) {
+                for (Element port : children(service, WsdlPruner.WSDL_NAMESPACE, "port")) {
+                    checkReference(port, "binding", definitions.get("binding"),
+                            String.format("%s: Port '%s'", location, port.getAttribute("name")), errors);
+                }
+            }
+        }
+
+        return errors;
+    }
+
+    /**
+     * Check that a qualified name in an attribute refers to a definition
+     *
+     * @param element Element containing the attribute
+     * @param attribute Name of the attribute
+     * @param definitions Names of the definitions
+     * @param description Description of the element used in error messages
+     * @param errors Errors to add an error to if the definition does not exist
+     */
+    protected void checkReference(Element element, String attribute, @Nullable Set<QName> definitions,
+            String description, List<String> errors) {
+        QName name = reference(element, attribute);
+
+        if (name != null && (definitions == null || !definitions.contains(name))) {
+            errors.add(String.format("%s refers to undefined %s", description, name));
+        }
+    }
+
+    /**
+     * Resolve a qualified name in an attribute
+     *
+     * @param element Element containing the attribute
+     * @param attribute Name of the attribute
+     * @return Resolved name or <code>null</code> if the element does not have the attribute
+     */
+    protected static @Nullable QName reference(Element element, String attribute) {
+        if (!element.hasAttribute(attribute)) {
+            return null;
+        }
+
+        String value = element.getAttribute(attribute).trim();
+        int separator = value.indexOf(':');
+        String prefix = separator < 0 ? null : value.substring(0, separator);
+        String namespace = element.lookupNamespaceURI(prefix);
+
+        return new QName(namespace != null ? namespace : "", value.substring(separator + 1));
+    }
+
+    /**
+     * Get the child elements of an element with a name
+     *
+     * @param parent Parent element
+     * @param namespace Namespace of the child elements
+     * @param name Local name of the child elements, <code>null</code> to match all names
+     * @return Matching child elements
+     */
+    protected static List<Element> children(Element parent, String namespace, @Nullable String name) {
+        List<Element> children = new ArrayList<>();
+
+        for (Node child = parent.getFirstChild(); child != null; child = child.getNextSibling()) {
+            if (child instanceof Element && namespace.equals(child.getNamespaceURI())
+                    && (name == null || name.equals(child.getLocalName()))) {
+                children.add((Element) child);
+            }
+        }
+
+        return children;
+    }
+
+    /**
+     * Serialize an embedded schema to a standalone document
+     *
+     * Namespace declarations of the enclosing WSDL elements are copied to the schema element, so prefixes declared
+     * on the WSDL definitions can be used in the schema.
+     *
+     * @param schema Schema element
+     * @return Serialized schema
+     */
+    protected static String serialize(Element schema) {
+        Element copy = (Element) schema.cloneNode(true);
+
+        for (Node parent = schema.getParentNode(); parent instanceof Element; parent = parent.getParentNode()) {
+            NamedNodeMap attributes = parent.getAttributes();
+
+            for (int i = 0; i < attributes.getLength(); ++i) {
+                Attr attribute = (Attr) attributes.item(i);
+
+                if (XMLConstants.XMLNS_ATTRIBUTE_NS_URI.equals(attribute.getNamespaceURI())
+                        && !copy.hasAttributeNS(XMLConstants.XMLNS_ATTRIBUTE_NS_URI, attribute.getLocalName())) {
+                    copy.setAttributeNS(XMLConstants.XMLNS_ATTRIBUTE_NS_URI, attribute.getName(),
+                            attribute.getValue());
+                }
+            }
+        }
+
+        try {
+            Transformer transformer = TransformerFactory.newInstance().newTransformer();
+            transformer.setOutputProperty(OutputKeys.OMIT_XML_DECLARATION, "yes");
+            StringWriter out = new StringWriter();
+            transformer.transform(new DOMSource(copy), new StreamResult(out));
+            return Objects.requireNonNull(out.toString());
+        }
+        catch (TransformerException e) {
+            throw new GradleException("Could not serialize embedded schema", e);
+        }
+    }
+
+    /**
+     * Error handler that collects errors
+     */
+    protected static class ErrorCollector implements ErrorHandler {
+
+        /**
+         * Location used for errors without a location
+         */
+        private final String location;
+
+        /**
+         * Collected error messages
+         */
+        private final Set<String> errors = new LinkedHashSet<>();
+
+        /**
+         * Create a new error collector
+         *
+         * @param location Location used for errors without a location
+         */
+        public ErrorCollector(String location) {
+            this.location = location;
+        }
+
+        /**
+         * @see org.xml.sax.ErrorHandler#warning(org.xml.sax.SAXParseException)
+         */
+        @Override
+        public void warning(@Nullable SAXParseException exception) {
+            // Warnings do not fail the validation
+        }
+
+        /**
+         * @see org.xml.sax.ErrorHandler#error(org.xml.sax.SAXParseException)
+         */
+        @Override
+        public void error(@Nullable SAXParseException exception) {
+            add(Objects.requireNonNull(exception));
+        }
+
+        /**
+         * @see org.xml.sax.ErrorHandler#fatalError(org.xml.sax.SAXParseException)
+         */
+        @Override
+        public void fatalError(@Nullable SAXParseException exception) throws SAXException {
+            add(Objects.requireNonNull(exception));
+            throw exception;
+        }
+
+        /**
+         * Add an error
+         *
+         * @param exception Exception describing the error
+         */
+        public void add(SAXException exception) {
+            if (exception instanceof SAXParseException) {
+                SAXParseException parseException = (SAXParseException) exception;
+                String systemId = parseException.getSystemId();
+
+                this.errors.add(String.format("%s:%d:%d: %s", systemId != null ? systemId : this.location,
+                        parseException.getLineNumber(), parseException.getColumnNumber(),
+                        parseException.getMessage()));
+            }
+            else {
+                this.errors.add(String.format("%s: %s", this.location, exception.getMessage()));
+            }
+        }
+
+        /**
+         * Get the collected error messages
+         *
+         * @return Collected error messages
+         */
+        public List<String> getErrors() {
+            return Objects.requireNonNull(ImmutableList.copyOf(this.errors));
+        }
+
+    }
+
+}
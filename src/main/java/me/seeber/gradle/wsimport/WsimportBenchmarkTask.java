@@ -0,0 +1,120 @@
+/**
+ * BSD 2-Clause License
+ *
+ * Copyright (c) 2016-2017, Jochen Seeber
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package me.seeber.gradle.wsimport;
+
+import java.io.File;
+import java.util.Objects;
+
+import org.eclipse.jdt.annotation.Nullable;
+import org.gradle.api.file.FileTree;
+import org.gradle.api.internal.ConventionTask;
+import org.gradle.api.tasks.InputFiles;
+import org.gradle.api.tasks.Internal;
+import org.gradle.api.tasks.OutputDirectory;
+import org.gradle.api.tasks.SkipWhenEmpty;
+import org.gradle.api.tasks.TaskAction;
+
+/**
+ * Generate stub endpoints and JMH benchmarks from the code generated by a wsimport task
+ *
+ * @see BenchmarkGenerator
+ */
+public class WsimportBenchmarkTask extends ConventionTask {
+
+    /**
+     * Directory containing the code generated by wsimport
+     */
+    private @Nullable File sourceDir;
+
+    /**
+     * Directory to write the stubs and benchmarks to
+     */
+    private @Nullable File destinationDir;
+
+    /**
+     * Generate the stubs and benchmarks
+     */
+    @TaskAction
+    protected void generate() {
+        File destination = Objects.requireNonNull(getDestinationDir());
+        getProject().delete(destination);
+
+        int count = new BenchmarkGenerator().generate(Objects.requireNonNull(getSourceDir()).toPath(),
+                destination.toPath());
+        getLogger().info("Generated stubs and benchmarks for {} port interfaces", count);
+    }
+
+    /**
+     * Get the Java files generated by wsimport
+     *
+     * @return Generated Java files
+     */
+    @InputFiles
+    @SkipWhenEmpty
+    public FileTree getSources() {
+        return getProject().fileTree(Objects.requireNonNull(getSourceDir())).matching(p -> p.include("**/*.java"));
+    }
+
+    /**
+     * Get the directory containing the code generated by wsimport
+     *
+     * @return Directory containing the generated code
+     */
+    @Internal
+    public @Nullable File getSourceDir() {
+        return this.sourceDir;
+    }
+
+    /**
+     * Set the directory containing the code generated by wsimport
+     *
+     * @param sourceDir Directory containing the generated code
+     */
+    public void setSourceDir(File sourceDir) {
+        this.sourceDir = sourceDir;
+    }
+
+    /**
+     * Get the directory to write the stubs and benchmarks to
+     *
+     * @return Destination directory
+     */
+    @OutputDirectory
+    public @Nullable File getDestinationDir() {
+        return this.destinationDir;
+    }
+
+    /**
+     * Set the directory to write the stubs and benchmarks to
+     *
+     * @param destinationDir Destination directory
+     */
+    public void setDestinationDir(File destinationDir) {
+        this.destinationDir = destinationDir;
+    }
+}
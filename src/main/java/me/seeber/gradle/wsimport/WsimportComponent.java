@@ -36,4 +36,55 @@ import org.gradle.platform.base.SourceComponentSpec;
 @Managed
 public interface WsimportComponent extends SourceComponentSpec {
 
+    /**
+     * Check if the component is a contract library
+     *
+     * The generated code of a contract library is compiled and packaged separately, and published in the
+     * 'wsimportContract' configuration, so that other projects can use it without generating it again.
+     *
+     * @return <code>true</code> if the component is a contract library
+     */
+    public boolean isContractLibrary();
+
+    /**
+     * Set if the component is a contract library
+     *
+     * @param contractLibrary <code>true</code> if the component is a contract library
+     */
+    public void setContractLibrary(boolean contractLibrary);
+
+    /**
+     * Check if the generated code of the component is compiled in separate units per XML namespace
+     *
+     * Units that do not depend on each other are compiled concurrently, and each unit is only compiled again if its
+     * sources or the sources of the units it depends on change.
+     *
+     * @return <code>true</code> if the generated code is compiled in separate units
+     */
+    public boolean isCompileUnits();
+
+    /**
+     * Set if the generated code of the component is compiled in separate units per XML namespace
+     *
+     * @param compileUnits <code>true</code> if the generated code is compiled in separate units
+     */
+    public void setCompileUnits(boolean compileUnits);
+
+    /**
+     * Check if the WSDL files of the component are validated before running wsimport
+     *
+     * The validation tasks are created in any case, this only controls if the wsimport tasks depend on them.
+     * Defaults to <code>true</code>.
+     *
+     * @return <code>true</code> if the WSDL files are validated before running wsimport
+     */
+    public boolean isValidate();
+
+    /**
+     * Set if the WSDL files of the component are validated before running wsimport
+     *
+     * @param validate <code>true</code> if the WSDL files are validated before running wsimport
+     */
+    public void setValidate(boolean validate);
+
 }
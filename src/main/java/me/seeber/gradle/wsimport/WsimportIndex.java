@@ -0,0 +1,721 @@
+/**
+ * BSD 2-Clause License
+ *
+ * Copyright (c) 2016-2017, Jochen Seeber
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package me.seeber.gradle.wsimport;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.eclipse.jdt.annotation.Nullable;
+import org.gradle.api.GradleException;
+
+import com.google.common.hash.Hashing;
+
+/**
+ * Persistent index of the inputs and outputs of the WSDL files processed by a wsimport task
+ *
+ * For each WSDL file the index records a fingerprint of the tool options, the size, modification time and hash of all
+ * input files including transitively imported documents, and the size, modification time and hash of all generated
+ * files. Files of the tool class path are only recorded by size and modification time. This allows to detect unchanged
+ * WSDL files by comparing file sizes and modification times, and only hash files whose modification time changed. A
+ * generated file that was rewritten with the same content, e.g. a class generated for a schema shared by several WSDL
+ * files, therefore does not make the other WSDL files out of date. The index also records the number of ports and
+ * operations of each WSDL file and the lines of the generated Java files, so statistics can be created without reading
+ * the WSDL and generated files again.
+ */
+public class WsimportIndex {
+
+    /**
+     * Header of the index file
+     */
+    protected static final String HEADER = "wsimport-index\t5";
+
+    /**
+     * Entries of the index, keyed by WSDL path
+     */
+    private final Map<String, Entry> entries = new TreeMap<>();
+
+    /**
+     * Load an index
+     *
+     * @param file File to load the index from
+     * @return Loaded index, empty if the file does not exist or has an unknown format
+     */
+    public static WsimportIndex load(File file) {
+        WsimportIndex index = new WsimportIndex();
+
+        if (file.isFile()) {
+            try (BufferedReader reader = Files.newBufferedReader(file.toPath(), StandardCharsets.UTF_8)) {
+                if (HEADER.equals(reader.readLine())) {
+                    @Nullable Entry entry = null;
+                    String line;
+
+                    while ((line = reader.readLine()) != null) {
+                        String[] fields = line.split("\t");
+
+                        if (fields[0].equals("wsdl") && fields.length >= 3) {
+                            entry = new Entry(Objects.requireNonNull(fields[2]));
+                            entry.setContentKey(fields.length > 3 ? fields[3] : null);
+                            entry.setDuration(fields.length > 4 ? Long.parseLong(fields[4]) : 0L);
+                            entry.setPorts(fields.length > 5 ? Integer.parseInt(fields[5]) : 0);
+                            entry.setOperations(fields.length > 6 ? Integer.parseInt(fields[6]) : 0);
+                            index.entries.put(fields[1], entry);
+                        }
+                        else if (fields[0].equals("input") && fields.length == 6 && entry != null) {
+                            entry.inputs.put(fields[5], new FileState(Long.parseLong(fields[2]),
+                                    Long.parseLong(fields[3]), fields[4].isEmpty() ? null : fields[4]));
+
+                            if (fields[1].equals("import")) {
+                                entry.imports.add(fields[5]);
+                            }
+                        }
+                        else if (fields[0].equals("output") && fields.length == 6 && entry != null) {
+                            entry.outputs.put(fields[5], new FileState(Long.parseLong(fields[1]),
+                                    Long.parseLong(fields[2]), fields[3].isEmpty() ? null : fields[3]));
+                            entry.outputLines.put(fields[5], Long.parseLong(fields[4]));
+                        }
+                        else {
+                            throw new IOException(String.format("Illegal line '%s'", line));
+                        }
+                    }
+                }
+            }
+            catch (IOException | RuntimeException e) {
+                index.entries.clear();
+            }
+        }
+
+        return index;
+    }
+
+    /**
+     * Save the index
+     *
+     * @param file File to save the index to
+     */
+    public void save(File file) {
+        try {
+            Files.createDirectories(file.toPath().toAbsolutePath().getParent());
+
+            try (BufferedWriter writer = Files.newBufferedWriter(file.toPath(), StandardCharsets.UTF_8)) {
+                writer.write(HEADER);
+                writer.newLine();
+
+                for (Map.Entry<String, Entry> wsdl : this.entries.entrySet()) {
+                    Entry entry = wsdl.getValue();
+                    String contentKey = entry.contentKey;
+                    writer.write(String.format("wsdl\t%s\t%s\t%s\t%d\t%d\t%d", wsdl.getKey(), entry.fingerprint,
+                            contentKey != null ? contentKey : "", entry.duration, entry.ports, entry.operations));
+                    writer.newLine();
+
+                    for (Map.Entry<String, FileState> input : entry.inputs.entrySet()) {
+                        FileState state = input.getValue();
+                        String hash = state.hash;
+                        writer.write(String.format("input\t%s\t%d\t%d\t%s\t%s",
+                                entry.imports.contains(input.getKey()) ? "import" : "direct", state.size,
+                                state.lastModified, hash != null ? hash : "", input.getKey()));
+                        writer.newLine();
+                    }
+
+                    for (Map.Entry<String, FileState> output : entry.outputs.entrySet()) {
+                        FileState state = output.getValue();
+                        String hash = state.hash;
+                        writer.write(String.format("output\t%d\t%d\t%s\t%d\t%s", state.size, state.lastModified,
+                                hash != null ? hash : "", entry.getOutputLines(output.getKey()), output.getKey()));
+                        writer.newLine();
+                    }
+                }
+            }
+        }
+        catch (IOException e) {
+            throw new GradleException(String.format("Could not write wsimport index %s", file), e);
+        }
+    }
+
+    /**
+     * Get the entry of a WSDL file
+     *
+     * @param wsdl Path of the WSDL file relative to its source directory
+     * @return Entry of the WSDL file, <code>null</code> if the WSDL file has not been processed yet
+     */
+    public @Nullable Entry getEntry(String wsdl) {
+        return this.entries.get(wsdl);
+    }
+
+    /**
+     * Set the entry of a WSDL file
+     *
+     * @param wsdl Path of the WSDL file relative to its source directory
+     * @param entry Entry of the WSDL file
+     */
+    public void putEntry(String wsdl, Entry entry) {
+        this.entries.put(wsdl, entry);
+    }
+
+    /**
+     * Remove the entry of a WSDL file
+     *
+     * @param wsdl Path of the WSDL file relative to its source directory
+     */
+    public void removeEntry(String wsdl) {
+        this.entries.remove(wsdl);
+    }
+
+    /**
+     * Remove the entries of all WSDL files except the given ones
+     *
+     * @param wsdls Paths of the WSDL files to keep
+     */
+    public void retainEntries(Collection<String> wsdls) {
+        this.entries.keySet().retainAll(wsdls);
+    }
+
+    /**
+     * Get the WSDL files in the index
+     *
+     * @return Paths of the WSDL files relative to their source directory
+     */
+    public Set<String> getWsdls() {
+        return Collections.unmodifiableSet(this.entries.keySet());
+    }
+
+    /**
+     * Get the output files of all WSDL files in the index
+     *
+     * @return Paths of the output files relative to the output directory
+     */
+    public Set<String> getOutputs() {
+        Set<String> outputs = new TreeSet<>();
+        this.entries.values().forEach(e -> outputs.addAll(e.outputs.keySet()));
+        return outputs;
+    }
+
+    /**
+     * Calculate the hash of a file
+     *
+     * @param file File to hash
+     * @return Hash of the file
+     */
+    protected static String hash(Path file) {
+        try {
+            return Objects.requireNonNull(
+                    com.google.common.io.Files.asByteSource(file.toFile()).hash(Hashing.sha256()).toString());
+        }
+        catch (IOException e) {
+            throw new GradleException(String.format("Could not hash file %s", file), e);
+        }
+    }
+
+    /**
+     * Count the lines of a file
+     *
+     * @param file File to count the lines of
+     * @return Number of line breaks in the file
+     */
+    protected static long countLines(Path file) {
+        try (InputStream in = new BufferedInputStream(Files.newInputStream(file))) {
+            long lines = 0L;
+            int b;
+
+            while ((b = in.read()) >= 0) {
+                if (b == '\n') {
+                    ++lines;
+                }
+            }
+
+            return lines;
+        }
+        catch (IOException e) {
+            throw new GradleException(String.format("Could not read file %s", file), e);
+        }
+    }
+
+    /**
+     * Index entry of a WSDL file
+     */
+    public static class Entry {
+
+        /**
+         * Fingerprint of the tool options
+         */
+        private final String fingerprint;
+
+        /**
+         * Hash of the content of the WSDL file, its imports and the options, <code>null</code> if not recorded
+         */
+        private @Nullable String contentKey;
+
+        /**
+         * Time in milliseconds it took to generate the code, 0 if not recorded
+         */
+        private long duration;
+
+        /**
+         * Number of ports of the WSDL file, 0 if not recorded
+         */
+        private int ports;
+
+        /**
+         * Number of operations of the WSDL file, 0 if not recorded
+         */
+        private int operations;
+
+        /**
+         * Input files with their state
+         */
+        private final Map<String, FileState> inputs = new TreeMap<>();
+
+        /**
+         * Input files that are imported by the WSDL file
+         */
+        private final Set<String> imports = new HashSet<>();
+
+        /**
+         * Output files relative to the output directory with their state
+         */
+        private final Map<String, FileState> outputs = new TreeMap<>();
+
+        /**
+         * Number of lines of the generated Java files relative to the output directory
+         */
+        private final Map<String, Long> outputLines = new HashMap<>();
+
+        /**
+         * Create a new entry
+         *
+         * @param fingerprint Fingerprint of the tool options
+         */
+        public Entry(String fingerprint) {
+            this.fingerprint = fingerprint;
+        }
+
+        /**
+         * Add an input file
+         *
+         * @param file Input file
+         * @param states Current states of the input files
+         * @param imported <code>true</code> if the file is imported by the WSDL file
+         */
+        public void addInput(Path file, FileStates states, boolean imported) {
+            String path = file.toAbsolutePath().toString();
+            FileState state = states.get(file, true);
+
+            if (state == null) {
+                throw new GradleException(String.format("Could not read input file %s", file));
+            }
+
+            this.inputs.put(path, state);
+
+            if (imported) {
+                this.imports.add(path);
+            }
+        }
+
+        /**
+         * Add an output file
+         *
+         * The lines of generated Java files are counted when the file is added, so statistics can be created from the
+         * index without reading the generated files again.
+         *
+         * @param outputDir Output directory
+         * @param file Output file
+         */
+        public void addOutput(Path outputDir, Path file) {
+            String path = outputDir.relativize(file).toString();
+            this.outputs.put(path, FileState.of(file, true));
+
+            if (path.endsWith(".java")) {
+                this.outputLines.put(path, countLines(file));
+            }
+        }
+
+        /**
+         * Check if the WSDL file is up to date
+         *
+         * The WSDL file is up to date if the tool options did not change, the direct input files are the same, none
+         * of the recorded input files changed, and all recorded output files are unchanged. Files whose modification
+         * time changed but whose content is unchanged are recorded with their new modification time, so they are only
+         * hashed once.
+         *
+         * @param fingerprint Fingerprint of the current tool options
+         * @param directInputs Current input files except imported documents
+         * @param outputDir Output directory
+         * @param states Current states of the input files
+         * @return <code>true</code> if the WSDL file is up to date
+         */
+        public boolean isUpToDate(String fingerprint, Collection<Path> directInputs, Path outputDir,
+                FileStates states) {
+            if (!this.fingerprint.equals(fingerprint)) {
+                return false;
+            }
+
+            Set<String> recordedDirectInputs = new HashSet<>(this.inputs.keySet());
+            recordedDirectInputs.removeAll(this.imports);
+
+            Set<String> currentDirectInputs = new HashSet<>();
+            directInputs.forEach(f -> currentDirectInputs.add(f.toAbsolutePath().toString()));
+
+            if (!recordedDirectInputs.equals(currentDirectInputs)) {
+                return false;
+            }
+
+            for (Map.Entry<String, FileState> input : this.inputs.entrySet()) {
+                FileState state = input.getValue().match(Paths.get(input.getKey()), states);
+
+                if (state == null) {
+                    return false;
+                }
+
+                input.setValue(state);
+            }
+
+            // Outputs may be rewritten while the task runs, so their states are not shared between WSDL files
+            FileStates outputStates = new FileStates(Collections.emptySet());
+
+            for (Map.Entry<String, FileState> output : this.outputs.entrySet()) {
+                FileState state = output.getValue().match(outputDir.resolve(output.getKey()), outputStates);
+
+                if (state == null) {
+                    return false;
+                }
+
+                output.setValue(state);
+            }
+
+            return true;
+        }
+
+        /**
+         * Get the fingerprint of the tool options
+         *
+         * @return Fingerprint of the tool options
+         */
+        public String getFingerprint() {
+            return this.fingerprint;
+        }
+
+        /**
+         * Get the hash of the content of the WSDL file, its imports and the options
+         *
+         * @return Content hash, <code>null</code> if not recorded
+         */
+        public @Nullable String getContentKey() {
+            return this.contentKey;
+        }
+
+        /**
+         * Set the hash of the content of the WSDL file, its imports and the options
+         *
+         * @param contentKey Content hash, <code>null</code> or empty if not recorded
+         */
+        public void setContentKey(@Nullable String contentKey) {
+            this.contentKey = contentKey != null && !contentKey.isEmpty() ? contentKey : null;
+        }
+
+        /**
+         * Get the time it took to generate the code
+         *
+         * @return Time in milliseconds, 0 if not recorded
+         */
+        public long getDuration() {
+            return this.duration;
+        }
+
+        /**
+         * Set the time it took to generate the code
+         *
+         * @param duration Time in milliseconds, 0 if not recorded
+         */
+        public void setDuration(long duration) {
+            this.duration = duration;
+        }
+
+        /**
+         * Get the number of ports of the WSDL file
+         *
+         * @return Number of ports, 0 if not recorded
+         */
+        public int getPorts() {
+            return this.ports;
+        }
+
+        /**
+         * Set the number of ports of the WSDL file
+         *
+         * @param ports Number of ports, 0 if not recorded
+         */
+        public void setPorts(int ports) {
+            this.ports = ports;
+        }
+
+        /**
+         * Get the number of operations of the WSDL file
+         *
+         * @return Number of operations, 0 if not recorded
+         */
+        public int getOperations() {
+            return this.operations;
+        }
+
+        /**
+         * Set the number of operations of the WSDL file
+         *
+         * @param operations Number of operations, 0 if not recorded
+         */
+        public void setOperations(int operations) {
+            this.operations = operations;
+        }
+
+        /**
+         * Get the input files
+         *
+         * @return Absolute paths of the input files
+         */
+        public Set<String> getInputs() {
+            return Collections.unmodifiableSet(this.inputs.keySet());
+        }
+
+        /**
+         * Get the output files
+         *
+         * @return Paths of the output files relative to the output directory
+         */
+        public Set<String> getOutputs() {
+            return Collections.unmodifiableSet(this.outputs.keySet());
+        }
+
+        /**
+         * Get the recorded state of an output file
+         *
+         * @param output Path of the output file relative to the output directory
+         * @return Recorded state, <code>null</code> if the file is not an output file
+         */
+        public @Nullable FileState getOutputState(String output) {
+            return this.outputs.get(output);
+        }
+
+        /**
+         * Get the number of lines of a generated Java file
+         *
+         * @param output Path of the output file relative to the output directory
+         * @return Number of lines, 0 if the file is not a Java file or not an output file
+         */
+        public long getOutputLines(String output) {
+            return this.outputLines.getOrDefault(output, 0L);
+        }
+
+    }
+
+    /**
+     * Recorded state of a file
+     */
+    public static class FileState {
+
+        /**
+         * Size of the file
+         */
+        private final long size;
+
+        /**
+         * Modification time of the file
+         */
+        private final long lastModified;
+
+        /**
+         * Hash of the file, <code>null</code> if not recorded
+         */
+        private final @Nullable String hash;
+
+        /**
+         * Create a new file state
+         *
+         * @param size Size of the file
+         * @param lastModified Modification time of the file
+         * @param hash Hash of the file, <code>null</code> if not recorded
+         */
+        public FileState(long size, long lastModified, @Nullable String hash) {
+            this.size = size;
+            this.lastModified = lastModified;
+            this.hash = hash;
+        }
+
+        /**
+         * Get the current state of a file
+         *
+         * @param file File to get the state for
+         * @param hash <code>true</code> to record the hash of the file
+         * @return Current state of the file
+         */
+        public static FileState of(Path file, boolean hash) {
+            try {
+                BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+                return new FileState(attributes.size(), attributes.lastModifiedTime().toMillis(),
+                        hash ? WsimportIndex.hash(file) : null);
+            }
+            catch (IOException e) {
+                throw new GradleException(String.format("Could not read attributes of file %s", file), e);
+            }
+        }
+
+        /**
+         * Check if a file still matches the recorded state
+         *
+         * The file matches if size and modification time are unchanged. If only the modification time changed and a
+         * hash was recorded, the file matches if its content hash is unchanged. The file is only hashed in this case.
+         *
+         * @param file File to check
+         * @param states Current states of the files
+         * @return Current state of the file if it matches the recorded state, <code>null</code> otherwise
+         */
+        public @Nullable FileState match(Path file, FileStates states) {
+            FileState current = states.get(file, false);
+
+            if (current == null || current.size != this.size) {
+                return null;
+            }
+
+            if (current.lastModified == this.lastModified) {
+                return this;
+            }
+
+            String recordedHash = this.hash;
+
+            if (recordedHash == null) {
+                return null;
+            }
+
+            current = states.get(file, true);
+            return current != null && recordedHash.equals(current.hash) ? current : null;
+        }
+
+        /**
+         * Get the size of the file
+         *
+         * @return Size of the file
+         */
+        public long getSize() {
+            return this.size;
+        }
+
+        /**
+         * Get the modification time of the file
+         *
+         * @return Modification time of the file
+         */
+        public long getLastModified() {
+            return this.lastModified;
+        }
+
+        /**
+         * Get the hash of the file
+         *
+         * @return Hash of the file, <code>null</code> if not recorded
+         */
+        public @Nullable String getHash() {
+            return this.hash;
+        }
+
+    }
+
+    /**
+     * Current states of files, read and hashed at most once
+     *
+     * A task uses one instance for all WSDL files of a run, so input files shared by several WSDL files, e.g. binding
+     * files and imported schemas, are only hashed once. Files of the tool class path are never hashed.
+     */
+    public static class FileStates {
+
+        /**
+         * Files that are only identified by size and modification time
+         */
+        private final Set<Path> unhashedFiles = new HashSet<>();
+
+        /**
+         * States of the files read so far, by normalized absolute path
+         */
+        private final Map<Path, FileState> states = new ConcurrentHashMap<>();
+
+        /**
+         * Create new file states
+         *
+         * @param unhashedFiles Files that are only identified by size and modification time
+         */
+        public FileStates(Collection<Path> unhashedFiles) {
+            unhashedFiles.forEach(f -> this.unhashedFiles.add(f.toAbsolutePath().normalize()));
+        }
+
+        /**
+         * Get the current state of a file
+         *
+         * @param file File to get the state for
+         * @param hash <code>true</code> to include the hash of the file, unless it is only identified by size and
+         *            modification time
+         * @return Current state of the file, <code>null</code> if the file cannot be read
+         */
+        public @Nullable FileState get(Path file, boolean hash) {
+            Path key = file.toAbsolutePath().normalize();
+            FileState state = this.states.get(key);
+            boolean hashed = hash && !this.unhashedFiles.contains(key);
+
+            if (state == null || hashed && state.hash == null) {
+                try {
+                    BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+                    state = new FileState(attributes.size(), attributes.lastModifiedTime().toMillis(),
+                            hashed ? WsimportIndex.hash(file) : null);
+                }
+                catch (IOException | GradleException e) {
+                    return null;
+                }
+
+                this.states.put(key, state);
+            }
+
+            return state;
+        }
+
+    }
+
+}
@@ -0,0 +1,312 @@
+/**
+ * BSD 2-Clause License
+ *
+ * Copyright (c) 2016-2017, Jochen Seeber
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package me.seeber.gradle.wsimport;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+import org.eclipse.jdt.annotation.Nullable;
+import org.gradle.api.GradleException;
+import org.gradle.api.file.EmptyFileVisitor;
+import org.gradle.api.file.FileVisitDetails;
+import org.gradle.api.internal.ConventionTask;
+import org.gradle.api.tasks.OutputFile;
+import org.gradle.api.tasks.TaskAction;
+
+/**
+ * Show what the wsimport tasks of a project would do, without running the tools
+ *
+ * For every WSDL file the plan lists the package of the generated code, the binding files, the imported documents,
+ * whether the file is up to date, the assignment of schema compiler passes to workers and the estimated cost. The cost
+ * is taken from the duration recorded in the index of the task, or estimated from the size of the documents.
+ */
+public class WsimportPlanTask extends ConventionTask {
+
+    /**
+     * Cost assumed for a WSDL file if the task did not record any durations yet
+     */
+    protected static final long DEFAULT_WSDL_COST = 2000L;
+
+    /**
+     * File to write the plan to
+     */
+    private @Nullable File planFile;
+
+    /**
+     * Create a new plan task
+     */
+    public WsimportPlanTask() {
+        getOutputs().upToDateWhen(t -> false);
+    }
+
+    /**
+     * Create and show the plan
+     */
+    @TaskAction
+    protected void plan() {
+        Map<String, WsimportTask> tasks = new TreeMap<>();
+        getProject().getTasks().withType(WsimportTask.class).forEach(t -> tasks.put(t.getName(), t));
+
+        List<String> lines = new ArrayList<>();
+        long totalCost = 0L;
+
+        for (WsimportTask task : tasks.values()) {
+            totalCost += plan(task, lines);
+        }
+
+        lines.add(String.format("Estimated cost of all tasks: %s", formatCost(totalCost)));
+
+        File file = Objects.requireNonNull(getPlanFile());
+
+        try {
+            Files.createDirectories(file.toPath().toAbsolutePath().getParent());
+            Files.write(file.toPath(), lines, StandardCharsets.UTF_8);
+        }
+        catch (IOException e) {
+            throw new GradleException(String.format("Could not write plan %s", file), e);
+        }
+
+        lines.forEach(l -> getLogger().quiet(l));
+    }
+
+    /**
+     * Create the plan of a wsimport task
+     *
+     * @param task Task to plan
+     * @param lines Lines to add the plan to
+     * @return Estimated cost of the task in milliseconds
+     */
+    protected long plan(WsimportTask task, List<String> lines) {
+        WsimportIndex index = WsimportIndex.load(task.getIndexFile());
+        String fingerprint = task.getOptionsFingerprint();
+        List<Path> sharedInputs = task.getSharedInputs();
+        WsimportIndex.FileStates states = task.createFileStates();
+        Map<String, Path> wsdlFiles = new TreeMap<>();
+        List<String> bindings = new ArrayList<>();
+
+        task.visitWsdls(new EmptyFileVisitor() {
+            /**
+             * @see org.gradle.api.file.EmptyFileVisitor#visitFile(org.gradle.api.file.FileVisitDetails)
+             */
+            @Override
+            public void visitFile(FileVisitDetails file) {
+                wsdlFiles.put(file.getPath(), file.getFile().toPath());
+            }
+        });
+
+        for (File bindingFile : task.getBindingFiles()) {
+            if (bindingFile.isFile()) {
+                bindings.add(relativize(bindingFile.toPath()));
+            }
+        }
+
+        Map<String, List<WsdlDocument>> documents = new TreeMap<>();
+        double costPerByte = getCostPerByte(index, wsdlFiles, documents);
+        int parallelPasses = task.isSplitByNamespace() ? task.getParallelPasses() : 1;
+        long taskCost = 0L;
+        int order = 0;
+
+        lines.add(String.format("Task %s", task.getPath()));
+        lines.add(String.format("  Destination: %s", relativize(Objects.requireNonNull(task.getDestinationDir())
+                .toPath())));
+        lines.add(String.format("  Bindings (applied to all WSDL files): %s", join(bindings)));
+
+        if (task.isSplitByNamespace()) {
+            lines.add(String.format("  Workers for schema passes: %d", parallelPasses));
+        }
+
+        for (Map.Entry<String, Path> wsdl : wsdlFiles.entrySet()) {
+            Path relativeWsdlFile = Paths.get(wsdl.getKey());
+            Path wsdlFile = Objects.requireNonNull(wsdl.getValue());
+            List<WsdlDocument> wsdlDocuments = documents.computeIfAbsent(wsdl.getKey(),
+                    k -> new WsdlScanner().scan(wsdlFile));
+            WsimportIndex.Entry entry = index.getEntry(wsdl.getKey());
+            List<Path> directInputs = new ArrayList<>(sharedInputs);
+            directInputs.add(wsdlFile);
+
+            String packageName = task.getPackageName(relativeWsdlFile);
+            List<String> imports = wsdlDocuments.stream().skip(1).map(d -> relativize(d.getFile()))
+                    .collect(Collectors.toList());
+
+            lines.add(String.format("  %s", wsdl.getKey()));
+            lines.add(String.format("    Package: %s", packageName != null ? packageName : "(default)"));
+            lines.add(String.format("    Imports: %s", join(imports)));
+
+            if (task.isIncremental() && entry != null
+                    && entry.isUpToDate(fingerprint, directInputs, task.getOutputDir(relativeWsdlFile), states)) {
+                lines.add("    Status: up to date, skipped");
+                continue;
+            }
+
+            lines.add(String.format("    Status: %s, runs as number %d", entry == null ? "new" : "changed",
+                    ++order));
+
+            if (task.isSplitByNamespace()) {
+                SchemaPassPlan passPlan = SchemaPassPlan.create(wsdlDocuments);
+                int level = 0;
+
+                for (List<SchemaPassPlan.SchemaPass> passes : passPlan.getLevels()) {
+                    List<String> assignments = new ArrayList<>();
+
+                    for (int i = 0; i < passes.size(); ++i) {
+                        SchemaPassPlan.SchemaPass pass = passes.get(i);
+                        assignments.add(String.format("%s on worker %d", pass.getNamespaces(),
+                                i % parallelPasses + 1));
+                    }
+
+                    lines.add(String.format("    Schema batch %d: %s", ++level, String.join(", ", assignments)));
+                }
+            }
+
+            long cost;
+            String source;
+
+            if (entry != null && entry.getDuration() > 0L) {
+                cost = entry.getDuration();
+                source = "recorded";
+            }
+            else if (costPerByte > 0.0) {
+                cost = (long) (costPerByte * getSize(wsdlDocuments));
+                source = "estimated from size";
+            }
+            else {
+                cost = DEFAULT_WSDL_COST;
+                source = "default";
+            }
+
+            lines.add(String.format("    Estimated cost: %s (%s)", formatCost(cost), source));
+            taskCost += cost;
+        }
+
+        lines.add(String.format("  %d of %d WSDL files to generate, estimated cost %s", order, wsdlFiles.size(),
+                formatCost(taskCost)));
+
+        return taskCost;
+    }
+
+    /**
+     * Calculate the average cost per byte of the WSDL files with recorded durations
+     *
+     * @param index Index of the task
+     * @param wsdlFiles WSDL files of the task, keyed by relative path
+     * @param documents Documents of the scanned WSDL files, keyed by relative path
+     * @return Cost in milliseconds per byte, 0 if no durations are recorded
+     */
+    protected double getCostPerByte(WsimportIndex index, Map<String, Path> wsdlFiles,
+            Map<String, List<WsdlDocument>> documents) {
+        long duration = 0L;
+        long size = 0L;
+
+        for (Map.Entry<String, Path> wsdl : wsdlFiles.entrySet()) {
+            WsimportIndex.Entry entry = index.getEntry(wsdl.getKey());
+
+            if (entry != null && entry.getDuration() > 0L) {
+                Path wsdlFile = Objects.requireNonNull(wsdl.getValue());
+                duration += entry.getDuration();
+                size += getSize(documents.computeIfAbsent(wsdl.getKey(), k -> new WsdlScanner().scan(wsdlFile)));
+            }
+        }
+
+        return size > 0L ? (double) duration / size : 0.0;
+    }
+
+    /**
+     * Get the total size of documents
+     *
+     * @param documents Documents
+     * @return Total size in bytes
+     */
+    protected static long getSize(List<WsdlDocument> documents) {
+        return documents.stream().mapToLong(d -> d.getFile().toFile().length()).sum();
+    }
+
+    /**
+     * Format a cost
+     *
+     * @param cost Cost in milliseconds
+     * @return Formatted cost
+     */
+    protected static String formatCost(long cost) {
+        return String.format(Locale.ROOT, "%.1f s", cost / 1000.0);
+    }
+
+    /**
+     * Join a list of items for display
+     *
+     * @param items Items to join
+     * @return Joined items, or <code>none</code> if there are no items
+     */
+    protected static String join(List<String> items) {
+        return items.isEmpty() ? "none" : String.join(", ", items);
+    }
+
+    /**
+     * Get the path of a file relative to the project directory, if it is inside the project directory
+     *
+     * @param file File
+     * @return Relative path if the file is inside the project directory, absolute path otherwise
+     */
+    protected String relativize(Path file) {
+        Path projectDir = getProject().getProjectDir().toPath().toAbsolutePath();
+        Path absoluteFile = file.toAbsolutePath();
+
+        return absoluteFile.startsWith(projectDir) ? projectDir.relativize(absoluteFile).toString()
+                : absoluteFile.toString();
+    }
+
+    /**
+     * Get the file to write the plan to
+     *
+     * @return File to write the plan to
+     */
+    @OutputFile
+    public @Nullable File getPlanFile() {
+        return this.planFile;
+    }
+
+    /**
+     * Set the file to write the plan to
+     *
+     * @param planFile File to write the plan to
+     */
+    public void setPlanFile(File planFile) {
+        this.planFile = planFile;
+    }
+
+}
@@ -28,24 +28,35 @@
 package me.seeber.gradle.wsimport;
 
 import java.io.File;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Paths;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Objects;
 import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.Callable;
 
 import org.eclipse.jdt.annotation.NonNull;
 import org.gradle.api.GradleException;
 import org.gradle.api.Plugin;
 import org.gradle.api.Project;
 import org.gradle.api.Task;
+import org.gradle.api.artifacts.dsl.ArtifactHandler;
 import org.gradle.api.internal.file.FileOperations;
+import org.gradle.api.internal.project.ProjectIdentifier;
 import org.gradle.api.plugins.JavaPlugin;
+import org.gradle.api.plugins.JavaPluginConvention;
 import org.gradle.api.tasks.SourceSet;
+import org.gradle.api.tasks.bundling.Jar;
+import org.gradle.api.tasks.compile.JavaCompile;
+import org.gradle.internal.service.ServiceRegistry;
 import org.gradle.jvm.JvmBinarySpec;
 import org.gradle.language.base.LanguageSourceSet;
 import org.gradle.language.base.plugins.ComponentModelBasePlugin;
@@ -65,9 +76,15 @@ import org.gradle.plugins.ide.eclipse.GenerateEclipseClasspath;
 
 import com.google.common.base.CaseFormat;
 import com.google.common.base.Converter;
+import com.google.common.base.Supplier;
+import com.google.common.base.Suppliers;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Multimap;
 import com.google.common.collect.Multimaps;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
 
 /**
  * Plugin to run wsimport
@@ -99,6 +116,57 @@ public class WsimportPlugin implements Plugin<Project> {
             .requireNonNull(ImmutableSet.<@NonNull String> of(Objects.requireNonNull(SourceSet.MAIN_SOURCE_SET_NAME),
                     Objects.requireNonNull(SourceSet.TEST_SOURCE_SET_NAME)));
 
+    /**
+     * Name of the task showing the plan of the wsimport tasks
+     */
+    public static final String PLAN_TASK_NAME = "wsimportPlan";
+
+    /**
+     * Name of the task aggregating the statistics of the wsimport tasks
+     */
+    public static final String STATISTICS_TASK_NAME = "wsimportStatistics";
+
+    /**
+     * JAX-WS tools used if no tools are declared in the 'jaxws' configuration
+     */
+    public static final String DEFAULT_JAXWS_TOOLS = "com.sun.xml.ws:jaxws-tools:2.2.10";
+
+    /**
+     * JAX-WS API libraries used if no libraries are declared in the 'jaxwsApi' configuration
+     */
+    public static final List<String> DEFAULT_JAXWS_API = Objects.requireNonNull(ImmutableList.of(
+            "javax.xml.ws:jaxws-api:2.2.11", "javax.xml.bind:jaxb-api:2.2.12", "javax.jws:jsr181-api:1.0-MR1"));
+
+    /**
+     * Configuration containing the API libraries the generated code is compiled against
+     */
+    public static final String API_CONFIGURATION_NAME = "jaxwsApi";
+
+    /**
+     * Configuration containing the packaged code of contract libraries
+     */
+    public static final String CONTRACT_CONFIGURATION_NAME = "wsimportContract";
+
+    /**
+     * Configuration containing the statistics files of the wsimport tasks of a project
+     */
+    public static final String STATISTICS_CONFIGURATION_NAME = "wsimportStatistics";
+
+    /**
+     * Configuration collecting the statistics files of a project and its subprojects
+     */
+    public static final String STATISTICS_AGGREGATE_CONFIGURATION_NAME = "wsimportStatisticsAggregate";
+
+    /**
+     * Manifest attribute containing the name of a contract library
+     */
+    public static final String CONTRACT_NAME_ATTRIBUTE = "Wsimport-Contract";
+
+    /**
+     * Manifest attribute containing the fingerprint of the WSDL files of a contract library
+     */
+    public static final String CONTRACT_FINGERPRINT_ATTRIBUTE = "Wsimport-Contract-Fingerprint";
+
     /**
      * Model rules of the plugin
      */
@@ -135,6 +203,16 @@ public class WsimportPlugin implements Plugin<Project> {
             }
         }
 
+        /**
+         * Initialize a wsimport component
+         *
+         * @param component Component to initialize
+         */
+        @Defaults
+        public void initializeWsimportComponent(@Each WsimportComponent component) {
+            component.setValidate(true);
+        }
+
         /**
          * Initialize a WSDL source set
          *
@@ -155,21 +233,21 @@ public class WsimportPlugin implements Plugin<Project> {
         /**
          * Finalize the wsimport components
          *
+         * The WSDL source sets are created whether their directories exist or not, so the file system is not accessed
+         * during configuration. The tasks of source sets without WSDL files are skipped.
+         *
          * @param wsimportComponents Wsimport components to finalize
-         * @param files File operations
          */
         @Finalize
-        public void createWsdlSourceSets(ModelMap<WsimportComponent> wsimportComponents, FileOperations files) {
+        public void createWsdlSourceSets(ModelMap<WsimportComponent> wsimportComponents) {
             for (String componentName : DEFAULT_SOURCE_SET_NAMES) {
                 File sourceDirectory = getSourceDirectory(componentName, "wsdl");
                 String wsdlComponentName = getWsdlComponentName(componentName);
 
                 wsimportComponents.create(wsdlComponentName, c -> {
-                    if (files.file(sourceDirectory).isDirectory()) {
-                        c.getSources().create("wsdl", WsdlSourceSet.class, s -> {
-                            s.getSource().setSrcDirs(Collections.singleton(sourceDirectory));
-                        });
-                    }
+                    c.getSources().create("wsdl", WsdlSourceSet.class, s -> {
+                        s.getSource().setSrcDirs(Collections.singleton(sourceDirectory));
+                    });
                 });
             }
         }
@@ -180,11 +258,14 @@ public class WsimportPlugin implements Plugin<Project> {
          * @param tasks Task container to create tasks
          * @param wsimportComponents Wsimport components to create tasls for
          * @param files File operations
+         * @param services Project services
+         * @param project Current project
          * @param buildDir Build directory
          */
         @Mutate
         public void createWsimportTasks(ModelMap<Task> tasks, ModelMap<WsimportComponent> wsimportComponents,
-                FileOperations files, @Path("buildDir") File buildDir) {
+                FileOperations files, ServiceRegistry services, ProjectIdentifier project,
+                @Path("buildDir") File buildDir) {
             Multimap<String, String> taskNames = Multimaps.newSetMultimap(new HashMap<>(), () -> new HashSet<>());
 
             for (WsimportComponent wsimport : wsimportComponents) {
@@ -193,23 +274,82 @@ public class WsimportPlugin implements Plugin<Project> {
                 for (LanguageSourceSet source : wsimport.getSources()) {
                     WsdlSourceSet wsdlSource = (WsdlSourceSet) source;
                     String taskName = getWsimportTaskName(componentName, Objects.requireNonNull(wsdlSource.getName()));
+                    String validateTaskName = getValidateTaskName(componentName,
+                            Objects.requireNonNull(wsdlSource.getName()));
+
+                    tasks.create(validateTaskName, ValidateWsdlTask.class, t -> {
+                        t.setDescription(String.format("Validate the WSDL files of %s", wsdlSource));
+                        t.setGroup("verification");
+                        t.setWsdls(Objects.requireNonNull(wsdlSource.getSource()));
+                        t.setResultFile(buildDir.toPath().resolve(Paths.get("wsimport", validateTaskName, "results"))
+                                .toFile());
+                        t.getInputs().files(wsdlSource.getSource().getSrcDirs());
+                    });
+
+                    File statisticsFile = getStatisticsFile(buildDir, componentName,
+                            Objects.requireNonNull(wsdlSource.getName()));
+
+                    services.get(ArtifactHandler.class).add(STATISTICS_CONFIGURATION_NAME, statisticsFile, a -> {
+                        a.setClassifier(DIRECTORY_NAME_CONVERTER.convert(componentName) + "-"
+                                + DIRECTORY_NAME_CONVERTER.convert(Objects.requireNonNull(wsdlSource.getName())));
+                        a.builtBy(taskName);
+                    });
 
                     tasks.create(taskName, WsimportTask.class, t -> {
+                        if (wsimport.isValidate()) {
+                            t.dependsOn(validateTaskName);
+                        }
+
                         t.setDescription(String.format("Run wsimport on %s", wsdlSource));
                         t.setGroup("generated");
                         t.setDestinationDir(getGeneratedSourcesDirectory(buildDir, componentName,
                                 Objects.requireNonNull(wsdlSource.getName())));
-                        t.setWsdls(Objects.requireNonNull(wsdlSource.getSource()).getAsFileTree());
-                        t.setBindings(wsdlSource.getBindings().getAsFileTree());
+                        t.setStatisticsFile(statisticsFile);
+                        t.setWsdls(Objects.requireNonNull(wsdlSource.getSource()));
+                        t.setBindings(wsdlSource.getBindings());
                         t.setXjcExtensions(wsdlSource.getXjc().getExtensions());
+                        t.setOperationIncludes(wsdlSource.getOperations().getIncludes());
+                        t.setOperationExcludes(wsdlSource.getOperations().getExcludes());
+                        t.setAsyncPortTypes(wsdlSource.getAsync().getPortTypes());
+                        t.setAsyncAdapters(wsdlSource.getAsync().isCompletableFutures());
+                        t.setStreamingAttachments(wsdlSource.getAttachments().isStreaming());
+                        t.setAttachmentThreshold(wsdlSource.getAttachments().getThreshold());
+                        t.setAttachmentThresholds(wsdlSource.getAttachments().getThresholds());
+                        t.setAttachmentMemoryThreshold(wsdlSource.getAttachments().getMemoryThreshold());
                     });
 
+                    tasks.create(getBenchmarkTaskName(componentName, Objects.requireNonNull(wsdlSource.getName())),
+                            WsimportBenchmarkTask.class, t -> {
+                                t.dependsOn(taskName);
+                                t.setDescription(String.format("Generate stubs and benchmarks for %s", wsdlSource));
+                                t.setGroup("generated");
+                                t.setSourceDir(getGeneratedSourcesDirectory(buildDir, componentName,
+                                        Objects.requireNonNull(wsdlSource.getName())));
+                                t.setDestinationDir(getBenchmarkSourcesDirectory(buildDir, componentName,
+                                        Objects.requireNonNull(wsdlSource.getName())));
+                            });
+
                     taskNames.put(wsimport.getName(), taskName);
                 }
             }
 
             Map<String, Collection<String>> taskDependencies = taskNames.asMap();
 
+            tasks.create(PLAN_TASK_NAME, WsimportPlanTask.class, t -> {
+                t.setDescription("Show what the wsimport tasks would do and estimate their cost.");
+                t.setGroup("help");
+                t.setPlanFile(buildDir.toPath().resolve(Paths.get("reports", "wsimport", "plan.txt")).toFile());
+            });
+
+            tasks.create(STATISTICS_TASK_NAME, WsimportStatisticsTask.class, t -> {
+                t.setDescription("Aggregate the statistics of the generated code of this project and its subprojects.");
+                t.setGroup("reporting");
+                t.setTaskStatisticsFiles(
+                        t.getProject().getConfigurations().getByName(STATISTICS_AGGREGATE_CONFIGURATION_NAME));
+                t.setStatisticsFile(buildDir.toPath().resolve(Paths.get("reports", "wsimport", "statistics.json"))
+                        .toFile());
+            });
+
             for (Entry<String, Collection<String>> taskEntry : taskDependencies.entrySet()) {
                 String componentName = getStandardComponentName(Objects.requireNonNull(taskEntry.getKey()));
                 String taskName = getWsimportTaskName(componentName, "");
@@ -221,13 +361,51 @@ public class WsimportPlugin implements Plugin<Project> {
                 });
             }
 
+            for (WsimportComponent wsimport : wsimportComponents) {
+                Collection<String> wsimportTasks = taskDependencies.get(wsimport.getName());
+
+                if (wsimport.isContractLibrary() && wsimportTasks != null) {
+                    File jarFile = getContractLibraryFile(buildDir, Objects.requireNonNull(project.getName()),
+                            Objects.requireNonNull(wsimport.getName()));
+
+                    createContractLibraryTasks(tasks, wsimport, wsimportTasks, buildDir, jarFile);
+
+                    services.get(ArtifactHandler.class).add(CONTRACT_CONFIGURATION_NAME, jarFile,
+                            a -> a.builtBy(getContractTaskName("jar", Objects.requireNonNull(wsimport.getName()))));
+                }
+            }
+
             for (String componentName : DEFAULT_SOURCE_SET_NAMES) {
                 String wsdlComponentName = getWsdlComponentName(componentName);
                 Collection<String> wsimportTasks = taskDependencies.get(wsdlComponentName);
 
                 if (wsimportTasks != null) {
                     String compileTaskName = getCompileTaskName(componentName, "java");
-                    tasks.get(compileTaskName).dependsOn(wsimportTasks);
+                    WsimportComponent wsimport = Objects.requireNonNull(wsimportComponents.get(wsdlComponentName));
+
+                    if (wsimport.isCompileUnits()) {
+                        String unitsTaskName = getCompileTaskName(componentName, "wsdlUnits");
+                        File classesDir = getClassesDirectory(buildDir, componentName);
+
+                        createCompileUnitsTask(tasks, unitsTaskName, wsimport, wsimportTasks, buildDir, classesDir,
+                                "jaxws");
+
+                        tasks.named(unitsTaskName, t -> {
+                            SourceSet sourceSet = t.getProject().getConvention().getPlugin(JavaPluginConvention.class)
+                                    .getSourceSets().getByName(componentName);
+                            sourceSet.getOutput().dir(Collections.singletonMap("builtBy", unitsTaskName), classesDir);
+                        });
+
+                        tasks.named(compileTaskName, t -> {
+                            JavaCompile compileTask = (JavaCompile) t;
+                            compileTask.dependsOn(unitsTaskName);
+                            compileTask.setClasspath(
+                                    compileTask.getClasspath().plus(t.getProject().files(classesDir)));
+                        });
+                    }
+                    else {
+                        tasks.get(compileTaskName).dependsOn(wsimportTasks);
+                    }
                 }
             }
         }
@@ -268,7 +446,7 @@ public class WsimportPlugin implements Plugin<Project> {
                     WsimportComponent wsimportComponent = wsimportComponents
                             .get(getWsdlComponentName(Objects.requireNonNull(jvmSpec.getName())));
 
-                    if (wsimportComponent != null) {
+                    if (wsimportComponent != null && !wsimportComponent.isCompileUnits()) {
                         for (LanguageSourceSet wsdlSource : wsimportComponent.getSources().values()) {
                             File generatedSourceDirectory = getGeneratedSourcesDirectory(buildDir,
                                     Objects.requireNonNull(java.getParentName()),
@@ -308,11 +486,14 @@ public class WsimportPlugin implements Plugin<Project> {
         project.getPlugins().apply(ComponentModelBasePlugin.class);
         project.getPlugins().apply(JavaPlugin.class);
 
+        ForkScheduler.getInstance().register(project.getGradle());
+
         project.getConfigurations().create("jaxws", c -> {
             c.setDescription("The JAX-WS libraries used.");
             c.setVisible(false);
             c.setTransitive(true);
             c.extendsFrom(project.getConfigurations().getByName("compileClasspath"));
+            c.defaultDependencies(d -> d.add(project.getDependencies().create(DEFAULT_JAXWS_TOOLS)));
         });
 
         project.getConfigurations().create("xjc", c -> {
@@ -321,7 +502,212 @@ public class WsimportPlugin implements Plugin<Project> {
             c.setTransitive(true);
         });
 
-        project.getDependencies().add("jaxws", "com.sun.xml.ws:jaxws-tools:2.2.10");
+        project.getConfigurations().create(API_CONFIGURATION_NAME, c -> {
+            c.setDescription("The JAX-WS API libraries the generated code is compiled against.");
+            c.setVisible(false);
+            c.setTransitive(true);
+            c.defaultDependencies(d -> {
+                for (String api : DEFAULT_JAXWS_API) {
+                    d.add(project.getDependencies().create(api));
+                }
+            });
+        });
+
+        project.getConfigurations().create(CONTRACT_CONFIGURATION_NAME, c -> {
+            c.setDescription("The packaged code of contract library components.");
+            c.setCanBeConsumed(true);
+            c.setCanBeResolved(false);
+            c.extendsFrom(project.getConfigurations().getByName(API_CONFIGURATION_NAME));
+        });
+
+        project.getConfigurations().create(STATISTICS_CONFIGURATION_NAME, c -> {
+            c.setDescription("The statistics files of the wsimport tasks.");
+            c.setVisible(false);
+            c.setCanBeConsumed(true);
+            c.setCanBeResolved(false);
+        });
+
+        project.getConfigurations().create(STATISTICS_AGGREGATE_CONFIGURATION_NAME, c -> {
+            c.setDescription("The statistics files of this project and its subprojects.");
+            c.setVisible(false);
+            c.setTransitive(false);
+            c.setCanBeConsumed(false);
+        });
+
+        for (Project aggregated : project.getAllprojects()) {
+            aggregated.getPlugins().withType(WsimportPlugin.class, p -> {
+                project.getDependencies().add(STATISTICS_AGGREGATE_CONFIGURATION_NAME,
+                        project.getDependencies().project(ImmutableMap.of("path", aggregated.getPath(),
+                                "configuration", STATISTICS_CONFIGURATION_NAME)));
+            });
+        }
+    }
+
+    /**
+     * Create the tasks to compile and package the generated code of a contract library
+     *
+     * @param tasks Task container to create tasks
+     * @param wsimport Contract library component
+     * @param wsimportTaskNames Names of the wsimport tasks of the component
+     * @param buildDir Build directory
+     * @param jarFile Jar file of the contract library
+     */
+    protected static void createContractLibraryTasks(ModelMap<Task> tasks, WsimportComponent wsimport,
+            Collection<String> wsimportTaskNames, File buildDir, File jarFile) {
+        String wsdlComponentName = Objects.requireNonNull(wsimport.getName());
+        String componentName = getStandardComponentName(wsdlComponentName);
+        String compileTaskName = getContractTaskName("compile", wsdlComponentName);
+        String jarTaskName = getContractTaskName("jar", wsdlComponentName);
+        List<String> taskNames = new ArrayList<>(new TreeSet<>(wsimportTaskNames));
+        List<File> generatedDirs = new ArrayList<>();
+        List<Object> sourceDirs = new ArrayList<>();
+        File classesDir = getContractClassesDirectory(buildDir, componentName);
+
+        for (LanguageSourceSet source : wsimport.getSources()) {
+            String sourceName = Objects.requireNonNull(source.getName());
+            generatedDirs.add(getGeneratedSourcesDirectory(buildDir, componentName, sourceName));
+            sourceDirs.addAll(source.getSource().getSrcDirs());
+        }
+
+        if (wsimport.isCompileUnits()) {
+            createCompileUnitsTask(tasks, compileTaskName, wsimport, taskNames, buildDir, classesDir,
+                    API_CONFIGURATION_NAME);
+        }
+        else {
+            tasks.create(compileTaskName, JavaCompile.class, t -> {
+                t.setDescription(
+                        String.format("Compile the generated code of contract library %s", wsdlComponentName));
+                t.setGroup("build");
+                t.dependsOn(taskNames);
+                t.setSource(generatedDirs);
+                t.setClasspath(t.getProject().getConfigurations().getAt(API_CONFIGURATION_NAME));
+                t.setDestinationDir(classesDir);
+            });
+        }
+
+        tasks.create(jarTaskName, Jar.class, t -> {
+            Supplier<String> fingerprint = Suppliers.memoize(() -> {
+                Hasher hasher = Hashing.sha256().newHasher();
+
+                for (String taskName : taskNames) {
+                    WsimportTask wsimportTask = (WsimportTask) t.getProject().getTasks().getByName(taskName);
+                    hasher.putString(taskName, StandardCharsets.UTF_8);
+                    hasher.putString(wsimportTask.getContractFingerprint(), StandardCharsets.UTF_8);
+                }
+
+                return hasher.hash().toString();
+            });
+
+            t.setDescription(String.format("Package contract library %s", wsdlComponentName));
+            t.setGroup("build");
+            t.setDestinationDir(jarFile.getParentFile());
+            t.setArchiveName(jarFile.getName());
+            t.dependsOn(compileTaskName);
+            t.from(classesDir);
+            t.from(sourceDirs);
+            t.getInputs().property(CONTRACT_FINGERPRINT_ATTRIBUTE, (Callable<String>) fingerprint::get);
+
+            t.getManifest().attributes(ImmutableMap.of(CONTRACT_NAME_ATTRIBUTE, wsdlComponentName,
+                    CONTRACT_FINGERPRINT_ATTRIBUTE, new Object() {
+                        /**
+                         * @see java.lang.Object#toString()
+                         */
+                        @Override
+                        public String toString() {
+                            return fingerprint.get();
+                        }
+                    }));
+        });
+    }
+
+    /**
+     * Get the name of a task of a contract library
+     *
+     * @param verb Verb of the task, e.g. 'compile' or 'jar'
+     * @param wsdlComponentName Name of the contract library component
+     * @return Task name
+     */
+    protected static String getContractTaskName(String verb, String wsdlComponentName) {
+        return verb + TASK_NAME_CONVERTER.convert(wsdlComponentName);
+    }
+
+    /**
+     * Get the jar file of a contract library
+     *
+     * The file name is fixed when the tasks are created, so the artifact can be registered before the task exists.
+     *
+     * @param buildDir Build directory
+     * @param projectName Name of the project
+     * @param wsdlComponentName Name of the contract library component
+     * @return Jar file
+     */
+    protected static File getContractLibraryFile(File buildDir, String projectName, String wsdlComponentName) {
+        return buildDir.toPath().resolve(Paths.get("libs",
+                String.format("%s-%s.jar", projectName, DIRECTORY_NAME_CONVERTER.convert(wsdlComponentName))))
+                .toFile();
+    }
+
+    /**
+     * Create the task compiling the generated code of a component in separate units per XML namespace
+     *
+     * @param tasks Task container to create tasks
+     * @param taskName Name of the task
+     * @param wsimport Component to compile
+     * @param wsimportTaskNames Names of the wsimport tasks of the component
+     * @param buildDir Build directory
+     * @param classesDir Directory for the compiled classes
+     * @param classpathConfigurationName Name of the configuration to compile against
+     */
+    protected static void createCompileUnitsTask(ModelMap<Task> tasks, String taskName, WsimportComponent wsimport,
+            Collection<String> wsimportTaskNames, File buildDir, File classesDir, String classpathConfigurationName) {
+        String componentName = getStandardComponentName(Objects.requireNonNull(wsimport.getName()));
+        List<File> generatedDirs = new ArrayList<>();
+
+        for (LanguageSourceSet source : wsimport.getSources()) {
+            generatedDirs.add(
+                    getGeneratedSourcesDirectory(buildDir, componentName, Objects.requireNonNull(source.getName())));
+        }
+
+        tasks.create(taskName, CompileUnitsTask.class, t -> {
+            JavaPluginConvention java = t.getProject().getConvention().getPlugin(JavaPluginConvention.class);
+
+            t.setDescription(String.format("Compile the generated code of %s in units per namespace", wsimport));
+            t.setGroup("build");
+            t.dependsOn(new ArrayList<>(new TreeSet<>(wsimportTaskNames)));
+            t.setSourceDirs(t.getProject().files(generatedDirs));
+            t.setClasspath(t.getProject().getConfigurations().getAt(classpathConfigurationName));
+            t.setDestinationDir(classesDir);
+            t.setSourceCompatibility(java.getSourceCompatibility().toString());
+            t.setTargetCompatibility(java.getTargetCompatibility().toString());
+        });
+    }
+
+    /**
+     * Get the directory for the classes compiled from the generated code of a component
+     *
+     * @param buildDir Build directory
+     * @param componentName Component name
+     * @return Directory for the compiled classes
+     */
+    protected static File getClassesDirectory(File buildDir, String componentName) {
+        return buildDir.toPath().resolve(Paths.get("classes/wsimport", DIRECTORY_NAME_CONVERTER.convert(componentName)))
+                .toFile();
+    }
+
+    /**
+     * Get the directory for the classes of a contract library
+     *
+     * The classes are compiled against the API only, so they must not share the directory of the classes compiled for
+     * the source set of the same component.
+     *
+     * @param buildDir Build directory
+     * @param componentName Component name
+     * @return Directory for the compiled classes
+     */
+    protected static File getContractClassesDirectory(File buildDir, String componentName) {
+        return buildDir.toPath()
+                .resolve(Paths.get("classes/wsimport-contract", DIRECTORY_NAME_CONVERTER.convert(componentName)))
+                .toFile();
     }
 
     /**
@@ -351,6 +737,36 @@ public class WsimportPlugin implements Plugin<Project> {
         return dir.toFile();
     }
 
+    /**
+     * Get the directory for the stubs and benchmarks of a source set
+     *
+     * @param buildDir Build directory
+     * @param componentName Component name
+     * @param sourceName Source name
+     * @return Directory for the stubs and benchmarks
+     */
+    protected static File getBenchmarkSourcesDirectory(File buildDir, String componentName, String sourceName) {
+        java.nio.file.Path dir = buildDir.toPath().resolve(Paths.get("generated/wsimport-benchmarks",
+                DIRECTORY_NAME_CONVERTER.convert(componentName), DIRECTORY_NAME_CONVERTER.convert(sourceName)));
+        return dir.toFile();
+    }
+
+    /**
+     * Get the file for the statistics of the code generated for a source set
+     *
+     * The file is placed next to the directory containing the generated code.
+     *
+     * @param buildDir Build directory
+     * @param componentName Component name
+     * @param sourceName Source name
+     * @return Statistics file
+     */
+    protected static File getStatisticsFile(File buildDir, String componentName, String sourceName) {
+        File generatedSourcesDirectory = getGeneratedSourcesDirectory(buildDir, componentName, sourceName);
+        return new File(generatedSourcesDirectory.getParentFile(),
+                generatedSourcesDirectory.getName() + "-statistics.json");
+    }
+
     /**
      * Get the task name for a wsimport source set
      *
@@ -370,6 +786,36 @@ public class WsimportPlugin implements Plugin<Project> {
         return name.toString();
     }
 
+    /**
+     * Get the name of the task generating stubs and benchmarks for a WSDL source set
+     *
+     * @param componentName Component name
+     * @param sourceName Source name
+     * @return Name of the benchmark task
+     */
+    protected static String getBenchmarkTaskName(String componentName, String sourceName) {
+        return getWsimportTaskName(componentName, sourceName) + "Benchmarks";
+    }
+
+    /**
+     * Get the name of the validation task for a WSDL source set
+     *
+     * @param componentName Component name
+     * @param sourceName Source name
+     * @return Name of validation task
+     */
+    protected static String getValidateTaskName(String componentName, String sourceName) {
+        StringBuilder name = new StringBuilder("validate");
+
+        if (!componentName.equals(SourceSet.MAIN_SOURCE_SET_NAME)) {
+            name.append(TASK_NAME_CONVERTER.convert(componentName));
+        }
+
+        name.append(TASK_NAME_CONVERTER.convert(sourceName));
+
+        return name.toString();
+    }
+
     /**
      * Get the compile task name for a Java source set
      *
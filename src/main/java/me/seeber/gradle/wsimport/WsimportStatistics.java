@@ -0,0 +1,307 @@
+/**
+ * BSD 2-Clause License
+ *
+ * Copyright (c) 2016-2017, Jochen Seeber
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package me.seeber.gradle.wsimport;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+import org.gradle.api.GradleException;
+
+import groovy.json.JsonOutput;
+import groovy.json.JsonSlurper;
+
+/**
+ * Statistics of the code generated by a wsimport task
+ *
+ * The statistics are created from the {@link WsimportIndex}, so the WSDL and generated files are not read again. They
+ * contain the number of WSDL files, ports and operations, the number of generated classes, lines and
+ * bytes by package, the largest generated types and the time spent in the tools. They are written as JSON, so they
+ * can be collected by dashboards and aggregated across projects.
+ */
+public class WsimportStatistics {
+
+    /**
+     * Number of largest types included in the statistics
+     */
+    protected static final int LARGEST_TYPE_COUNT = 10;
+
+    /**
+     * Values summed up when statistics are aggregated
+     */
+    protected static final List<String> TOTAL_KEYS = Objects.requireNonNull(Arrays.asList("wsdls", "ports",
+            "operations", "classes", "lines", "bytes", "toolMillis", "generationMillis"));
+
+    /**
+     * Path of the task
+     */
+    private final String task;
+
+    /**
+     * Number of WSDL files
+     */
+    private int wsdls;
+
+    /**
+     * Number of ports
+     */
+    private int ports;
+
+    /**
+     * Number of operations
+     */
+    private int operations;
+
+    /**
+     * Time spent running the tools in the last run in milliseconds
+     */
+    private long toolMillis;
+
+    /**
+     * Time recorded for generating the code of all WSDL files in milliseconds
+     */
+    private long generationMillis;
+
+    /**
+     * Generated classes, lines and bytes by package
+     */
+    private final SortedMap<String, long[]> packages = new TreeMap<>();
+
+    /**
+     * Lines and bytes by generated type
+     */
+    private final Map<String, long[]> types = new LinkedHashMap<>();
+
+    /**
+     * Create new statistics
+     *
+     * @param task Path of the task
+     */
+    public WsimportStatistics(String task) {
+        this.task = task;
+    }
+
+    /**
+     * Add a WSDL file
+     *
+     * @param wsdlPorts Number of ports
+     * @param wsdlOperations Number of operations
+     * @param duration Time recorded for generating the code of the WSDL file in milliseconds
+     */
+    public void addWsdl(int wsdlPorts, int wsdlOperations, long duration) {
+        ++this.wsdls;
+        this.ports += wsdlPorts;
+        this.operations += wsdlOperations;
+        this.generationMillis += duration;
+    }
+
+    /**
+     * Add time spent running the tools
+     *
+     * @param millis Time in milliseconds
+     */
+    public void addToolTime(long millis) {
+        this.toolMillis += millis;
+    }
+
+    /**
+     * Add a generated file
+     *
+     * Only Java source files declaring a type are counted.
+     *
+     * @param relativePath Path of the file relative to the destination directory
+     * @param lines Number of lines of the file
+     * @param bytes Size of the file in bytes
+     */
+    public void addFile(String relativePath, long lines, long bytes) {
+        if (!relativePath.endsWith(".java") || relativePath.endsWith("package-info.java")) {
+            return;
+        }
+
+        String type = relativePath.substring(0, relativePath.length() - ".java".length()).replace('/', '.');
+        int separator = type.lastIndexOf('.');
+        String packageName = separator >= 0 ? type.substring(0, separator) : "";
+        long[] packageCounts = this.packages.computeIfAbsent(packageName, p -> new long[3]);
+
+        packageCounts[0] += 1;
+        packageCounts[1] += lines;
+        packageCounts[2] += bytes;
+        this.types.put(type, new long[] { lines, bytes });
+    }
+
+    /**
+     * Get the statistics as map that can be written as JSON
+     *
+     * @return Statistics
+     */
+    public Map<String, Object> toMap() {
+        Map<String, Object> map = new LinkedHashMap<>();
+        Map<String, Object> packageMap = new LinkedHashMap<>();
+        long classes = 0L;
+        long lines = 0L;
+        long bytes = 0L;
+
+        for (Map.Entry<String, long[]> entry : this.packages.entrySet()) {
+            long[] counts = entry.getValue();
+            packageMap.put(entry.getKey(), counts(counts[0], counts[1], counts[2]));
+            classes += counts[0];
+            lines += counts[1];
+            bytes += counts[2];
+        }
+
+        List<Map<String, Object>> largestTypes = this.types.entrySet().stream()
+                .sorted(Comparator.comparingLong((Map.Entry<String, long[]> e) -> e.getValue()[1]).reversed()
+                        .thenComparing(Map.Entry::getKey))
+                .limit(LARGEST_TYPE_COUNT).map(e -> {
+                    Map<String, Object> type = new LinkedHashMap<>();
+                    type.put("type", e.getKey());
+                    type.put("lines", e.getValue()[0]);
+                    type.put("bytes", e.getValue()[1]);
+                    return type;
+                }).collect(Collectors.toList());
+
+        map.put("task", this.task);
+        map.put("wsdls", this.wsdls);
+        map.put("ports", this.ports);
+        map.put("operations", this.operations);
+        map.put("classes", classes);
+        map.put("lines", lines);
+        map.put("bytes", bytes);
+        map.put("toolMillis", this.toolMillis);
+        map.put("generationMillis", this.generationMillis);
+        map.put("packages", packageMap);
+        map.put("largestTypes", largestTypes);
+
+        return map;
+    }
+
+    /**
+     * Write the statistics to a file
+     *
+     * @param file File to write
+     */
+    public void write(File file) {
+        write(file, toMap());
+    }
+
+    /**
+     * Write statistics to a file
+     *
+     * @param file File to write
+     * @param statistics Statistics to write
+     */
+    public static void write(File file, Map<String, Object> statistics) {
+        try {
+            Files.createDirectories(file.toPath().toAbsolutePath().getParent());
+            Files.write(file.toPath(),
+                    JsonOutput.prettyPrint(JsonOutput.toJson(statistics)).getBytes(StandardCharsets.UTF_8));
+        }
+        catch (IOException e) {
+            throw new GradleException(String.format("Could not write statistics %s", file), e);
+        }
+    }
+
+    /**
+     * Read statistics from a file
+     *
+     * @param file File to read
+     * @return Statistics
+     */
+    @SuppressWarnings("unchecked")
+    public static Map<String, Object> read(File file) {
+        try {
+            String json = new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8);
+            return Objects.requireNonNull((Map<String, Object>) new JsonSlurper().parseText(json));
+        }
+        catch (IOException | RuntimeException e) {
+            throw new GradleException(String.format("Could not read statistics %s", file), e);
+        }
+    }
+
+    /**
+     * Aggregate the statistics of several tasks
+     *
+     * @param statistics Statistics of the tasks
+     * @return Aggregated statistics containing the totals and the statistics of each task
+     */
+    public static Map<String, Object> aggregate(Collection<Map<String, Object>> statistics) {
+        Map<String, Object> totals = new LinkedHashMap<>();
+        List<Map<String, Object>> tasks = new ArrayList<>(statistics);
+
+        tasks.sort(Comparator.comparing(t -> String.valueOf(t.get("task"))));
+        totals.put("tasks", tasks.size());
+
+        for (String key : TOTAL_KEYS) {
+            long total = 0L;
+
+            for (Map<String, Object> task : tasks) {
+                Object value = task.get(key);
+
+                if (value instanceof Number) {
+                    total += ((Number) value).longValue();
+                }
+            }
+
+            totals.put(key, total);
+        }
+
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("totals", totals);
+        map.put("tasks", tasks);
+        return map;
+    }
+
+    /**
+     * Create the counts of a package
+     *
+     * @param classes Number of classes
+     * @param lines Number of lines
+     * @param bytes Number of bytes
+     * @return Counts
+     */
+    protected static Map<String, Object> counts(long classes, long lines, long bytes) {
+        Map<String, Object> counts = new LinkedHashMap<>();
+        counts.put("classes", classes);
+        counts.put("lines", lines);
+        counts.put("bytes", bytes);
+        return counts;
+    }
+}
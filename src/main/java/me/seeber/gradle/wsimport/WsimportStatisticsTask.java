@@ -0,0 +1,116 @@
+/**
+ * BSD 2-Clause License
+ *
+ * Copyright (c) 2016-2017, Jochen Seeber
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package me.seeber.gradle.wsimport;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+import org.eclipse.jdt.annotation.Nullable;
+import org.gradle.api.file.FileCollection;
+import org.gradle.api.internal.ConventionTask;
+import org.gradle.api.tasks.InputFiles;
+import org.gradle.api.tasks.OutputFile;
+import org.gradle.api.tasks.TaskAction;
+
+/**
+ * Aggregate the statistics of wsimport tasks into a single file
+ *
+ * The statistics files are usually the artifacts of the 'wsimportStatistics' configurations of the projects, so the
+ * task depends on the wsimport tasks through these artifacts and does not need to access the tasks of other projects.
+ */
+public class WsimportStatisticsTask extends ConventionTask {
+
+    /**
+     * Statistics files of the wsimport tasks
+     */
+    private @Nullable FileCollection taskStatisticsFiles;
+
+    /**
+     * File to write the aggregated statistics to
+     */
+    private @Nullable File statisticsFile;
+
+    /**
+     * Aggregate the statistics
+     */
+    @TaskAction
+    protected void aggregate() {
+        List<Map<String, Object>> statistics = new ArrayList<>();
+
+        for (File file : Objects.requireNonNull(getTaskStatisticsFiles())) {
+            if (file.isFile()) {
+                statistics.add(WsimportStatistics.read(file));
+            }
+        }
+
+        WsimportStatistics.write(Objects.requireNonNull(getStatisticsFile()), WsimportStatistics.aggregate(statistics));
+    }
+
+    /**
+     * Get the statistics files of the wsimport tasks
+     *
+     * Files that do not exist are ignored, since a wsimport task may be configured to not write statistics.
+     *
+     * @return Statistics files
+     */
+    @InputFiles
+    public @Nullable FileCollection getTaskStatisticsFiles() {
+        return this.taskStatisticsFiles;
+    }
+
+    /**
+     * Set the statistics files of the wsimport tasks
+     *
+     * @param taskStatisticsFiles Statistics files
+     */
+    public void setTaskStatisticsFiles(FileCollection taskStatisticsFiles) {
+        this.taskStatisticsFiles = taskStatisticsFiles;
+    }
+
+    /**
+     * Get the file to write the aggregated statistics to
+     *
+     * @return Statistics file
+     */
+    @OutputFile
+    public @Nullable File getStatisticsFile() {
+        return this.statisticsFile;
+    }
+
+    /**
+     * Set the file to write the aggregated statistics to
+     *
+     * @param statisticsFile Statistics file
+     */
+    public void setStatisticsFile(File statisticsFile) {
+        this.statisticsFile = statisticsFile;
+    }
+}
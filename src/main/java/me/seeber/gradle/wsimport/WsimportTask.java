@@ -28,27 +28,54 @@
 package me.seeber.gradle.wsimport;
 
 import java.io.File;
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.security.CodeSource;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+import java.util.zip.ZipFile;
 
 import javax.inject.Inject;
 
 import org.eclipse.jdt.annotation.Nullable;
 import org.gradle.api.GradleException;
 import org.gradle.api.file.EmptyFileVisitor;
+import org.gradle.api.file.FileCollection;
 import org.gradle.api.file.FileTree;
 import org.gradle.api.file.FileVisitDetails;
+import org.gradle.api.file.FileVisitor;
 import org.gradle.api.internal.ConventionTask;
 import org.gradle.api.tasks.Input;
 import org.gradle.api.tasks.InputFiles;
 import org.gradle.api.tasks.Internal;
 import org.gradle.api.tasks.OutputDirectory;
+import org.gradle.api.tasks.OutputFile;
+import org.gradle.api.tasks.SkipWhenEmpty;
 import org.gradle.api.tasks.TaskAction;
 import org.gradle.process.ExecResult;
 import org.gradle.process.internal.ExecActionFactory;
@@ -56,8 +83,12 @@ import org.gradle.process.internal.JavaExecAction;
 
 import com.google.common.base.Joiner;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Multimap;
 import com.google.common.collect.Multimaps;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
 
 /**
  * Run wsimport on WSDL files
@@ -69,6 +100,22 @@ public class WsimportTask extends ConventionTask {
      */
     protected static final Joiner PACKAGE_JOINER = Objects.requireNonNull(Joiner.on('.'));
 
+    /**
+     * Binding extensions that are provided by this plugin
+     */
+    protected static final Set<String> BUNDLED_XJC_EXTENSIONS = Objects
+            .requireNonNull(ImmutableSet.of("stax-marshaller"));
+
+    /**
+     * Memory assumed for a schema compiler pass if no maximum heap size is set
+     */
+    protected static final long DEFAULT_PASS_MEMORY = 1024L * 1024L * 1024L;
+
+    /**
+     * Class file of the streaming feature for attachments of the JAX-WS reference implementation
+     */
+    protected static final String STREAMING_FEATURE_CLASS = "com/sun/xml/ws/developer/StreamingAttachmentFeature.class";
+
     /**
      * Factory used to create executor for wsimport
      */
@@ -96,6 +143,128 @@ public class WsimportTask extends ConventionTask {
     @Input
     private List<String> xjcExtensions = Collections.emptyList();
 
+    /**
+     * Patterns of operations to include
+     */
+    @Input
+    private List<String> operationIncludes = Collections.emptyList();
+
+    /**
+     * Patterns of operations to exclude
+     */
+    @Input
+    private List<String> operationExcludes = Collections.emptyList();
+
+    /**
+     * Patterns of port types and operations to generate asynchronous methods for
+     */
+    @Input
+    private List<String> asyncPortTypes = Collections.emptyList();
+
+    /**
+     * Generate adapters returning completable futures for the asynchronous methods
+     */
+    @Input
+    private boolean asyncAdapters = true;
+
+    /**
+     * Map binary content to streamed attachments
+     */
+    @Input
+    private boolean streamingAttachments;
+
+    /**
+     * Size in bytes from which binary content is sent as attachment
+     */
+    @Input
+    private int attachmentThreshold = AttachmentConfig.DEFAULT_THRESHOLD;
+
+    /**
+     * Sizes in bytes from which binary content is sent as attachment, by port type
+     */
+    @Input
+    private Map<String, Integer> attachmentThresholds = Collections.emptyMap();
+
+    /**
+     * Number of bytes of an attachment kept in memory before it is written to a temporary file
+     */
+    @Input
+    private long attachmentMemoryThreshold = AttachmentConfig.DEFAULT_MEMORY_THRESHOLD;
+
+    /**
+     * Generate handlers recording metrics of the calls of the generated clients
+     */
+    @Input
+    private boolean metrics;
+
+    /**
+     * Package of the generated metrics classes
+     */
+    @Input
+    private String metricsPackage = MetricsGenerator.DEFAULT_PACKAGE;
+
+    /**
+     * Maximum heap size of the forked tool processes
+     */
+    @Input
+    @org.gradle.api.tasks.Optional
+    private @Nullable String maxHeapSize;
+
+    /**
+     * Home directory of the Java installation used to run the tools, <code>null</code> to use the build JVM
+     */
+    @Input
+    @org.gradle.api.tasks.Optional
+    private @Nullable File javaHome;
+
+    /**
+     * API packages the generated code should use, <code>null</code> to keep the packages used by the tools
+     */
+    @Input
+    @org.gradle.api.tasks.Optional
+    private @Nullable String apiPackage;
+
+    /**
+     * File to write the statistics of the generated code to, <code>null</code> to not write statistics
+     */
+    private @Nullable File statisticsFile;
+
+    /**
+     * Compile the imported schemas in separate passes per namespace
+     */
+    @Input
+    private boolean splitByNamespace;
+
+    /**
+     * Maximum number of concurrent schema compiler passes, 0 to derive it from the available memory
+     */
+    @Internal
+    private int maxParallelPasses;
+
+    /**
+     * Skip WSDL files whose inputs and outputs did not change since the last run
+     */
+    @Internal
+    private boolean incremental = true;
+
+    /**
+     * Generate the code for each WSDL file in a separate staging directory and merge it into the destination directory
+     */
+    @Input
+    private boolean isolatedOutputs;
+
+    /**
+     * Reuse the code generated for identical WSDL files in the same build
+     */
+    @Input
+    private boolean deduplicate;
+
+    /**
+     * Cached result of {@link #isStreamingFeatureAvailable()}
+     */
+    @Internal
+    private @Nullable Boolean streamingFeatureAvailable;
+
     /**
      * Create a new wsimport task
      *
@@ -111,80 +280,1030 @@ public class WsimportTask extends ConventionTask {
      */
     @TaskAction
     protected void wsimport() {
-        Objects.requireNonNull(getWsdls()).visit(new EmptyFileVisitor() {
+        File indexFile = getIndexFile();
+        WsimportIndex index = WsimportIndex.load(indexFile);
+        Set<String> previousWsdlPaths = new HashSet<>(index.getWsdls());
+        Set<String> previousOutputs = index.getOutputs();
+        String fingerprint = getOptionsFingerprint();
+        List<Path> sharedInputs = getSharedInputs();
+        WsimportIndex.FileStates states = createFileStates();
+        Map<String, Path> wsdlFiles = new TreeMap<>();
+        GenerationCache cache = GenerationCache.getInstance();
+        String sharedInputsKey = isDeduplicate() ? getSharedInputsKey(sharedInputs, states) : "";
+        AtomicInteger generatedCount = new AtomicInteger();
+        AtomicInteger reusedCount = new AtomicInteger();
+        AtomicLong toolNanos = new AtomicLong();
+        Map<Path, Long> outputTimes = isStaged() ? Collections.emptyMap()
+                : getModificationTimes(Objects.requireNonNull(getDestinationDir()).toPath());
+
+        cache.register(getProject().getGradle());
+        ForkScheduler.getInstance().register(getProject().getGradle());
+
+        try {
+            visitWsdls(new EmptyFileVisitor() {
+                /**
+                 * @see org.gradle.api.file.EmptyFileVisitor#visitFile(org.gradle.api.file.FileVisitDetails)
+                 */
+                @Override
+                public void visitFile(FileVisitDetails file) {
+                    Path relativeWsdlFile = Paths.get(file.getPath());
+                    Path absoluteWsdlFile = file.getFile().toPath();
+
+                    if (relativeWsdlFile.isAbsolute() || !absoluteWsdlFile.isAbsolute()) {
+                        throw new IllegalArgumentException(String.format("Illegal file visit details %s", file));
+                    }
+
+                    Path baseDir = Objects.requireNonNull(absoluteWsdlFile.getRoot()).resolve(absoluteWsdlFile
+                            .subpath(0, absoluteWsdlFile.getNameCount() - relativeWsdlFile.getNameCount()));
+
+                    String wsdlPath = file.getPath();
+                    Path outputDir = getOutputDir(relativeWsdlFile);
+                    WsimportIndex.Entry entry = index.getEntry(wsdlPath);
+                    List<Path> directInputs = new ArrayList<>(sharedInputs);
+                    directInputs.add(absoluteWsdlFile);
+                    wsdlFiles.put(wsdlPath, absoluteWsdlFile);
+
+                    if (isIncremental() && entry != null
+                            && entry.isUpToDate(fingerprint, directInputs, outputDir, states)) {
+                        getLogger().info("Skipping wsimport for unchanged WSDL {}", relativeWsdlFile);
+                        String contentKey = entry.getContentKey();
+
+                        if (contentKey != null) {
+                            cache.put(contentKey, outputDir, entry.getOutputs());
+                        }
+
+                        return;
+                    }
+
+                    index.removeEntry(wsdlPath);
+
+                    if (isStaged()) {
+                        getProject().delete(outputDir.toFile());
+                    }
+
+                    String contentKey = isDeduplicate()
+                            ? getContentKey(absoluteWsdlFile, relativeWsdlFile, sharedInputsKey, states)
+                            : null;
+                    GenerationCache.Generation generation = contentKey != null ? cache.get(contentKey) : null;
+                    long generationStart = System.nanoTime();
+
+                    if (generation != null && !generation.getOutputDir().equals(outputDir)) {
+                        getLogger().info("Reusing code generated for identical WSDL in {}", generation.getOutputDir());
+                        reuseGeneration(generation, outputDir);
+                        cache.recordReuse(generation);
+                        reusedCount.incrementAndGet();
+                    }
+                    else {
+                        runWsimport(baseDir, relativeWsdlFile, outputDir);
+                        generatedCount.incrementAndGet();
+                        toolNanos.addAndGet(System.nanoTime() - generationStart);
+                    }
+
+                    WsimportIndex.Entry newEntry = createIndexEntry(fingerprint, absoluteWsdlFile, sharedInputs,
+                            states, outputDir, isStaged() ? null : outputTimes);
+                    WsdlPruner.Selection selection = new WsdlPruner(getOperationIncludes(), getOperationExcludes())
+                            .select(absoluteWsdlFile);
+                    newEntry.setContentKey(contentKey);
+                    newEntry.setDuration((System.nanoTime() - generationStart) / 1000000L);
+                    newEntry.setPorts(selection.ports);
+                    newEntry.setOperations(selection.operations.size());
+                    index.putEntry(wsdlPath, newEntry);
+
+                    if (contentKey != null) {
+                        cache.put(contentKey, outputDir, newEntry.getOutputs());
+                    }
+                }
+            });
+
+            Set<String> wsdlPaths = wsdlFiles.keySet();
+            index.retainEntries(wsdlPaths);
+
+            if (isStaged()) {
+                previousWsdlPaths.removeAll(wsdlPaths);
+                previousWsdlPaths.forEach(p -> getProject().delete(getOutputDir(Paths.get(p)).toFile()));
+                mergeOutputs(wsdlPaths);
+            }
+
+            removeStaleOutputs(previousOutputs, index.getOutputs());
+            writeStatistics(index, toolNanos.get() / 1000000L);
+
+            if (reusedCount.get() > 0) {
+                getLogger().info("Generated code for {} WSDL files, reused code for {} identical WSDL files",
+                        generatedCount.get(), reusedCount.get());
+            }
+        }
+        finally {
+            index.save(indexFile);
+        }
+    }
+
+    /**
+     * Write the statistics of the generated code
+     *
+     * The statistics are created from the index, which records the ports, operations and generated files of each WSDL
+     * file when its code is generated.
+     *
+     * @param index Index of the processed WSDL files
+     * @param toolMillis Time spent running the tools in milliseconds
+     */
+    protected void writeStatistics(WsimportIndex index, long toolMillis) {
+        File file = getStatisticsFile();
+
+        if (file == null) {
+            return;
+        }
+
+        WsimportStatistics statistics = new WsimportStatistics(getPath());
+        Set<String> outputs = new HashSet<>();
+
+        for (String wsdl : index.getWsdls()) {
+            WsimportIndex.Entry entry = Objects.requireNonNull(index.getEntry(wsdl));
+            statistics.addWsdl(entry.getPorts(), entry.getOperations(), entry.getDuration());
+
+            for (String output : entry.getOutputs()) {
+                WsimportIndex.FileState state = entry.getOutputState(output);
+
+                if (state != null && outputs.add(output)) {
+                    statistics.addFile(output, entry.getOutputLines(output), state.getSize());
+                }
+            }
+        }
+
+        statistics.addToolTime(toolMillis);
+        statistics.write(file);
+    }
+
+    /**
+     * Remove generated files from the destination directory that are no longer generated for any WSDL file
+     *
+     * Only files recorded in the index are removed, so files not generated by this task are never touched. Directories
+     * that become empty are removed as well.
+     *
+     * @param previousOutputs Output files recorded before the run, relative to the destination directory
+     * @param currentOutputs Output files recorded after the run, relative to the destination directory
+     */
+    protected void removeStaleOutputs(Set<String> previousOutputs, Set<String> currentOutputs) {
+        Path destination = Objects.requireNonNull(getDestinationDir()).toPath().toAbsolutePath().normalize();
+        int count = 0;
+
+        for (String output : previousOutputs) {
+            Path file = destination.resolve(output).normalize();
+
+            if (currentOutputs.contains(output) || !file.startsWith(destination)) {
+                continue;
+            }
+
+            try {
+                if (Files.deleteIfExists(file)) {
+                    ++count;
+                }
+
+                for (Path dir = file.getParent(); dir != null && dir.startsWith(destination)
+                        && !dir.equals(destination); dir = dir.getParent()) {
+                    try (Stream<Path> children = Files.list(dir)) {
+                        if (children.findAny().isPresent()) {
+                            break;
+                        }
+                    }
+
+                    Files.delete(dir);
+                }
+            }
+            catch (NoSuchFileException e) {
+                // Directory already removed
+            }
+            catch (IOException e) {
+                throw new GradleException(String.format("Could not remove stale file %s", file), e);
+            }
+        }
+
+        if (count > 0) {
+            getLogger().info("Removed {} stale generated files from {}", count, destination);
+        }
+    }
+
+    /**
+     * Copy the code generated for an identical WSDL file
+     *
+     * @param generation Code generated for the identical WSDL file
+     * @param outputDir Directory to copy the code to
+     */
+    protected void reuseGeneration(GenerationCache.Generation generation, Path outputDir) {
+        for (String file : generation.getFiles()) {
+            Path source = generation.getOutputDir().resolve(file);
+            Path target = outputDir.resolve(file);
+
+            try {
+                OutputMerger.linkOrCopy(source, target);
+            }
+            catch (IOException e) {
+                throw new GradleException(String.format("Could not copy %s to %s", source, target), e);
+            }
+        }
+    }
+
+    /**
+     * Get the hash of the content of a WSDL file, its imports, the shared input files and the options
+     *
+     * Imported documents are identified by their path relative to the WSDL file, so that copies of the same WSDL file
+     * in different directories get the same hash.
+     *
+     * @param wsdlFile WSDL file
+     * @param relativeWsdlFile WSDL file relative to its source directory, which determines the package name
+     * @param sharedInputsKey Hash of the input files shared by all WSDL files
+     * @param states Current states of the input files
+     * @return Content hash
+     */
+    protected String getContentKey(Path wsdlFile, Path relativeWsdlFile, String sharedInputsKey,
+            WsimportIndex.FileStates states) {
+        Hasher hasher = Hashing.sha256().newHasher();
+        Path wsdlDir = Objects.requireNonNull(wsdlFile.toAbsolutePath().normalize().getParent());
+
+        hasher.putString(getGenerationOptions().toString(), StandardCharsets.UTF_8);
+        hasher.putString(relativeWsdlFile.toString(), StandardCharsets.UTF_8);
+        hasher.putString(sharedInputsKey, StandardCharsets.UTF_8);
+
+        for (WsdlDocument document : new WsdlScanner().scan(wsdlFile)) {
+            hasher.putString(wsdlDir.relativize(document.getFile()).toString(), StandardCharsets.UTF_8);
+            WsimportIndex.FileState state = states.get(document.getFile(), true);
+            String hash = state != null ? state.getHash() : null;
+            hasher.putString(hash != null ? hash : "", StandardCharsets.UTF_8);
+        }
+
+        return Objects.requireNonNull(hasher.hash().toString());
+    }
+
+    /**
+     * Get a fingerprint of the WSDL files, their imports, the binding files and the options
+     *
+     * Unlike the keys used for deduplication, the fingerprint does not depend on the tool class path. Like them, it
+     * does not depend on the Java installation running the tools or the location of the files, so it is the same on
+     * every machine.
+     *
+     * @return Fingerprint of the WSDL files
+     */
+    public String getContractFingerprint() {
+        List<String> bindingHashes = new ArrayList<>();
+        Map<String, Path> wsdlFiles = new TreeMap<>();
+
+        for (File bindingFile : getBindingFiles()) {
+            if (bindingFile.isFile()) {
+                bindingHashes.add(WsimportIndex.hash(bindingFile.toPath()));
+            }
+        }
+
+        Collections.sort(bindingHashes);
+
+        String bindingsKey = Objects.requireNonNull(
+                Hashing.sha256().hashString(bindingHashes.toString(), StandardCharsets.UTF_8).toString());
+
+        visitWsdls(new EmptyFileVisitor() {
             /**
              * @see org.gradle.api.file.EmptyFileVisitor#visitFile(org.gradle.api.file.FileVisitDetails)
              */
             @Override
             public void visitFile(FileVisitDetails file) {
-                Path relativeWsdlFile = Paths.get(file.getPath());
-                Path absoluteWsdlFile = file.getFile().toPath();
+                wsdlFiles.put(file.getPath(), file.getFile().toPath());
+            }
+        });
+
+        Hasher hasher = Hashing.sha256().newHasher();
+        WsimportIndex.FileStates states = new WsimportIndex.FileStates(Collections.emptySet());
+
+        for (Map.Entry<String, Path> wsdlFile : wsdlFiles.entrySet()) {
+            hasher.putString(wsdlFile.getKey(), StandardCharsets.UTF_8);
+            hasher.putString(getContentKey(Objects.requireNonNull(wsdlFile.getValue()),
+                    Paths.get(wsdlFile.getKey()), bindingsKey, states), StandardCharsets.UTF_8);
+        }
+
+        return Objects.requireNonNull(hasher.hash().toString());
+    }
+
+    /**
+     * Get the hash of the input files shared by all WSDL files
+     *
+     * Binding files are hashed by content, the files of the tool class path by path, size and modification time.
+     *
+     * @param sharedInputs Input files shared by all WSDL files
+     * @param states Current states of the input files
+     * @return Hash of the shared input files
+     */
+    protected String getSharedInputsKey(List<Path> sharedInputs, WsimportIndex.FileStates states) {
+        List<String> keys = new ArrayList<>();
+
+        for (Path file : sharedInputs) {
+            WsimportIndex.FileState state = states.get(file, true);
+            String hash = state != null ? state.getHash() : null;
+
+            if (hash != null) {
+                keys.add(hash);
+            }
+            else if (state != null) {
+                keys.add(String.format("%s:%d:%d", file, state.getSize(), state.getLastModified()));
+            }
+        }
+
+        Collections.sort(keys);
+
+        return Objects.requireNonNull(Hashing.sha256().hashString(keys.toString(), StandardCharsets.UTF_8).toString());
+    }
+
+    /**
+     * Merge the files generated for each WSDL file into the destination directory
+     *
+     * @param wsdlPaths Paths of the WSDL files
+     */
+    protected void mergeOutputs(Set<String> wsdlPaths) {
+        OutputMerger merger = new OutputMerger(Objects.requireNonNull(getDestinationDir()).toPath());
+
+        for (String wsdlPath : new TreeSet<>(wsdlPaths)) {
+            merger.add(Objects.requireNonNull(wsdlPath), getOutputDir(Paths.get(wsdlPath)));
+        }
+
+        int count = merger.merge();
+        getLogger().info("Merged {} generated files into {}", count, getDestinationDir());
+    }
+
+    /**
+     * Create the index entry for a processed WSDL file
+     *
+     * If all WSDL files write to the same directory, the generated files are the files that were added or whose
+     * modification time changed since the last snapshot of the directory. The snapshot is updated, so it can be used
+     * for the next WSDL file. On file systems storing modification times in seconds, a file that is written again
+     * within the same second keeps its time and is only recorded for the WSDL file that wrote it first; staging avoids
+     * this.
+     *
+     * @param fingerprint Fingerprint of the tool options
+     * @param wsdlFile Processed WSDL file
+     * @param sharedInputs Input files shared by all WSDL files
+     * @param states Current states of the input files
+     * @param outputDir Directory the files were generated in
+     * @param outputTimes Modification times of the files in the output directory before processing, by file,
+     *            <code>null</code> to record all files in the output directory
+     * @return Index entry
+     */
+    protected WsimportIndex.Entry createIndexEntry(String fingerprint, Path wsdlFile, List<Path> sharedInputs,
+            WsimportIndex.FileStates states, Path outputDir, @Nullable Map<Path, Long> outputTimes) {
+        WsimportIndex.Entry entry = new WsimportIndex.Entry(fingerprint);
+        Path normalizedWsdlFile = wsdlFile.toAbsolutePath().normalize();
+
+        entry.addInput(wsdlFile, states, false);
+        sharedInputs.forEach(f -> entry.addInput(f, states, false));
+
+        for (WsdlDocument document : new WsdlScanner().scan(wsdlFile)) {
+            if (!document.getFile().equals(normalizedWsdlFile)) {
+                entry.addInput(document.getFile(), states, true);
+            }
+        }
+
+        if (!Files.isDirectory(outputDir)) {
+            return entry;
+        }
+
+        try (Stream<Path> files = Files.walk(outputDir)) {
+            for (Path file : (Iterable<Path>) files.filter(Files::isRegularFile)::iterator) {
+                long lastModified = file.toFile().lastModified();
+                Long previousModified = outputTimes != null ? outputTimes.put(file, lastModified) : null;
+
+                if (previousModified == null || previousModified != lastModified) {
+                    entry.addOutput(outputDir, file);
+                }
+            }
+        }
+        catch (IOException e) {
+            throw new GradleException(String.format("Could not list generated files in %s", outputDir), e);
+        }
+
+        return entry;
+    }
+
+    /**
+     * Get the modification times of the files in a directory
+     *
+     * @param directory Directory
+     * @return Modification times in milliseconds since the epoch, by file
+     */
+    protected static Map<Path, Long> getModificationTimes(Path directory) {
+        Map<Path, Long> times = new HashMap<>();
+
+        if (!Files.isDirectory(directory)) {
+            return times;
+        }
+
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path file : (Iterable<Path>) files.filter(Files::isRegularFile)::iterator) {
+                times.put(file, file.toFile().lastModified());
+            }
+        }
+        catch (IOException e) {
+            throw new GradleException(String.format("Could not list generated files in %s", directory), e);
+        }
+
+        return times;
+    }
+
+    /**
+     * Visit the WSDL files
+     *
+     * @param visitor Visitor called for each WSDL file
+     */
+    protected void visitWsdls(FileVisitor visitor) {
+        WsdlDiscovery.getInstance().visit(getProject(), Objects.requireNonNull(getWsdls()), visitor);
+    }
+
+    /**
+     * Get the external binding files
+     *
+     * @return External binding files
+     */
+    protected Set<File> getBindingFiles() {
+        return WsdlDiscovery.getInstance().getFiles(getProject(), Objects.requireNonNull(getBindings()));
+    }
+
+    /**
+     * Get the input files shared by all WSDL files, i.e. the binding files and the tool class path
+     *
+     * @return Input files shared by all WSDL files
+     */
+    protected List<Path> getSharedInputs() {
+        List<Path> inputs = new ArrayList<>();
+
+        for (File bindingFile : getBindingFiles()) {
+            if (bindingFile.isFile()) {
+                inputs.add(bindingFile.toPath().toAbsolutePath());
+            }
+        }
+
+        inputs.addAll(getToolClasspathFiles());
+        return inputs;
+    }
+
+    /**
+     * Get the files of the class path of the tools
+     *
+     * @return Files of the tool class path
+     */
+    protected List<Path> getToolClasspathFiles() {
+        List<Path> files = new ArrayList<>();
+
+        for (File classpathFile : getProject().getConfigurations().getAt("jaxws").plus(getXjcClasspath())
+                .getFiles()) {
+            if (classpathFile.isFile()) {
+                files.add(classpathFile.toPath().toAbsolutePath());
+            }
+        }
+
+        return files;
+    }
+
+    /**
+     * Check if the generated code is compiled against the JAX-WS reference implementation
+     *
+     * The streaming feature for attachments is only part of the reference implementation, so it is only generated if
+     * the libraries of the '{@value WsimportPlugin#API_CONFIGURATION_NAME}' configuration contain it.
+     *
+     * @return <code>true</code> if the streaming feature of the reference implementation can be generated
+     */
+    protected boolean isStreamingFeatureAvailable() {
+        Boolean available = this.streamingFeatureAvailable;
+
+        if (available == null) {
+            available = false;
+
+            for (File file : getProject().getConfigurations().getAt(WsimportPlugin.API_CONFIGURATION_NAME)
+                    .getFiles()) {
+                if (containsClass(file, STREAMING_FEATURE_CLASS)) {
+                    available = true;
+                    break;
+                }
+            }
+
+            this.streamingFeatureAvailable = available;
+        }
+
+        return available;
+    }
+
+    /**
+     * Check if a class path entry contains a class
+     *
+     * @param classpathFile Jar file or class directory
+     * @param className Name of the class file relative to the class path entry
+     * @return <code>true</code> if the class path entry contains the class
+     */
+    protected static boolean containsClass(File classpathFile, String className) {
+        if (classpathFile.isDirectory()) {
+            return new File(classpathFile, className).isFile();
+        }
+
+        if (!classpathFile.isFile()) {
+            return false;
+        }
+
+        try (ZipFile zip = new ZipFile(classpathFile)) {
+            return zip.getEntry(className) != null;
+        }
+        catch (IOException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Create the file states used to check and record the input files of a run
+     *
+     * Files of the tool class path are identified by size and modification time, all other input files are hashed
+     * at most once per run.
+     *
+     * @return File states
+     */
+    protected WsimportIndex.FileStates createFileStates() {
+        return new WsimportIndex.FileStates(getToolClasspathFiles());
+    }
+
+    /**
+     * Get the fingerprint of the tool options that affect the generated code
+     *
+     * @return Fingerprint of the tool options
+     */
+    protected String getOptionsFingerprint() {
+        List<Object> options = new ArrayList<>(getGenerationOptions());
+        options.add(getJavaHome());
+        options.add(isStaged());
+        options.add(getDestinationDir());
+
+        return Objects
+                .requireNonNull(Hashing.sha256().hashString(options.toString(), StandardCharsets.UTF_8).toString());
+    }
+
+    /**
+     * Get the tool options that affect the content of the generated code
+     *
+     * The options are part of the contract fingerprint, so they must not contain paths of the local machine. The Java
+     * installation running the tools is therefore only part of the {@link #getOptionsFingerprint() options
+     * fingerprint}.
+     *
+     * @return Tool options
+     */
+    protected List<Object> getGenerationOptions() {
+        return Arrays.asList(getXjcExtensions(), getOperationIncludes(), getOperationExcludes(), isSplitByNamespace(),
+                getApiPackage(), getAsyncPortTypes(), isAsyncAdapters(), isStreamingAttachments(),
+                getAttachmentThreshold(), new TreeMap<>(getAttachmentThresholds()), getAttachmentMemoryThreshold(),
+                isStreamingAttachments() && isStreamingFeatureAvailable(), isMetrics(), getMetricsPackage());
+    }
+
+    /**
+     * Check if the code for each WSDL file is generated in a separate staging directory
+     *
+     * Staging is required for isolated outputs and for deduplication.
+     *
+     * @return <code>true</code> if the code for each WSDL file is generated in a separate staging directory
+     */
+    protected boolean isStaged() {
+        return isIsolatedOutputs() || isDeduplicate();
+    }
+
+    /**
+     * Get the file to store the index of processed WSDL files in
+     *
+     * @return Index file
+     */
+    protected File getIndexFile() {
+        return new File(getWorkDir(), "index");
+    }
+
+    /**
+     * Get the directory the code for a WSDL file is generated in
+     *
+     * @param wsdlFile WSDL file relative to its source directory
+     * @return Staging directory of the WSDL file if outputs are staged, destination directory otherwise
+     */
+    protected Path getOutputDir(Path wsdlFile) {
+        if (isStaged()) {
+            return getWorkDir().toPath().resolve("staging").resolve(wsdlFile);
+        }
+
+        return Objects.requireNonNull(getDestinationDir()).toPath();
+    }
+
+    /**
+     * Get the class path containing the binding extensions
+     *
+     * If a binding extension provided by this plugin is used, the class path also contains the plugin itself.
+     *
+     * @return Class path containing the binding extensions
+     */
+    protected FileCollection getXjcClasspath() {
+        FileCollection classpath = getProject().getConfigurations().getAt("xjc");
+
+        if (getXjcExtensions().stream().anyMatch(BUNDLED_XJC_EXTENSIONS::contains)) {
+            CodeSource codeSource = WsimportTask.class.getProtectionDomain().getCodeSource();
+
+            if (codeSource == null) {
+                throw new GradleException("Could not determine the location of the wsimport plugin");
+            }
+
+            try {
+                classpath = classpath.plus(getProject().files(new File(codeSource.getLocation().toURI())));
+            }
+            catch (URISyntaxException e) {
+                throw new GradleException("Could not determine the location of the wsimport plugin", e);
+            }
+        }
+
+        return classpath;
+    }
+
+    /**
+     * Get the directory to store the index and staged outputs in
+     *
+     * @return Work directory of the task
+     */
+    protected File getWorkDir() {
+        return new File(getProject().getBuildDir(), "wsimport/" + getName());
+    }
+
+    /**
+     * Run wsimport on a WSDL file
+     *
+     * @param baseDir Base directory
+     * @param wsdlFile WSDL file to compile
+     * @param outputDir Directory to generate the code in
+     */
+    protected void runWsimport(Path baseDir, Path wsdlFile, Path outputDir) {
+        // Allow for file systems that store modification times with a resolution of one second
+        long startTime = System.currentTimeMillis() - 1000L;
+
+        Collection<File> bindingFiles = getBindingFiles();
+
+        if (!getOperationIncludes().isEmpty() || !getOperationExcludes().isEmpty()) {
+            WsdlPruner pruner = new WsdlPruner(getOperationIncludes(), getOperationExcludes());
+            baseDir = pruner.prune(baseDir, wsdlFile, getTemporaryDir().toPath().resolve("pruned").resolve(wsdlFile));
+            bindingFiles = SchemaBindings.relocate(bindingFiles, pruner.getCopies(),
+                    getTemporaryDir().toPath().resolve("pruned-bindings").resolve(wsdlFile));
+        }
+
+        if (isStreamingAttachments()) {
+            AttachmentRewriter rewriter = new AttachmentRewriter();
+            baseDir = rewriter.rewrite(baseDir, wsdlFile,
+                    getTemporaryDir().toPath().resolve("attachments").resolve(wsdlFile));
+            bindingFiles = SchemaBindings.relocate(bindingFiles, rewriter.getCopies(),
+                    getTemporaryDir().toPath().resolve("attachment-bindings").resolve(wsdlFile));
+            getLogger().debug("Mapped {} binary elements of {} to attachments", rewriter.getElementCount(), wsdlFile);
+
+            if (!rewriter.getSkippedElements().isEmpty()) {
+                getLogger().info("Binary elements of complex types in {} were not mapped to attachments: {}", wsdlFile,
+                        String.join(", ", rewriter.getSkippedElements()));
+            }
+        }
+
+        List<File> episodes = isSplitByNamespace()
+                ? compileSchemas(baseDir.resolve(wsdlFile), wsdlFile, bindingFiles, outputDir)
+                : Collections.emptyList();
+
+        JavaExecAction action = getActionFactory().newJavaExecAction();
+        String packageName = getPackageName(wsdlFile);
+
+        Multimap<String, Object> options = Multimaps.newListMultimap(new HashMap<>(), () -> new ArrayList<>());
+
+        if (packageName != null) {
+            options.put("p", packageName);
+        }
+
+        options.put("wsdllocation", wsdlFile.getFileName().toString());
+        options.put("s", outputDir);
+        options.put("extension", true);
+        options.put("Xnocompile", true);
+        options.put("B-classpath", getXjcClasspath().getAsPath());
+
+        for (String extension : getXjcExtensions()) {
+            options.put("B-X" + extension, true);
+        }
+
+        if (getProject().getLogger().isDebugEnabled()) {
+            options.put("Xdebug", true);
+        }
+        else {
+            options.put("quiet", true);
+        }
+
+        for (File bindingFile : bindingFiles) {
+            if (bindingFile.isFile()) {
+                options.put("b", bindingFile);
+            }
+        }
+
+        for (File episode : episodes) {
+            options.put("b", episode);
+        }
+
+        if (!getAsyncPortTypes().isEmpty()) {
+            Path asyncDir = getTemporaryDir().toPath().resolve("async").resolve(wsdlFile);
+
+            for (Path bindingFile : new AsyncMappingBinder(getAsyncPortTypes()).bind(baseDir.resolve(wsdlFile),
+                    asyncDir)) {
+                options.put("b", bindingFile.toFile());
+            }
+        }
+
+        List<String> arguments = createArguments(options);
+        arguments.add(wsdlFile.toString());
+
+        getLogger().debug("Running wsimport with arguments {}", Joiner.on(' ').join(arguments));
+
+        action.setArgs(arguments);
+        action.setClasspath(getProject().getConfigurations().getAt("jaxws"));
+        action.setMain("com.sun.tools.ws.WsImport");
+        action.setWorkingDir(baseDir.toFile());
+        configureToolAction(action);
+
+        ExecResult result = executeTool(action);
+
+        if (result.getExitValue() != 0) {
+            throw new GradleException("Error running wsimport");
+        }
+
+        String api = getApiPackage();
+        List<GeneratedSources.Processor> processors = new ArrayList<>();
+        @Nullable ApiPackageMapper mapper = null;
+        @Nullable AsyncAdapterGenerator asyncAdapters = null;
+        @Nullable AttachmentFeatureGenerator attachmentFeatures = null;
+        @Nullable MetricsGenerator metrics = null;
+
+        if (api != null) {
+            mapper = new ApiPackageMapper(api);
+            processors.add(mapper);
+        }
+
+        if (!getAsyncPortTypes().isEmpty() && isAsyncAdapters()) {
+            asyncAdapters = new AsyncAdapterGenerator();
+            processors.add(asyncAdapters);
+        }
+
+        if (isStreamingAttachments()) {
+            attachmentFeatures = new AttachmentFeatureGenerator(getAttachmentThreshold(), getAttachmentThresholds(),
+                    getAttachmentMemoryThreshold(), isStreamingFeatureAvailable());
+            processors.add(attachmentFeatures);
+        }
+
+        if (isMetrics()) {
+            metrics = new MetricsGenerator(getMetricsPackage());
+            processors.add(metrics);
+        }
+
+        // Read the generated files once for all processors
+        GeneratedSources.process(outputDir, startTime, processors);
+
+        if (mapper != null) {
+            getLogger().debug("Mapped API packages to {} in {} files", api, mapper.getCount());
+        }
+
+        if (asyncAdapters != null) {
+            getLogger().debug("Generated {} asynchronous adapters", asyncAdapters.getCount());
+        }
+
+        if (attachmentFeatures != null) {
+            getLogger().debug("Generated attachment features for {} port interfaces", attachmentFeatures.getCount());
+        }
+
+        if (metrics != null) {
+            getLogger().debug("Generated metrics handlers for {} services", metrics.getCount());
+        }
+    }
+
+    /**
+     * Get the package of the code generated for a WSDL file
+     *
+     * @param wsdlFile WSDL file relative to its source directory
+     * @return Package derived from the directory of the WSDL file, <code>null</code> if the file is not in a directory
+     */
+    protected @Nullable String getPackageName(Path wsdlFile) {
+        return Optional.ofNullable(wsdlFile.getParent()).map(p -> PACKAGE_JOINER.join(p)).orElse(null);
+    }
+
+    /**
+     * Run a tool process once the build wide scheduler permits it
+     *
+     * @param action Action running the tool
+     * @return Result of the process
+     */
+    protected ExecResult executeTool(JavaExecAction action) {
+        String heapSize = getMaxHeapSize();
+        long memory = heapSize != null ? parseMemorySize(heapSize) : DEFAULT_PASS_MEMORY;
+
+        try (ForkScheduler.Lease lease = ForkScheduler.getInstance().acquire(this, memory)) {
+            return action.execute();
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new GradleException("Interrupted while waiting to run wsimport", e);
+        }
+    }
+
+    /**
+     * Configure the Java process running a tool
+     *
+     * @param action Action running the tool
+     */
+    protected void configureToolAction(JavaExecAction action) {
+        String heapSize = getMaxHeapSize();
+        File home = getJavaHome();
+
+        if (heapSize != null) {
+            action.setMaxHeapSize(heapSize);
+        }
+
+        if (home != null) {
+            boolean windows = System.getProperty("os.name", "").toLowerCase(Locale.ROOT).startsWith("windows");
+            File executable = new File(home, windows ? "bin/java.exe" : "bin/java");
+
+            if (!executable.isFile()) {
+                throw new GradleException(String.format("No Java executable found in %s", home));
+            }
+
+            action.setExecutable(executable);
+        }
+    }
+
+    /**
+     * Compile the schemas imported by a WSDL file in separate passes per namespace
+     *
+     * Passes that do not depend on each other run concurrently, limited by {@link #getParallelPasses()}. Each pass
+     * writes an episode file that is used as binding by the passes depending on it, so that no type is generated
+     * twice. The JAXB customizations of the binding files are passed to the passes compiling the customized schemas.
+     *
+     * @param wsdlFile WSDL file
+     * @param relativeWsdlFile WSDL file relative to the base directory
+     * @param bindingFiles Binding files referring to the compiled documents
+     * @param outputDir Directory to generate the code in
+     * @return Episode files of all passes
+     */
+    protected List<File> compileSchemas(Path wsdlFile, Path relativeWsdlFile, Collection<File> bindingFiles,
+            Path outputDir) {
+        List<WsdlDocument> documents = new WsdlScanner().scan(wsdlFile);
+        SchemaPassPlan plan = SchemaPassPlan.create(documents);
+
+        if (plan.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        Path episodeDir = getTemporaryDir().toPath().resolve("episodes").resolve(relativeWsdlFile);
+        FileCollection classpath = getProject()
+                .files(getProject().getConfigurations().getAt("jaxws").plus(getXjcClasspath()).getFiles());
+        Map<SchemaPassPlan.SchemaPass, File> episodes = new ConcurrentHashMap<>();
+        SchemaBindings bindings = new SchemaBindings(bindingFiles);
+        ExecutorService executor = Executors.newFixedThreadPool(getParallelPasses());
+
+        try {
+            Files.createDirectories(episodeDir);
 
-                if (relativeWsdlFile.isAbsolute() || !absoluteWsdlFile.isAbsolute()) {
-                    throw new IllegalArgumentException(String.format("Illegal file visit details %s", file));
+            for (List<SchemaPassPlan.SchemaPass> level : plan.getLevels()) {
+                List<Future<?>> results = new ArrayList<>();
+
+                for (SchemaPassPlan.SchemaPass pass : level) {
+                    File episode = episodeDir.resolve(pass.getIndex() + ".episode").toFile();
+                    List<File> passBindingFiles = bindings.write(
+                            SchemaBindings.getCompiledFiles(pass.getFiles(), documents),
+                            episodeDir.resolve(pass.getIndex() + "-bindings"));
+                    results.add(executor.submit(
+                            () -> runXjc(pass, episode, episodes, passBindingFiles, classpath, outputDir)));
+                    episodes.put(pass, episode);
                 }
 
-                Path baseDir = Objects.requireNonNull(absoluteWsdlFile.getRoot()).resolve(
-                        absoluteWsdlFile.subpath(0, absoluteWsdlFile.getNameCount() - relativeWsdlFile.getNameCount()));
+                for (Future<?> result : results) {
+                    result.get();
+                }
+            }
 
-                runWsimport(baseDir, relativeWsdlFile);
+            for (Path schema : bindings.getUnselectedSchemas()) {
+                getLogger().info("Bindings of {} were not applied, since the schema is not compiled for {}", schema,
+                        relativeWsdlFile);
             }
-        });
+        }
+        catch (IOException e) {
+            throw new GradleException(String.format("Could not create directory %s", episodeDir), e);
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new GradleException("Interrupted while compiling schemas", e);
+        }
+        catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+
+            throw new GradleException("Error compiling schemas", e.getCause());
+        }
+        finally {
+            executor.shutdownNow();
+        }
+
+        return new ArrayList<>(episodes.values());
     }
 
     /**
-     * Run wsimport on a WSDL file
+     * Run the schema compiler for a single pass
      *
-     * @param baseDir Base directory
-     * @param wsdlFile WSDL file to compile
+     * @param pass Pass to run
+     * @param episode Episode file to write
+     * @param episodes Episode files of the passes
+     * @param bindingFiles JAXB binding files of the pass
+     * @param classpath Class path of the schema compiler
+     * @param outputDir Directory to generate the code in
      */
-    protected void runWsimport(Path baseDir, Path wsdlFile) {
+    protected void runXjc(SchemaPassPlan.SchemaPass pass, File episode, Map<SchemaPassPlan.SchemaPass, File> episodes,
+            List<File> bindingFiles, FileCollection classpath, Path outputDir) {
         JavaExecAction action = getActionFactory().newJavaExecAction();
-        String packageName = Optional.ofNullable(wsdlFile.getParent()).map(p -> PACKAGE_JOINER.join(p)).orElse(null);
-
         Multimap<String, Object> options = Multimaps.newListMultimap(new HashMap<>(), () -> new ArrayList<>());
 
-        if (packageName != null) {
-            options.put("p", packageName);
-        }
-
-        options.put("wsdllocation", wsdlFile.getFileName().toString());
-        options.put("s", getDestinationDir());
+        options.put("d", outputDir);
+        options.put("episode", episode);
         options.put("extension", true);
-        options.put("Xnocompile", true);
-        options.put("B-classpath", getProject().getConfigurations().getAt("xjc").getAsPath());
 
         for (String extension : getXjcExtensions()) {
-            options.put("B-X" + extension, true);
+            options.put("X" + extension, true);
         }
 
         if (getProject().getLogger().isDebugEnabled()) {
-            options.put("Xdebug", true);
+            options.put("debug", true);
         }
         else {
             options.put("quiet", true);
         }
 
-        for (File bindingFile : Objects.requireNonNull(getBindings()).getFiles()) {
-            if (bindingFile.isFile()) {
-                options.put("b", bindingFile);
-            }
+        for (SchemaPassPlan.SchemaPass dependency : pass.getDependencies()) {
+            options.put("b", Objects.requireNonNull(episodes.get(dependency)));
+        }
+
+        for (File bindingFile : bindingFiles) {
+            options.put("b", bindingFile);
         }
 
         List<String> arguments = createArguments(options);
-        arguments.add(wsdlFile.toString());
+        pass.getFiles().forEach(f -> arguments.add(f.toString()));
 
-        getLogger().debug("Running wsimport with arguments {}", Joiner.on(' ').join(arguments));
+        getLogger().debug("Running xjc for {} with arguments {}", pass, Joiner.on(' ').join(arguments));
 
         action.setArgs(arguments);
-        action.setClasspath(getProject().getConfigurations().getAt("jaxws"));
-        action.setMain("com.sun.tools.ws.WsImport");
-        action.setWorkingDir(baseDir.toFile());
+        action.setClasspath(classpath);
+        action.setMain("com.sun.tools.xjc.XJCFacade");
+        configureToolAction(action);
 
-        ExecResult result = action.execute();
+        ExecResult result = executeTool(action);
 
         if (result.getExitValue() != 0) {
-            throw new GradleException("Error running wsimport");
+            throw new GradleException(String.format("Error running xjc for namespaces %s", pass.getNamespaces()));
+        }
+    }
+
+    /**
+     * Get the number of schema compiler passes to run concurrently
+     *
+     * If no maximum is set, the number is derived from the memory budget of the {@link ForkScheduler} and the maximum
+     * heap size of a pass, but never exceeds the number of available processors.
+     *
+     * @return Number of passes to run concurrently
+     */
+    protected int getParallelPasses() {
+        if (getMaxParallelPasses() > 0) {
+            return getMaxParallelPasses();
+        }
+
+        String heapSize = getMaxHeapSize();
+        long passMemory = heapSize != null ? parseMemorySize(heapSize) : DEFAULT_PASS_MEMORY;
+        long passes = Math.min(Runtime.getRuntime().availableProcessors(),
+                ForkScheduler.getInstance().getMemoryBudget() / passMemory);
+        return (int) Math.max(1, passes);
+    }
+
+    /**
+     * Parse a memory size like <code>512m</code>
+     *
+     * @param size Memory size with optional unit suffix k, m or g
+     * @return Memory size in bytes
+     */
+    protected static long parseMemorySize(String size) {
+        String value = size.trim().toLowerCase(Locale.ROOT);
+        long factor = 1;
+
+        if (value.endsWith("k")) {
+            factor = 1024L;
+        }
+        else if (value.endsWith("m")) {
+            factor = 1024L * 1024L;
+        }
+        else if (value.endsWith("g")) {
+            factor = 1024L * 1024L * 1024L;
+        }
+
+        if (factor > 1) {
+            value = value.substring(0, value.length() - 1);
+        }
+
+        try {
+            return Long.parseLong(value) * factor;
+        }
+        catch (NumberFormatException e) {
+            throw new GradleException(String.format("Illegal memory size '%s'", size), e);
         }
     }
 
@@ -235,6 +1354,7 @@ public class WsimportTask extends ConventionTask {
      * @return WSDLs to compile
      */
     @InputFiles
+    @SkipWhenEmpty
     public @Nullable FileTree getWsdls() {
         return this.wsdls;
     }
@@ -285,6 +1405,354 @@ public class WsimportTask extends ConventionTask {
         this.xjcExtensions = Objects.requireNonNull(ImmutableList.copyOf(extensions));
     }
 
+    /**
+     * Get the patterns of operations to include
+     *
+     * @return Patterns of operations to include, empty to include all operations
+     */
+    public List<String> getOperationIncludes() {
+        return this.operationIncludes;
+    }
+
+    /**
+     * Set the patterns of operations to include
+     *
+     * @param includes Patterns of operations to include, empty to include all operations
+     */
+    public void setOperationIncludes(List<String> includes) {
+        this.operationIncludes = Objects.requireNonNull(ImmutableList.copyOf(includes));
+    }
+
+    /**
+     * Get the patterns of operations to exclude
+     *
+     * @return Patterns of operations to exclude
+     */
+    public List<String> getOperationExcludes() {
+        return this.operationExcludes;
+    }
+
+    /**
+     * Set the patterns of operations to exclude
+     *
+     * @param excludes Patterns of operations to exclude
+     */
+    public void setOperationExcludes(List<String> excludes) {
+        this.operationExcludes = Objects.requireNonNull(ImmutableList.copyOf(excludes));
+    }
+
+    /**
+     * Get the patterns of port types and operations to generate asynchronous methods for
+     *
+     * @return Patterns of port types and operations, empty to generate no asynchronous methods
+     */
+    public List<String> getAsyncPortTypes() {
+        return this.asyncPortTypes;
+    }
+
+    /**
+     * Set the patterns of port types and operations to generate asynchronous methods for
+     *
+     * @param portTypes Patterns of port types and operations, empty to generate no asynchronous methods
+     */
+    public void setAsyncPortTypes(List<String> portTypes) {
+        this.asyncPortTypes = Objects.requireNonNull(ImmutableList.copyOf(portTypes));
+    }
+
+    /**
+     * Check if adapters returning completable futures are generated for the asynchronous methods
+     *
+     * @return <code>true</code> if adapters are generated
+     */
+    public boolean isAsyncAdapters() {
+        return this.asyncAdapters;
+    }
+
+    /**
+     * Set if adapters returning completable futures are generated for the asynchronous methods
+     *
+     * @param asyncAdapters <code>true</code> if adapters are generated
+     */
+    public void setAsyncAdapters(boolean asyncAdapters) {
+        this.asyncAdapters = asyncAdapters;
+    }
+
+    /**
+     * Check if binary content is mapped to streamed attachments
+     *
+     * @return <code>true</code> if binary content is mapped to streamed attachments
+     */
+    public boolean isStreamingAttachments() {
+        return this.streamingAttachments;
+    }
+
+    /**
+     * Set if binary content is mapped to streamed attachments
+     *
+     * @param streamingAttachments <code>true</code> if binary content is mapped to streamed attachments
+     */
+    public void setStreamingAttachments(boolean streamingAttachments) {
+        this.streamingAttachments = streamingAttachments;
+    }
+
+    /**
+     * Get the size from which binary content is sent as attachment
+     *
+     * @return Size in bytes
+     */
+    public int getAttachmentThreshold() {
+        return this.attachmentThreshold;
+    }
+
+    /**
+     * Set the size from which binary content is sent as attachment
+     *
+     * @param attachmentThreshold Size in bytes
+     */
+    public void setAttachmentThreshold(int attachmentThreshold) {
+        this.attachmentThreshold = attachmentThreshold;
+    }
+
+    /**
+     * Get the sizes from which binary content is sent as attachment for individual port types
+     *
+     * @return Sizes in bytes by port type
+     */
+    public Map<String, Integer> getAttachmentThresholds() {
+        return this.attachmentThresholds;
+    }
+
+    /**
+     * Set the sizes from which binary content is sent as attachment for individual port types
+     *
+     * @param attachmentThresholds Sizes in bytes by port type
+     */
+    public void setAttachmentThresholds(Map<String, Integer> attachmentThresholds) {
+        this.attachmentThresholds = Objects.requireNonNull(ImmutableMap.copyOf(attachmentThresholds));
+    }
+
+    /**
+     * Get the number of bytes of an attachment kept in memory before it is written to a temporary file
+     *
+     * @return Number of bytes
+     */
+    public long getAttachmentMemoryThreshold() {
+        return this.attachmentMemoryThreshold;
+    }
+
+    /**
+     * Set the number of bytes of an attachment kept in memory before it is written to a temporary file
+     *
+     * @param attachmentMemoryThreshold Number of bytes
+     */
+    public void setAttachmentMemoryThreshold(long attachmentMemoryThreshold) {
+        this.attachmentMemoryThreshold = attachmentMemoryThreshold;
+    }
+
+    /**
+     * Check if handlers recording metrics of the calls of the generated clients are generated
+     *
+     * @return <code>true</code> if metrics handlers are generated
+     */
+    public boolean isMetrics() {
+        return this.metrics;
+    }
+
+    /**
+     * Set if handlers recording metrics of the calls of the generated clients are generated
+     *
+     * @param metrics <code>true</code> if metrics handlers are generated
+     */
+    public void setMetrics(boolean metrics) {
+        this.metrics = metrics;
+    }
+
+    /**
+     * Get the package of the generated metrics classes
+     *
+     * @return Package of the generated metrics classes
+     */
+    public String getMetricsPackage() {
+        return this.metricsPackage;
+    }
+
+    /**
+     * Set the package of the generated metrics classes
+     *
+     * @param metricsPackage Package of the generated metrics classes
+     */
+    public void setMetricsPackage(String metricsPackage) {
+        this.metricsPackage = metricsPackage;
+    }
+
+    /**
+     * Get the maximum heap size of the forked tool processes
+     *
+     * @return Maximum heap size, e.g. <code>512m</code>
+     */
+    public @Nullable String getMaxHeapSize() {
+        return this.maxHeapSize;
+    }
+
+    /**
+     * Set the maximum heap size of the forked tool processes
+     *
+     * @param maxHeapSize Maximum heap size, e.g. <code>512m</code>
+     */
+    public void setMaxHeapSize(@Nullable String maxHeapSize) {
+        this.maxHeapSize = maxHeapSize;
+    }
+
+    /**
+     * Get the home directory of the Java installation used to run the tools
+     *
+     * @return Java home directory, <code>null</code> to use the build JVM
+     */
+    public @Nullable File getJavaHome() {
+        return this.javaHome;
+    }
+
+    /**
+     * Set the home directory of the Java installation used to run the tools
+     *
+     * @param javaHome Java home directory, <code>null</code> to use the build JVM
+     */
+    public void setJavaHome(@Nullable File javaHome) {
+        this.javaHome = javaHome;
+    }
+
+    /**
+     * Get the API packages the generated code should use
+     *
+     * @return API packages, either {@value ApiPackageMapper#JAVAX} or {@value ApiPackageMapper#JAKARTA}, or
+     *         <code>null</code> to keep the packages used by the tools
+     */
+    public @Nullable String getApiPackage() {
+        return this.apiPackage;
+    }
+
+    /**
+     * Set the API packages the generated code should use
+     *
+     * @param apiPackage API packages, either {@value ApiPackageMapper#JAVAX} or {@value ApiPackageMapper#JAKARTA}, or
+     *            <code>null</code> to keep the packages used by the tools
+     */
+    public void setApiPackage(@Nullable String apiPackage) {
+        this.apiPackage = apiPackage;
+    }
+
+    /**
+     * Get the file to write the statistics of the generated code to
+     *
+     * @return Statistics file, <code>null</code> to not write statistics
+     */
+    @OutputFile
+    @org.gradle.api.tasks.Optional
+    public @Nullable File getStatisticsFile() {
+        return this.statisticsFile;
+    }
+
+    /**
+     * Set the file to write the statistics of the generated code to
+     *
+     * @param statisticsFile Statistics file, <code>null</code> to not write statistics
+     */
+    public void setStatisticsFile(@Nullable File statisticsFile) {
+        this.statisticsFile = statisticsFile;
+    }
+
+    /**
+     * Check if the imported schemas are compiled in separate passes per namespace
+     *
+     * @return <code>true</code> to compile the imported schemas in separate passes per namespace
+     */
+    public boolean isSplitByNamespace() {
+        return this.splitByNamespace;
+    }
+
+    /**
+     * Set if the imported schemas are compiled in separate passes per namespace
+     *
+     * @param splitByNamespace <code>true</code> to compile the imported schemas in separate passes per namespace
+     */
+    public void setSplitByNamespace(boolean splitByNamespace) {
+        this.splitByNamespace = splitByNamespace;
+    }
+
+    /**
+     * Get the maximum number of concurrent schema compiler passes
+     *
+     * @return Maximum number of concurrent passes, 0 to derive it from the available memory
+     */
+    public int getMaxParallelPasses() {
+        return this.maxParallelPasses;
+    }
+
+    /**
+     * Set the maximum number of concurrent schema compiler passes
+     *
+     * @param maxParallelPasses Maximum number of concurrent passes, 0 to derive it from the available memory
+     */
+    public void setMaxParallelPasses(int maxParallelPasses) {
+        this.maxParallelPasses = maxParallelPasses;
+    }
+
+    /**
+     * Check if WSDL files whose inputs and outputs did not change since the last run are skipped
+     *
+     * @return <code>true</code> to skip unchanged WSDL files
+     */
+    public boolean isIncremental() {
+        return this.incremental;
+    }
+
+    /**
+     * Set if WSDL files whose inputs and outputs did not change since the last run are skipped
+     *
+     * @param incremental <code>true</code> to skip unchanged WSDL files
+     */
+    public void setIncremental(boolean incremental) {
+        this.incremental = incremental;
+    }
+
+    /**
+     * Check if the code for each WSDL file is generated in a separate staging directory
+     *
+     * @return <code>true</code> to generate the code for each WSDL file in a separate staging directory
+     */
+    public boolean isIsolatedOutputs() {
+        return this.isolatedOutputs;
+    }
+
+    /**
+     * Set if the code for each WSDL file is generated in a separate staging directory
+     *
+     * @param isolatedOutputs <code>true</code> to generate the code for each WSDL file in a separate staging directory
+     */
+    public void setIsolatedOutputs(boolean isolatedOutputs) {
+        this.isolatedOutputs = isolatedOutputs;
+    }
+
+    /**
+     * Check if the code generated for identical WSDL files in the same build is reused
+     *
+     * @return <code>true</code> to reuse the code generated for identical WSDL files
+     */
+    public boolean isDeduplicate() {
+        return this.deduplicate;
+    }
+
+    /**
+     * Set if the code generated for identical WSDL files in the same build is reused
+     *
+     * Deduplication implies that the code for each WSDL file is generated in a separate staging directory.
+     *
+     * @param deduplicate <code>true</code> to reuse the code generated for identical WSDL files
+     */
+    public void setDeduplicate(boolean deduplicate) {
+        this.deduplicate = deduplicate;
+    }
+
     /**
      * Get the factory used to create executor for wsimport
      *
@@ -0,0 +1,525 @@
+/**
+ * BSD 2-Clause License
+ *
+ * Copyright (c) 2016-2017, Jochen Seeber
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package me.seeber.gradle.wsimport.xjc;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+import javax.xml.namespace.QName;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import javax.xml.stream.XMLStreamWriter;
+import javax.xml.transform.Source;
+
+import com.sun.codemodel.JBlock;
+import com.sun.codemodel.JClass;
+import com.sun.codemodel.JClassAlreadyExistsException;
+import com.sun.codemodel.JCodeModel;
+import com.sun.codemodel.JConditional;
+import com.sun.codemodel.JDefinedClass;
+import com.sun.codemodel.JExpr;
+import com.sun.codemodel.JForEach;
+import com.sun.codemodel.JMethod;
+import com.sun.codemodel.JMod;
+import com.sun.codemodel.JPackage;
+import com.sun.codemodel.JType;
+import com.sun.codemodel.JWhileLoop;
+import com.sun.tools.xjc.outline.ClassOutline;
+
+/**
+ * Generate StAX marshallers for generated types
+ *
+ * The generated code only depends on the StAX API, the <code>DatatypeConverter</code> of the JAXB API and the
+ * <code>Dispatch</code> interface of the JAX-WS API, so it does not require this plugin at runtime.
+ */
+public class StaxMarshallerGenerator {
+
+    /**
+     * Suffix of the marshaller class names
+     */
+    protected static final String MARSHALLER_SUFFIX = "StaxMarshaller";
+
+    /**
+     * Name of the registry class generated in each package
+     */
+    protected static final String REGISTRY_NAME = "StaxMarshallers";
+
+    /**
+     * Code model to generate the marshallers in
+     */
+    private final JCodeModel codeModel;
+
+    /**
+     * API of the generated code, either 'javax' or 'jakarta'
+     */
+    private final String api;
+
+    /**
+     * Create a new generator
+     *
+     * @param codeModel Code model to generate the marshallers in
+     * @param api API of the generated code, either 'javax' or 'jakarta'
+     */
+    public StaxMarshallerGenerator(JCodeModel codeModel, String api) {
+        this.codeModel = codeModel;
+        this.api = api;
+    }
+
+    /**
+     * Generate the marshaller for a type
+     *
+     * @param classOutline Type to generate the marshaller for
+     * @param properties Properties of the type
+     */
+    public void generateMarshaller(ClassOutline classOutline, List<StaxProperty> properties) {
+        JDefinedClass marshaller = createClass(classOutline.implClass._package(), getMarshallerName(classOutline));
+        JClass type = classOutline.implClass;
+
+        marshaller.javadoc().add(String.format("StAX marshaller for {@link %s}", type.fullName()));
+        marshaller.constructor(JMod.PRIVATE);
+
+        if (properties.stream().anyMatch(p -> p.parse("").contains("DATATYPE_FACTORY"))) {
+            marshaller.field(JMod.PRIVATE | JMod.STATIC | JMod.FINAL, javax.xml.datatype.DatatypeFactory.class,
+                    "DATATYPE_FACTORY");
+            marshaller.init().directStatement("try { DATATYPE_FACTORY = javax.xml.datatype.DatatypeFactory"
+                    + ".newInstance(); } catch (javax.xml.datatype.DatatypeConfigurationException e) { "
+                    + "throw new ExceptionInInitializerError(e); }");
+        }
+
+        if (classOutline.target.isElement()) {
+            QName elementName = Objects.requireNonNull(classOutline.target.getElementName());
+            JMethod write = marshaller.method(JMod.PUBLIC | JMod.STATIC, this.codeModel.VOID, "write");
+            write.javadoc().add("Write a value as root element");
+            write._throws(XMLStreamException.class);
+            write.param(XMLStreamWriter.class, "writer");
+            write.param(type, "value");
+            write.body().directStatement(String.format("write(writer, %s, %s, value);",
+                    literal(elementName.getNamespaceURI()), literal(elementName.getLocalPart())));
+        }
+
+        generateWrite(marshaller, type, properties);
+        generateRead(marshaller, type, properties);
+        generateHelpers(marshaller);
+    }
+
+    /**
+     * Generate the registries of the marshallers for root elements, one for each package
+     *
+     * @param classOutlines Types with generated marshallers
+     */
+    public void generateRegistries(Collection<ClassOutline> classOutlines) {
+        Map<JPackage, List<ClassOutline>> packages = new LinkedHashMap<>();
+
+        for (ClassOutline classOutline : classOutlines) {
+            if (classOutline.target.isElement()) {
+                packages.computeIfAbsent(classOutline.implClass._package(), p -> new ArrayList<>()).add(classOutline);
+            }
+        }
+
+        for (Map.Entry<JPackage, List<ClassOutline>> entry : packages.entrySet()) {
+            JDefinedClass registry = createClass(Objects.requireNonNull(entry.getKey()), REGISTRY_NAME);
+            registry.javadoc().add("StAX marshallers for the root elements of this package");
+            registry.constructor(JMod.PRIVATE);
+
+            JMethod canWrite = registry.method(JMod.PUBLIC | JMod.STATIC, this.codeModel.BOOLEAN, "canWrite");
+            canWrite.javadoc().add("Check if a value can be written by a StAX marshaller");
+            canWrite.param(Object.class, "value");
+
+            JMethod write = registry.method(JMod.PUBLIC | JMod.STATIC, this.codeModel.VOID, "write");
+            write.javadoc().add("Write a value as root element with its StAX marshaller");
+            write._throws(XMLStreamException.class);
+            write.param(XMLStreamWriter.class, "writer");
+            write.param(Object.class, "value");
+
+            JMethod canRead = registry.method(JMod.PUBLIC | JMod.STATIC, this.codeModel.BOOLEAN, "canRead");
+            canRead.javadoc().add("Check if the element at the current position can be read by a StAX marshaller");
+            canRead.param(XMLStreamReader.class, "reader");
+
+            JMethod read = registry.method(JMod.PUBLIC | JMod.STATIC, Object.class, "read");
+            read.javadoc().add("Read the element at the current position with its StAX marshaller");
+            read._throws(XMLStreamException.class);
+            read.param(XMLStreamReader.class, "reader");
+
+            List<String> classTests = new ArrayList<>();
+            List<String> nameTests = new ArrayList<>();
+            JConditional writeDispatch = null;
+            JConditional readDispatch = null;
+
+            for (ClassOutline classOutline : entry.getValue()) {
+                QName elementName = Objects.requireNonNull(classOutline.target.getElementName());
+                String marshallerName = getMarshallerClassName(classOutline);
+                String classTest = String.format("value.getClass() == %s.class", classOutline.implClass.fullName());
+                String nameTest = String.format(
+                        "%s.equals(reader.getNamespaceURI()) && %s.equals(reader.getLocalName())",
+                        literal(elementName.getNamespaceURI()), literal(elementName.getLocalPart()));
+
+                classTests.add(classTest);
+                nameTests.add(nameTest);
+
+                writeDispatch = writeDispatch == null ? write.body()._if(JExpr.direct(classTest))
+                        : writeDispatch._elseif(JExpr.direct(classTest));
+                writeDispatch._then().directStatement(String.format("%s.write(writer, (%s) value);", marshallerName,
+                        classOutline.implClass.fullName()));
+
+                readDispatch = readDispatch == null ? read.body()._if(JExpr.direct(nameTest))
+                        : readDispatch._elseif(JExpr.direct(nameTest));
+                readDispatch._then().directStatement(String.format("return %s.read(reader);", marshallerName));
+            }
+
+            canWrite.body().directStatement(String.format("return %s;", String.join(" || ", classTests)));
+            canRead.body().directStatement(String.format("return %s;", String.join(" || ", nameTests)));
+            Objects.requireNonNull(writeDispatch)._else().directStatement(
+                    "throw new IllegalArgumentException(\"No StAX marshaller for \" + value.getClass());");
+            read.body().directStatement(
+                    "throw new IllegalArgumentException(\"No StAX marshaller for element \" + reader.getName());");
+
+            generateInvoke(registry);
+        }
+    }
+
+    /**
+     * Generate the method invoking an operation through a dispatch with the marshallers of a registry
+     *
+     * The JAX-WS runtime does not allow to replace the JAXB data binding of a generated port, so the marshallers are
+     * used with a <code>Dispatch&lt;Source&gt;</code> in payload mode instead.
+     *
+     * @param registry Registry class
+     */
+    protected void generateInvoke(JDefinedClass registry) {
+        registry.field(JMod.PRIVATE | JMod.STATIC | JMod.FINAL, javax.xml.stream.XMLInputFactory.class,
+                "INPUT_FACTORY", JExpr.direct("javax.xml.stream.XMLInputFactory.newInstance()"));
+        registry.field(JMod.PRIVATE | JMod.STATIC | JMod.FINAL, javax.xml.stream.XMLOutputFactory.class,
+                "OUTPUT_FACTORY", JExpr.direct("javax.xml.stream.XMLOutputFactory.newInstance()"));
+
+        JClass source = this.codeModel.ref(Source.class);
+        JMethod invoke = registry.method(JMod.PUBLIC | JMod.STATIC, Object.class, "invoke");
+        invoke.javadoc().add("Invoke an operation through a dispatch in payload mode, writing the request and reading "
+                + "the response with the StAX marshallers");
+        invoke._throws(XMLStreamException.class);
+        invoke.param(this.codeModel.ref(this.api + ".xml.ws.Dispatch").narrow(source), "dispatch");
+        invoke.param(Object.class, "request");
+
+        JBlock body = invoke.body();
+        body.directStatement("java.io.ByteArrayOutputStream buffer = new java.io.ByteArrayOutputStream();");
+        body.directStatement("XMLStreamWriter writer = OUTPUT_FACTORY.createXMLStreamWriter(buffer, \"UTF-8\");");
+        body.directStatement("try { write(writer, request); } finally { writer.close(); }");
+        body.directStatement("Source response = dispatch.invoke(new javax.xml.transform.stream.StreamSource("
+                + "new java.io.ByteArrayInputStream(buffer.toByteArray())));");
+        body._if(JExpr.direct("response == null"))._then()._return(JExpr._null());
+
+        JBlock copy = body._if(JExpr.direct("!(response instanceof javax.xml.transform.stream.StreamSource) "
+                + "&& !(response instanceof javax.xml.transform.stax.StAXSource)"))._then();
+        copy.directStatement("buffer.reset();");
+        copy.directStatement("try { javax.xml.transform.TransformerFactory.newInstance().newTransformer().transform("
+                + "response, new javax.xml.transform.stream.StreamResult(buffer)); } "
+                + "catch (javax.xml.transform.TransformerException e) { throw new XMLStreamException(e); }");
+        copy.directStatement("response = new javax.xml.transform.stream.StreamSource("
+                + "new java.io.ByteArrayInputStream(buffer.toByteArray()));");
+
+        body.directStatement("XMLStreamReader reader = INPUT_FACTORY.createXMLStreamReader(response);");
+        body.directStatement("try { reader.nextTag(); return read(reader); } finally { reader.close(); }");
+    }
+
+    /**
+     * Generate the method writing a value
+     *
+     * @param marshaller Marshaller class
+     * @param type Type of the value
+     * @param properties Properties of the type
+     */
+    protected void generateWrite(JDefinedClass marshaller, JClass type, List<StaxProperty> properties) {
+        JMethod write = marshaller.method(JMod.PUBLIC | JMod.STATIC, this.codeModel.VOID, "write");
+        write.javadoc().add("Write a value as element with the given name");
+        write._throws(XMLStreamException.class);
+        write.param(XMLStreamWriter.class, "writer");
+        write.param(String.class, "namespace");
+        write.param(String.class, "localName");
+        write.param(type, "value");
+
+        JBlock body = write.body();
+        body.directStatement("writeStartElement(writer, namespace, localName);");
+
+        for (StaxProperty property : properties) {
+            if (property.getKind() == StaxProperty.Kind.ATTRIBUTE) {
+                QName name = Objects.requireNonNull(property.getName());
+                JBlock block = writeBlock(body, property);
+                block.directStatement(String.format("writeAttribute(writer, %s, %s, %s);",
+                        literal(name.getNamespaceURI()), literal(name.getLocalPart()), property.print("item")));
+            }
+        }
+
+        for (StaxProperty property : properties) {
+            if (property.getKind() == StaxProperty.Kind.VALUE) {
+                JBlock block = writeBlock(body, property);
+                block.directStatement(String.format("writer.writeCharacters(%s);", property.print("item")));
+            }
+            else if (property.getKind() == StaxProperty.Kind.ELEMENT) {
+                QName name = Objects.requireNonNull(property.getName());
+                JBlock block = writeBlock(body, property);
+                ClassOutline propertyType = property.getType();
+
+                if (propertyType != null) {
+                    block.directStatement(String.format("%s.write(writer, %s, %s, item);",
+                            getMarshallerClassName(propertyType), literal(name.getNamespaceURI()),
+                            literal(name.getLocalPart())));
+                }
+                else {
+                    block.directStatement(String.format("writeStartElement(writer, %s, %s);",
+                            literal(name.getNamespaceURI()), literal(name.getLocalPart())));
+                    block.directStatement(String.format("writer.writeCharacters(%s);", property.print("item")));
+                    block.directStatement("writer.writeEndElement();");
+                }
+            }
+        }
+
+        body.directStatement("writer.writeEndElement();");
+    }
+
+    /**
+     * Create the block writing a property
+     *
+     * The block declares the variable <code>item</code>, which contains the value of the property or of an item of a
+     * collection property, and is only executed if the value is not <code>null</code>.
+     *
+     * @param body Body of the write method
+     * @param property Property to write
+     * @return Block writing the property
+     */
+    protected JBlock writeBlock(JBlock body, StaxProperty property) {
+        JType itemType = this.codeModel.directClass(property.getItemType());
+
+        if (property.isCollection()) {
+            JForEach loop = body.forEach(itemType, "item", JExpr.direct("value." + property.getGetter() + "()"));
+            return loop.body()._if(JExpr.direct("item != null"))._then();
+        }
+
+        JBlock block = body.block();
+
+        if (property.isPrimitive()) {
+            block.directStatement(String.format("%s item = value.%s();", property.getItemType(), property.getGetter()));
+            return block;
+        }
+
+        block.decl(itemType, "item", JExpr.direct("value." + property.getGetter() + "()"));
+        return block._if(JExpr.direct("item != null"))._then();
+    }
+
+    /**
+     * Generate the method reading a value
+     *
+     * @param marshaller Marshaller class
+     * @param type Type of the value
+     * @param properties Properties of the type
+     */
+    protected void generateRead(JDefinedClass marshaller, JClass type, List<StaxProperty> properties) {
+        JMethod read = marshaller.method(JMod.PUBLIC | JMod.STATIC, type, "read");
+        read.javadoc().add("Read a value from the element at the current position");
+        read.javadoc().add(" The reader is positioned on the end of the element afterwards.");
+        read._throws(XMLStreamException.class);
+        read.param(XMLStreamReader.class, "reader");
+
+        JBlock body = read.body();
+        body.decl(type, "value", JExpr._new(type));
+
+        for (StaxProperty property : properties) {
+            if (property.getKind() == StaxProperty.Kind.ATTRIBUTE) {
+                QName name = Objects.requireNonNull(property.getName());
+                JBlock block = body.block();
+                block.decl(this.codeModel.ref(String.class), "text", JExpr.direct(String.format(
+                        "reader.getAttributeValue(%s, %s)", name.getNamespaceURI().isEmpty() ? "null"
+                                : literal(name.getNamespaceURI()), literal(name.getLocalPart()))));
+                block._if(JExpr.direct("text != null"))._then().directStatement(
+                        String.format("value.%s(%s);", property.getSetter(), property.parse("text")));
+            }
+        }
+
+        for (StaxProperty property : properties) {
+            if (property.getKind() == StaxProperty.Kind.VALUE) {
+                body.directStatement(String.format("value.%s(%s);", property.getSetter(),
+                        property.parse("reader.getElementText()")));
+                body._return(JExpr.direct("value"));
+                return;
+            }
+        }
+
+        JWhileLoop loop = body._while(JExpr.direct(
+                "reader.nextTag() == javax.xml.stream.XMLStreamConstants.START_ELEMENT"));
+        loop.body().decl(this.codeModel.ref(String.class), "namespace", JExpr.direct(
+                "reader.getNamespaceURI() != null ? reader.getNamespaceURI() : \"\""));
+        loop.body().decl(this.codeModel.ref(String.class), "localName", JExpr.direct("reader.getLocalName()"));
+        JConditional dispatch = null;
+
+        for (StaxProperty property : properties) {
+            if (property.getKind() != StaxProperty.Kind.ELEMENT) {
+                continue;
+            }
+
+            QName name = Objects.requireNonNull(property.getName());
+            String test = String.format("%s.equals(namespace) && %s.equals(localName)", literal(name.getNamespaceURI()),
+                    literal(name.getLocalPart()));
+            ClassOutline propertyType = property.getType();
+            String item = propertyType != null ? getMarshallerClassName(propertyType) + ".read(reader)"
+                    : property.parse("reader.getElementText()");
+
+            dispatch = dispatch == null ? loop.body()._if(JExpr.direct(test)) : dispatch._elseif(JExpr.direct(test));
+
+            if (property.isCollection()) {
+                dispatch._then().directStatement(String.format("value.%s().add(%s);", property.getGetter(), item));
+            }
+            else {
+                dispatch._then().directStatement(String.format("value.%s(%s);", property.getSetter(), item));
+            }
+        }
+
+        JBlock skip = dispatch != null ? dispatch._else() : loop.body();
+        skip.directStatement("skipElement(reader);");
+        body._return(JExpr.direct("value"));
+    }
+
+    /**
+     * Generate the private helper methods of a marshaller
+     *
+     * @param marshaller Marshaller class
+     */
+    protected void generateHelpers(JDefinedClass marshaller) {
+        JMethod start = marshaller.method(JMod.PRIVATE | JMod.STATIC, this.codeModel.VOID, "writeStartElement");
+        start._throws(XMLStreamException.class);
+        start.param(XMLStreamWriter.class, "writer");
+        start.param(String.class, "namespace");
+        start.param(String.class, "localName");
+        start.body().directStatement("String prefix = namespace.isEmpty() ? \"\" : "
+                + "writer.getNamespaceContext().getPrefix(namespace);");
+        start.body().directStatement("String defaultNamespace = writer.getNamespaceContext().getNamespaceURI(\"\");");
+        JConditional unbound = start.body()._if(JExpr.direct("prefix == null"));
+        unbound._then().directStatement("prefix = createPrefix(writer);");
+        unbound._then().directStatement("writer.writeStartElement(prefix, localName, namespace);");
+        unbound._then().directStatement("writer.writeNamespace(prefix, namespace);");
+        JConditional unqualified = unbound._elseif(JExpr.direct(
+                "namespace.isEmpty() && defaultNamespace != null && !defaultNamespace.isEmpty()"));
+        unqualified._then().directStatement("writer.writeStartElement(\"\", localName, \"\");");
+        unqualified._then().directStatement("writer.writeDefaultNamespace(\"\");");
+        unqualified._else().directStatement("writer.writeStartElement(prefix, localName, namespace);");
+
+        JMethod attribute = marshaller.method(JMod.PRIVATE | JMod.STATIC, this.codeModel.VOID, "writeAttribute");
+        attribute._throws(XMLStreamException.class);
+        attribute.param(XMLStreamWriter.class, "writer");
+        attribute.param(String.class, "namespace");
+        attribute.param(String.class, "localName");
+        attribute.param(String.class, "text");
+        JConditional qualified = attribute.body()._if(JExpr.direct("namespace.isEmpty()"));
+        qualified._then().directStatement("writer.writeAttribute(localName, text);");
+        qualified._else().directStatement("String prefix = writer.getNamespaceContext().getPrefix(namespace);");
+        JConditional unboundAttribute = qualified._else()._if(JExpr.direct("prefix == null || prefix.isEmpty()"));
+        unboundAttribute._then().directStatement("prefix = createPrefix(writer);");
+        unboundAttribute._then().directStatement("writer.writeNamespace(prefix, namespace);");
+        qualified._else().directStatement("writer.writeAttribute(prefix, namespace, localName, text);");
+
+        JMethod prefix = marshaller.method(JMod.PRIVATE | JMod.STATIC, String.class, "createPrefix");
+        prefix.param(XMLStreamWriter.class, "writer");
+        prefix.body().directStatement("int index = 1;");
+        prefix.body()._while(JExpr.direct("writer.getNamespaceContext().getNamespaceURI(\"ns\" + index) != null "
+                + "&& !writer.getNamespaceContext().getNamespaceURI(\"ns\" + index).isEmpty()")).body()
+                .directStatement("++index;");
+        prefix.body()._return(JExpr.direct("\"ns\" + index"));
+
+        JMethod skip = marshaller.method(JMod.PRIVATE | JMod.STATIC, this.codeModel.VOID, "skipElement");
+        skip._throws(XMLStreamException.class);
+        skip.param(XMLStreamReader.class, "reader");
+        skip.body().directStatement("int depth = 1;");
+        JWhileLoop loop = skip.body()._while(JExpr.direct("depth > 0"));
+        loop.body().directStatement("int event = reader.next();");
+        JConditional event = loop.body()._if(JExpr.direct(
+                "event == javax.xml.stream.XMLStreamConstants.START_ELEMENT"));
+        event._then().directStatement("++depth;");
+        event._elseif(JExpr.direct("event == javax.xml.stream.XMLStreamConstants.END_ELEMENT"))._then()
+                .directStatement("--depth;");
+    }
+
+    /**
+     * Create a class in the code model
+     *
+     * @param targetPackage Package to create the class in
+     * @param name Simple name of the class
+     * @return Created class
+     */
+    protected JDefinedClass createClass(JPackage targetPackage, String name) {
+        try {
+            return targetPackage._class(JMod.PUBLIC | JMod.FINAL, name);
+        }
+        catch (JClassAlreadyExistsException e) {
+            throw new IllegalStateException(String.format("Class %s already exists in package %s", name,
+                    targetPackage.name()), e);
+        }
+    }
+
+    /**
+     * Get the simple name of the marshaller for a type
+     *
+     * Nested types are flattened, so the marshaller for <code>Outer.Inner</code> is
+     * <code>OuterInnerStaxMarshaller</code>.
+     *
+     * @param classOutline Type
+     * @return Simple name of the marshaller
+     */
+    protected static String getMarshallerName(ClassOutline classOutline) {
+        StringBuilder name = new StringBuilder();
+
+        for (JClass type = classOutline.implClass; type != null; type = type.outer()) {
+            name.insert(0, type.name());
+        }
+
+        return name.append(MARSHALLER_SUFFIX).toString();
+    }
+
+    /**
+     * Get the fully qualified name of the marshaller for a type
+     *
+     * @param classOutline Type
+     * @return Fully qualified name of the marshaller
+     */
+    protected static String getMarshallerClassName(ClassOutline classOutline) {
+        String packageName = classOutline.implClass._package().name();
+        String name = getMarshallerName(classOutline);
+        return packageName.isEmpty() ? name : packageName + "." + name;
+    }
+
+    /**
+     * Create a Java string literal
+     *
+     * @param value Value of the literal
+     * @return Java string literal
+     */
+    protected static String literal(String value) {
+        return "\"" + value.replace("\\", "\\\\").replace("\"", "\\\"") + "\"";
+    }
+
+}
@@ -0,0 +1,517 @@
+/**
+ * BSD 2-Clause License
+ *
+ * Copyright (c) 2016-2017, Jochen Seeber
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package me.seeber.gradle.wsimport.xjc;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+import javax.xml.namespace.QName;
+
+import org.eclipse.jdt.annotation.Nullable;
+import org.xml.sax.ErrorHandler;
+import org.xml.sax.SAXException;
+import org.xml.sax.SAXParseException;
+
+import com.sun.codemodel.JAnnotationUse;
+import com.sun.codemodel.JDefinedClass;
+import com.sun.codemodel.JMethod;
+import com.sun.codemodel.JType;
+import com.sun.tools.xjc.Options;
+import com.sun.tools.xjc.Plugin;
+import com.sun.tools.xjc.model.CAttributePropertyInfo;
+import com.sun.tools.xjc.model.CClassInfo;
+import com.sun.tools.xjc.model.CElementPropertyInfo;
+import com.sun.tools.xjc.model.CEnumLeafInfo;
+import com.sun.tools.xjc.model.CNonElement;
+import com.sun.tools.xjc.model.CPluginCustomization;
+import com.sun.tools.xjc.model.CPropertyInfo;
+import com.sun.tools.xjc.model.CTypeRef;
+import com.sun.tools.xjc.model.CValuePropertyInfo;
+import com.sun.tools.xjc.outline.Aspect;
+import com.sun.tools.xjc.outline.ClassOutline;
+import com.sun.tools.xjc.outline.Outline;
+import com.sun.tools.xjc.reader.xmlschema.bindinfo.BIDeclaration;
+import com.sun.tools.xjc.reader.xmlschema.bindinfo.BIXPluginCustomization;
+import com.sun.tools.xjc.reader.xmlschema.bindinfo.BindInfo;
+import com.sun.xml.xsom.XSAnnotation;
+import com.sun.xml.xsom.XSComplexType;
+import com.sun.xml.xsom.XSComponent;
+
+import me.seeber.gradle.wsimport.ApiPackageMapper;
+
+/**
+ * XJC plugin that generates StAX marshallers for selected types
+ *
+ * Types are selected with the customization <code>&lt;stax:marshaller/&gt;</code> on a complex type or element in a
+ * binding file. The complex types used by a selected type are selected as well. Types that contain constructs the
+ * marshallers do not support, e.g. wildcards, nillable elements, choices or polymorphic types, are skipped with a
+ * warning and are left to JAXB.
+ */
+public class StaxMarshallerPlugin extends Plugin {
+
+    /**
+     * Name of the XJC option enabling the plugin
+     */
+    public static final String OPTION_NAME = "Xstax-marshaller";
+
+    /**
+     * Namespace of the customizations
+     */
+    public static final String NAMESPACE = "http://seeber.me/gradle/wsimport/stax";
+
+    /**
+     * Local name of the customization selecting a type
+     */
+    public static final String CUSTOMIZATION_NAME = "marshaller";
+
+    /**
+     * Conversions of simple Java types of the current run, mapping the type name to the print and parse format
+     */
+    private Map<String, String[]> conversions = Collections.emptyMap();
+
+    /**
+     * @see com.sun.tools.xjc.Plugin#getOptionName()
+     */
+    @Override
+    public String getOptionName() {
+        return OPTION_NAME;
+    }
+
+    /**
+     * @see com.sun.tools.xjc.Plugin#getUsage()
+     */
+    @Override
+    public String getUsage() {
+        return "  -" + OPTION_NAME + "  :  generate StAX marshallers for types customized with <stax:marshaller/>";
+    }
+
+    /**
+     * @see com.sun.tools.xjc.Plugin#getCustomizationURIs()
+     */
+    @Override
+    public List<String> getCustomizationURIs() {
+        return Objects.requireNonNull(Collections.singletonList(NAMESPACE));
+    }
+
+    /**
+     * @see com.sun.tools.xjc.Plugin#isCustomizationTagName(java.lang.String, java.lang.String)
+     */
+    @Override
+    public boolean isCustomizationTagName(@Nullable String namespace, @Nullable String localName) {
+        return NAMESPACE.equals(namespace) && CUSTOMIZATION_NAME.equals(localName);
+    }
+
+    /**
+     * @see com.sun.tools.xjc.Plugin#run(com.sun.tools.xjc.outline.Outline, com.sun.tools.xjc.Options,
+     *      org.xml.sax.ErrorHandler)
+     */
+    @Override
+    public boolean run(@Nullable Outline outline, @Nullable Options options, @Nullable ErrorHandler errorHandler)
+            throws SAXException {
+        Outline model = Objects.requireNonNull(outline);
+        ErrorHandler errors = Objects.requireNonNull(errorHandler);
+        Map<CClassInfo, ClassOutline> classes = new HashMap<>();
+        Set<CClassInfo> baseClasses = new HashSet<>();
+        Deque<ClassOutline> pending = new ArrayDeque<>();
+        String api = getApi(model);
+
+        this.conversions = createConversions(api);
+
+        for (ClassOutline classOutline : model.getClasses()) {
+            CClassInfo baseClass = classOutline.target.getBaseClass();
+            classes.put(classOutline.target, classOutline);
+
+            if (baseClass != null) {
+                baseClasses.add(baseClass);
+            }
+
+            CPluginCustomization customization = findCustomization(classOutline.target);
+
+            if (customization != null) {
+                customization.markAsAcknowledged();
+                pending.add(classOutline);
+            }
+        }
+
+        Map<ClassOutline, List<StaxProperty>> types = new LinkedHashMap<>();
+        Set<ClassOutline> rejected = new HashSet<>();
+
+        while (!pending.isEmpty()) {
+            ClassOutline classOutline = pending.pop();
+
+            if (!types.containsKey(classOutline) && !rejected.contains(classOutline)) {
+                List<String> problems = new ArrayList<>();
+                List<StaxProperty> properties = analyze(classOutline, model, classes, baseClasses, problems);
+
+                if (problems.isEmpty()) {
+                    types.put(classOutline, properties);
+
+                    for (StaxProperty property : properties) {
+                        ClassOutline type = property.getType();
+
+                        if (type != null) {
+                            pending.add(type);
+                        }
+                    }
+                }
+                else {
+                    rejected.add(classOutline);
+                    warn(errors, classOutline, problems.get(0));
+                }
+            }
+        }
+
+        boolean changed = true;
+
+        while (changed) {
+            changed = false;
+
+            for (Map.Entry<ClassOutline, List<StaxProperty>> type : new ArrayList<>(types.entrySet())) {
+                for (StaxProperty property : type.getValue()) {
+                    ClassOutline propertyType = property.getType();
+
+                    if (propertyType != null && rejected.contains(propertyType)) {
+                        types.remove(type.getKey());
+                        rejected.add(type.getKey());
+                        warn(errors, type.getKey(), String.format("Type %s of property %s is not supported",
+                                propertyType.implClass.fullName(), property.getGetter()));
+                        changed = true;
+                        break;
+                    }
+                }
+            }
+        }
+
+        StaxMarshallerGenerator generator = new StaxMarshallerGenerator(model.getCodeModel(), api);
+
+        for (Map.Entry<ClassOutline, List<StaxProperty>> type : types.entrySet()) {
+            generator.generateMarshaller(Objects.requireNonNull(type.getKey()),
+                    Objects.requireNonNull(type.getValue()));
+        }
+
+        generator.generateRegistries(types.keySet());
+
+        return true;
+    }
+
+    /**
+     * Find the customization selecting a type
+     *
+     * XJC attaches customizations of an element with an anonymous type to the element declaration, not to the class
+     * generated for the element, so the element declaration is searched as well.
+     *
+     * @param info Type to find the customization for
+     * @return Customization, <code>null</code> if the type is not selected
+     */
+    protected @Nullable CPluginCustomization findCustomization(CClassInfo info) {
+        CPluginCustomization customization = info.getCustomizations().find(NAMESPACE, CUSTOMIZATION_NAME);
+        XSComponent component = info.getSchemaComponent();
+
+        if (customization == null && component instanceof XSComplexType) {
+            component = ((XSComplexType) component).getScope();
+        }
+
+        XSAnnotation annotation = customization == null && component != null ? component.getAnnotation() : null;
+
+        if (annotation != null && annotation.getAnnotation() instanceof BindInfo) {
+            for (BIDeclaration declaration : ((BindInfo) annotation.getAnnotation()).getDecls()) {
+                if (declaration instanceof BIXPluginCustomization) {
+                    BIXPluginCustomization plugin = (BIXPluginCustomization) declaration;
+
+                    if (isCustomizationTagName(plugin.element.getNamespaceURI(), plugin.element.getLocalName())) {
+                        plugin.markAsAcknowledged();
+                        customization = new CPluginCustomization(plugin.element, plugin.getLocation());
+                    }
+                }
+            }
+        }
+
+        return customization;
+    }
+
+    /**
+     * Analyze the properties of a generated type
+     *
+     * @param classOutline Generated type
+     * @param outline Outline of the generated code
+     * @param classes Generated types by type info
+     * @param baseClasses Types that are extended by other types
+     * @param problems Problems preventing the generation of a marshaller
+     * @return Properties of the type and its base types
+     */
+    protected List<StaxProperty> analyze(ClassOutline classOutline, Outline outline,
+            Map<CClassInfo, ClassOutline> classes, Set<CClassInfo> baseClasses, List<String> problems) {
+        List<StaxProperty> properties = new ArrayList<>();
+        List<CClassInfo> hierarchy = new ArrayList<>();
+
+        if (classOutline.target.isAbstract()) {
+            problems.add("Abstract types are not supported");
+        }
+
+        for (CClassInfo info = classOutline.target; info != null; info = info.getBaseClass()) {
+            hierarchy.add(0, info);
+
+            if (info.getRefBaseClass() != null) {
+                problems.add("Types extending classes outside of the schema are not supported");
+            }
+        }
+
+        for (CClassInfo info : hierarchy) {
+            ClassOutline owner = classes.get(info);
+
+            if (owner == null) {
+                problems.add(String.format("Base type %s is not generated", info.getName()));
+                continue;
+            }
+
+            if (info.hasAttributeWildcard()) {
+                problems.add("Attribute wildcards are not supported");
+            }
+
+            for (CPropertyInfo property : info.getProperties()) {
+                StaxProperty staxProperty = analyze(owner, property, outline, classes, baseClasses, problems);
+
+                if (staxProperty != null) {
+                    properties.add(staxProperty);
+                }
+            }
+        }
+
+        return properties;
+    }
+
+    /**
+     * Analyze a single property
+     *
+     * @param owner Generated type declaring the property
+     * @param property Property to analyze
+     * @param outline Outline of the generated code
+     * @param classes Generated types by type info
+     * @param baseClasses Types that are extended by other types
+     * @param problems Problems preventing the generation of a marshaller
+     * @return Analyzed property, <code>null</code> if the property is not supported
+     */
+    protected @Nullable StaxProperty analyze(ClassOutline owner, CPropertyInfo property, Outline outline,
+            Map<CClassInfo, ClassOutline> classes, Set<CClassInfo> baseClasses, List<String> problems) {
+        String publicName = property.getName(true);
+        StaxProperty.Kind kind;
+        QName name;
+        CNonElement target;
+
+        if (property instanceof CAttributePropertyInfo) {
+            CAttributePropertyInfo attribute = (CAttributePropertyInfo) property;
+            kind = StaxProperty.Kind.ATTRIBUTE;
+            name = attribute.getXmlName();
+            target = attribute.getTarget();
+
+            if (attribute.getAdapter() != null || attribute.isCollection()) {
+                problems.add(String.format("Attribute %s uses an adapter or list type", publicName));
+                return null;
+            }
+        }
+        else if (property instanceof CValuePropertyInfo) {
+            CValuePropertyInfo value = (CValuePropertyInfo) property;
+            kind = StaxProperty.Kind.VALUE;
+            name = null;
+            target = value.getTarget();
+
+            if (value.getAdapter() != null || value.isCollection()) {
+                problems.add(String.format("Value %s uses an adapter or list type", publicName));
+                return null;
+            }
+        }
+        else if (property instanceof CElementPropertyInfo) {
+            CElementPropertyInfo element = (CElementPropertyInfo) property;
+
+            if (element.getTypes().size() != 1 || element.getAdapter() != null || element.isValueList()) {
+                problems.add(String.format("Element %s is a choice or uses an adapter or list type", publicName));
+                return null;
+            }
+
+            CTypeRef typeRef = element.getTypes().get(0);
+
+            if (typeRef.isNillable()) {
+                problems.add(String.format("Element %s is nillable", publicName));
+                return null;
+            }
+
+            kind = StaxProperty.Kind.ELEMENT;
+            name = typeRef.getTagName();
+            target = typeRef.getTarget();
+        }
+        else {
+            problems.add(String.format("Property %s is a reference or wildcard", publicName));
+            return null;
+        }
+
+        String getter = findMethod(owner.implClass, "get" + publicName, "is" + publicName);
+        String setter = property.isCollection() ? null : findMethod(owner.implClass, "set" + publicName);
+
+        if (getter == null || (setter == null && !property.isCollection())) {
+            problems.add(String.format("Property %s has no getter or setter", publicName));
+            return null;
+        }
+
+        JType type = target.toType(outline, Aspect.EXPOSED);
+        boolean primitive = type.isPrimitive() && !property.isCollection();
+        String itemType = primitive ? type.fullName() : type.boxify().fullName();
+
+        if (target instanceof CClassInfo) {
+            ClassOutline classOutline = classes.get(target);
+
+            if (classOutline == null || baseClasses.contains(target) || kind != StaxProperty.Kind.ELEMENT) {
+                problems.add(String.format("Property %s has a polymorphic type", publicName));
+                return null;
+            }
+
+            return new StaxProperty(kind, name, getter, setter, itemType, false, "%s", "%s", classOutline);
+        }
+        else if (target instanceof CEnumLeafInfo) {
+            JType baseType = ((CEnumLeafInfo) target).base.toType(outline, Aspect.EXPOSED);
+
+            if (!baseType.fullName().equals(String.class.getName())) {
+                problems.add(String.format("Property %s has an enum type that is not based on strings", publicName));
+                return null;
+            }
+
+            return new StaxProperty(kind, name, getter, setter, itemType, false, "%s.value()",
+                    itemType + ".fromValue(%s)", null);
+        }
+
+        String[] conversion = this.conversions.get(type.fullName());
+
+        if (conversion == null) {
+            problems.add(String.format("Property %s has unsupported type %s", publicName, type.fullName()));
+            return null;
+        }
+
+        return new StaxProperty(kind, name, getter, setter, itemType, primitive, conversion[0], conversion[1], null);
+    }
+
+    /**
+     * Find a method without parameters or with a single parameter
+     *
+     * @param type Type to search
+     * @param names Names of the method, in order of preference
+     * @return Name of the first method found, <code>null</code> if no method was found
+     */
+    protected static @Nullable String findMethod(JDefinedClass type, String... names) {
+        for (String name : names) {
+            for (JMethod method : type.methods()) {
+                if (method.name().equals(name) && method.params().size() <= 1) {
+                    return name;
+                }
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * Report that no marshaller is generated for a type
+     *
+     * @param errorHandler Error handler to report to
+     * @param classOutline Type without marshaller
+     * @param problem Problem preventing the generation
+     * @throws SAXException if the error handler aborts the compilation
+     */
+    protected static void warn(ErrorHandler errorHandler, ClassOutline classOutline, String problem)
+            throws SAXException {
+        String message = String.format("No StAX marshaller generated for %s: %s", classOutline.implClass.fullName(),
+                problem);
+        errorHandler.warning(new SAXParseException(message, classOutline.target.getLocator()));
+    }
+
+    /**
+     * Get the JAXB API the generated types use
+     *
+     * XJC 3 and later generate types annotated with the <code>jakarta</code> API, older versions use the
+     * <code>javax</code> API. The API is detected from the annotations of the generated types.
+     *
+     * @param outline Outline of the generated code
+     * @return API, either {@value ApiPackageMapper#JAVAX} or {@value ApiPackageMapper#JAKARTA}
+     */
+    protected static String getApi(Outline outline) {
+        for (ClassOutline classOutline : outline.getClasses()) {
+            for (JAnnotationUse annotation : classOutline.implClass.annotations()) {
+                String name = annotation.getAnnotationClass().fullName();
+
+                if (name.startsWith(ApiPackageMapper.JAKARTA + ".xml.bind.")) {
+                    return ApiPackageMapper.JAKARTA;
+                }
+                else if (name.startsWith(ApiPackageMapper.JAVAX + ".xml.bind.")) {
+                    return ApiPackageMapper.JAVAX;
+                }
+            }
+        }
+
+        return ApiPackageMapper.JAVAX;
+    }
+
+    /**
+     * Create the conversions of simple Java types
+     *
+     * @param api JAXB API of the generated code, either {@value ApiPackageMapper#JAVAX} or
+     *            {@value ApiPackageMapper#JAKARTA}
+     * @return Conversions, mapping the type name to the print and parse format
+     */
+    protected static Map<String, String[]> createConversions(String api) {
+        Map<String, String[]> conversions = new HashMap<>();
+        String converter = api + ".xml.bind.DatatypeConverter.";
+
+        conversions.put("java.lang.String", new String[] { "%s", "%s" });
+
+        for (String[] type : new String[][] { { "int", "java.lang.Integer", "Int" },
+                { "long", "java.lang.Long", "Long" }, { "short", "java.lang.Short", "Short" },
+                { "byte", "java.lang.Byte", "Byte" }, { "boolean", "java.lang.Boolean", "Boolean" },
+                { "float", "java.lang.Float", "Float" }, { "double", "java.lang.Double", "Double" },
+                { "java.math.BigDecimal", "java.math.BigDecimal", "Decimal" },
+                { "java.math.BigInteger", "java.math.BigInteger", "Integer" },
+                { "byte[]", "byte[]", "Base64Binary" } }) {
+            String[] conversion = new String[] { converter + "print" + type[2] + "(%s)",
+                    converter + "parse" + type[2] + "(%s)" };
+            conversions.put(type[0], conversion);
+            conversions.put(type[1], conversion);
+        }
+
+        conversions.put("javax.xml.datatype.XMLGregorianCalendar",
+                new String[] { "%s.toXMLFormat()", "DATATYPE_FACTORY.newXMLGregorianCalendar(%s)" });
+
+        return Collections.unmodifiableMap(conversions);
+    }
+
+}
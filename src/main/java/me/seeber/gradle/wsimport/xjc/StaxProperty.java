@@ -0,0 +1,226 @@
+/**
+ * BSD 2-Clause License
+ *
+ * Copyright (c) 2016-2017, Jochen Seeber
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package me.seeber.gradle.wsimport.xjc;
+
+import javax.xml.namespace.QName;
+
+import org.eclipse.jdt.annotation.Nullable;
+
+import com.sun.tools.xjc.outline.ClassOutline;
+
+/**
+ * Property of a generated type that is read and written by a StAX marshaller
+ */
+public class StaxProperty {
+
+    /**
+     * Kind of XML construct a property is mapped to
+     */
+    public enum Kind {
+
+        /**
+         * Attribute
+         */
+        ATTRIBUTE,
+
+        /**
+         * Text content of the element
+         */
+        VALUE,
+
+        /**
+         * Child element
+         */
+        ELEMENT
+
+    }
+
+    /**
+     * Kind of XML construct the property is mapped to
+     */
+    private final Kind kind;
+
+    /**
+     * XML name of the attribute or element, <code>null</code> for value properties
+     */
+    private final @Nullable QName name;
+
+    /**
+     * Name of the getter method
+     */
+    private final String getter;
+
+    /**
+     * Name of the setter method, <code>null</code> for collection properties
+     */
+    private final @Nullable String setter;
+
+    /**
+     * Fully qualified Java type of the property or of the items of a collection property
+     */
+    private final String itemType;
+
+    /**
+     * <code>true</code> if the Java type is primitive and can not be <code>null</code>
+     */
+    private final boolean primitive;
+
+    /**
+     * Format converting a Java expression to its XML representation, <code>%s</code> is replaced by the expression
+     */
+    private final String printFormat;
+
+    /**
+     * Format converting a XML representation to a Java value, <code>%s</code> is replaced by the expression
+     */
+    private final String parseFormat;
+
+    /**
+     * Generated type of the property if it is a complex type, <code>null</code> for simple types
+     */
+    private final @Nullable ClassOutline type;
+
+    /**
+     * Create a new property
+     *
+     * @param kind Kind of XML construct the property is mapped to
+     * @param name XML name of the attribute or element, <code>null</code> for value properties
+     * @param getter Name of the getter method
+     * @param setter Name of the setter method, <code>null</code> for collection properties
+     * @param itemType Fully qualified Java type of the property or of the items of a collection property
+     * @param primitive <code>true</code> if the Java type is primitive
+     * @param printFormat Format converting a Java expression to its XML representation
+     * @param parseFormat Format converting a XML representation to a Java value
+     * @param type Generated type of the property if it is a complex type, <code>null</code> for simple types
+     */
+    public StaxProperty(Kind kind, @Nullable QName name, String getter, @Nullable String setter, String itemType,
+            boolean primitive, String printFormat, String parseFormat, @Nullable ClassOutline type) {
+        this.kind = kind;
+        this.name = name;
+        this.getter = getter;
+        this.setter = setter;
+        this.itemType = itemType;
+        this.primitive = primitive;
+        this.printFormat = printFormat;
+        this.parseFormat = parseFormat;
+        this.type = type;
+    }
+
+    /**
+     * Get the kind of XML construct the property is mapped to
+     *
+     * @return Kind of XML construct
+     */
+    public Kind getKind() {
+        return this.kind;
+    }
+
+    /**
+     * Get the XML name of the attribute or element
+     *
+     * @return XML name, <code>null</code> for value properties
+     */
+    public @Nullable QName getName() {
+        return this.name;
+    }
+
+    /**
+     * Get the name of the getter method
+     *
+     * @return Name of the getter method
+     */
+    public String getGetter() {
+        return this.getter;
+    }
+
+    /**
+     * Get the name of the setter method
+     *
+     * @return Name of the setter method, <code>null</code> for collection properties
+     */
+    public @Nullable String getSetter() {
+        return this.setter;
+    }
+
+    /**
+     * Check if the property is a collection
+     *
+     * @return <code>true</code> if the property is a collection
+     */
+    public boolean isCollection() {
+        return this.setter == null;
+    }
+
+    /**
+     * Get the Java type of the property or of the items of a collection property
+     *
+     * @return Fully qualified Java type
+     */
+    public String getItemType() {
+        return this.itemType;
+    }
+
+    /**
+     * Check if the Java type is primitive
+     *
+     * @return <code>true</code> if the Java type is primitive and can not be <code>null</code>
+     */
+    public boolean isPrimitive() {
+        return this.primitive;
+    }
+
+    /**
+     * Create the expression converting a Java value to its XML representation
+     *
+     * @param expression Expression returning the Java value
+     * @return Expression returning the XML representation
+     */
+    public String print(String expression) {
+        return String.format(this.printFormat, expression);
+    }
+
+    /**
+     * Create the expression converting a XML representation to a Java value
+     *
+     * @param expression Expression returning the XML representation
+     * @return Expression returning the Java value
+     */
+    public String parse(String expression) {
+        return String.format(this.parseFormat, expression);
+    }
+
+    /**
+     * Get the generated type of the property
+     *
+     * @return Generated type if the property is a complex type, <code>null</code> for simple types
+     */
+    public @Nullable ClassOutline getType() {
+        return this.type;
+    }
+
+}
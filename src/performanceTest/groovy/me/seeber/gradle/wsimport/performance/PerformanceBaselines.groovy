@@ -0,0 +1,151 @@
+/*
+ * BSD 2-Clause License
+ *
+ * Copyright (c) 2016-2017, Jochen Seeber
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package me.seeber.gradle.wsimport.performance
+
+import groovy.transform.TypeChecked
+
+import java.nio.charset.StandardCharsets
+
+/**
+ * Stored baseline times of the performance scenarios
+ *
+ * Times are stored in a properties file with keys of the form {@code <scenario>.<measurement>} and values in
+ * milliseconds, sorted by key so that changes to the baselines produce readable diffs.
+ */
+@TypeChecked
+class PerformanceBaselines {
+
+    /**
+     * Absolute tolerance added to every threshold, so that very short measurements do not fail because of noise
+     */
+    static final long TOLERANCE_MILLIS = 200L
+
+    /**
+     * Baseline file
+     */
+    final File file
+
+    /**
+     * Baseline times in milliseconds by key
+     */
+    final SortedMap<String, Long> times = new TreeMap<>()
+
+    /**
+     * Comment lines at the start of the file, kept when the file is written
+     */
+    final List<String> header = []
+
+    /**
+     * Create new baselines loaded from a file
+     *
+     * @param file Baseline file, may not exist yet
+     */
+    PerformanceBaselines(File file) {
+        this.file = file
+
+        if (file.isFile()) {
+            Properties properties = new Properties()
+            file.withInputStream { properties.load(it) }
+
+            header.addAll(file.readLines(StandardCharsets.UTF_8.name()).takeWhile { it.startsWith("#") })
+
+            for (String key : properties.stringPropertyNames()) {
+                times.put(key, Long.parseLong(properties.getProperty(key).trim()))
+            }
+        }
+    }
+
+    /**
+     * Check if there is a baseline for a measurement
+     *
+     * @param key Key of the measurement
+     * @return <code>true</code> if there is a baseline
+     */
+    boolean contains(String key) {
+        times.containsKey(key)
+    }
+
+    /**
+     * Check a measured time against its baseline
+     *
+     * @param key Key of the measurement
+     * @param millis Measured time in milliseconds
+     * @param threshold Allowed relative slowdown, e.g. 0.25 for 25%
+     * @return Description of the regression, or <code>null</code> if the time is within the threshold or there is no
+     *         baseline
+     */
+    String check(String key, long millis, double threshold) {
+        Long baseline = times.get(key)
+
+        if (baseline == null) {
+            return null
+        }
+
+        long limit = (long) (baseline * (1.0d + threshold)) + TOLERANCE_MILLIS
+
+        if (millis <= limit) {
+            return null
+        }
+
+        String.format("%s took %d ms, baseline is %d ms, limit is %d ms", key, millis, baseline, limit)
+    }
+
+    /**
+     * Set the baseline of a measurement
+     *
+     * @param key Key of the measurement
+     * @param millis Time in milliseconds
+     */
+    void put(String key, long millis) {
+        times.put(key, millis)
+    }
+
+    /**
+     * Write the baselines to their file
+     */
+    void store() {
+        store(file, header ?: ["# Baseline times of the performance tests in milliseconds"])
+    }
+
+    /**
+     * Write the times to a file
+     *
+     * @param target File to write
+     * @param comments Comment lines written at the start of the file
+     */
+    void store(File target, List<String> comments) {
+        StringBuilder content = new StringBuilder()
+
+        comments.each { content << it << "\n" }
+
+        times.each { String key, Long millis -> content << "${key}=${millis}\n" }
+
+        target.parentFile.mkdirs()
+        target.setText(content.toString(), StandardCharsets.UTF_8.name())
+    }
+}
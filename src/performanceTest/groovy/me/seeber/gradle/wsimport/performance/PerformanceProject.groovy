@@ -0,0 +1,376 @@
+/*
+ * BSD 2-Clause License
+ *
+ * Copyright (c) 2016-2017, Jochen Seeber
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package me.seeber.gradle.wsimport.performance
+
+import groovy.transform.TypeChecked
+
+import java.nio.charset.StandardCharsets
+import java.nio.file.Files
+import java.nio.file.Path
+
+/**
+ * Synthetic project with a configurable number of WSDL files
+ *
+ * Every WSDL file is placed in its own package and defines a service with a few operations and types. If the schemas
+ * are shared, all WSDL files also import a common schema that is customized by a binding file.
+ */
+@TypeChecked
+class PerformanceProject {
+
+    /**
+     * Namespace of the common schema
+     */
+    static final String COMMON_NAMESPACE = "http://seeber.me/gradle/wsimport/performance/common"
+
+    /**
+     * Number of operations per service
+     */
+    static final int OPERATION_COUNT = 3
+
+    /**
+     * Project directory
+     */
+    final Path projectDir
+
+    /**
+     * Number of WSDL files
+     */
+    final int size
+
+    /**
+     * If all WSDL files import a shared schema customized by a binding file
+     */
+    final boolean shared
+
+    /**
+     * Create a new performance project
+     *
+     * @param projectDir Project directory
+     * @param size Number of WSDL files
+     * @param shared If all WSDL files import a shared schema customized by a binding file
+     */
+    PerformanceProject(Path projectDir, int size, boolean shared) {
+        this.projectDir = projectDir
+        this.size = size
+        this.shared = shared
+    }
+
+    /**
+     * Get the name of the scenario represented by this project
+     *
+     * @return Scenario name
+     */
+    String getScenario() {
+        "${shared ? 'shared' : 'independent'}-${size}".toString()
+    }
+
+    /**
+     * Write the project files
+     *
+     * @param toolClasspath Class path of the JAX-WS tools used instead of downloading them
+     */
+    void generate(List<File> toolClasspath) {
+        if (Files.exists(projectDir)) {
+            projectDir.toFile().deleteDir()
+        }
+
+        String tools = toolClasspath.collect { "\"${it.absolutePath.replace('\\', '/')}\"" }.join(", ")
+
+        write(projectDir.resolve("settings.gradle"), """\
+            rootProject.name = "${scenario}"
+            """)
+
+        write(projectDir.resolve("gradle.properties"), """\
+            org.gradle.jvmargs=-Xmx1g
+            """)
+
+        write(projectDir.resolve("build.gradle"), """\
+            plugins {
+                id "me.seeber.wsimport"
+            }
+
+            dependencies {
+                jaxws files(${tools})
+            }
+
+            long firstStart = Long.MAX_VALUE
+            long lastEnd = Long.MIN_VALUE
+            Map<Task, Long> starts = [:]
+
+            gradle.taskGraph.beforeTask { Task task ->
+                starts[task] = System.nanoTime()
+            }
+
+            gradle.taskGraph.afterTask { Task task ->
+                if (task.name.startsWith("wsimport") || task.name.startsWith("validate")) {
+                    firstStart = Math.min(firstStart, starts[task])
+                    lastEnd = Math.max(lastEnd, System.nanoTime())
+                }
+            }
+
+            gradle.buildFinished {
+                long millis = lastEnd >= firstStart ? (lastEnd - firstStart).intdiv(1000000L) : 0L
+                File timesFile = file("build/performance/times.properties")
+                timesFile.parentFile.mkdirs()
+                timesFile.text = "wsimport=\${millis}\\n"
+            }
+            """)
+
+        if (shared) {
+            Path commonDir = wsdlDir.resolve("common")
+            write(commonDir.resolve("common.xsd"), commonSchema())
+            write(commonDir.resolve("common.xjb"), commonBindings())
+        }
+
+        for (int i = 0; i < size; ++i) {
+            write(getWsdlFile(i), wsdl(i, 0))
+        }
+    }
+
+    /**
+     * Change a single WSDL file so that only its code has to be generated again
+     *
+     * @param index Index of the WSDL file
+     * @param revision Revision written to the documentation of the WSDL file
+     */
+    void change(int index, int revision) {
+        write(getWsdlFile(index), wsdl(index, revision))
+    }
+
+    /**
+     * Delete the build directory of the project
+     */
+    void clean() {
+        File buildDir = projectDir.resolve("build").toFile()
+
+        if (buildDir.exists()) {
+            buildDir.deleteDir()
+        }
+    }
+
+    /**
+     * Get the time spent in the wsimport tasks during the last build
+     *
+     * @return Time in milliseconds
+     */
+    long getWsimportMillis() {
+        Properties times = new Properties()
+
+        projectDir.resolve("build/performance/times.properties").withInputStream { times.load(it) }
+
+        Long.parseLong(times.getProperty("wsimport"))
+    }
+
+    /**
+     * Get the WSDL source directory
+     *
+     * @return WSDL source directory
+     */
+    protected Path getWsdlDir() {
+        projectDir.resolve("src/main/wsdl")
+    }
+
+    /**
+     * Get the path of a WSDL file
+     *
+     * @param index Index of the WSDL file
+     * @return Path of the WSDL file
+     */
+    protected Path getWsdlFile(int index) {
+        wsdlDir.resolve(String.format("perf/s%04d/Service%04d.wsdl", index, index))
+    }
+
+    /**
+     * Create the content of a WSDL file
+     *
+     * @param index Index of the WSDL file
+     * @param revision Revision written to the documentation
+     * @return WSDL content
+     */
+    protected String wsdl(int index, int revision) {
+        String name = String.format("Service%04d", index)
+        String namespace = String.format("http://seeber.me/gradle/wsimport/performance/s%04d", index)
+        StringBuilder wsdl = new StringBuilder()
+
+        append(wsdl, """\
+            <?xml version="1.0" encoding="UTF-8"?>
+            <wsdl:definitions name="${name}" targetNamespace="${namespace}"
+                    xmlns:tns="${namespace}" xmlns:common="${COMMON_NAMESPACE}"
+                    xmlns:wsdl="http://schemas.xmlsoap.org/wsdl/" xmlns:soap="http://schemas.xmlsoap.org/wsdl/soap/"
+                    xmlns:xsd="http://www.w3.org/2001/XMLSchema">
+              <wsdl:documentation>Revision ${revision}</wsdl:documentation>
+              <wsdl:types>
+                <xsd:schema targetNamespace="${namespace}" elementFormDefault="qualified">
+            """)
+
+        if (shared) {
+            append(wsdl, """\
+                  <xsd:import namespace="${COMMON_NAMESPACE}" schemaLocation="../../common/common.xsd"/>
+            """)
+        }
+
+        for (int i = 0; i < OPERATION_COUNT; ++i) {
+            String header = shared ? """<xsd:element ref="common:Header"/>""" : ""
+
+            append(wsdl, """\
+                  <xsd:complexType name="Item${i}">
+                    <xsd:sequence>
+                      ${header}
+                      <xsd:element name="id" type="xsd:long"/>
+                      <xsd:element name="name" type="xsd:string"/>
+                      <xsd:element name="created" type="xsd:dateTime"/>
+                      <xsd:element name="amount" type="xsd:decimal" minOccurs="0"/>
+                      <xsd:element name="tags" type="xsd:string" minOccurs="0" maxOccurs="unbounded"/>
+                    </xsd:sequence>
+                  </xsd:complexType>
+                  <xsd:element name="operation${i}" type="tns:Item${i}"/>
+                  <xsd:element name="operation${i}Response" type="tns:Item${i}"/>
+            """)
+        }
+
+        append(wsdl, """\
+                </xsd:schema>
+              </wsdl:types>
+            """)
+
+        for (int i = 0; i < OPERATION_COUNT; ++i) {
+            append(wsdl, """\
+              <wsdl:message name="operation${i}Request">
+                <wsdl:part name="parameters" element="tns:operation${i}"/>
+              </wsdl:message>
+              <wsdl:message name="operation${i}Response">
+                <wsdl:part name="parameters" element="tns:operation${i}Response"/>
+              </wsdl:message>
+            """)
+        }
+
+        append(wsdl, """\
+              <wsdl:portType name="${name}Port">
+            """)
+
+        for (int i = 0; i < OPERATION_COUNT; ++i) {
+            append(wsdl, """\
+                <wsdl:operation name="operation${i}">
+                  <wsdl:input message="tns:operation${i}Request"/>
+                  <wsdl:output message="tns:operation${i}Response"/>
+                </wsdl:operation>
+            """)
+        }
+
+        append(wsdl, """\
+              </wsdl:portType>
+              <wsdl:binding name="${name}Binding" type="tns:${name}Port">
+                <soap:binding style="document" transport="http://schemas.xmlsoap.org/soap/http"/>
+            """)
+
+        for (int i = 0; i < OPERATION_COUNT; ++i) {
+            append(wsdl, """\
+                <wsdl:operation name="operation${i}">
+                  <soap:operation soapAction="${namespace}/operation${i}"/>
+                  <wsdl:input><soap:body use="literal"/></wsdl:input>
+                  <wsdl:output><soap:body use="literal"/></wsdl:output>
+                </wsdl:operation>
+            """)
+        }
+
+        append(wsdl, """\
+              </wsdl:binding>
+              <wsdl:service name="${name}">
+                <wsdl:port name="${name}Port" binding="tns:${name}Binding">
+                  <soap:address location="http://localhost:8080/${name}"/>
+                </wsdl:port>
+              </wsdl:service>
+            </wsdl:definitions>
+            """)
+
+        wsdl.toString()
+    }
+
+    /**
+     * Create the content of the common schema
+     *
+     * @return Schema content
+     */
+    protected String commonSchema() {
+        """\
+        <?xml version="1.0" encoding="UTF-8"?>
+        <xsd:schema targetNamespace="${COMMON_NAMESPACE}" elementFormDefault="qualified"
+                xmlns:xsd="http://www.w3.org/2001/XMLSchema">
+          <xsd:element name="Header">
+            <xsd:complexType>
+              <xsd:sequence>
+                <xsd:element name="requestId" type="xsd:string"/>
+                <xsd:element name="timestamp" type="xsd:dateTime"/>
+                <xsd:element name="locale" type="xsd:language" minOccurs="0"/>
+              </xsd:sequence>
+            </xsd:complexType>
+          </xsd:element>
+        </xsd:schema>
+        """
+    }
+
+    /**
+     * Create the content of the binding file for the common schema
+     *
+     * @return Binding file content
+     */
+    protected String commonBindings() {
+        """\
+        <?xml version="1.0" encoding="UTF-8"?>
+        <jaxb:bindings version="2.1" xmlns:jaxb="http://java.sun.com/xml/ns/jaxb"
+                xmlns:xsd="http://www.w3.org/2001/XMLSchema">
+          <jaxb:bindings schemaLocation="common.xsd" node="/xsd:schema">
+            <jaxb:schemaBindings>
+              <jaxb:package name="perf.common"/>
+            </jaxb:schemaBindings>
+          </jaxb:bindings>
+        </jaxb:bindings>
+        """
+    }
+
+    /**
+     * Append a fragment to a document, skipping empty lines and the indentation of the closing quotes
+     *
+     * @param document Document to append to
+     * @param fragment Fragment to append
+     */
+    protected void append(StringBuilder document, String fragment) {
+        document << fragment.replaceAll(/(?m)^[ \t]*\n/, "").replaceFirst(/[ \t]+\z/, "")
+    }
+
+    /**
+     * Write a file, removing the common indentation of its lines
+     *
+     * @param file File to write
+     * @param content Content to write
+     */
+    protected void write(Path file, String content) {
+        Files.createDirectories(file.parent)
+        Files.write(file, content.stripIndent().getBytes(StandardCharsets.UTF_8))
+    }
+}
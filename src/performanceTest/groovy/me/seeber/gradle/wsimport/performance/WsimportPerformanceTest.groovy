@@ -0,0 +1,310 @@
+/*
+ * BSD 2-Clause License
+ *
+ * Copyright (c) 2016-2017, Jochen Seeber
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package me.seeber.gradle.wsimport.performance
+
+import java.nio.file.Path
+import java.nio.file.Paths
+
+import org.gradle.testkit.runner.GradleRunner
+import org.junit.Assume
+
+import spock.lang.Shared
+import spock.lang.Specification
+import spock.lang.Unroll
+
+/**
+ * Measures the wsimport tasks on generated projects of increasing size
+ *
+ * For every scenario the time of a clean build, a build without changes and a build after changing a single WSDL file
+ * is measured. If the build passes the class path of the plugin built from a baseline commit, the same scenarios are
+ * measured with that plugin in alternating runs on the same machine, and the test fails if the median of the runs
+ * exceeds the median of the baseline commit by more than the threshold. Otherwise the medians are compared to the
+ * stored baselines, and scenarios without stored baselines are reported as skipped, since the stored times depend on
+ * the machine. The tool class path is passed in by the build, so no network access is needed.
+ */
+public class WsimportPerformanceSpec extends Specification {
+
+    /**
+     * Prefix of the system properties configuring the tests
+     */
+    static final String PROPERTY_PREFIX = "wsimport.performance."
+
+    /**
+     * Baseline times
+     */
+    @Shared
+    PerformanceBaselines baselines
+
+    /**
+     * Times measured during this run
+     */
+    @Shared
+    PerformanceBaselines results
+
+    /**
+     * Times measured with the plugin of the baseline commit during this run
+     */
+    @Shared
+    PerformanceBaselines baselineResults
+
+    /**
+     * Class path of the plugin of the baseline commit, <code>null</code> to compare to the stored baselines
+     */
+    @Shared
+    List<File> baselineClasspath
+
+    /**
+     * Allowed relative slowdown compared to the baselines
+     */
+    @Shared
+    double threshold
+
+    /**
+     * Number of measured runs per measurement
+     */
+    @Shared
+    int iterations
+
+    /**
+     * If the baselines are replaced by the measured times instead of checking them
+     */
+    @Shared
+    boolean updateBaselines
+
+    /**
+     * Class path of the JAX-WS tools
+     */
+    @Shared
+    List<File> toolClasspath
+
+    def setupSpec() {
+        String tools = System.getProperty(PROPERTY_PREFIX + "toolClasspath")
+
+        if (tools == null) {
+            throw new IllegalStateException(
+                    "System property ${PROPERTY_PREFIX}toolClasspath is not set, run the task performanceTest")
+        }
+
+        toolClasspath = toFiles(tools)
+        baselineClasspath = System.getProperty(PROPERTY_PREFIX + "baselineClasspath")?.with { toFiles(it) }
+        threshold = Double.parseDouble(setting("threshold", "0.25"))
+        iterations = Integer.parseInt(setting("iterations", "3"))
+        updateBaselines = Boolean.parseBoolean(setting("updateBaselines", "false"))
+        baselines = new PerformanceBaselines(new File(setting("baselines", "src/performanceTest/baselines.properties")))
+
+        File resultFile = reportDir.resolve("results.properties").toFile()
+        resultFile.delete()
+        results = new PerformanceBaselines(resultFile)
+
+        File baselineResultFile = reportDir.resolve("baseline-results.properties").toFile()
+        baselineResultFile.delete()
+        baselineResults = new PerformanceBaselines(baselineResultFile)
+    }
+
+    def cleanupSpec() {
+        results?.store(results.file, ["# Measured times of the performance tests in milliseconds"])
+
+        if (baselineClasspath != null) {
+            baselineResults?.store(baselineResults.file,
+                    ["# Measured times of the baseline commit in milliseconds"])
+        }
+
+        if (updateBaselines) {
+            baselines?.store()
+        }
+    }
+
+    @Unroll
+    def "measures_wsimport_tasks_for_#scenario"() {
+        given:
+        Map<String, PerformanceProject> projects = [current: new PerformanceProject(workDir.resolve(scenario), size,
+            shared)]
+
+        if (baselineClasspath != null) {
+            projects.baseline = new PerformanceProject(workDir.resolve("${scenario}-baseline"), size, shared)
+        }
+
+        Map<String, GradleRunner> runners = projects.collectEntries { String name, PerformanceProject project ->
+            project.generate(toolClasspath)
+
+            GradleRunner runner = GradleRunner.create().withProjectDir(project.projectDir.toFile())
+            runner = name == "baseline" ? runner.withPluginClasspath(baselineClasspath) : runner.withPluginClasspath()
+
+            // Start the daemon and load the plugin before measuring anything
+            runner.withArguments("help", "--offline").build()
+
+            [(name): runner.withArguments("wsimport", "--offline", "--stacktrace")]
+        }
+
+        when:
+        Map<String, Map<String, Long>> times = projects.keySet().collectEntries { [(it): [:]] }
+
+        median(times, "clean") { String name ->
+            projects[name].clean()
+            runners[name].build()
+            projects[name].wsimportMillis
+        }
+
+        median(times, "noop") { String name ->
+            runners[name].build()
+            projects[name].wsimportMillis
+        }
+
+        int revision = 0
+
+        median(times, "change") { String name ->
+            projects[name].change(0, ++revision)
+            runners[name].build()
+            projects[name].wsimportMillis
+        }
+
+        List<String> missing = []
+        List<String> regressions = record(scenario, times.current, times.baseline, missing)
+
+        then:
+        regressions.isEmpty()
+        Assume.assumeTrue("No stored baselines for ${missing.join(', ')}, record them with "
+                + "-Pperformance.updateBaselines=true or compare to a commit with -Pperformance.baselineRef=<ref>",
+                missing.isEmpty())
+
+        where:
+        [size, shared] << [sizes, [false, true]].combinations()
+        scenario = "${shared ? 'shared' : 'independent'}-${size}".toString()
+    }
+
+    /**
+     * Record the measured times of a scenario and check them against the baselines
+     *
+     * @param scenario Name of the scenario
+     * @param times Measured times in milliseconds by measurement
+     * @param baselineTimes Times measured with the plugin of the baseline commit, <code>null</code> to check against
+     *            the stored baselines
+     * @param missing Keys of the measurements without stored baseline, to add to
+     * @return Descriptions of the regressions
+     */
+    protected List<String> record(String scenario, Map<String, Long> times, Map<String, Long> baselineTimes,
+            List<String> missing) {
+        List<String> regressions = []
+
+        times.each { String measurement, Long millis ->
+            String key = "${scenario}.${measurement}"
+            String regression
+            results.put(key, millis)
+
+            if (baselineTimes != null) {
+                baselineResults.put(key, baselineTimes[measurement])
+                regression = baselineResults.check(key, millis, threshold)
+            }
+            else if (updateBaselines) {
+                baselines.put(key, millis)
+            }
+            else if (baselines.contains(key)) {
+                regression = baselines.check(key, millis, threshold)
+            }
+            else {
+                missing << key
+            }
+
+            if (regression != null) {
+                regressions << regression
+            }
+        }
+
+        regressions
+    }
+
+    /**
+     * Run a measurement several times for each project and record the median
+     *
+     * The runs of the projects alternate, so changes of the machine load affect all projects alike.
+     *
+     * @param times Times in milliseconds by measurement, by project name, to add the median to
+     * @param measurement Name of the measurement
+     * @param run Measurement taking the project name and returning the time in milliseconds
+     */
+    protected void median(Map<String, Map<String, Long>> times, String measurement, Closure<Long> run) {
+        Map<String, List<Long>> samples = times.keySet().collectEntries { [(it): []] }
+
+        for (int i = 0; i < iterations; ++i) {
+            samples.each { String name, List<Long> values -> values << run(name) }
+        }
+
+        samples.each { String name, List<Long> values ->
+            values.sort()
+            times[name][measurement] = values[values.size().intdiv(2)]
+        }
+    }
+
+    /**
+     * Split a class path into files
+     *
+     * @param classpath Class path
+     * @return Files of the class path
+     */
+    static List<File> toFiles(String classpath) {
+        classpath.split(File.pathSeparator).findAll { !it.empty }.collect { new File(it) }
+    }
+
+    /**
+     * Get the number of WSDL files of the scenarios
+     *
+     * @return Numbers of WSDL files
+     */
+    static List<Integer> getSizes() {
+        setting("sizes", "10,100,1000").split(",").collect { Integer.parseInt(it.trim()) }
+    }
+
+    /**
+     * Get the directory the projects are generated in
+     *
+     * @return Work directory
+     */
+    static Path getWorkDir() {
+        Paths.get(setting("workDir", "build/tmp/performance"))
+    }
+
+    /**
+     * Get the directory the measured times are written to
+     *
+     * @return Report directory
+     */
+    static Path getReportDir() {
+        Paths.get(setting("reportDir", "build/reports/performance"))
+    }
+
+    /**
+     * Get a setting from the system properties
+     *
+     * @param name Name of the setting without prefix
+     * @param defaultValue Value used if the system property is not set
+     * @return Value of the setting
+     */
+    static String setting(String name, String defaultValue) {
+        System.getProperty(PROPERTY_PREFIX + name, defaultValue)
+    }
+}
@@ -0,0 +1,143 @@
+/*
+ * BSD 2-Clause License
+ *
+ * Copyright (c) 2016-2017, Jochen Seeber
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package me.seeber.gradle.wsimport.test
+
+import java.nio.file.Files
+import java.nio.file.Path
+
+import org.gradle.api.GradleException
+import org.junit.Rule
+import org.junit.rules.TemporaryFolder
+
+import me.seeber.gradle.wsimport.ApiPackageMapper
+import spock.lang.Specification
+
+class ApiPackageMapperSpec extends Specification {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder()
+
+    Path sourceDir
+
+    def setup() {
+        sourceDir = folder.newFolder("generated").toPath()
+    }
+
+    def "maps_javax_packages_to_jakarta"() {
+        when:
+        Path file = write("com/example/Port.java", """\
+            package com.example;
+            import javax.jws.WebService;
+            import javax.xml.bind.annotation.XmlSeeAlso;
+            import javax.xml.namespace.QName;
+            import javax.xml.wsdl.Definition;
+            @javax.xml.ws.RequestWrapper
+            public interface Port { }
+            """.stripIndent())
+        int count = new ApiPackageMapper(ApiPackageMapper.JAKARTA).map(sourceDir, 0L)
+
+        then:
+        count == 1
+        file.text == """\
+            package com.example;
+            import jakarta.jws.WebService;
+            import jakarta.xml.bind.annotation.XmlSeeAlso;
+            import javax.xml.namespace.QName;
+            import javax.xml.wsdl.Definition;
+            @jakarta.xml.ws.RequestWrapper
+            public interface Port { }
+            """.stripIndent()
+    }
+
+    def "maps_jakarta_packages_to_javax"() {
+        when:
+        Path file = write("com/example/Item.java",
+                "import jakarta.xml.bind.annotation.XmlType; @jakarta.annotation.Generated class Item { }")
+        Path unchanged = write("com/example/Other.java", "import java.util.List; class Other { }")
+        int count = new ApiPackageMapper(ApiPackageMapper.JAVAX).map(sourceDir, 0L)
+
+        then:
+        count == 1
+        file.text == "import javax.xml.bind.annotation.XmlType; @javax.annotation.Generated class Item { }"
+        unchanged.text == "import java.util.List; class Other { }"
+    }
+
+    def "maps_activation_packages"() {
+        when:
+        Path file = write("com/example/Document.java",
+                "import javax.activation.DataHandler; class Document { DataHandler content; }")
+        int count = new ApiPackageMapper(ApiPackageMapper.JAKARTA).map(sourceDir, 0L)
+
+        then:
+        count == 1
+        file.text == "import jakarta.activation.DataHandler; class Document { DataHandler content; }"
+
+        when:
+        count = new ApiPackageMapper(ApiPackageMapper.JAVAX).map(sourceDir, 0L)
+
+        then:
+        count == 1
+        file.text == "import javax.activation.DataHandler; class Document { DataHandler content; }"
+    }
+
+    def "replaces_hard_linked_files"() {
+        when:
+        Path file = write("com/example/Port.java", "import javax.jws.WebService; interface Port { }")
+        Path link = Files.createLink(folder.root.toPath().resolve("Port.java"), file)
+        new ApiPackageMapper(ApiPackageMapper.JAKARTA).map(sourceDir, 0L)
+
+        then:
+        file.text == "import jakarta.jws.WebService; interface Port { }"
+        link.text == "import javax.jws.WebService; interface Port { }"
+    }
+
+    def "skips_files_modified_before_the_start"() {
+        when:
+        Path file = write("com/example/Port.java", "import javax.jws.WebService; interface Port { }")
+        int count = new ApiPackageMapper(ApiPackageMapper.JAKARTA).map(sourceDir, System.currentTimeMillis() + 60000L)
+
+        then:
+        count == 0
+        file.text == "import javax.jws.WebService; interface Port { }"
+    }
+
+    def "rejects_unknown_api"() {
+        when:
+        new ApiPackageMapper("jaxws")
+
+        then:
+        thrown(GradleException)
+    }
+
+    protected Path write(String name, String content) {
+        Path file = sourceDir.resolve(name)
+        file.parent.toFile().mkdirs()
+        file.text = content
+        file
+    }
+}
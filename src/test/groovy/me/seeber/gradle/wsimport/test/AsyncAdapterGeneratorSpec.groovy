@@ -0,0 +1,152 @@
+/*
+ * BSD 2-Clause License
+ *
+ * Copyright (c) 2016-2017, Jochen Seeber
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package me.seeber.gradle.wsimport.test
+
+import java.lang.reflect.InvocationHandler
+import java.lang.reflect.Proxy
+import java.nio.file.Path
+import java.util.concurrent.CompletableFuture
+import java.util.concurrent.Future
+import java.util.concurrent.TimeUnit
+
+import javax.jws.WebService
+import javax.tools.ToolProvider
+import javax.xml.ws.Response
+
+import groovy.io.FileType
+
+import org.junit.Rule
+import org.junit.rules.TemporaryFolder
+
+import me.seeber.gradle.wsimport.AsyncAdapterGenerator
+import spock.lang.Specification
+
+class AsyncAdapterGeneratorSpec extends Specification {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder()
+
+    Path sourceDir
+
+    def setup() {
+        sourceDir = folder.newFolder("generated").toPath()
+
+        write("com/example/Callback.java",
+                "package com.example; public interface Callback<T> { void handleResponse(T response); }")
+        write("com/example/WeatherSoap.java", """\
+            package com.example;
+
+            import java.util.concurrent.Future;
+            import javax.jws.WebParam;
+            import javax.jws.WebService;
+            import javax.xml.ws.AsyncHandler;
+            import javax.xml.ws.Response;
+
+            @WebService(name = "WeatherSoap")
+            public interface WeatherSoap {
+
+                public Response<String> getWeatherAsync(
+                    @WebParam(name = "result") String result,
+                    @WebParam(name = "call") int call,
+                    @WebParam(name = "response") String response);
+
+                public Future<?> getWeatherAsync(
+                    @WebParam(name = "result") String result,
+                    @WebParam(name = "call") int call,
+                    @WebParam(name = "response") String response,
+                    @WebParam(name = "asyncHandler") AsyncHandler<String> asyncHandler);
+
+                public String getWeather(
+                    @WebParam(name = "result") String result,
+                    @WebParam(name = "call") int call,
+                    @WebParam(name = "response") String response);
+
+            }
+            """.stripIndent())
+    }
+
+    def "generates_adapters_for_port_interfaces"() {
+        when:
+        int count = new AsyncAdapterGenerator().generate(sourceDir, 0L)
+
+        then:
+        count == 1
+        String adapter = sourceDir.resolve("com/example/WeatherSoapFutures.java").text
+        adapter.contains("public CompletableFuture<String> getWeather(String result, int call, String response)")
+        adapter.contains("import java.util.concurrent.CompletableFuture;")
+        !sourceDir.resolve("com/example/CallbackFutures.java").toFile().exists()
+    }
+
+    def "skips_files_modified_before_the_start"() {
+        when:
+        int count = new AsyncAdapterGenerator().generate(sourceDir, System.currentTimeMillis() + 60000L)
+
+        then:
+        count == 0
+        !sourceDir.resolve("com/example/WeatherSoapFutures.java").toFile().exists()
+    }
+
+    def "completes_futures_with_parameters_named_like_locals"() {
+        when:
+        new AsyncAdapterGenerator().generate(sourceDir, 0L)
+        File classesDir = folder.newFolder("classes")
+        List<String> classpath = [Response, WebService].collect { it.protectionDomain.codeSource?.location }.findAll()
+                .collect { new File(it.toURI()).path }
+        List<String> arguments = ["-d", classesDir.path]
+
+        if (!classpath.empty) {
+            arguments.addAll(["-cp", classpath.join(File.pathSeparator)])
+        }
+
+        sourceDir.toFile().eachFileRecurse(FileType.FILES) { arguments.add(it.path) }
+        int result = ToolProvider.systemJavaCompiler.run(null, null, null, arguments as String[])
+
+        URLClassLoader loader = new URLClassLoader([classesDir.toURI().toURL()] as URL[], getClass().classLoader)
+        Class<?> portType = loader.loadClass("com.example.WeatherSoap")
+        Object port = Proxy.newProxyInstance(loader, [portType] as Class[], { proxy, method, args ->
+            Future<String> value = CompletableFuture.completedFuture("${args[0]}:${args[1]}:${args[2]}".toString())
+            Object response = Proxy.newProxyInstance(loader, [Response] as Class[], { p, m, a ->
+                m.invoke(value, a)
+            } as InvocationHandler)
+            args[3].handleResponse(response)
+            value
+        } as InvocationHandler)
+        Object adapter = loader.loadClass("com.example.WeatherSoapFutures").newInstance(port)
+        CompletableFuture<String> future = adapter.getWeather("sunny", 3, "today")
+
+        then:
+        result == 0
+        future.get(10, TimeUnit.SECONDS) == "sunny:3:today"
+    }
+
+    protected void write(String name, String content) {
+        Path file = sourceDir.resolve(name)
+        file.parent.toFile().mkdirs()
+        file.text = content
+    }
+}
@@ -0,0 +1,116 @@
+/*
+ * BSD 2-Clause License
+ *
+ * Copyright (c) 2016-2017, Jochen Seeber
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package me.seeber.gradle.wsimport.test
+
+import java.nio.file.Path
+
+import org.junit.Rule
+import org.junit.rules.TemporaryFolder
+
+import me.seeber.gradle.wsimport.AttachmentFeatureGenerator
+import spock.lang.Specification
+
+class AttachmentFeatureGeneratorSpec extends Specification {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder()
+
+    Path sourceDir
+
+    def setup() {
+        sourceDir = folder.newFolder("generated").toPath()
+
+        write("com/example/DocumentPort.java", """\
+            package com.example;
+
+            import javax.jws.WebService;
+
+            @WebService(name = "DocumentPortType", targetNamespace = "urn:documents")
+            public interface DocumentPort {
+            }
+            """.stripIndent())
+        write("com/example/ImagePort.java", """\
+            package com.example;
+
+            import jakarta.jws.WebService;
+
+            @WebService(name = "ImagePortType", targetNamespace = "urn:images")
+            public interface ImagePort {
+            }
+            """.stripIndent())
+        write("com/example/Document.java", "package com.example; public class Document { }")
+    }
+
+    def "generates_features_for_port_interfaces"() {
+        when:
+        int count = new AttachmentFeatureGenerator(4096, ["ImagePortType": 1024], 65536L, true)
+                .generate(sourceDir, 0L)
+
+        then:
+        count == 2
+        String documents = sourceDir.resolve("com/example/DocumentPortAttachments.java").text
+        documents.startsWith("package com.example;")
+        documents.contains("import javax.xml.ws.soap.MTOMFeature;")
+        documents.contains("public static final int THRESHOLD = 4096;")
+        documents.contains("public static final long MEMORY_THRESHOLD = 65536L;")
+        documents.contains("import com.sun.xml.ws.developer.StreamingAttachmentFeature;")
+        documents.contains("new StreamingAttachmentFeature(null, true, MEMORY_THRESHOLD)")
+        String images = sourceDir.resolve("com/example/ImagePortAttachments.java").text
+        images.contains("import jakarta.xml.ws.soap.MTOMFeature;")
+        images.contains("public static final int THRESHOLD = 1024;")
+        !sourceDir.resolve("com/example/DocumentAttachments.java").toFile().exists()
+    }
+
+    def "generates_only_standard_features_without_reference_implementation"() {
+        when:
+        int count = new AttachmentFeatureGenerator(4096, [:], 65536L, false).generate(sourceDir, 0L)
+
+        then:
+        count == 2
+        String documents = sourceDir.resolve("com/example/DocumentPortAttachments.java").text
+        documents.contains("return new WebServiceFeature[] { new MTOMFeature(true, THRESHOLD) };")
+        !documents.contains("com.sun.xml.ws")
+        !documents.contains("StreamingAttachmentFeature")
+    }
+
+    def "skips_files_modified_before_the_start"() {
+        when:
+        int count = new AttachmentFeatureGenerator(4096, [:], 65536L, true).generate(sourceDir,
+                System.currentTimeMillis() + 60000L)
+
+        then:
+        count == 0
+        !sourceDir.resolve("com/example/DocumentPortAttachments.java").toFile().exists()
+    }
+
+    protected void write(String name, String content) {
+        Path file = sourceDir.resolve(name)
+        file.parent.toFile().mkdirs()
+        file.text = content
+    }
+}
@@ -0,0 +1,214 @@
+/*
+ * BSD 2-Clause License
+ *
+ * Copyright (c) 2016-2017, Jochen Seeber
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package me.seeber.gradle.wsimport.test
+
+import java.nio.file.Path
+import java.nio.file.Paths
+
+import javax.xml.XMLConstants
+import javax.xml.parsers.DocumentBuilderFactory
+
+import org.junit.Rule
+import org.junit.rules.TemporaryFolder
+import org.w3c.dom.Element
+import org.w3c.dom.NodeList
+
+import me.seeber.gradle.wsimport.AttachmentRewriter
+import me.seeber.gradle.wsimport.SchemaBindings
+import me.seeber.gradle.wsimport.SchemaPassPlan
+import me.seeber.gradle.wsimport.WsdlDocument
+import me.seeber.gradle.wsimport.WsdlScanner
+import spock.lang.Specification
+
+class AttachmentRewriterSpec extends Specification {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder()
+
+    Path baseDir
+
+    Path targetDir
+
+    def setup() {
+        baseDir = folder.newFolder("wsdl").toPath()
+        targetDir = folder.newFolder("rewritten").toPath()
+
+        baseDir.resolve("service.wsdl").toFile().text = """\
+            <definitions xmlns="http://schemas.xmlsoap.org/wsdl/" xmlns:xsd="http://www.w3.org/2001/XMLSchema"
+                    targetNamespace="urn:service">
+                <types>
+                    <xsd:schema targetNamespace="urn:service">
+                        <xsd:import namespace="urn:types" schemaLocation="types.xsd"/>
+                        <xsd:element name="upload" type="xsd:base64Binary"/>
+                    </xsd:schema>
+                </types>
+            </definitions>
+            """.stripIndent()
+
+        baseDir.resolve("types.xsd").toFile().text = """\
+            <xs:schema xmlns:xs="http://www.w3.org/2001/XMLSchema" xmlns:xmime="urn:other"
+                    xmlns:m="http://www.w3.org/2005/05/xmlmime" targetNamespace="urn:types">
+                <xs:element name="data" type="xs:base64Binary"/>
+                <xs:element name="image" type="xs:base64Binary" m:expectedContentTypes="image/png"/>
+                <xs:element name="name" type="xs:string"/>
+            </xs:schema>
+            """.stripIndent()
+    }
+
+    def "maps_binary_elements_to_attachments"() {
+        when:
+        AttachmentRewriter rewriter = new AttachmentRewriter()
+        Path rewrittenDir = rewriter.rewrite(baseDir, Paths.get("service.wsdl"), targetDir)
+        Map<String, Element> wsdl = elements(rewrittenDir.resolve("service.wsdl"), "element")
+        Element schemaImport = elements(rewrittenDir.resolve("service.wsdl"), "import").values()[0]
+        Path schemaCopy = Paths.get(new URI(schemaImport.getAttribute("schemaLocation")))
+        Map<String, Element> types = elements(schemaCopy, "element")
+
+        then:
+        rewrittenDir == targetDir
+        rewriter.elementCount == 2
+        contentTypes(wsdl.upload) == AttachmentRewriter.CONTENT_TYPE
+        schemaCopy.startsWith(targetDir.toAbsolutePath())
+        contentTypes(types.data) == AttachmentRewriter.CONTENT_TYPE
+        contentTypes(types.image) == "image/png"
+        contentTypes(types.name) == ""
+        baseDir.resolve("types.xsd").text.count("expectedContentTypes") == 1
+    }
+
+    def "maps_elements_of_derived_binary_types_to_attachments"() {
+        when:
+        baseDir.resolve("types.xsd").toFile().text = """\
+            <xs:schema xmlns:xs="http://www.w3.org/2001/XMLSchema" xmlns:t="urn:types" targetNamespace="urn:types">
+                <xs:simpleType name="Blob"><xs:restriction base="xs:base64Binary"/></xs:simpleType>
+                <xs:simpleType name="SmallBlob">
+                    <xs:restriction base="t:Blob"><xs:maxLength value="1024"/></xs:restriction>
+                </xs:simpleType>
+                <xs:complexType name="TypedBlob">
+                    <xs:simpleContent>
+                        <xs:extension base="t:Blob"><xs:attribute name="kind" type="xs:string"/></xs:extension>
+                    </xs:simpleContent>
+                </xs:complexType>
+                <xs:element name="blob" type="t:Blob"/>
+                <xs:element name="small" type="t:SmallBlob"/>
+                <xs:element name="inline">
+                    <xs:simpleType><xs:restriction base="xs:base64Binary"/></xs:simpleType>
+                </xs:element>
+                <xs:element name="typed" type="t:TypedBlob"/>
+                <xs:element name="name">
+                    <xs:simpleType><xs:restriction base="xs:string"/></xs:simpleType>
+                </xs:element>
+            </xs:schema>
+            """.stripIndent()
+        AttachmentRewriter rewriter = new AttachmentRewriter()
+        rewriter.rewrite(baseDir, Paths.get("service.wsdl"), targetDir)
+        Map<String, Element> types = elements(targetDir.resolve("imports").toFile().listFiles()[0].toPath(),
+                "element")
+
+        then:
+        rewriter.elementCount == 4
+        contentTypes(types.blob) == AttachmentRewriter.CONTENT_TYPE
+        contentTypes(types.small) == AttachmentRewriter.CONTENT_TYPE
+        contentTypes(types.inline) == AttachmentRewriter.CONTENT_TYPE
+        contentTypes(types.typed) == ""
+        contentTypes(types.name) == ""
+        rewriter.skippedElements == ["typed in ${baseDir.resolve("types.xsd")}".toString()]
+    }
+
+    def "avoids_prefixes_bound_to_other_namespaces"() {
+        when:
+        new AttachmentRewriter().rewrite(baseDir, Paths.get("service.wsdl"), targetDir)
+        Path schemaCopy = targetDir.resolve("imports").toFile().listFiles()[0].toPath()
+
+        then:
+        schemaCopy.text.contains("xmime1:expectedContentTypes=\"${AttachmentRewriter.CONTENT_TYPE}\"")
+        schemaCopy.text.contains("xmlns:xmime1=\"${AttachmentRewriter.XMIME_NAMESPACE}\"")
+    }
+
+    def "relocates_bindings_to_rewritten_copies"() {
+        when:
+        File bindingFile = baseDir.resolve("bindings.xml").toFile()
+        bindingFile.text = """\
+            <jaxws:bindings xmlns:jaxws="http://java.sun.com/xml/ns/jaxws" wsdlLocation="service.wsdl">
+                <jaxws:enableAsyncMapping>true</jaxws:enableAsyncMapping>
+            </jaxws:bindings>
+            """.stripIndent()
+        AttachmentRewriter rewriter = new AttachmentRewriter()
+        Path rewrittenDir = rewriter.rewrite(baseDir, Paths.get("service.wsdl"), targetDir)
+        List<File> files = SchemaBindings.relocate([bindingFile], rewriter.copies,
+                folder.newFolder("bindings").toPath())
+
+        then:
+        files.size() == 1
+        files[0].text.contains("wsdlLocation=\"${rewrittenDir.resolve("service.wsdl").toAbsolutePath().toUri()}\"")
+    }
+
+    def "applies_customizations_to_rewritten_schemas_in_split_passes"() {
+        when:
+        File bindingFile = baseDir.resolve("bindings.xjb").toFile()
+        bindingFile.text = """\
+            <jaxb:bindings xmlns:jaxb="http://java.sun.com/xml/ns/jaxb" version="2.1">
+                <jaxb:bindings schemaLocation="types.xsd">
+                    <jaxb:schemaBindings><jaxb:package name="com.example.types"/></jaxb:schemaBindings>
+                </jaxb:bindings>
+            </jaxb:bindings>
+            """.stripIndent()
+        AttachmentRewriter rewriter = new AttachmentRewriter()
+        Path rewrittenDir = rewriter.rewrite(baseDir, Paths.get("service.wsdl"), targetDir)
+        List<WsdlDocument> documents = new WsdlScanner().scan(rewrittenDir.resolve("service.wsdl"))
+        SchemaPassPlan plan = SchemaPassPlan.create(documents)
+        SchemaBindings bindings = new SchemaBindings(SchemaBindings.relocate([bindingFile], rewriter.copies,
+                folder.newFolder("bindings").toPath()))
+        List<File> passBindings = plan.levels.flatten().collectMany { SchemaPassPlan.SchemaPass pass ->
+            bindings.write(SchemaBindings.getCompiledFiles(pass.files, documents),
+                    folder.root.toPath().resolve("${pass.index}-bindings"))
+        }
+
+        then:
+        passBindings.size() == 1
+        passBindings[0].text.contains('name="com.example.types"')
+        bindings.unselectedSchemas.empty
+        new SchemaBindings([bindingFile]).with {
+            write(SchemaBindings.getCompiledFiles(plan.levels.flatten()*.files.flatten(), documents),
+                    folder.root.toPath().resolve("original-bindings")).empty && unselectedSchemas.size() == 1
+        }
+    }
+
+    protected static Map<String, Element> elements(Path file, String localName) {
+        DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance()
+        factory.namespaceAware = true
+        NodeList nodes = factory.newDocumentBuilder().parse(file.toFile())
+                .getElementsByTagNameNS(XMLConstants.W3C_XML_SCHEMA_NS_URI, localName)
+        (0..<nodes.length).collect { nodes.item(it) as Element }.collectEntries {
+            [(it.getAttribute("name") ?: it.getAttribute("namespace")): it]
+        }
+    }
+
+    protected static String contentTypes(Element element) {
+        element.getAttributeNS(AttachmentRewriter.XMIME_NAMESPACE, "expectedContentTypes")
+    }
+}
@@ -0,0 +1,161 @@
+/*
+ * BSD 2-Clause License
+ *
+ * Copyright (c) 2016-2017, Jochen Seeber
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package me.seeber.gradle.wsimport.test
+
+import java.nio.file.Path
+import java.util.function.Supplier
+
+import javax.jws.WebService
+import javax.tools.ToolProvider
+
+import groovy.io.FileType
+
+import org.junit.Rule
+import org.junit.rules.TemporaryFolder
+
+import me.seeber.gradle.wsimport.BenchmarkGenerator
+import spock.lang.Specification
+
+class BenchmarkGeneratorSpec extends Specification {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder()
+
+    Path sourceDir
+
+    Path targetDir
+
+    def setup() {
+        sourceDir = folder.newFolder("generated").toPath()
+        targetDir = folder.newFolder("benchmarks").toPath()
+
+        write(sourceDir, "com/example/Weather.java", """\
+            package com.example;
+
+            import javax.xml.ws.Service;
+            import javax.xml.ws.WebEndpoint;
+            import javax.xml.ws.WebServiceClient;
+
+            @WebServiceClient(name = "WeatherService", targetNamespace = "urn:weather")
+            public class Weather extends Service {
+
+                @WebEndpoint(name = "WeatherSoap")
+                public WeatherSoap getWeatherSoap() {
+                    return null;
+                }
+
+            }
+            """.stripIndent())
+        write(sourceDir, "com/example/WeatherSoap.java", """\
+            package com.example;
+
+            import java.util.List;
+            import javax.jws.WebParam;
+            import javax.jws.WebService;
+
+            @WebService(name = "WeatherSoap", targetNamespace = "urn:weather")
+            public interface WeatherSoap {
+
+                public String getWeather(@WebParam(name = "city") String city, @WebParam(name = "days") int days);
+
+                public int getTemperature(@WebParam(name = "city") String city);
+
+                public List<String> getCities();
+
+                public void reset();
+
+            }
+            """.stripIndent())
+        write(sourceDir, "com/example/other/StockSoap.java", """\
+            package com.example.other;
+
+            import javax.jws.WebService;
+
+            @WebService(name = "StockSoap")
+            public interface StockSoap {
+
+                public long getPrice(String symbol);
+
+            }
+            """.stripIndent())
+    }
+
+    def "generates_stubs_and_benchmarks_for_ports_of_services"() {
+        when:
+        int count = new BenchmarkGenerator().generate(sourceDir, targetDir)
+
+        then:
+        count == 2
+        String stub = targetDir.resolve("com/example/WeatherSoapStub.java").text
+        stub.contains('@WebService(endpointInterface = "com.example.WeatherSoap", targetNamespace = "urn:weather", '
+                + 'serviceName = "WeatherService", portName = "WeatherSoap")')
+        String benchmark = targetDir.resolve("com/example/WeatherSoapBenchmark.java").text
+        benchmark.contains("this.client = new Weather().getWeatherSoap();")
+        benchmark.contains("return this.client.getWeather(null, 0);")
+        benchmark.contains("public void reset() throws Exception {")
+        targetDir.resolve("com/example/other/StockSoapStub.java").toFile().exists()
+        !targetDir.resolve("com/example/other/StockSoapBenchmark.java").toFile().exists()
+    }
+
+    def "responds_with_configured_or_default_values"() {
+        when:
+        new BenchmarkGenerator().generate(sourceDir, targetDir)
+        File classesDir = folder.newFolder("classes")
+        List<String> classpath = [WebService].collect { it.protectionDomain.codeSource?.location }.findAll()
+                .collect { new File(it.toURI()).path }
+        List<String> arguments = ["-d", classesDir.path, sourceDir.resolve("com/example/WeatherSoap.java").toString(),
+            sourceDir.resolve("com/example/other/StockSoap.java").toString()]
+
+        if (!classpath.empty) {
+            arguments.addAll(["-cp", classpath.join(File.pathSeparator)])
+        }
+
+        targetDir.toFile().eachFileRecurse(FileType.FILES) {
+            if (!it.name.endsWith("Benchmark.java")) {
+                arguments.add(it.path)
+            }
+        }
+        int result = ToolProvider.systemJavaCompiler.run(null, null, null, arguments as String[])
+        URLClassLoader loader = new URLClassLoader([classesDir.toURI().toURL()] as URL[], getClass().classLoader)
+        Object stub = loader.loadClass("com.example.WeatherSoapStub").newInstance()
+        stub.respond("getWeather", { "sunny" } as Supplier)
+
+        then:
+        result == 0
+        stub.getWeather("Berlin", 1) == "sunny"
+        stub.getTemperature("Berlin") == 0
+        stub.getCities() == null
+        loader.loadClass("com.example.other.StockSoapStub").newInstance().getPrice("X") == 0L
+    }
+
+    protected static void write(Path dir, String name, String content) {
+        Path file = dir.resolve(name)
+        file.parent.toFile().mkdirs()
+        file.text = content
+    }
+}
@@ -0,0 +1,105 @@
+/*
+ * BSD 2-Clause License
+ *
+ * Copyright (c) 2016-2017, Jochen Seeber
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package me.seeber.gradle.wsimport.test
+
+import java.nio.file.Path
+
+import org.junit.Rule
+import org.junit.rules.TemporaryFolder
+
+import me.seeber.gradle.wsimport.CompileUnitPlan
+import spock.lang.Specification
+
+class CompileUnitPlanSpec extends Specification {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder()
+
+    Path sourceDir
+
+    Map<String, Path> sources = [:]
+
+    def setup() {
+        sourceDir = folder.newFolder("generated").toPath()
+    }
+
+    def "groups_packages_by_namespace_and_orders_units_after_their_dependencies"() {
+        when:
+        packageInfo("com/example/a", "urn:a")
+        packageInfo("com/example/a/extra", "urn:a")
+        packageInfo("com/example/b", "urn:b")
+        write("com/example/a/A.java", "package com.example.a; public class A { com.example.b.B b; }")
+        write("com/example/a/extra/Extra.java", "package com.example.a.extra; public class Extra { }")
+        write("com/example/b/B.java", "package com.example.b; public class B { }")
+        write("com/example/service/Port.java",
+                "package com.example.service; public interface Port { com.example.a.A get(); }")
+        CompileUnitPlan plan = CompileUnitPlan.create(sources)
+
+        then:
+        namespaces(plan) == [[["urn:b"]], [["urn:a"]], [["com.example.service"]]]
+        plan.levels[1][0].packages as List == ["com.example.a", "com.example.a.extra"]
+        plan.levels[2][0].dependencies*.index as Set == [plan.levels[0][0].index, plan.levels[1][0].index] as Set
+        plan.units.size() == 3
+    }
+
+    def "merges_units_referencing_each_other"() {
+        when:
+        packageInfo("com/example/c", "urn:c")
+        packageInfo("com/example/d", "urn:d")
+        packageInfo("com/example/e", "urn:e")
+        write("com/example/c/C.java", "package com.example.c; public class C { com.example.d.D d; }")
+        write("com/example/d/D.java", "package com.example.d; public class D { com.example.c.C c; }")
+        write("com/example/e/E.java", "package com.example.e; public class E { }")
+        CompileUnitPlan plan = CompileUnitPlan.create(sources)
+
+        then:
+        plan.levels.size() == 1
+        plan.levels[0].collect { it.namespaces as List } as Set == [["urn:c", "urn:d"], ["urn:e"]] as Set
+        plan.levels[0].every { it.dependencies.empty }
+    }
+
+    protected void packageInfo(String packagePath, String namespace) {
+        String packageName = packagePath.replace('/', '.')
+        write("${packagePath}/package-info.java", """\
+            @javax.xml.bind.annotation.XmlSchema(namespace = "${namespace}",
+                    elementFormDefault = javax.xml.bind.annotation.XmlNsForm.QUALIFIED)
+            package ${packageName};
+            """.stripIndent())
+    }
+
+    protected void write(String name, String content) {
+        Path file = sourceDir.resolve(name)
+        file.parent.toFile().mkdirs()
+        file.text = content
+        sources[name] = file
+    }
+
+    protected static List<List<List<String>>> namespaces(CompileUnitPlan plan) {
+        plan.levels.collect { level -> level.collect { it.namespaces as List } }
+    }
+}
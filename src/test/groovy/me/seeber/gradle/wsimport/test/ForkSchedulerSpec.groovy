@@ -0,0 +1,135 @@
+/*
+ * BSD 2-Clause License
+ *
+ * Copyright (c) 2016-2017, Jochen Seeber
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package me.seeber.gradle.wsimport.test
+
+import java.lang.management.ManagementFactory
+
+import com.sun.management.OperatingSystemMXBean
+
+import org.gradle.api.Task
+import org.gradle.api.execution.TaskExecutionGraph
+import org.gradle.api.tasks.TaskDependency
+
+import me.seeber.gradle.wsimport.ForkScheduler
+import spock.lang.Specification
+
+class ForkSchedulerSpec extends Specification {
+
+    ForkScheduler scheduler = new ForkScheduler()
+
+    def "calculates_priorities_from_the_longest_chain_of_dependents"() {
+        when:
+        Task validate = task("validate")
+        Task wsimport = task("wsimport", validate)
+        Task compile = task("compile", wsimport)
+        Task jar = task("jar", compile)
+        Task other = task("other", wsimport)
+        scheduler.updatePriorities(graph(validate, wsimport, compile, jar, other))
+
+        then:
+        scheduler.getPriority(validate) == 3
+        scheduler.getPriority(wsimport) == 2
+        scheduler.getPriority(compile) == 1
+        scheduler.getPriority(jar) == 0
+        scheduler.getPriority(other) == 0
+        scheduler.getPriority(task("unknown")) == 0
+    }
+
+    def "starts_waiting_tasks_in_order_of_priority"() {
+        when:
+        Task first = task("first")
+        Task low = task("low")
+        Task high = task("high")
+        Task dependent = task("dependent", high)
+        scheduler.updatePriorities(graph(first, low, high, dependent))
+        scheduler.@maxForks = 1
+        List<String> started = Collections.synchronizedList([])
+        ForkScheduler.Lease lease = scheduler.acquire(first, 0L)
+        Thread lowThread = Thread.start { scheduler.acquire(low, 0L).withCloseable { started.add("low") } }
+        waitForWaiting(1)
+        Thread highThread = Thread.start { scheduler.acquire(high, 0L).withCloseable { started.add("high") } }
+        waitForWaiting(2)
+        lease.close()
+        lowThread.join(10000L)
+        highThread.join(10000L)
+
+        then:
+        started == ["high", "low"]
+    }
+
+    def "releases_a_lease_closed_twice_only_once"() {
+        when:
+        scheduler.@maxForks = 2
+        scheduler.@memoryBudget = Long.MAX_VALUE
+        ForkScheduler.Lease first = scheduler.acquire(task("first"), 1024L)
+        ForkScheduler.Lease second = scheduler.acquire(task("second"), 2048L)
+        first.close()
+        first.close()
+
+        then:
+        scheduler.@running == 1
+        scheduler.@reservedMemory == 2048L
+
+        cleanup:
+        second.close()
+    }
+
+    def "uses_a_share_of_the_total_physical_memory_as_default_budget"() {
+        when:
+        OperatingSystemMXBean system = ManagementFactory.operatingSystemMXBean
+        long total = system.totalPhysicalMemorySize
+
+        then:
+        scheduler.memoryBudget == ForkScheduler.defaultMemoryBudget
+        ForkScheduler.defaultMemoryBudget == total.intdiv(100L) * ForkScheduler.DEFAULT_MEMORY_SHARE
+    }
+
+    protected void waitForWaiting(int count) {
+        long end = System.currentTimeMillis() + 10000L
+
+        while (scheduler.@waiting.size() < count && System.currentTimeMillis() < end) {
+            Thread.sleep(10L)
+        }
+    }
+
+    protected Task task(String name, Task... dependencies) {
+        Task task = Mock(Task)
+        TaskDependency taskDependency = Mock(TaskDependency)
+        task.getPath() >> ":${name}"
+        task.getTaskDependencies() >> taskDependency
+        taskDependency.getDependencies(_) >> (dependencies as Set)
+        return task
+    }
+
+    protected TaskExecutionGraph graph(Task... tasks) {
+        TaskExecutionGraph graph = Mock(TaskExecutionGraph)
+        graph.getAllTasks() >> tasks.toList()
+        return graph
+    }
+
+}
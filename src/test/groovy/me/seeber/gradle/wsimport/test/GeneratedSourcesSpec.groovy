@@ -0,0 +1,96 @@
+/*
+ * BSD 2-Clause License
+ *
+ * Copyright (c) 2016-2017, Jochen Seeber
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package me.seeber.gradle.wsimport.test
+
+import java.nio.file.Files
+import java.nio.file.Path
+import java.nio.file.attribute.FileTime
+
+import org.junit.Rule
+import org.junit.rules.TemporaryFolder
+
+import me.seeber.gradle.wsimport.GeneratedSources
+import spock.lang.Specification
+
+class GeneratedSourcesSpec extends Specification {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder()
+
+    Path sourceDir
+
+    def setup() {
+        sourceDir = folder.newFolder("generated").toPath()
+    }
+
+    def "hands_each_file_to_all_processors_in_order"() {
+        when:
+        write("com/example/A.java", "class A { }")
+        write("com/example/B.java", "class B { }")
+        Files.setLastModifiedTime(write("com/example/Old.java", "class Old { }"), FileTime.fromMillis(1000L))
+        List<String> seen = []
+        List<Path> completed = []
+        GeneratedSources.Processor first = { Path file, String source ->
+            Files.write(file.resolveSibling(file.fileName.toString().replace(".java", "Copy.java")), source.bytes)
+            source.replace("{ }", "{ int a; }")
+        } as GeneratedSources.Processor
+        GeneratedSources.Processor second = new GeneratedSources.Processor() {
+            String process(Path file, String source) {
+                seen << source
+                source
+            }
+
+            void complete(Path directory) {
+                completed << directory
+            }
+        }
+        GeneratedSources.process(sourceDir, 60000L, [first, second])
+
+        then:
+        seen.sort() == ["class A { int a; }", "class B { int a; }"]
+        completed == [sourceDir]
+        sourceDir.resolve("com/example/ACopy.java").toFile().exists()
+    }
+
+    def "skips_missing_directories"() {
+        when:
+        GeneratedSources.process(sourceDir.resolve("missing"), 0L, [{ Path file, String source ->
+            throw new IllegalStateException()
+        } as GeneratedSources.Processor])
+
+        then:
+        noExceptionThrown()
+    }
+
+    protected Path write(String name, String content) {
+        Path file = sourceDir.resolve(name)
+        file.parent.toFile().mkdirs()
+        file.text = content
+        file
+    }
+}
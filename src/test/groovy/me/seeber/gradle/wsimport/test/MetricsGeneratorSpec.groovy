@@ -0,0 +1,287 @@
+/*
+ * BSD 2-Clause License
+ *
+ * Copyright (c) 2016-2017, Jochen Seeber
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package me.seeber.gradle.wsimport.test
+
+import java.nio.file.Path
+
+import javax.jws.WebService
+import javax.tools.ToolProvider
+import javax.xml.namespace.QName
+import javax.xml.soap.SOAPMessage
+import javax.xml.ws.Endpoint
+import javax.xml.ws.Service
+import javax.xml.ws.soap.SOAPFaultException
+
+import groovy.io.FileType
+
+import org.gradle.api.GradleException
+import org.junit.Rule
+import org.junit.rules.TemporaryFolder
+
+import me.seeber.gradle.wsimport.MetricsGenerator
+import spock.lang.Specification
+
+class MetricsGeneratorSpec extends Specification {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder()
+
+    Path sourceDir
+
+    def setup() {
+        sourceDir = folder.newFolder("generated").toPath()
+
+        write(sourceDir, "com/example/Weather.java", """\
+            package com.example;
+
+            import java.net.URL;
+
+            import javax.xml.namespace.QName;
+            import javax.xml.ws.Service;
+            import javax.xml.ws.WebEndpoint;
+            import javax.xml.ws.WebServiceClient;
+
+            @WebServiceClient(name = "Weather", targetNamespace = "urn:weather")
+            public class Weather extends Service {
+
+                public Weather(URL wsdlLocation) {
+                    super(wsdlLocation, new QName("urn:weather", "Weather"));
+                }
+
+                @WebEndpoint(name = "WeatherSoap")
+                public WeatherSoap getWeatherSoap() {
+                    return super.getPort(new QName("urn:weather", "WeatherSoap"), WeatherSoap.class);
+                }
+
+            }
+            """.stripIndent())
+        write(sourceDir, "com/example/WeatherSoap.java", """\
+            package com.example;
+
+            import javax.jws.WebParam;
+            import javax.jws.WebService;
+
+            @WebService(name = "WeatherSoap", targetNamespace = "urn:weather")
+            public interface WeatherSoap {
+                String getWeather(@WebParam(name = "arg0") String city);
+            }
+            """.stripIndent())
+    }
+
+    def "generates_metrics_classes_for_services"() {
+        when:
+        int count = new MetricsGenerator("com.example.metrics").generate(sourceDir, 0L)
+
+        then:
+        count == 1
+        String metrics = sourceDir.resolve("com/example/WeatherMetrics.java").text
+        metrics.contains("import com.example.metrics.MetricsHandler;")
+        metrics.contains("public static WeatherSoap getWeatherSoap(Weather service, MessageMetrics metrics)")
+        String handler = sourceDir.resolve("com/example/metrics/MetricsHandler.java").text
+        handler.startsWith("package com.example.metrics;")
+        handler.contains("import javax.xml.ws.handler.LogicalHandler;")
+        sourceDir.resolve("com/example/metrics/MessageMetrics.java").toFile().exists()
+        sourceDir.resolve("com/example/metrics/HistogramMetrics.java").toFile().exists()
+        sourceDir.resolve("com/example/metrics/MessageSizeHandler.java").text
+                .contains("import javax.xml.ws.handler.soap.SOAPHandler;")
+    }
+
+    def "does_not_write_metrics_package_without_services"() {
+        when:
+        int count = new MetricsGenerator(MetricsGenerator.DEFAULT_PACKAGE).generate(sourceDir,
+                System.currentTimeMillis() + 60000L)
+
+        then:
+        count == 0
+        !sourceDir.resolve("me/seeber/wsimport/metrics").toFile().exists()
+    }
+
+    def "rejects_services_of_different_apis"() {
+        when:
+        write(sourceDir, "com/example/jakarta/Stock.java", """\
+            package com.example.jakarta;
+
+            import jakarta.xml.ws.Service;
+            import jakarta.xml.ws.WebServiceClient;
+
+            @WebServiceClient(name = "Stock")
+            public class Stock extends Service {
+            }
+            """.stripIndent())
+        new MetricsGenerator(MetricsGenerator.DEFAULT_PACKAGE).generate(sourceDir, 0L)
+
+        then:
+        thrown(GradleException)
+    }
+
+    def "records_calls_without_request_sizes_by_default"() {
+        when:
+        Map<String, Object> call = call(false, "Berlin")
+
+        then:
+        call.result == "Sunny in Berlin"
+        call.metrics.calls == 1
+        call.metrics.operation == new QName("urn:weather", "getWeather")
+        call.metrics.latencyNanos > 0L
+        call.metrics.requestBytes == -1L
+        !call.metrics.fault
+    }
+
+    def "records_calls_with_counted_sizes"() {
+        when:
+        Map<String, Object> call = call(true, "Berlin")
+
+        then:
+        call.result == "Sunny in Berlin"
+        call.metrics.calls == 1
+        call.metrics.requestBytes > 0L
+        call.metrics.responseBytes > 0L
+        !call.metrics.fault
+    }
+
+    def "records_faults"() {
+        when:
+        Map<String, Object> call = call(true, "Atlantis")
+
+        then:
+        call.result instanceof SOAPFaultException
+        call.metrics.calls == 1
+        call.metrics.fault
+        call.metrics.responseBytes > 0L
+    }
+
+    /**
+     * Call a weather service published on a local endpoint through a client with metrics handlers
+     *
+     * @param countingBytes <code>true</code> if the metrics count the message sizes
+     * @param city City to get the weather for, <code>Atlantis</code> causes a fault
+     * @return Result of the call and the metrics recorded for it
+     */
+    protected Map<String, Object> call(boolean countingBytes, String city) {
+        new MetricsGenerator("com.example.metrics").generate(sourceDir, 0L)
+        write(sourceDir, "com/example/server/WeatherImpl.java", """\
+            package com.example.server;
+
+            import javax.jws.WebService;
+
+            @WebService(name = "WeatherSoap", serviceName = "Weather", portName = "WeatherSoap",
+                    targetNamespace = "urn:weather")
+            public class WeatherImpl {
+                public String getWeather(String city) {
+                    if ("Atlantis".equals(city)) {
+                        throw new IllegalArgumentException("Unknown city " + city);
+                    }
+
+                    return "Sunny in " + city;
+                }
+            }
+            """.stripIndent())
+        write(sourceDir, "com/example/RecordingMetrics.java", """\
+            package com.example;
+
+            import javax.xml.namespace.QName;
+
+            import com.example.metrics.MessageMetrics;
+
+            public class RecordingMetrics implements MessageMetrics {
+                public final boolean countingBytes;
+                public int calls;
+                public QName operation;
+                public long latencyNanos;
+                public long requestBytes;
+                public long responseBytes;
+                public boolean fault;
+
+                public RecordingMetrics(boolean countingBytes) {
+                    this.countingBytes = countingBytes;
+                }
+
+                @Override
+                public void record(QName operation, long latencyNanos, long requestBytes, long responseBytes,
+                        boolean fault) {
+                    ++this.calls;
+                    this.operation = operation;
+                    this.latencyNanos = latencyNanos;
+                    this.requestBytes = requestBytes;
+                    this.responseBytes = responseBytes;
+                    this.fault = fault;
+                }
+
+                @Override
+                public boolean isCountingBytes() {
+                    return this.countingBytes;
+                }
+            }
+            """.stripIndent())
+
+        ClassLoader loader = compile()
+        int port = new ServerSocket(0).withCloseable { it.localPort }
+        String address = "http://localhost:${port}/weather"
+        Endpoint endpoint = Endpoint.publish(address, loader.loadClass("com.example.server.WeatherImpl").newInstance())
+
+        try {
+            Object metrics = loader.loadClass("com.example.RecordingMetrics").newInstance(countingBytes)
+            Object service = loader.loadClass("com.example.Weather").newInstance(new URL("${address}?wsdl"))
+            Object client = loader.loadClass("com.example.WeatherMetrics").getWeatherSoap(service, metrics)
+            Object result
+
+            try {
+                result = client.getWeather(city)
+            }
+            catch (SOAPFaultException e) {
+                result = e
+            }
+
+            [result: result, metrics: metrics]
+        }
+        finally {
+            endpoint.stop()
+        }
+    }
+
+    protected ClassLoader compile() {
+        File classesDir = folder.newFolder("classes")
+        List<String> classpath = [Service, WebService, SOAPMessage].collect { it.protectionDomain.codeSource?.location }
+                .findAll().collect { new File(it.toURI()).path }
+        List<String> arguments = ["-d", classesDir.path]
+
+        if (!classpath.empty) {
+            arguments.addAll(["-cp", classpath.join(File.pathSeparator)])
+        }
+
+        sourceDir.toFile().eachFileRecurse(FileType.FILES) { arguments.add(it.path) }
+        assert ToolProvider.systemJavaCompiler.run(null, null, null, arguments as String[]) == 0
+        new URLClassLoader([classesDir.toURI().toURL()] as URL[], getClass().classLoader)
+    }
+
+    protected static void write(Path dir, String name, String content) {
+        Path file = dir.resolve(name)
+        file.parent.toFile().mkdirs()
+        file.text = content
+    }
+}
@@ -0,0 +1,146 @@
+/*
+ * BSD 2-Clause License
+ *
+ * Copyright (c) 2016-2017, Jochen Seeber
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package me.seeber.gradle.wsimport.test
+
+import java.nio.file.Files
+import java.nio.file.Path
+import java.nio.file.Paths
+
+import org.gradle.api.GradleException
+import org.junit.Rule
+import org.junit.rules.TemporaryFolder
+
+import me.seeber.gradle.wsimport.OutputMerger
+import spock.lang.Requires
+import spock.lang.Specification
+
+class OutputMergerSpec extends Specification {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder()
+
+    def "merges_files_generated_for_several_wsdls"() {
+        when:
+        Path a = stage("a", ["com/example/A.java": "class A {}", "com/example/ObjectFactory.java": "factory"])
+        Path b = stage("b", ["com/example/B.java": "class B {}", "com/example/ObjectFactory.java": "factory"])
+        Path destination = folder.newFolder("merged").toPath()
+        OutputMerger merger = new OutputMerger(destination)
+        merger.add("a.wsdl", a)
+        merger.add("b.wsdl", b)
+
+        then:
+        merger.merge() == 3
+        destination.resolve("com/example/A.java").toFile().text == "class A {}"
+        destination.resolve("com/example/B.java").toFile().text == "class B {}"
+        destination.resolve("com/example/ObjectFactory.java").toFile().text == "factory"
+    }
+
+    def "links_merged_files_and_skips_unchanged_files"() {
+        when:
+        Path a = stage("a", ["com/example/A.java": "class A {}"])
+        Path destination = folder.newFolder("merged").toPath()
+        OutputMerger merger = new OutputMerger(destination)
+        merger.add("a.wsdl", a)
+        int merged = merger.merge()
+
+        then:
+        merged == 1
+        Files.isSameFile(a.resolve("com/example/A.java"), destination.resolve("com/example/A.java"))
+        merger.merge() == 0
+    }
+
+    def "fails_on_different_files_with_the_same_name"() {
+        when:
+        Path a = stage("a", ["com/example/ObjectFactory.java": "factory a"])
+        Path b = stage("b", ["com/example/ObjectFactory.java": "factory b"])
+        OutputMerger merger = new OutputMerger(folder.newFolder("merged").toPath())
+        merger.add("a.wsdl", a)
+        merger.add("b.wsdl", b)
+        merger.merge()
+
+        then:
+        GradleException e = thrown()
+        e.message.contains("ObjectFactory.java (generated for a.wsdl and b.wsdl)")
+    }
+
+    def "ignores_missing_staging_directories"() {
+        when:
+        OutputMerger merger = new OutputMerger(folder.newFolder("merged").toPath())
+        merger.add("a.wsdl", folder.root.toPath().resolve("missing"))
+
+        then:
+        merger.merge() == 0
+    }
+
+    def "replaces_existing_target_files"() {
+        when:
+        Path source = stage("a", ["A.java": "new"]).resolve("A.java")
+        Path target = folder.newFolder("merged").toPath().resolve("A.java")
+        target.toFile().text = "old"
+        OutputMerger.linkOrCopy(source, target)
+
+        then:
+        target.toFile().text == "new"
+    }
+
+    @Requires({
+        Path shm = Paths.get("/dev/shm")
+        Files.isDirectory(shm) && Files.isWritable(shm)
+                && Files.getFileStore(shm) != Files.getFileStore(Paths.get(System.getProperty("java.io.tmpdir")))
+    })
+    def "copies_files_if_hard_links_are_not_possible"() {
+        when:
+        Path source = stage("a", ["A.java": "class A {}"]).resolve("A.java")
+        Path targetDir = Files.createTempDirectory(Paths.get("/dev/shm"), "merged")
+        Path target = targetDir.resolve("A.java")
+        OutputMerger.linkOrCopy(source, target)
+        OutputMerger merger = new OutputMerger(targetDir)
+        merger.add("a.wsdl", source.parent)
+
+        then:
+        target.toFile().text == "class A {}"
+        !Files.isSameFile(source, target)
+        merger.merge() == 0
+
+        cleanup:
+        targetDir?.toFile()?.deleteDir()
+    }
+
+    protected Path stage(String name, Map<String, String> files) {
+        Path dir = folder.newFolder(name).toPath()
+
+        files.each { path, content ->
+            Path file = dir.resolve(path)
+            Files.createDirectories(file.parent)
+            file.toFile().text = content
+        }
+
+        dir
+    }
+
+}
@@ -0,0 +1,149 @@
+/*
+ * BSD 2-Clause License
+ *
+ * Copyright (c) 2016-2017, Jochen Seeber
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package me.seeber.gradle.wsimport.test
+
+import java.nio.file.Path
+
+import org.junit.Rule
+import org.junit.rules.TemporaryFolder
+
+import com.sun.tools.xjc.Driver
+
+import me.seeber.gradle.wsimport.SchemaBindings
+import me.seeber.gradle.wsimport.SchemaPassPlan
+import me.seeber.gradle.wsimport.WsdlDocument
+import me.seeber.gradle.wsimport.WsdlScanner
+import spock.lang.Specification
+
+class SchemaBindingsSpec extends Specification {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder()
+
+    Path baseDir
+
+    def setup() {
+        baseDir = folder.newFolder("wsdl").toPath()
+
+        baseDir.resolve("service.wsdl").toFile().text = """\
+            <definitions xmlns="http://schemas.xmlsoap.org/wsdl/" xmlns:xsd="http://www.w3.org/2001/XMLSchema"
+                    targetNamespace="urn:service">
+                <types>
+                    <xsd:schema targetNamespace="urn:service">
+                        <xsd:import namespace="urn:orders" schemaLocation="orders.xsd"/>
+                    </xsd:schema>
+                </types>
+            </definitions>
+            """.stripIndent()
+
+        baseDir.resolve("orders.xsd").toFile().text = """\
+            <xsd:schema xmlns:xsd="http://www.w3.org/2001/XMLSchema" xmlns:c="urn:common"
+                    targetNamespace="urn:orders">
+                <xsd:import namespace="urn:common" schemaLocation="common.xsd"/>
+                <xsd:complexType name="Order">
+                    <xsd:sequence><xsd:element name="customer" type="c:Customer"/></xsd:sequence>
+                </xsd:complexType>
+            </xsd:schema>
+            """.stripIndent()
+
+        baseDir.resolve("common.xsd").toFile().text = """\
+            <xsd:schema xmlns:xsd="http://www.w3.org/2001/XMLSchema" targetNamespace="urn:common">
+                <xsd:complexType name="Customer">
+                    <xsd:sequence><xsd:element name="name" type="xsd:string"/></xsd:sequence>
+                </xsd:complexType>
+            </xsd:schema>
+            """.stripIndent()
+
+        baseDir.resolve("bindings.xjb").toFile().text = """\
+            <jaxb:bindings xmlns:jaxb="http://java.sun.com/xml/ns/jaxb" xmlns:xsd="http://www.w3.org/2001/XMLSchema"
+                    version="2.1">
+                <jaxb:bindings schemaLocation="orders.xsd">
+                    <jaxb:schemaBindings><jaxb:package name="com.example.orders"/></jaxb:schemaBindings>
+                </jaxb:bindings>
+                <jaxb:bindings schemaLocation="common.xsd">
+                    <jaxb:schemaBindings><jaxb:package name="com.example.common"/></jaxb:schemaBindings>
+                    <jaxb:bindings node="//xsd:complexType[@name='Customer']">
+                        <jaxb:class name="Client"/>
+                    </jaxb:bindings>
+                </jaxb:bindings>
+            </jaxb:bindings>
+            """.stripIndent()
+    }
+
+    def "selects_bindings_of_compiled_schemas"() {
+        when:
+        SchemaBindings bindings = new SchemaBindings([baseDir.resolve("bindings.xjb").toFile()])
+        List<File> files = bindings.write([baseDir.resolve("common.xsd").toAbsolutePath().normalize()],
+                folder.newFolder("bindings").toPath())
+
+        then:
+        files.size() == 1
+        String content = files[0].text
+        content.contains("schemaLocation=\"${baseDir.resolve("common.xsd").toAbsolutePath().normalize().toUri()}\"")
+        content.contains('name="com.example.common"')
+        !content.contains('name="com.example.orders"')
+    }
+
+    def "ignores_jaxws_binding_files"() {
+        when:
+        File jaxws = baseDir.resolve("jaxws.xml").toFile()
+        jaxws.text = '<jaxws:bindings xmlns:jaxws="http://java.sun.com/xml/ns/jaxws" wsdlLocation="service.wsdl"/>'
+        SchemaBindings bindings = new SchemaBindings([jaxws])
+
+        then:
+        bindings.write([baseDir.resolve("common.xsd").toAbsolutePath().normalize()],
+                folder.newFolder("bindings").toPath()).empty
+    }
+
+    def "applies_customizations_in_split_passes"() {
+        when:
+        List<WsdlDocument> documents = new WsdlScanner().scan(baseDir.resolve("service.wsdl"))
+        SchemaPassPlan plan = SchemaPassPlan.create(documents)
+        SchemaBindings bindings = new SchemaBindings([baseDir.resolve("bindings.xjb").toFile()])
+        File outputDir = folder.newFolder("generated")
+        Map<SchemaPassPlan.SchemaPass, File> episodes = [:]
+
+        plan.levels.flatten().each { SchemaPassPlan.SchemaPass pass ->
+            File episode = new File(folder.root, "${pass.index}.episode")
+            List<String> arguments = ["-d", outputDir.path, "-episode", episode.path, "-extension", "-quiet"]
+            pass.dependencies.each { arguments.addAll(["-b", episodes[it].path]) }
+            bindings.write(SchemaBindings.getCompiledFiles(pass.files, documents),
+                    folder.root.toPath().resolve("${pass.index}-bindings")).each { arguments.addAll(["-b", it.path]) }
+            arguments.addAll(pass.files*.toString())
+            assert Driver.run(arguments as String[], System.out, System.out) == 0
+            episodes[pass] = episode
+        }
+
+        then:
+        plan.levels.size() == 2
+        new File(outputDir, "com/example/common/Client.java").isFile()
+        new File(outputDir, "com/example/orders/Order.java").isFile()
+        !new File(outputDir, "com/example/orders/Client.java").exists()
+    }
+
+}
@@ -0,0 +1,97 @@
+/*
+ * BSD 2-Clause License
+ *
+ * Copyright (c) 2016-2017, Jochen Seeber
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package me.seeber.gradle.wsimport.test
+
+import java.nio.file.Paths
+
+import me.seeber.gradle.wsimport.SchemaPassPlan
+import me.seeber.gradle.wsimport.WsdlDocument
+import spock.lang.Specification
+
+class SchemaPassPlanSpec extends Specification {
+
+    def "orders_passes_after_their_imports"() {
+        when:
+        SchemaPassPlan plan = SchemaPassPlan.create([
+            wsdl("service.wsdl", "urn:service", "a.xsd"),
+            schema("a.xsd", "urn:a", "b.xsd"),
+            schema("b.xsd", "urn:b", "c.xsd"),
+            schema("c.xsd", "urn:c")])
+
+        then:
+        namespaces(plan.levels) == [[["urn:c"]], [["urn:b"]], [["urn:a"]]]
+        namespaces([plan.levels[2][0].dependencies]) == [[["urn:b"], ["urn:c"]]]
+        plan.levels[2][0].files == [Paths.get("a.xsd")]
+    }
+
+    def "merges_namespaces_importing_each_other"() {
+        when:
+        SchemaPassPlan plan = SchemaPassPlan.create([
+            schema("a.xsd", "urn:a", "b.xsd", "c.xsd"),
+            schema("b.xsd", "urn:b", "a.xsd"),
+            schema("c.xsd", "urn:c"),
+            schema("d.xsd", "urn:d")])
+
+        then:
+        plan.levels.size() == 2
+        namespaces([plan.levels[0]])[0] as Set == [["urn:c"], ["urn:d"]] as Set
+        namespaces([plan.levels[1]]) == [[["urn:a", "urn:b"]]]
+        plan.levels[1][0].files as Set == [Paths.get("a.xsd"), Paths.get("b.xsd")] as Set
+        namespaces([plan.levels[1][0].dependencies]) == [[["urn:c"]]]
+    }
+
+    def "compiles_included_schemas_with_their_namespace"() {
+        when:
+        SchemaPassPlan plan = SchemaPassPlan.create([
+            wsdl("service.wsdl", "urn:service", "a.xsd"),
+            schema("a.xsd", "urn:a", "part.xsd"),
+            new WsdlDocument(Paths.get("part.xsd"), false, "urn:a", true, [])])
+
+        then:
+        namespaces(plan.levels) == [[["urn:a"]]]
+        plan.levels[0][0].files == [Paths.get("a.xsd")]
+        !plan.empty
+    }
+
+    def "creates_empty_plan_without_schemas"() {
+        expect:
+        SchemaPassPlan.create([wsdl("service.wsdl", "urn:service")]).empty
+    }
+
+    protected static List<List<List<String>>> namespaces(Collection<Collection<SchemaPassPlan.SchemaPass>> levels) {
+        levels.collect { level -> level.collect { it.namespaces as List } }
+    }
+
+    protected static WsdlDocument wsdl(String file, String namespace, String... imports) {
+        new WsdlDocument(Paths.get(file), true, namespace, false, imports.collect { Paths.get(it) })
+    }
+
+    protected static WsdlDocument schema(String file, String namespace, String... imports) {
+        new WsdlDocument(Paths.get(file), false, namespace, false, imports.collect { Paths.get(it) })
+    }
+}
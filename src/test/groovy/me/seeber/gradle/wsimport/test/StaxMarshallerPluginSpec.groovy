@@ -0,0 +1,145 @@
+/*
+ * BSD 2-Clause License
+ *
+ * Copyright (c) 2016-2017, Jochen Seeber
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package me.seeber.gradle.wsimport.test
+
+import java.lang.reflect.InvocationHandler
+import java.lang.reflect.Proxy
+import java.nio.file.Path
+
+import javax.tools.ToolProvider
+import javax.xml.bind.DatatypeConverter
+import javax.xml.ws.Dispatch
+
+import groovy.io.FileType
+
+import org.junit.Rule
+import org.junit.rules.TemporaryFolder
+
+import com.sun.tools.xjc.Driver
+
+import me.seeber.gradle.wsimport.xjc.StaxMarshallerPlugin
+import spock.lang.Specification
+
+class StaxMarshallerPluginSpec extends Specification {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder()
+
+    Path baseDir
+
+    File outputDir
+
+    def setup() {
+        baseDir = folder.newFolder("xsd").toPath()
+        outputDir = folder.newFolder("generated")
+
+        baseDir.resolve("item.xsd").toFile().text = """\
+            <xsd:schema xmlns:xsd="http://www.w3.org/2001/XMLSchema" targetNamespace="urn:items"
+                    elementFormDefault="qualified">
+                <xsd:element name="item">
+                    <xsd:complexType>
+                        <xsd:sequence>
+                            <xsd:element name="id" type="xsd:string"/>
+                            <xsd:element name="count" type="xsd:int"/>
+                        </xsd:sequence>
+                    </xsd:complexType>
+                </xsd:element>
+            </xsd:schema>
+            """.stripIndent()
+
+        baseDir.resolve("item.xjb").toFile().text = """\
+            <jaxb:bindings version="2.1" xmlns:jaxb="http://java.sun.com/xml/ns/jaxb"
+                    xmlns:xsd="http://www.w3.org/2001/XMLSchema" xmlns:stax="${StaxMarshallerPlugin.NAMESPACE}"
+                    jaxb:extensionBindingPrefixes="stax">
+                <jaxb:bindings schemaLocation="item.xsd" node="/xsd:schema">
+                    <jaxb:bindings node="xsd:element[@name='item']">
+                        <stax:marshaller/>
+                    </jaxb:bindings>
+                </jaxb:bindings>
+            </jaxb:bindings>
+            """.stripIndent()
+    }
+
+    def "generates_marshallers_for_javax_types"() {
+        when:
+        int result = Driver.run(["-d", outputDir.path, "-p", "com.example", "-extension",
+            "-" + StaxMarshallerPlugin.OPTION_NAME, "-b", baseDir.resolve("item.xjb").toString(),
+            baseDir.resolve("item.xsd").toString()] as String[], System.out, System.out)
+
+        then:
+        result == 0
+        String marshaller = new File(outputDir, "com/example/ItemStaxMarshaller.java").text
+        marshaller.contains("javax.xml.bind.DatatypeConverter.parseInt(")
+        !marshaller.contains("jakarta.")
+        String registry = new File(outputDir, "com/example/StaxMarshallers.java").text
+        registry.contains("Object invoke(Dispatch<Source> dispatch, Object request)")
+        registry.contains("import javax.xml.ws.Dispatch;")
+    }
+
+    def "invokes_dispatch_with_marshallers"() {
+        when:
+        Driver.run(["-d", outputDir.path, "-p", "com.example", "-extension", "-" + StaxMarshallerPlugin.OPTION_NAME,
+            "-b", baseDir.resolve("item.xjb").toString(), baseDir.resolve("item.xsd").toString()] as String[],
+            System.out, System.out)
+        File classesDir = folder.newFolder("classes")
+        List<String> classpath = [DatatypeConverter, Dispatch].collect { it.protectionDomain.codeSource?.location }
+                .findAll().collect { new File(it.toURI()).path }
+        List<String> arguments = ["-d", classesDir.path]
+
+        if (!classpath.empty) {
+            arguments.addAll(["-cp", classpath.join(File.pathSeparator)])
+        }
+
+        outputDir.eachFileRecurse(FileType.FILES) { arguments.add(it.path) }
+        int result = ToolProvider.systemJavaCompiler.run(null, null, null, arguments as String[])
+
+        URLClassLoader loader = new URLClassLoader([classesDir.toURI().toURL()] as URL[], getClass().classLoader)
+        Object dispatch = Proxy.newProxyInstance(loader, [Dispatch] as Class[], { proxy, method, args ->
+            args[0]
+        } as InvocationHandler)
+        Object item = loader.loadClass("com.example.Item").newInstance()
+        item.id = "a"
+        item.count = 2
+        Object response = loader.loadClass("com.example.StaxMarshallers").invoke(dispatch, item)
+
+        then:
+        result == 0
+        response.getClass().name == "com.example.Item"
+        response.id == "a"
+        response.count == 2
+    }
+
+    def "converts_with_the_datatype_converter_of_the_api"() {
+        expect:
+        StaxMarshallerPlugin.createConversions(api)["int"][0] == "${api}.xml.bind.DatatypeConverter.printInt(%s)"
+
+        where:
+        api << ["javax", "jakarta"]
+    }
+
+}
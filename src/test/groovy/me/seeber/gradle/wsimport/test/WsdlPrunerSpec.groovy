@@ -0,0 +1,224 @@
+/*
+ * BSD 2-Clause License
+ *
+ * Copyright (c) 2016-2017, Jochen Seeber
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package me.seeber.gradle.wsimport.test
+
+import java.nio.file.Path
+
+import org.junit.Rule
+import org.junit.rules.TemporaryFolder
+
+import com.sun.tools.xjc.Driver
+
+import me.seeber.gradle.wsimport.SchemaBindings
+import me.seeber.gradle.wsimport.WsdlPruner
+import spock.lang.Specification
+
+class WsdlPrunerSpec extends Specification {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder()
+
+    Path baseDir
+
+    def setup() {
+        baseDir = folder.newFolder("wsdl").toPath()
+
+        baseDir.resolve("service.wsdl").toFile().text = """\
+            <definitions xmlns="http://schemas.xmlsoap.org/wsdl/" xmlns:soap="http://schemas.xmlsoap.org/wsdl/soap/"
+                    xmlns:xsd="http://www.w3.org/2001/XMLSchema" xmlns:tns="urn:service" xmlns:t="urn:types"
+                    targetNamespace="urn:service">
+                <types>
+                    <xsd:schema targetNamespace="urn:service">
+                        <xsd:import namespace="urn:types" schemaLocation="types.xsd"/>
+                    </xsd:schema>
+                </types>
+                <message name="getRequest"><part name="body" element="t:get"/></message>
+                <message name="getResponse"><part name="body" element="t:getResult"/></message>
+                <message name="putRequest"><part name="body" element="t:put"/></message>
+                <message name="statusRequest"><part name="body" element="t:status"/></message>
+                <portType name="Store">
+                    <operation name="get">
+                        <input message="tns:getRequest"/>
+                        <output message="tns:getResponse"/>
+                    </operation>
+                    <operation name="put"><input message="tns:putRequest"/></operation>
+                </portType>
+                <portType name="Admin">
+                    <operation name="status"><input message="tns:statusRequest"/></operation>
+                </portType>
+                <binding name="StoreBinding" type="tns:Store">
+                    <soap:binding transport="http://schemas.xmlsoap.org/soap/http"/>
+                    <operation name="get"><input><soap:body use="literal"/></input></operation>
+                    <operation name="put"><input><soap:body use="literal"/></input></operation>
+                </binding>
+                <binding name="AdminBinding" type="tns:Admin">
+                    <soap:binding transport="http://schemas.xmlsoap.org/soap/http"/>
+                    <operation name="status"><input><soap:body use="literal"/></input></operation>
+                </binding>
+                <service name="StoreService">
+                    <port name="StorePort" binding="tns:StoreBinding"/>
+                    <port name="AdminPort" binding="tns:AdminBinding"/>
+                </service>
+            </definitions>
+            """.stripIndent()
+
+        baseDir.resolve("types.xsd").toFile().text = """\
+            <xsd:schema xmlns:xsd="http://www.w3.org/2001/XMLSchema" xmlns:t="urn:types"
+                    targetNamespace="urn:types">
+                <xsd:include schemaLocation="common.xsd"/>
+                <xsd:element name="get" type="t:Key"/>
+                <xsd:element name="getResult" type="t:Item"/>
+                <xsd:element name="put" type="t:Item"/>
+                <xsd:element name="status" type="xsd:string"/>
+                <xsd:complexType name="Item">
+                    <xsd:complexContent>
+                        <xsd:extension base="t:Key">
+                            <xsd:sequence><xsd:element name="value" type="xsd:string"/></xsd:sequence>
+                        </xsd:extension>
+                    </xsd:complexContent>
+                </xsd:complexType>
+            </xsd:schema>
+            """.stripIndent()
+
+        baseDir.resolve("common.xsd").toFile().text = """\
+            <xsd:schema xmlns:xsd="http://www.w3.org/2001/XMLSchema" xmlns:t="urn:types"
+                    targetNamespace="urn:types">
+                <xsd:complexType name="Key">
+                    <xsd:sequence><xsd:element name="id" type="xsd:string"/></xsd:sequence>
+                </xsd:complexType>
+                <xsd:complexType name="Unused"><xsd:sequence/></xsd:complexType>
+            </xsd:schema>
+            """.stripIndent()
+    }
+
+    def "prunes_port_type"() {
+        when:
+        Path targetDir = prune("Store")
+
+        then:
+        String wsdl = targetDir.resolve("service.wsdl").toFile().text
+        wsdl.contains('portType name="Store"')
+        !wsdl.contains('portType name="Admin"')
+        !wsdl.contains('binding name="AdminBinding"')
+        !wsdl.contains('port name="AdminPort"')
+        !wsdl.contains('message name="statusRequest"')
+        String types = targetDir.resolve("imports/1-types.xsd").toFile().text
+        types.contains('element name="get"')
+        types.contains('element name="put"')
+        !types.contains('element name="status"')
+    }
+
+    def "prunes_operation"() {
+        when:
+        Path targetDir = prune("Store/get")
+
+        then:
+        String wsdl = targetDir.resolve("service.wsdl").toFile().text
+        wsdl.contains('operation name="get"')
+        !wsdl.contains('operation name="put"')
+        !wsdl.contains('message name="putRequest"')
+        String types = targetDir.resolve("imports/1-types.xsd").toFile().text
+        types.contains('element name="get"')
+        types.contains('element name="getResult"')
+        types.contains('complexType name="Item"')
+        !types.contains('element name="put"')
+        String common = targetDir.resolve("imports/2-common.xsd").toFile().text
+        common.contains('complexType name="Key"')
+        !common.contains('complexType name="Unused"')
+    }
+
+    def "relocates_imports_to_pruned_copies"() {
+        when:
+        Path targetDir = prune("Admin")
+
+        then:
+        String wsdl = targetDir.resolve("service.wsdl").toFile().text
+        wsdl.contains("schemaLocation=\"${targetDir.resolve("imports/1-types.xsd").toAbsolutePath().toUri()}\"")
+        String types = targetDir.resolve("imports/1-types.xsd").toFile().text
+        types.contains("schemaLocation=\"${targetDir.resolve("imports/2-common.xsd").toAbsolutePath().toUri()}\"")
+        types.contains('element name="status"')
+        !types.contains('complexType name="Item"')
+    }
+
+    def "relocates_bindings_to_pruned_copies"() {
+        when:
+        File bindingFile = baseDir.resolve("bindings.xml").toFile()
+        bindingFile.text = """\
+            <jaxws:bindings xmlns:jaxws="http://java.sun.com/xml/ns/jaxws" xmlns:jaxb="http://java.sun.com/xml/ns/jaxb"
+                    wsdlLocation="service.wsdl">
+                <jaxws:bindings node="wsdl:definitions/wsdl:types/xsd:schema[@targetNamespace='urn:service']">
+                    <jaxb:bindings schemaLocation="service.wsdl#types?schema1"/>
+                </jaxws:bindings>
+                <jaxb:bindings schemaLocation="types.xsd"/>
+                <jaxb:bindings schemaLocation="http://example.com/other.xsd"/>
+            </jaxws:bindings>
+            """.stripIndent()
+        WsdlPruner pruner = new WsdlPruner(["Store"], [])
+        Path targetDir = pruner.prune(baseDir, baseDir.fileSystem.getPath("service.wsdl"),
+                folder.newFolder("pruned").toPath())
+        List<File> files = SchemaBindings.relocate([bindingFile], pruner.copies, folder.newFolder("bindings").toPath())
+
+        then:
+        files.size() == 1
+        String content = files[0].text
+        URI wsdl = targetDir.resolve("service.wsdl").toAbsolutePath().toUri()
+        content.contains("wsdlLocation=\"${wsdl}\"")
+        content.contains("schemaLocation=\"${wsdl}#types?schema1\"")
+        content.contains("schemaLocation=\"${targetDir.resolve("imports/1-types.xsd").toAbsolutePath().toUri()}\"")
+        content.contains('schemaLocation="http://example.com/other.xsd"')
+    }
+
+    def "applies_bindings_to_pruned_schemas"() {
+        when:
+        File bindingFile = baseDir.resolve("bindings.xjb").toFile()
+        bindingFile.text = """\
+            <jaxb:bindings xmlns:jaxb="http://java.sun.com/xml/ns/jaxb" version="2.1">
+                <jaxb:bindings schemaLocation="types.xsd">
+                    <jaxb:schemaBindings><jaxb:package name="com.example.store"/></jaxb:schemaBindings>
+                </jaxb:bindings>
+            </jaxb:bindings>
+            """.stripIndent()
+        WsdlPruner pruner = new WsdlPruner(["Store"], [])
+        Path targetDir = pruner.prune(baseDir, baseDir.fileSystem.getPath("service.wsdl"),
+                folder.newFolder("pruned").toPath())
+        List<File> files = SchemaBindings.relocate([bindingFile], pruner.copies, folder.newFolder("bindings").toPath())
+        File outputDir = folder.newFolder("generated")
+        List<String> arguments = ["-d", outputDir.path, "-quiet", "-b", files[0].path,
+            targetDir.resolve("imports/1-types.xsd").toString()]
+
+        then:
+        Driver.run(arguments as String[], System.out, System.out) == 0
+        new File(outputDir, "com/example/store/Item.java").isFile()
+    }
+
+    protected Path prune(String include) {
+        new WsdlPruner([include], []).prune(baseDir, baseDir.fileSystem.getPath("service.wsdl"),
+                folder.newFolder("pruned").toPath())
+    }
+
+}
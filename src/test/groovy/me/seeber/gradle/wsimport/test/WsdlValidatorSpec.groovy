@@ -0,0 +1,127 @@
+/*
+ * BSD 2-Clause License
+ *
+ * Copyright (c) 2016-2017, Jochen Seeber
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package me.seeber.gradle.wsimport.test
+
+import java.nio.file.Path
+
+import org.junit.Rule
+import org.junit.rules.TemporaryFolder
+
+import me.seeber.gradle.wsimport.WsdlScanner
+import me.seeber.gradle.wsimport.WsdlValidator
+import spock.lang.Specification
+
+class WsdlValidatorSpec extends Specification {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder()
+
+    Path baseDir
+
+    def setup() {
+        baseDir = folder.newFolder("wsdl").toPath()
+
+        baseDir.resolve("types.wsdl").toFile().text = """\
+            <definitions xmlns="http://schemas.xmlsoap.org/wsdl/" xmlns:xsd="http://www.w3.org/2001/XMLSchema"
+                    targetNamespace="urn:types">
+                <types>
+                    <xsd:schema targetNamespace="urn:imports">
+                        <xsd:import namespace="urn:types" schemaLocation="types.xsd"/>
+                    </xsd:schema>
+                </types>
+            </definitions>
+            """.stripIndent()
+
+        baseDir.resolve("types.xsd").toFile().text = """\
+            <xsd:schema xmlns:xsd="http://www.w3.org/2001/XMLSchema" targetNamespace="urn:types">
+                <xsd:complexType name="Item">
+                    <xsd:sequence><xsd:element name="id" type="xsd:string"/></xsd:sequence>
+                </xsd:complexType>
+            </xsd:schema>
+            """.stripIndent()
+    }
+
+    def "resolves_imports_without_location_to_imported_schema_files"() {
+        when:
+        Path wsdlFile = wsdl("""\
+            <xsd:schema targetNamespace="urn:service" xmlns:t="urn:types">
+                <xsd:import namespace="urn:types"/>
+                <xsd:element name="get" type="t:Item"/>
+            </xsd:schema>
+            """)
+
+        then:
+        new WsdlValidator().validate(new WsdlScanner().scan(wsdlFile)) == []
+    }
+
+    def "reports_unresolved_types"() {
+        when:
+        Path wsdlFile = wsdl("""\
+            <xsd:schema targetNamespace="urn:service" xmlns:t="urn:types">
+                <xsd:import namespace="urn:types"/>
+                <xsd:element name="get" type="t:Missing"/>
+            </xsd:schema>
+            """)
+
+        then:
+        List<String> errors = new WsdlValidator().validate(new WsdlScanner().scan(wsdlFile))
+        errors.size() == 1
+        errors[0].contains("Missing")
+    }
+
+    def "rejects_document_type_declarations"() {
+        when:
+        Path wsdlFile = baseDir.resolve("entity.wsdl")
+        wsdlFile.toFile().text = """\
+            <!DOCTYPE definitions [<!ENTITY secret SYSTEM "${folder.newFile("secret.txt").toURI()}">]>
+            <definitions xmlns="http://schemas.xmlsoap.org/wsdl/" targetNamespace="urn:service"/>
+            """.stripIndent()
+
+        then:
+        List<String> errors = new WsdlValidator().validate(new WsdlScanner().scan(wsdlFile))
+        errors.size() == 1
+        errors[0].contains("DOCTYPE")
+    }
+
+    protected Path wsdl(String schema) {
+        Path wsdlFile = baseDir.resolve("service.wsdl")
+
+        wsdlFile.toFile().text = """\
+            <definitions xmlns="http://schemas.xmlsoap.org/wsdl/" xmlns:xsd="http://www.w3.org/2001/XMLSchema"
+                    targetNamespace="urn:service">
+                <import namespace="urn:types" location="types.wsdl"/>
+                <types>
+            ${schema.stripIndent()}
+                </types>
+            </definitions>
+            """.stripIndent()
+
+        return wsdlFile
+    }
+
+}
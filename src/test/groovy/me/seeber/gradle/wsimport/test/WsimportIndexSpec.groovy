@@ -0,0 +1,196 @@
+/*
+ * BSD 2-Clause License
+ *
+ * Copyright (c) 2016-2017, Jochen Seeber
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package me.seeber.gradle.wsimport.test
+
+import java.nio.file.Path
+
+import org.junit.Rule
+import org.junit.rules.TemporaryFolder
+
+import me.seeber.gradle.wsimport.WsimportIndex
+import spock.lang.Specification
+
+class WsimportIndexSpec extends Specification {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder()
+
+    Path sourceDir
+
+    Path outputDir
+
+    File toolJar
+
+    def setup() {
+        sourceDir = folder.newFolder("wsdl").toPath()
+        outputDir = folder.newFolder("generated").toPath()
+        toolJar = folder.newFile("jaxws-tools.jar")
+        toolJar.text = "tools"
+
+        sourceDir.resolve("types.xsd").toFile().text = '<schema xmlns="http://www.w3.org/2001/XMLSchema"/>'
+        sourceDir.resolve("a.wsdl").toFile().text = '<definitions name="a"/>'
+        sourceDir.resolve("b.wsdl").toFile().text = '<definitions name="b"/>'
+
+        outputDir.resolve("ObjectFactory.java").toFile().text = "class ObjectFactory {}"
+        outputDir.resolve("A.java").toFile().text = "class A {}\n"
+        outputDir.resolve("B.java").toFile().text = "class B {}"
+    }
+
+    def "saves_and_loads_index"() {
+        when:
+        WsimportIndex index = new WsimportIndex()
+        WsimportIndex.Entry entry = createEntry("a.wsdl", "A.java", states())
+        entry.contentKey = "key"
+        entry.duration = 42L
+        entry.ports = 2
+        entry.operations = 5
+        index.putEntry("a.wsdl", entry)
+
+        File indexFile = new File(folder.root, "index/index.txt")
+        index.save(indexFile)
+        WsimportIndex loaded = WsimportIndex.load(indexFile)
+        WsimportIndex.Entry loadedEntry = loaded.getEntry("a.wsdl")
+
+        then:
+        loaded.wsdls == ["a.wsdl"] as Set
+        loaded.outputs == ["A.java", "ObjectFactory.java"] as Set
+        loadedEntry.fingerprint == "options"
+        loadedEntry.contentKey == "key"
+        loadedEntry.duration == 42L
+        loadedEntry.ports == 2
+        loadedEntry.operations == 5
+        loadedEntry.getOutputLines("A.java") == 1L
+        loadedEntry.getOutputState("A.java").size == entry.getOutputState("A.java").size
+        loadedEntry.inputs == entry.inputs
+        loadedEntry.isUpToDate("options", directInputs("a.wsdl"), outputDir, states())
+    }
+
+    def "ignores_index_with_unknown_format"() {
+        when:
+        File indexFile = folder.newFile("index.txt")
+        indexFile.text = "wsimport-index\t1\nwsdl\ta.wsdl\toptions\n"
+
+        then:
+        WsimportIndex.load(indexFile).wsdls.empty
+    }
+
+    def "keeps_wsdls_sharing_a_schema_up_to_date_if_shared_output_is_rewritten_unchanged"() {
+        when:
+        WsimportIndex.Entry a = createEntry("a.wsdl", "A.java", states())
+        WsimportIndex.Entry b = createEntry("b.wsdl", "B.java", states())
+        File objectFactory = outputDir.resolve("ObjectFactory.java").toFile()
+        objectFactory.text = "class ObjectFactory {}"
+        objectFactory.lastModified = objectFactory.lastModified() + 5000L
+
+        then:
+        a.isUpToDate("options", directInputs("a.wsdl"), outputDir, states())
+        b.isUpToDate("options", directInputs("b.wsdl"), outputDir, states())
+    }
+
+    def "detects_changed_shared_output"() {
+        when:
+        WsimportIndex.Entry a = createEntry("a.wsdl", "A.java", states())
+        File objectFactory = outputDir.resolve("ObjectFactory.java").toFile()
+        objectFactory.text = "class ObjectFactory { int x; }"
+
+        then:
+        !a.isUpToDate("options", directInputs("a.wsdl"), outputDir, states())
+    }
+
+    def "detects_changed_imported_schema"() {
+        when:
+        WsimportIndex.Entry a = createEntry("a.wsdl", "A.java", states())
+        sourceDir.resolve("types.xsd").toFile().text = '<schema xmlns="http://www.w3.org/2001/XMLSchema" a="b"/>'
+
+        then:
+        !a.isUpToDate("options", directInputs("a.wsdl"), outputDir, states())
+    }
+
+    def "detects_changed_options"() {
+        when:
+        WsimportIndex.Entry a = createEntry("a.wsdl", "A.java", states())
+
+        then:
+        !a.isUpToDate("other options", directInputs("a.wsdl"), outputDir, states())
+    }
+
+    def "identifies_tool_class_path_by_size_and_modification_time"() {
+        when:
+        WsimportIndex.FileStates fileStates = states()
+        WsimportIndex.Entry a = createEntry("a.wsdl", "A.java", fileStates)
+        toolJar.lastModified = toolJar.lastModified() + 5000L
+
+        then:
+        fileStates.get(toolJar.toPath(), true).hash == null
+        !a.isUpToDate("options", directInputs("a.wsdl"), outputDir, states())
+    }
+
+    def "collects_outputs_of_all_wsdl_files"() {
+        when:
+        WsimportIndex index = new WsimportIndex()
+        WsimportIndex.FileStates fileStates = states()
+        index.putEntry("a.wsdl", createEntry("a.wsdl", "A.java", fileStates))
+        index.putEntry("b.wsdl", createEntry("b.wsdl", "B.java", fileStates))
+        Set<String> outputs = index.outputs
+        index.retainEntries(["b.wsdl"])
+
+        then:
+        outputs == ["A.java", "B.java", "ObjectFactory.java"] as Set
+        index.outputs == ["B.java", "ObjectFactory.java"] as Set
+    }
+
+    def "hashes_shared_inputs_once_per_run"() {
+        when:
+        WsimportIndex.FileStates fileStates = states()
+        Path schema = sourceDir.resolve("types.xsd")
+        WsimportIndex.FileState first = fileStates.get(schema, true)
+        schema.toFile().text = "changed"
+
+        then:
+        first.hash != null
+        fileStates.get(schema, true).is(first)
+    }
+
+    protected WsimportIndex.FileStates states() {
+        new WsimportIndex.FileStates([toolJar.toPath()])
+    }
+
+    protected List<Path> directInputs(String wsdl) {
+        [sourceDir.resolve(wsdl), toolJar.toPath()]
+    }
+
+    protected WsimportIndex.Entry createEntry(String wsdl, String output, WsimportIndex.FileStates states) {
+        WsimportIndex.Entry entry = new WsimportIndex.Entry("options")
+        directInputs(wsdl).each { entry.addInput(it, states, false) }
+        entry.addInput(sourceDir.resolve("types.xsd"), states, true)
+        entry.addOutput(outputDir, outputDir.resolve("ObjectFactory.java"))
+        entry.addOutput(outputDir, outputDir.resolve(output))
+        entry
+    }
+
+}
@@ -28,9 +28,18 @@
 package me.seeber.gradle.wsimport.test
 
 import org.gradle.api.Task
+import org.gradle.api.artifacts.Configuration
+import org.gradle.api.tasks.bundling.Jar
+import org.gradle.api.tasks.compile.JavaCompile
 
+import me.seeber.gradle.wsimport.CompileUnitsTask
+import me.seeber.gradle.wsimport.ValidateWsdlTask
 import me.seeber.gradle.wsimport.WsdlSourceSet
+import me.seeber.gradle.wsimport.WsimportBenchmarkTask
+import me.seeber.gradle.wsimport.WsimportComponent
+import me.seeber.gradle.wsimport.WsimportPlanTask
 import me.seeber.gradle.wsimport.WsimportPlugin
+import me.seeber.gradle.wsimport.WsimportStatisticsTask
 import me.seeber.gradle.wsimport.WsimportTask
 
 public class WsimportPluginSpec extends BaseSpecification {
@@ -54,6 +63,16 @@ public class WsimportPluginSpec extends BaseSpecification {
         task instanceof WsimportTask
     }
 
+    def "creates_wsimport_task_without_source_directory"() {
+        when:
+        project { apply plugin: WsimportPlugin }
+
+        then:
+        project.tasks.findByName("wsimportWsdl") instanceof WsimportTask
+        project.tasks.findByName("validateWsdl") instanceof ValidateWsdlTask
+        !new File(project.projectDir, "src/main/wsdl").exists()
+    }
+
     def "creates_wsimport_task_for_wsdl_source_set"() {
         when:
         new File(project.projectDir, "src/main/custom").mkdirs()
@@ -74,4 +93,245 @@ public class WsimportPluginSpec extends BaseSpecification {
         Task task = project.tasks.findByName("wsimportCustomWsdl")
         task instanceof WsimportTask
     }
+
+    def "creates_validation_task_before_wsimport_task"() {
+        when:
+        new File(project.projectDir, "src/main/wsdl").mkdirs()
+
+        project { apply plugin: WsimportPlugin }
+
+        then:
+        Task task = project.tasks.findByName("validateWsdl")
+        task instanceof ValidateWsdlTask
+        project.tasks.findByName("wsimportWsdl").dependsOn.contains("validateWsdl")
+    }
+
+    def "does_not_validate_before_wsimport_if_disabled"() {
+        when:
+        new File(project.projectDir, "src/main/wsdl").mkdirs()
+
+        project {
+            apply plugin: WsimportPlugin
+
+            model {
+                components {
+                    wsdlMain { validate = false }
+                }
+            }
+        }
+
+        then:
+        project.tasks.findByName("validateWsdl") instanceof ValidateWsdlTask
+        !project.tasks.findByName("wsimportWsdl").dependsOn.contains("validateWsdl")
+    }
+
+    def "creates_plan_task"() {
+        when:
+        project { apply plugin: WsimportPlugin }
+
+        then:
+        project.tasks.findByName("wsimportPlan") instanceof WsimportPlanTask
+    }
+
+    def "creates_statistics_task"() {
+        when:
+        project { apply plugin: WsimportPlugin }
+
+        then:
+        project.tasks.findByName("wsimportStatistics") instanceof WsimportStatisticsTask
+        WsimportTask task = project.tasks.findByName("wsimportWsdl") as WsimportTask
+        task.statisticsFile == new File(project.buildDir, "generated/wsimport/main/wsdl-statistics.json")
+        Configuration statistics = project.configurations.getByName("wsimportStatistics")
+        statistics.artifacts*.file.contains(task.statisticsFile)
+        WsimportStatisticsTask statisticsTask = project.tasks.findByName("wsimportStatistics") as WsimportStatisticsTask
+        statisticsTask.taskStatisticsFiles == project.configurations.getByName("wsimportStatisticsAggregate")
+        project.configurations.getByName("wsimportStatisticsAggregate").dependencies*.targetConfiguration == [
+            "wsimportStatistics"]
+    }
+
+    def "configures_operation_filter_of_wsimport_task"() {
+        when:
+        new File(project.projectDir, "src/main/wsdl").mkdirs()
+
+        project {
+            apply plugin: WsimportPlugin
+
+            model {
+                components {
+                    wsdlMain {
+                        sources {
+                            wsdl { operations.includes = ["WeatherSoap/*"] }
+                        }
+                    }
+                }
+            }
+        }
+
+        then:
+        WsimportTask task = project.tasks.findByName("wsimportWsdl") as WsimportTask
+        task.operationIncludes == ["WeatherSoap/*"]
+        task.operationExcludes == []
+    }
+
+    def "configures_async_mapping_of_wsimport_task"() {
+        when:
+        new File(project.projectDir, "src/main/wsdl").mkdirs()
+
+        project {
+            apply plugin: WsimportPlugin
+
+            model {
+                components {
+                    wsdlMain {
+                        sources {
+                            wsdl {
+                                async.portTypes = ["WeatherSoap"]
+                                async.completableFutures = false
+                            }
+                        }
+                    }
+                }
+            }
+        }
+
+        then:
+        WsimportTask task = project.tasks.findByName("wsimportWsdl") as WsimportTask
+        task.asyncPortTypes == ["WeatherSoap"]
+        !task.asyncAdapters
+    }
+
+    def "configures_streaming_attachments_of_wsimport_task"() {
+        when:
+        new File(project.projectDir, "src/main/wsdl").mkdirs()
+
+        project {
+            apply plugin: WsimportPlugin
+
+            model {
+                components {
+                    wsdlMain {
+                        sources {
+                            wsdl {
+                                attachments.streaming = true
+                                attachments.thresholds = [DocumentPort: 4096]
+                            }
+                        }
+                    }
+                }
+            }
+        }
+
+        then:
+        WsimportTask task = project.tasks.findByName("wsimportWsdl") as WsimportTask
+        task.streamingAttachments
+        task.attachmentThreshold == 1024
+        task.attachmentThresholds == [DocumentPort: 4096]
+    }
+
+    def "configures_metrics_of_wsimport_task"() {
+        when:
+        project {
+            apply plugin: WsimportPlugin
+
+            tasks.withType(WsimportTask) {
+                metrics = true
+            }
+        }
+
+        then:
+        WsimportTask task = project.tasks.findByName("wsimportWsdl") as WsimportTask
+        task.metrics
+        task.metricsPackage == "me.seeber.wsimport.metrics"
+    }
+
+    def "creates_benchmark_task"() {
+        when:
+        project {
+            apply plugin: WsimportPlugin
+        }
+
+        then:
+        WsimportBenchmarkTask task = project.tasks.findByName("wsimportWsdlBenchmarks") as WsimportBenchmarkTask
+        task.group == "generated"
+        task.sourceDir == new File(project.buildDir, "generated/wsimport/main/wsdl")
+        task.destinationDir == new File(project.buildDir, "generated/wsimport-benchmarks/main/wsdl")
+        task.dependsOn.contains("wsimportWsdl")
+    }
+
+    def "creates_contract_library_tasks"() {
+        when:
+        new File(project.projectDir, "src/contract/wsdl").mkdirs()
+
+        project {
+            apply plugin: WsimportPlugin
+
+            model {
+                components {
+                    wsdlContract(WsimportComponent) {
+                        contractLibrary = true
+                        sources { wsdl(WsdlSourceSet) }
+                    }
+                }
+            }
+        }
+
+        then:
+        JavaCompile compileTask = project.tasks.findByName("compileWsdlContract") as JavaCompile
+        compileTask.classpath == project.configurations.getByName("jaxwsApi")
+        compileTask.destinationDir == new File(project.buildDir, "classes/wsimport-contract/contract")
+        Jar jarTask = project.tasks.findByName("jarWsdlContract") as Jar
+        jarTask.manifest.attributes.containsKey("Wsimport-Contract-Fingerprint")
+        Configuration contract = project.configurations.getByName("wsimportContract")
+        contract.extendsFrom.contains(project.configurations.getByName("jaxwsApi"))
+        contract.artifacts.size() == 1
+        contract.artifacts[0].file == new File(project.buildDir, "libs/${project.name}-wsdl-contract.jar")
+    }
+
+    def "creates_compile_units_task"() {
+        when:
+        new File(project.projectDir, "src/main/wsdl").mkdirs()
+
+        project {
+            apply plugin: WsimportPlugin
+
+            model {
+                components {
+                    wsdlMain { compileUnits = true }
+                }
+            }
+        }
+
+        then:
+        CompileUnitsTask task = project.tasks.findByName("compileWsdlUnits") as CompileUnitsTask
+        task.destinationDir == new File(project.buildDir, "classes/wsimport/main")
+        project.tasks.findByName("compileJava").taskDependencies.getDependencies(null).contains(task)
+        project.sourceSets.main.output.dirs.contains(task.destinationDir)
+    }
+
+    def "separates_contract_library_classes_from_compile_units"() {
+        when:
+        new File(project.projectDir, "src/main/wsdl").mkdirs()
+
+        project {
+            apply plugin: WsimportPlugin
+
+            model {
+                components {
+                    wsdlMain {
+                        compileUnits = true
+                        contractLibrary = true
+                    }
+                }
+            }
+        }
+
+        then:
+        CompileUnitsTask unitsTask = project.tasks.findByName("compileWsdlUnits") as CompileUnitsTask
+        CompileUnitsTask contractTask = project.tasks.findByName("compileWsdlMain") as CompileUnitsTask
+        unitsTask.destinationDir == new File(project.buildDir, "classes/wsimport/main")
+        contractTask.destinationDir == new File(project.buildDir, "classes/wsimport-contract/main")
+        Jar jarTask = project.tasks.findByName("jarWsdlMain") as Jar
+        jarTask.taskDependencies.getDependencies(null).contains(contractTask)
+        !jarTask.taskDependencies.getDependencies(null).contains(unitsTask)
+    }
 }
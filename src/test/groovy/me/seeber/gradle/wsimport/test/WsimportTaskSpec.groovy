@@ -0,0 +1,107 @@
+/*
+ * BSD 2-Clause License
+ *
+ * Copyright (c) 2016-2017, Jochen Seeber
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package me.seeber.gradle.wsimport.test
+
+import java.nio.file.Path
+import java.nio.file.Paths
+
+import me.seeber.gradle.wsimport.WsimportIndex
+import me.seeber.gradle.wsimport.WsimportTask
+
+class WsimportTaskSpec extends BaseSpecification {
+
+    def "removes_stale_outputs_only"() {
+        when:
+        WsimportTask task = project.tasks.create("wsimportWsdl", WsimportTask)
+        Path destination = new File(project.buildDir, "generated").toPath()
+        task.destinationDir = destination.toFile()
+        write(destination.resolve("com/example/a/A.java"))
+        write(destination.resolve("com/example/a/Kept.java"))
+        write(destination.resolve("com/example/b/B.java"))
+        write(destination.resolve("com/example/b/Manual.java"))
+        write(destination.resolve("com/example/c/C.java"))
+        Path outside = write(destination.resolveSibling("Outside.java"))
+
+        task.removeStaleOutputs(["com/example/a/A.java", "com/example/a/Kept.java", "com/example/b/B.java",
+            "com/example/c/C.java", "../Outside.java"] as Set, ["com/example/a/Kept.java"] as Set)
+
+        then:
+        !destination.resolve("com/example/a/A.java").toFile().exists()
+        destination.resolve("com/example/a/Kept.java").toFile().exists()
+        !destination.resolve("com/example/b/B.java").toFile().exists()
+        destination.resolve("com/example/b/Manual.java").toFile().exists()
+        !destination.resolve("com/example/c").toFile().exists()
+        destination.resolve("com/example").toFile().exists()
+        outside.toFile().exists()
+    }
+
+    def "records_only_files_written_since_the_snapshot"() {
+        when:
+        WsimportTask task = project.tasks.create("wsimportWsdl", WsimportTask)
+        Path destination = new File(project.buildDir, "generated").toPath()
+        Path wsdlFile = destination.resolveSibling("service.wsdl")
+        write(destination.resolve("com/example/Previous.java"))
+        write(destination.resolve("com/example/Changed.java"))
+        wsdlFile.toFile().text = '<definitions xmlns="http://schemas.xmlsoap.org/wsdl/"/>'
+        Map<Path, Long> times = WsimportTask.getModificationTimes(destination)
+        write(destination.resolve("com/example/Added.java"))
+        destination.resolve("com/example/Changed.java").toFile().lastModified = times.values()[0] - 60000L
+        WsimportIndex.Entry entry = task.createIndexEntry("options", wsdlFile, [],
+                new WsimportIndex.FileStates([]), destination, times)
+        WsimportIndex.Entry nextEntry = task.createIndexEntry("options", wsdlFile, [],
+                new WsimportIndex.FileStates([]), destination, times)
+        WsimportIndex.Entry stagedEntry = task.createIndexEntry("options", wsdlFile, [],
+                new WsimportIndex.FileStates([]), destination, null)
+
+        then:
+        entry.outputs == ["com/example/Added.java", "com/example/Changed.java"].collect {
+            Paths.get(it).toString()
+        } as Set
+        nextEntry.outputs.empty
+        stagedEntry.outputs.size() == 3
+    }
+
+    def "keeps_the_java_home_out_of_the_generation_options"() {
+        when:
+        WsimportTask task = project.tasks.create("wsimportWsdl", WsimportTask)
+        task.javaHome = new File("/opt/jdk-a")
+        List<Object> options = task.generationOptions
+        String fingerprint = task.optionsFingerprint
+        task.javaHome = new File("/opt/jdk-b")
+
+        then:
+        task.generationOptions == options
+        task.optionsFingerprint != fingerprint
+    }
+
+    protected static Path write(Path file) {
+        file.parent.toFile().mkdirs()
+        file.toFile().text = "class ${file.fileName} {}"
+        file
+    }
+}